@@ -0,0 +1,74 @@
+package io.choerodon.manager.app.service.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import io.choerodon.core.domain.Page;
+import io.choerodon.manager.api.dto.swagger.ControllerDTO;
+import io.choerodon.manager.api.dto.swagger.FieldDTO;
+import io.choerodon.manager.benchmark.BenchmarkFixtures;
+import io.choerodon.manager.domain.manager.entity.SwaggerDocumentIndex;
+import io.choerodon.manager.domain.service.impl.ISerialFanOutStrategy;
+import io.choerodon.mybatis.pagehelper.domain.PageRequest;
+import io.choerodon.mybatis.pagehelper.domain.Sort;
+
+/**
+ * ApiServiceImpl中swagger json解析为controller列表的基准测试，与ApiServiceImpl同包，直接调用包内可见的方法
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ApiServiceBenchmark {
+
+    @Param({"1", "20"})
+    private int copies;
+
+    private ApiServiceImpl apiService;
+
+    private String json;
+
+    private Map<String, Map<String, FieldDTO>> definitions;
+
+    private PageRequest pageRequest;
+
+    private SwaggerDocumentIndex index;
+
+    @Setup
+    public void setup() throws Exception {
+        apiService = new ApiServiceImpl(null, null, null, null, new ISerialFanOutStrategy(), null);
+        json = BenchmarkFixtures.largeSwaggerJson(copies);
+        pageRequest = new PageRequest(0, 10, new Sort(new Sort.Order("name")));
+        index = apiService.buildDocumentIndex("manager", "benchmark", json);
+        definitions = apiService.processDefinitions(new ObjectMapper().readTree(json));
+    }
+
+    /**
+     * 文档变化后首次请求：解析json、构建索引并生成第一页controller
+     */
+    @Benchmark
+    public Page<ControllerDTO> processControllerPage() throws Exception {
+        SwaggerDocumentIndex built = apiService.buildDocumentIndex("manager", "benchmark", json);
+        return apiService.processControllerPage(built, pageRequest, Collections.emptyMap());
+    }
+
+    /**
+     * 文档未变化：复用已构建的索引，只生成第一页controller的接口详情
+     */
+    @Benchmark
+    public Page<ControllerDTO> processControllerPageWithIndex() {
+        return apiService.processControllerPage(index, pageRequest, Collections.emptyMap());
+    }
+
+    @Benchmark
+    public Map<String, String> convertMap2JsonWithComments() {
+        return apiService.convertMap2JsonWithComments(definitions);
+    }
+}
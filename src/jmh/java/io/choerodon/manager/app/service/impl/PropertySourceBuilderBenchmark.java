@@ -0,0 +1,46 @@
+package io.choerodon.manager.app.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.openjdk.jmh.annotations.*;
+
+import io.choerodon.manager.benchmark.BenchmarkFixtures;
+
+/**
+ * InstanceServiceImpl中合并实例各属性源的基准测试，与InstanceServiceImpl同包，直接调用包内可见的PropertySourceBuilder
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class PropertySourceBuilderBenchmark {
+
+    @Param({"50", "500"})
+    private int size;
+
+    private JsonNode env;
+
+    @Setup
+    public void setup() {
+        env = BenchmarkFixtures.envJson(size);
+    }
+
+    @Benchmark
+    public Map<String, InstanceServiceImpl.Data> merge() {
+        return InstanceServiceImpl.PropertySourceBuilder.newInstance(env)
+                .appendApply("defaultProperties")
+                .appendApply("applicationConfig: [classpath:/bootstrap.yml]")
+                .appendApply("applicationConfig: [classpath:/application.yml]")
+                .appendApply("configService:manager-service-default")
+                .coverApply("systemEnvironment")
+                .coverApply("systemProperties")
+                .appendApply("commandLineArgs")
+                .coverApplyServerPort()
+                .data();
+    }
+}
@@ -0,0 +1,114 @@
+package io.choerodon.manager.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * 基准测试使用的数据，以测试资源中的swagger.json为基础按倍数生成大文档
+ *
+ * @author agent
+ */
+public final class BenchmarkFixtures {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 读取测试资源中的swagger.json
+     */
+    public static String swaggerJson() throws IOException {
+        try (InputStream inputStream = BenchmarkFixtures.class.getClassLoader().getResourceAsStream("swagger.json")) {
+            if (inputStream == null) {
+                throw new IOException("swagger.json not found in test classpath");
+            }
+            return MAPPER.readTree(inputStream).toString();
+        }
+    }
+
+    /**
+     * 将swagger.json中的paths和definitions复制copies份，生成大文档
+     *
+     * @param copies 复制份数，1时返回原文档
+     */
+    public static String largeSwaggerJson(int copies) throws IOException {
+        ObjectNode root = (ObjectNode) MAPPER.readTree(swaggerJson());
+        ObjectNode paths = (ObjectNode) root.get("paths");
+        ObjectNode definitions = (ObjectNode) root.get("definitions");
+        List<Map.Entry<String, JsonNode>> originPaths = entries(paths);
+        List<Map.Entry<String, JsonNode>> originDefinitions = entries(definitions);
+        for (int i = 1; i < copies; i++) {
+            for (Map.Entry<String, JsonNode> path : originPaths) {
+                ObjectNode copy = path.getValue().deepCopy();
+                Iterator<JsonNode> methods = copy.elements();
+                while (methods.hasNext()) {
+                    JsonNode method = methods.next();
+                    if (method.has("operationId")) {
+                        ((ObjectNode) method).put("operationId", method.get("operationId").asText() + "Copy" + i);
+                    }
+                }
+                paths.set("/copy" + i + path.getKey(), copy);
+            }
+            for (Map.Entry<String, JsonNode> definition : originDefinitions) {
+                definitions.set(definition.getKey() + "Copy" + i, definition.getValue().deepCopy());
+            }
+        }
+        return root.toString();
+    }
+
+    /**
+     * 生成扁平的配置项，key形如group1.module2.key3
+     *
+     * @param size 配置项数量
+     */
+    public static Map<String, Object> configMap(int size) {
+        Map<String, Object> map = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String key = "group" + (i % 17) + ".module" + (i % 31) + ".key" + i;
+            if (i % 3 == 0) {
+                map.put(key, i);
+            } else if (i % 3 == 1) {
+                map.put(key, i % 2 == 0);
+            } else {
+                map.put(key, "jdbc:mysql://db-host-" + i + ":3306/manager_service?useUnicode=true");
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 生成形如/env端点返回的属性源json，用于PropertySourceBuilder合并
+     *
+     * @param size 每个属性源的属性数量
+     */
+    public static JsonNode envJson(int size) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.putArray("profiles").add("default");
+        ObjectNode ports = root.putObject("server.ports");
+        ports.put("local.server.port", 8963);
+        ports.put("local.management.port", 8964);
+        String[] sources = {"defaultProperties", "applicationConfig: [classpath:/bootstrap.yml]",
+                "applicationConfig: [classpath:/application.yml]", "configService:manager-service-default",
+                "systemEnvironment", "systemProperties", "commandLineArgs"};
+        for (int s = 0; s < sources.length; s++) {
+            ObjectNode source = root.putObject(sources[s]);
+            for (int i = 0; i < size; i++) {
+                String key = (s >= 4 && i % 2 == 0) ? "SPRING_MODULE" + i + "_KEY" : "spring.module" + i + ".key";
+                source.put(key, "value-" + s + "-" + i);
+            }
+        }
+        return root;
+    }
+
+    private static List<Map.Entry<String, JsonNode>> entries(ObjectNode node) {
+        List<Map.Entry<String, JsonNode>> entries = new ArrayList<>();
+        node.fields().forEachRemaining(entries::add);
+        return entries;
+    }
+}
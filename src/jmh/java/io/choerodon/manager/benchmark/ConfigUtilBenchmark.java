@@ -0,0 +1,60 @@
+package io.choerodon.manager.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.choerodon.manager.infra.common.utils.config.ConfigUtil;
+
+import static io.choerodon.manager.app.service.impl.ConfigServiceImpl.CONFIG_TYPE_PROPERTIES;
+import static io.choerodon.manager.app.service.impl.ConfigServiceImpl.CONFIG_TYPE_YAML;
+
+/**
+ * 配置文本与配置项map互相转换的基准测试
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ConfigUtilBenchmark {
+
+    @Param({"100", "2000"})
+    private int size;
+
+    private Map<String, Object> map;
+
+    private String yaml;
+
+    private String properties;
+
+    @Setup
+    public void setup() {
+        map = BenchmarkFixtures.configMap(size);
+        yaml = ConfigUtil.convertMapToText(map, CONFIG_TYPE_YAML);
+        properties = ConfigUtil.convertMapToText(map, CONFIG_TYPE_PROPERTIES);
+    }
+
+    @Benchmark
+    public String convertMapToYaml() {
+        return ConfigUtil.convertMapToText(map, CONFIG_TYPE_YAML);
+    }
+
+    @Benchmark
+    public String convertMapToProperties() {
+        return ConfigUtil.convertMapToText(map, CONFIG_TYPE_PROPERTIES);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertYamlToMap() throws Exception {
+        return ConfigUtil.convertTextToMap(CONFIG_TYPE_YAML, yaml);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertPropertiesToMap() throws Exception {
+        return ConfigUtil.convertTextToMap(CONFIG_TYPE_PROPERTIES, properties);
+    }
+}
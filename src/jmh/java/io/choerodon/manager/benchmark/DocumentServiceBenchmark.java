@@ -0,0 +1,45 @@
+package io.choerodon.manager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.*;
+
+import io.choerodon.manager.domain.service.impl.IDocumentServiceImpl;
+import io.choerodon.manager.domain.service.impl.ILocalSnapshotServiceImpl;
+import io.choerodon.manager.domain.service.impl.IOffHeapDocumentServiceImpl;
+import io.choerodon.manager.domain.service.impl.ISwaggerStorageServiceImpl;
+
+/**
+ * IDocumentServiceImpl中为swagger json添加安全定义的基准测试
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class DocumentServiceBenchmark {
+
+    @Param({"1", "20"})
+    private int copies;
+
+    private IDocumentServiceImpl documentService;
+
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        documentService = new IDocumentServiceImpl(null, null, null, null, new ISwaggerStorageServiceImpl(null, null),
+                new ILocalSnapshotServiceImpl(), new IOffHeapDocumentServiceImpl());
+        documentService.setClient("client");
+        documentService.setOauthUrl("http://localhost:8080/oauth/oauth/authorize");
+        json = BenchmarkFixtures.largeSwaggerJson(copies);
+    }
+
+    @Benchmark
+    public ObjectNode buildSwaggerJson() throws Exception {
+        return documentService.buildSwaggerJson(json);
+    }
+}
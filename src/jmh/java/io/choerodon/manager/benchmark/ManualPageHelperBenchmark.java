@@ -0,0 +1,69 @@
+package io.choerodon.manager.benchmark;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import io.choerodon.core.domain.Page;
+import io.choerodon.manager.api.dto.swagger.ControllerDTO;
+import io.choerodon.manager.infra.common.utils.ManualPageHelper;
+import io.choerodon.mybatis.pagehelper.domain.PageRequest;
+import io.choerodon.mybatis.pagehelper.domain.Sort;
+
+/**
+ * 内存分页过滤排序的基准测试
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ManualPageHelperBenchmark {
+
+    @Param({"100", "5000"})
+    private int size;
+
+    private List<ControllerDTO> controllers;
+
+    private PageRequest pageRequest;
+
+    private Map<String, Object> nameFilter;
+
+    private Map<String, Object> paramsFilter;
+
+    @Setup
+    public void setup() {
+        controllers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ControllerDTO controller = new ControllerDTO();
+            controller.setName("controller-" + (size - i));
+            controller.setDescription("description of controller " + i);
+            controllers.add(controller);
+        }
+        pageRequest = new PageRequest(0, 20, new Sort(new Sort.Order("name")));
+        nameFilter = new HashMap<>();
+        nameFilter.put("name", "controller-1");
+        paramsFilter = new HashMap<>();
+        paramsFilter.put("name", null);
+        paramsFilter.put("description", null);
+        paramsFilter.put("params", "controller 4");
+    }
+
+    @Benchmark
+    public Page<ControllerDTO> postPageWithoutFilter() {
+        return ManualPageHelper.postPage(controllers, pageRequest, Collections.emptyMap());
+    }
+
+    @Benchmark
+    public Page<ControllerDTO> postPageWithFilter() {
+        return ManualPageHelper.postPage(controllers, pageRequest, nameFilter);
+    }
+
+    @Benchmark
+    public Page<ControllerDTO> postPageWithParams() {
+        return ManualPageHelper.postPage(controllers, pageRequest, paramsFilter);
+    }
+}
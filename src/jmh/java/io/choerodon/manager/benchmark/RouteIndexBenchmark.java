@@ -0,0 +1,173 @@
+package io.choerodon.manager.benchmark;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.AntPathMatcher;
+
+import io.choerodon.core.domain.Page;
+import io.choerodon.manager.domain.manager.entity.RouteE;
+import io.choerodon.manager.domain.manager.entity.RouteIndex;
+import io.choerodon.manager.infra.common.utils.ManualPageHelper;
+import io.choerodon.mybatis.pagehelper.domain.PageRequest;
+
+/**
+ * 路由索引与原有查询方式的基准测试
+ * 原有方式在h2内存库（MySQL模式）的mgmt_route表上执行：
+ * 分页过滤为RouteMapper.selectRoutes的sql加上PageHelper的count和limit，
+ * 按服务名查找和按url匹配为查询全部路由后逐一比较
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class RouteIndexBenchmark {
+
+    private static final String SELECT_ROUTES = "select * FROM mgmt_route WHERE 1 = 1"
+            + " AND (name LIKE concat(concat('%',?),'%') OR path LIKE concat(concat('%',?),'%')"
+            + " OR service_id LIKE concat(concat('%',?),'%'))";
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    @Param({"5000"})
+    private int size;
+
+    private Connection connection;
+
+    private RouteIndex index;
+
+    private PageRequest pageRequest;
+
+    private String url;
+
+    private String serviceId;
+
+    private String params;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:route-benchmark;DB_CLOSE_DELAY=-1;MODE=Mysql", "sa", "sa");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS mgmt_route");
+            statement.execute("CREATE TABLE mgmt_route (id BIGINT PRIMARY KEY, name VARCHAR(64) NOT NULL UNIQUE,"
+                    + " path VARCHAR(128) NOT NULL UNIQUE, service_id VARCHAR(128) NOT NULL,"
+                    + " is_built_in TINYINT NOT NULL DEFAULT 0, object_version_number BIGINT DEFAULT 1)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO mgmt_route (id, name, path, service_id, is_built_in) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= size; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "route" + i);
+                insert.setString(3, i % 10 == 0 ? "/svc" + i + "/v1/*/items/**" : "/svc" + i + "/**");
+                insert.setString(4, "service-" + i);
+                insert.setInt(5, i % 50 == 0 ? 1 : 0);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        index = new RouteIndex(selectAll());
+        pageRequest = new PageRequest(0, 20);
+        url = "/svc" + (size - size % 10) + "/v1/users/items/1";
+        serviceId = "service-" + (size / 2);
+        params = "svc12";
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public RouteE indexMatch() {
+        return index.match(url);
+    }
+
+    @Benchmark
+    public RouteE linearMatch() throws SQLException {
+        RouteE best = null;
+        Comparator<String> comparator = MATCHER.getPatternComparator(url);
+        for (RouteE routeE : selectAll()) {
+            if (MATCHER.match(routeE.getPath(), url)
+                    && (best == null || comparator.compare(routeE.getPath(), best.getPath()) < 0)) {
+                best = routeE;
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public RouteE indexGetByServiceId() {
+        return index.getByServiceId(serviceId);
+    }
+
+    @Benchmark
+    public RouteE linearGetByServiceId() throws SQLException {
+        for (RouteE routeE : selectAll()) {
+            if (routeE.getServiceId().equals(serviceId)) {
+                return routeE;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Page<RouteE> indexFilterPage() {
+        List<RouteE> routes = index.filter(null, null, null, null, params);
+        return ManualPageHelper.postPage(routes, pageRequest, Collections.emptyMap(),
+                Comparator.comparing(RouteE::getId));
+    }
+
+    @Benchmark
+    public Page<RouteE> sqlFilterPage() throws SQLException {
+        Page<RouteE> page = new Page<>();
+        try (PreparedStatement count = connection.prepareStatement("select count(0) from (" + SELECT_ROUTES + ") tmp_count")) {
+            bindParams(count);
+            try (ResultSet resultSet = count.executeQuery()) {
+                resultSet.next();
+                page.setTotalElements(resultSet.getLong(1));
+            }
+        }
+        try (PreparedStatement select = connection.prepareStatement(SELECT_ROUTES + " order by id LIMIT ? OFFSET ?")) {
+            bindParams(select);
+            select.setInt(4, pageRequest.getSize());
+            select.setInt(5, pageRequest.getPage() * pageRequest.getSize());
+            try (ResultSet resultSet = select.executeQuery()) {
+                page.setContent(read(resultSet));
+            }
+        }
+        return page;
+    }
+
+    private void bindParams(PreparedStatement statement) throws SQLException {
+        statement.setString(1, params);
+        statement.setString(2, params);
+        statement.setString(3, params);
+    }
+
+    private List<RouteE> selectAll() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select * FROM mgmt_route")) {
+            return read(resultSet);
+        }
+    }
+
+    private static List<RouteE> read(ResultSet resultSet) throws SQLException {
+        List<RouteE> routes = new ArrayList<>();
+        while (resultSet.next()) {
+            RouteE routeE = new RouteE();
+            routeE.setId(resultSet.getLong("id"));
+            routeE.setName(resultSet.getString("name"));
+            routeE.setPath(resultSet.getString("path"));
+            routeE.setServiceId(resultSet.getString("service_id"));
+            routeE.setBuiltIn(resultSet.getInt("is_built_in") == 1);
+            routeE.setObjectVersionNumber(resultSet.getLong("object_version_number"));
+            routes.add(routeE);
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,87 @@
+package io.choerodon.manager.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.*;
+
+import io.choerodon.manager.api.dto.swagger.SwaggerDiffDTO;
+import io.choerodon.manager.domain.manager.entity.SwaggerFingerprint;
+import io.choerodon.manager.domain.service.impl.ISwaggerDiffServiceImpl;
+import io.choerodon.manager.domain.service.impl.ISwaggerStorageServiceImpl;
+import io.choerodon.manager.infra.common.utils.SwaggerFingerprintUtil;
+import io.choerodon.manager.infra.dataobject.SwaggerDO;
+import io.choerodon.manager.infra.mapper.SwaggerMapper;
+
+/**
+ * 结构哈希计算和版本比较的基准测试，copies为40时文档约1000个接口
+ * 比较时除一个definition变化外两个版本相同，只有引用它的接口需要逐字段比较
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SwaggerDiffBenchmark {
+
+    @Param({"1", "40"})
+    private int copies;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private String json;
+
+    private ISwaggerDiffServiceImpl diffService;
+
+    @Setup
+    public void setup() throws Exception {
+        json = BenchmarkFixtures.largeSwaggerJson(copies);
+        ObjectNode changed = (ObjectNode) mapper.readTree(json);
+        ((ObjectNode) changed.get("definitions").get("SwaggerResource").get("properties"))
+                .putObject("url").put("type", "string");
+        String changedJson = changed.toString();
+        SwaggerMapper swaggerMapper = fixedSwaggerMapper(json, changedJson);
+        diffService = new ISwaggerDiffServiceImpl(swaggerMapper, new ISwaggerStorageServiceImpl(swaggerMapper, null));
+    }
+
+    @Benchmark
+    public SwaggerFingerprint fingerprint() throws Exception {
+        return SwaggerFingerprintUtil.fingerprint(mapper.readTree(json));
+    }
+
+    @Benchmark
+    public SwaggerDiffDTO diff() {
+        return diffService.diff("benchmark", "0.9.0", "0.10.0");
+    }
+
+    /**
+     * 以两份固定文档代替数据库，0.9.0为原文档，0.10.0为修改后的文档
+     */
+    private static SwaggerMapper fixedSwaggerMapper(String source, String target) {
+        String[] values = {source, target};
+        String[] fingerprints = {SwaggerFingerprintUtil.fingerprintJson("benchmark", source),
+                SwaggerFingerprintUtil.fingerprintJson("benchmark", target)};
+        return (SwaggerMapper) Proxy.newProxyInstance(SwaggerMapper.class.getClassLoader(), new Class<?>[]{SwaggerMapper.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "selectStoredVersion":
+                            SwaggerDO stored = new SwaggerDO();
+                            stored.setId("0.9.0".equals(args[1]) ? 0L : 1L);
+                            stored.setObjectVersionNumber(1L);
+                            return stored;
+                        case "selectFingerprint":
+                            return fingerprints[((Long) args[0]).intValue()];
+                        case "selectOne":
+                            SwaggerDO data = new SwaggerDO();
+                            data.setValue(values["0.9.0".equals(((SwaggerDO) args[0]).getServiceVersion()) ? 0 : 1]);
+                            return data;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
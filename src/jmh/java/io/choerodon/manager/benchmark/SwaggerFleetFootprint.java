@@ -0,0 +1,71 @@
+package io.choerodon.manager.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.choerodon.manager.infra.common.utils.SymbolTable;
+
+/**
+ * 对比解析一组服务的swagger文档并保留JsonNode树时，使用SymbolTable前后的堆占用
+ * 每个服务的文档由swagger.json按copies倍数生成，basePath和operationId带服务序号，其余字符串与真实服务一样重复出现
+ * 不是JMH基准，在benchmark profile编译后直接运行：
+ * java -cp target/test-classes:target/classes:依赖 io.choerodon.manager.benchmark.SwaggerFleetFootprint 80 5 histo
+ * 第三个参数为histo时，每轮保留文档后暂停，可用jmap -histo:live pid对比String、char[]、TextNode的数量
+ *
+ * @author agent
+ */
+public final class SwaggerFleetFootprint {
+
+    private SwaggerFleetFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int services = args.length > 0 ? Integer.parseInt(args[0]) : 80;
+        int copies = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        boolean histo = args.length > 2 && "histo".equals(args[2]);
+        List<String> fleet = fleet(services, copies);
+        report("plain", new ObjectMapper(), fleet, histo);
+        report("interned", new ObjectMapper().setNodeFactory(SymbolTable.nodeFactory()), fleet, histo);
+    }
+
+    private static List<String> fleet(int services, int copies) throws Exception {
+        String json = BenchmarkFixtures.largeSwaggerJson(copies);
+        List<String> fleet = new ArrayList<>(services);
+        for (int i = 0; i < services; i++) {
+            fleet.add(json.replace("\"basePath\":\"/\"", "\"basePath\":\"/service" + i + "\"")
+                    .replaceAll("(\"operationId\":\"[^\"]*)\"", "$1" + i + "\""));
+        }
+        return fleet;
+    }
+
+    private static void report(String name, ObjectMapper mapper, List<String> fleet, boolean histo) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedAfterGc(memory);
+        List<JsonNode> trees = new ArrayList<>(fleet.size());
+        for (String json : fleet) {
+            trees.add(mapper.readTree(json));
+        }
+        long after = usedAfterGc(memory);
+        System.out.printf("%-8s services=%d retained=%.1f MB symbols=%d%n",
+                name, trees.size(), (after - before) / 1024.0 / 1024.0, SymbolTable.size());
+        if (histo) {
+            System.out.println("run jmap -histo:live " + ManagementFactory.getRuntimeMXBean().getName().split("@")[0]
+                    + " then press enter");
+            System.in.read();
+        }
+        trees.clear();
+    }
+
+    private static long usedAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,52 @@
+package io.choerodon.manager.benchmark;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import io.choerodon.manager.domain.manager.entity.SwaggerSummary;
+import io.choerodon.manager.infra.common.utils.SwaggerUtil;
+
+/**
+ * 完整readTree与流式摘要解析的对比，配合-prof gc可对比每次操作的内存分配
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class SwaggerSummaryBenchmark {
+
+    @Param({"1", "20"})
+    private int copies;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        json = BenchmarkFixtures.largeSwaggerJson(copies);
+    }
+
+    @Benchmark
+    public int readTreeCount() throws Exception {
+        JsonNode pathNode = mapper.readTree(json).get("paths");
+        int count = 0;
+        Iterator<JsonNode> iterator = pathNode.elements();
+        while (iterator.hasNext()) {
+            count += iterator.next().size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public SwaggerSummary streamingSummary() throws Exception {
+        return SwaggerUtil.summarize("benchmark", json);
+    }
+}
@@ -0,0 +1,60 @@
+package io.choerodon.manager.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.choerodon.manager.domain.manager.entity.VersionKey;
+import io.choerodon.manager.domain.service.VersionStrategy;
+import io.choerodon.manager.domain.service.impl.IDefaultVersionStrategy;
+
+/**
+ * 版本比较的基准测试
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class VersionStrategyBenchmark {
+
+    private static final String[][] VERSIONS = {
+            {"0.9.0", "0.10.0"},
+            {"0.10.0-SNAPSHOT", "0.10.0"},
+            {"1.2.3.RELEASE", "1.2.3.RELEASE"},
+            {"null_version", "0.9.0"},
+            {"2018.7.31-165603-master", "2018.8.1-101010-master"}
+    };
+
+    private final VersionStrategy versionStrategy = new IDefaultVersionStrategy();
+
+    private VersionKey[][] keys;
+
+    @Setup
+    public void setup() {
+        keys = new VersionKey[VERSIONS.length][];
+        for (int i = 0; i < VERSIONS.length; i++) {
+            keys[i] = new VersionKey[]{VersionKey.parse(VERSIONS[i][0]), VersionKey.parse(VERSIONS[i][1])};
+        }
+    }
+
+    @Benchmark
+    public void compareVersion(Blackhole blackhole) {
+        for (String[] pair : VERSIONS) {
+            blackhole.consume(versionStrategy.compareVersion(pair[0], pair[1]));
+        }
+    }
+
+    /**
+     * 版本目录中已解析的排序键之间的比较
+     */
+    @Benchmark
+    public void compareParsedKey(Blackhole blackhole) {
+        for (VersionKey[] pair : keys) {
+            blackhole.consume(pair[0].compareTo(pair[1]));
+        }
+    }
+}
@@ -17,6 +17,8 @@ import io.choerodon.core.domain.Page;
 import io.choerodon.core.iam.InitRoleCode;
 import io.choerodon.core.iam.ResourceLevel;
 import io.choerodon.manager.api.dto.swagger.ControllerDTO;
+import io.choerodon.manager.api.dto.swagger.PermissionDTO;
+import io.choerodon.manager.api.dto.swagger.SwaggerDiffDTO;
 import io.choerodon.manager.app.service.ApiService;
 import io.choerodon.manager.app.service.SwaggerService;
 import io.choerodon.manager.infra.common.utils.VersionUtil;
@@ -87,6 +89,31 @@ public class ApiController {
         return new ResponseEntity<>(apiService.queryPathDetail(serviceName, version, controllerName, operationId), HttpStatus.OK);
     }
 
+    /**
+     * 内部接口，由iam-service调用
+     * 批量获取服务文档中所有接口的权限信息，无需再解析api-docs
+     *
+     * @param serviceName 路由名
+     * @param version     服务版本
+     * @return 权限列表
+     */
+    @Permission(permissionWithin = true)
+    @ApiIgnore
+    @GetMapping("/{service_prefix}/permissions")
+    public ResponseEntity<List<PermissionDTO>> queryPermissions(@PathVariable("service_prefix") String serviceName,
+                                                                @RequestParam(value = "version", required = false, defaultValue = VersionUtil.NULL_VERSION) String version) {
+        return new ResponseEntity<>(apiService.queryPermissions(serviceName, version), HttpStatus.OK);
+    }
+
+    @Permission(level = ResourceLevel.SITE, roles = {InitRoleCode.SITE_DEVELOPER})
+    @ApiOperation("比较服务两个版本的接口差异")
+    @GetMapping("/{service_prefix}/diff")
+    public ResponseEntity<SwaggerDiffDTO> queryDiff(@PathVariable("service_prefix") String serviceName,
+                                                    @RequestParam("from") String from,
+                                                    @RequestParam("to") String to) {
+        return new ResponseEntity<>(apiService.queryDiff(serviceName, from, to), HttpStatus.OK);
+    }
+
     @Permission(level = ResourceLevel.SITE, roles = {InitRoleCode.SITE_DEVELOPER})
     @ApiOperation("查询运行的服务实例的api接口数量")
     @GetMapping("/api/count")
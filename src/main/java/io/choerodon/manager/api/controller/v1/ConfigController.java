@@ -1,5 +1,6 @@
 package io.choerodon.manager.api.controller.v1;
 
+import java.util.List;
 import java.util.Optional;
 import javax.validation.Valid;
 
@@ -146,6 +147,23 @@ public class ConfigController {
         return new ResponseEntity<>(configService.updateConfig(configId, configDTO, type), HttpStatus.OK);
     }
 
+    /**
+     * 在所有服务的配置中检索配置项
+     *
+     * @param key   配置项key的查询文本
+     * @param value 配置项value的查询文本
+     * @return 命中的配置项
+     */
+    @Permission(level = ResourceLevel.SITE, roles = {InitRoleCode.SITE_DEVELOPER})
+    @ApiOperation("检索配置项")
+    @GetMapping("/search")
+    public ResponseEntity<List<ConfigSearchResultDTO>> search(@ApiParam("配置项key的查询文本，按词匹配")
+                                                              @RequestParam(value = "key", required = false) String key,
+                                                              @ApiParam("配置项value的查询文本，按词匹配")
+                                                              @RequestParam(value = "value", required = false) String value) {
+        return new ResponseEntity<>(configService.search(key, value), HttpStatus.OK);
+    }
+
     @Permission(level = ResourceLevel.SITE, roles = {InitRoleCode.SITE_DEVELOPER})
     @ApiOperation(value = "配置校验接口")
     @PostMapping(value = "/check")
@@ -1,15 +1,23 @@
 package io.choerodon.manager.api.controller.v1;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.servlet.http.HttpServletResponse;
 
 import io.choerodon.manager.app.service.ApiService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import springfox.documentation.annotations.ApiIgnore;
 
 import io.choerodon.core.iam.InitRoleCode;
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
+import io.choerodon.manager.infra.common.utils.ResponseWriteUtil;
 import io.choerodon.manager.infra.common.utils.VersionUtil;
 import io.choerodon.swagger.annotation.Permission;
 
@@ -25,6 +33,8 @@ import io.choerodon.swagger.annotation.Permission;
 @Api(description = "文档")
 public class DocumentController {
 
+    private static final String GZIP = "gzip";
+
     private ApiService apiService;
 
     /**
@@ -36,22 +46,100 @@ public class DocumentController {
 
     /**
      * 获取服务id对应的版本的swagger json
+     * 扩展后的文档按 路由名:版本 预先生成，请求时直接返回字节；
+     * ETag由已存储文档的版本号计算，If-None-Match一致时直接返回304，客户端接受gzip时返回缓存的压缩结果；
+     * gzip编码与原文使用不同的强ETag，Accept-Encoding按q值判断，q=0表示不接受；
+     * 文档字节保存在堆外，200时直接写入servlet响应，不复制为byte数组
      *
-     * @param name    服务id，形如 uaa
-     * @param version 服务版本
-     * @return String
+     * @param name            服务id，形如 uaa
+     * @param version         服务版本
+     * @param ifNoneMatch     If-None-Match请求头
+     * @param acceptEncoding  Accept-Encoding请求头
+     * @param servletResponse servlet响应，200时写入文档
+     * @return 304、404时返回响应，200时已写入servletResponse，返回null
+     * @throws IOException 写出失败
      */
     @Permission(permissionPublic = true, roles = {InitRoleCode.SITE_DEVELOPER})
     @ApiOperation("获取服务id对应的版本swagger json字符串")
     @GetMapping(value = "/{service_prefix}")
-    public ResponseEntity<String> get(@PathVariable("service_prefix") String name,
+    public ResponseEntity<byte[]> get(@PathVariable("service_prefix") String name,
                                       @RequestParam(value = "version", required = false,
-                                              defaultValue = VersionUtil.NULL_VERSION) String version) {
-        String swaggerJson = apiService.getSwaggerJson(name, version);
-        if (StringUtils.isEmpty(swaggerJson)) {
-            return new ResponseEntity<>(swaggerJson, HttpStatus.NOT_FOUND);
-        } else {
-            return new ResponseEntity<>(swaggerJson, HttpStatus.OK);
+                                              defaultValue = VersionUtil.NULL_VERSION) String version,
+                                      @ApiIgnore @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                      @ApiIgnore @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                      @ApiIgnore HttpServletResponse servletResponse) throws IOException {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = variantEtag(apiService.queryDocumentEtag(name, version), gzip);
+        if (SerializedResponse.matches(etag, ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        SerializedResponse response = apiService.getSwaggerJsonResponse(name, version);
+        if (response == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        ByteBuffer body = response.getBodyBuffer();
+        servletResponse.setStatus(HttpStatus.OK.value());
+        servletResponse.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        if (response.getEtag() != null) {
+            servletResponse.setHeader(HttpHeaders.ETAG, variantEtag(response.getEtag(), gzip));
+        }
+        servletResponse.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            body = response.getGzipBodyBuffer();
+            servletResponse.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        servletResponse.setContentLength(body.remaining());
+        ResponseWriteUtil.write(servletResponse, body);
+        return null;
+    }
+
+    private static String variantEtag(String etag, boolean gzip) {
+        return gzip ? SerializedResponse.gzipEtag(etag) : etag;
+    }
+
+    /**
+     * 解析Accept-Encoding，gzip（或x-gzip）的q值大于0时接受；未列出gzip时按*的q值判断
+     *
+     * @param acceptEncoding Accept-Encoding请求头
+     * @return 是否返回gzip编码
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            double quality = quality(parts);
+            if (GZIP.equals(name) || ("x-" + GZIP).equals(name)) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if ("*".equals(name)) {
+                wildcardQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q') && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
         }
+        return 1;
     }
 }
@@ -1,5 +1,6 @@
 package io.choerodon.manager.api.controller.v1;
 
+import java.util.List;
 import java.util.Optional;
 import javax.validation.Valid;
 
@@ -15,6 +16,7 @@ import io.choerodon.core.exception.CommonException;
 import io.choerodon.core.iam.InitRoleCode;
 import io.choerodon.core.iam.ResourceLevel;
 import io.choerodon.manager.api.dto.RouteDTO;
+import io.choerodon.manager.api.dto.RouteOverlapDTO;
 import io.choerodon.manager.app.service.RouteService;
 import io.choerodon.manager.infra.dataobject.RouteDO;
 import io.choerodon.mybatis.pagehelper.annotation.SortDefault;
@@ -107,12 +109,30 @@ public class RouteController {
                 .orElseThrow(() -> new CommonException("error.route.delete"));
     }
 
+    /**
+     * 根据请求url查找处理该请求的路由
+     *
+     * @param url 请求url，形如/iam/v1/users
+     * @return RouteDTO
+     */
+    @Permission(level = ResourceLevel.SITE, roles = {InitRoleCode.SITE_DEVELOPER})
+    @ApiOperation("根据请求url查找路由")
+    @GetMapping("/match")
+    public ResponseEntity<RouteDTO> match(@RequestParam("url") String url) {
+        return new ResponseEntity<>(routeService.matchRoute(url), HttpStatus.OK);
+    }
+
+    /**
+     * 校验路由名称和路径是否重复，返回与已有路由重叠的路由
+     *
+     * @param routeDTO 路由对象
+     * @return 重叠关系列表
+     */
     @Permission(level = ResourceLevel.SITE, roles = {InitRoleCode.SITE_DEVELOPER})
     @ApiOperation(value = "route 校验接口")
     @PostMapping(value = "/check")
-    public ResponseEntity check(@RequestBody RouteDTO routeDTO) {
-        routeService.checkRoute(routeDTO);
-        return new ResponseEntity(HttpStatus.OK);
+    public ResponseEntity<List<RouteOverlapDTO>> check(@RequestBody RouteDTO routeDTO) {
+        return new ResponseEntity<>(routeService.checkRoute(routeDTO), HttpStatus.OK);
     }
 
 
@@ -5,6 +5,7 @@ import java.util.List;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import springfox.documentation.annotations.ApiIgnore;
@@ -94,6 +95,22 @@ public class ServiceController {
         return new ResponseEntity<>(configService.queryDefaultByServiceName(serviceName), HttpStatus.OK);
     }
 
+    /**
+     * 内部接口，由config-server调用
+     * 通过服务名获取预先渲染的默认配置文本，对外隐藏api
+     *
+     * @param serviceName 服务名
+     * @param type        文本类型，yaml或properties
+     * @return 配置文本
+     */
+    @Permission(permissionWithin = true)
+    @GetMapping(value = "/{service_name}/configs/default/text", produces = MediaType.TEXT_PLAIN_VALUE)
+    @ApiIgnore
+    public ResponseEntity<byte[]> queryDefaultConfigTextByServiceName(@PathVariable("service_name") String serviceName,
+                                                                      @RequestParam(required = false, defaultValue = "yaml") String type) {
+        return new ResponseEntity<>(configService.queryDefaultSnapshot(serviceName).getText(type), HttpStatus.OK);
+    }
+
     /**
      * 内部接口，由config-server调用
      * 通过服务名和配置版本获取配置信息，对外隐藏api
@@ -1,21 +1,22 @@
 package io.choerodon.manager.api.controller.v1;
 
-import java.util.List;
-
 import io.swagger.annotations.Api;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import springfox.documentation.annotations.ApiIgnore;
-import springfox.documentation.swagger.web.SecurityConfiguration;
-import springfox.documentation.swagger.web.SwaggerResource;
-import springfox.documentation.swagger.web.UiConfiguration;
 
 import io.choerodon.manager.app.service.SwaggerService;
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
 
 /**
  * swagger控制器
+ * 响应体预先序列化，带强ETag返回，If-None-Match一致时返回304
  *
  * @author huiyu.chen
  * @author wuguokai
@@ -32,14 +33,16 @@ public class SwaggerController {
 
     @ApiIgnore
     @RequestMapping(value = "/swagger-resources/configuration/security")
-    ResponseEntity<SecurityConfiguration> securityConfiguration() {
-        return new ResponseEntity<>(swaggerService.getSecurityConfiguration(), HttpStatus.OK);
+    ResponseEntity<byte[]> securityConfiguration(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serialized(swaggerService.getSecurityConfigurationResponse(), ifNoneMatch);
     }
 
     @ApiIgnore
     @RequestMapping(value = "/swagger-resources/configuration/ui")
-    ResponseEntity<UiConfiguration> uiConfiguration() {
-        return new ResponseEntity<>(swaggerService.getUiConfiguration(), HttpStatus.OK);
+    ResponseEntity<byte[]> uiConfiguration(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serialized(swaggerService.getUiConfigurationResponse(), ifNoneMatch);
     }
 
     /**
@@ -49,7 +52,25 @@ public class SwaggerController {
      */
     @ApiIgnore
     @RequestMapping(value = "/swagger-resources")
-    ResponseEntity<List<SwaggerResource>> swaggerResources() {
-        return new ResponseEntity<>(swaggerService.getSwaggerResource(), HttpStatus.OK);
+    ResponseEntity<byte[]> swaggerResources(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return serialized(swaggerService.getSwaggerResourceResponse(), ifNoneMatch);
+    }
+
+    /**
+     * 内容随服务上下线变化，浏览器每次都需要携带ETag重新校验
+     */
+    private ResponseEntity<byte[]> serialized(SerializedResponse response, String ifNoneMatch) {
+        if (response.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(response.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .eTag(response.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(response.getBody());
     }
 }
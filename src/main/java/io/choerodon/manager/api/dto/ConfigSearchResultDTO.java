@@ -0,0 +1,70 @@
+package io.choerodon.manager.api.dto;
+
+/**
+ * 配置项全文检索的结果
+ *
+ * @author agent
+ */
+public class ConfigSearchResultDTO {
+
+    private Long configId;
+
+    private String serviceName;
+
+    private String configVersion;
+
+    private String key;
+
+    private Object value;
+
+    public ConfigSearchResultDTO() {
+    }
+
+    public ConfigSearchResultDTO(Long configId, String serviceName, String configVersion, String key, Object value) {
+        this.configId = configId;
+        this.serviceName = serviceName;
+        this.configVersion = configVersion;
+        this.key = key;
+        this.value = value;
+    }
+
+    public Long getConfigId() {
+        return configId;
+    }
+
+    public void setConfigId(Long configId) {
+        this.configId = configId;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public void setServiceName(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    public String getConfigVersion() {
+        return configVersion;
+    }
+
+    public void setConfigVersion(String configVersion) {
+        this.configVersion = configVersion;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+}
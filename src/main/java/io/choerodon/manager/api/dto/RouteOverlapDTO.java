@@ -0,0 +1,77 @@
+package io.choerodon.manager.api.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * 路由重叠检查结果
+ *
+ * @author agent
+ */
+public class RouteOverlapDTO {
+
+    @ApiModelProperty(value = "已有路由ID")
+    private Long id;
+
+    @ApiModelProperty(value = "已有路由名称")
+    private String name;
+
+    @ApiModelProperty(value = "已有路由路径")
+    private String path;
+
+    @ApiModelProperty(value = "已有路由服务ID")
+    private String serviceId;
+
+    @ApiModelProperty(value = "重叠类型：DUPLICATE路径相同，SHADOWED被已有路由覆盖，SHADOWS覆盖已有路由，OVERLAP部分重叠")
+    private String type;
+
+    public RouteOverlapDTO() {
+    }
+
+    public RouteOverlapDTO(Long id, String name, String path, String serviceId, String type) {
+        this.id = id;
+        this.name = name;
+        this.path = path;
+        this.serviceId = serviceId;
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
@@ -0,0 +1,54 @@
+package io.choerodon.manager.api.dto.swagger;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+/**
+ * 两个版本间发生变化的接口
+ *
+ * @author agent
+ */
+public class OperationDiffDTO {
+
+    @ApiModelProperty(value = "接口，形如 get /v1/swaggers/resources")
+    private String operation;
+    @ApiModelProperty(value = "新版本中接口的operationId")
+    private String operationId;
+    @ApiModelProperty(value = "发生变化的接口字段，如parameters、responses")
+    private List<String> changedFields;
+    @ApiModelProperty(value = "接口直接引用且发生变化的definition")
+    private List<String> changedDefinitions;
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public void setOperationId(String operationId) {
+        this.operationId = operationId;
+    }
+
+    public List<String> getChangedFields() {
+        return changedFields;
+    }
+
+    public void setChangedFields(List<String> changedFields) {
+        this.changedFields = changedFields;
+    }
+
+    public List<String> getChangedDefinitions() {
+        return changedDefinitions;
+    }
+
+    public void setChangedDefinitions(List<String> changedDefinitions) {
+        this.changedDefinitions = changedDefinitions;
+    }
+}
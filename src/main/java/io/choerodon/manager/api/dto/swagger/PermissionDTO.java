@@ -0,0 +1,124 @@
+package io.choerodon.manager.api.dto.swagger;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+/**
+ * 从swagger文档接口描述中提取的权限信息
+ *
+ * @author agent
+ */
+public class PermissionDTO {
+
+    @ApiModelProperty(value = "权限code")
+    private String code;
+    @ApiModelProperty(value = "接口的operationId")
+    private String operationId;
+    @ApiModelProperty(value = "请求url")
+    private String url;
+    @ApiModelProperty(value = "请求方法")
+    private String method;
+    @ApiModelProperty(value = "权限对应的资源，即controller名去掉-controller后缀")
+    private String resourceCode;
+    @ApiModelProperty(value = "权限action")
+    private String action;
+    @ApiModelProperty(value = "权限层级")
+    private String permissionLevel;
+    @ApiModelProperty(value = "默认分配的角色")
+    private List<String> roles;
+    @ApiModelProperty(value = "是否登录即可访问")
+    private Boolean permissionLogin;
+    @ApiModelProperty(value = "是否公开接口")
+    private Boolean permissionPublic;
+    @ApiModelProperty(value = "内部调用的接口")
+    private Boolean innerInterface;
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public void setOperationId(String operationId) {
+        this.operationId = operationId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getResourceCode() {
+        return resourceCode;
+    }
+
+    public void setResourceCode(String resourceCode) {
+        this.resourceCode = resourceCode;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getPermissionLevel() {
+        return permissionLevel;
+    }
+
+    public void setPermissionLevel(String permissionLevel) {
+        this.permissionLevel = permissionLevel;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public Boolean getPermissionLogin() {
+        return permissionLogin;
+    }
+
+    public void setPermissionLogin(Boolean permissionLogin) {
+        this.permissionLogin = permissionLogin;
+    }
+
+    public Boolean getPermissionPublic() {
+        return permissionPublic;
+    }
+
+    public void setPermissionPublic(Boolean permissionPublic) {
+        this.permissionPublic = permissionPublic;
+    }
+
+    public Boolean getInnerInterface() {
+        return innerInterface;
+    }
+
+    public void setInnerInterface(Boolean innerInterface) {
+        this.innerInterface = innerInterface;
+    }
+}
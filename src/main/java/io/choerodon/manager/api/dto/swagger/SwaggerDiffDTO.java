@@ -0,0 +1,114 @@
+package io.choerodon.manager.api.dto.swagger;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.List;
+
+/**
+ * 服务两个版本的接口差异
+ *
+ * @author agent
+ */
+public class SwaggerDiffDTO {
+
+    @ApiModelProperty(value = "服务名")
+    private String service;
+    @ApiModelProperty(value = "旧版本")
+    private String from;
+    @ApiModelProperty(value = "新版本")
+    private String to;
+    @ApiModelProperty(value = "两个版本的文档结构是否一致")
+    private Boolean identical;
+    @ApiModelProperty(value = "新增的接口")
+    private List<String> addedOperations;
+    @ApiModelProperty(value = "删除的接口")
+    private List<String> removedOperations;
+    @ApiModelProperty(value = "发生变化的接口")
+    private List<OperationDiffDTO> changedOperations;
+    @ApiModelProperty(value = "新增的definition")
+    private List<String> addedDefinitions;
+    @ApiModelProperty(value = "删除的definition")
+    private List<String> removedDefinitions;
+    @ApiModelProperty(value = "发生变化的definition")
+    private List<String> changedDefinitions;
+
+    public String getService() {
+        return service;
+    }
+
+    public void setService(String service) {
+        this.service = service;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public Boolean getIdentical() {
+        return identical;
+    }
+
+    public void setIdentical(Boolean identical) {
+        this.identical = identical;
+    }
+
+    public List<String> getAddedOperations() {
+        return addedOperations;
+    }
+
+    public void setAddedOperations(List<String> addedOperations) {
+        this.addedOperations = addedOperations;
+    }
+
+    public List<String> getRemovedOperations() {
+        return removedOperations;
+    }
+
+    public void setRemovedOperations(List<String> removedOperations) {
+        this.removedOperations = removedOperations;
+    }
+
+    public List<OperationDiffDTO> getChangedOperations() {
+        return changedOperations;
+    }
+
+    public void setChangedOperations(List<OperationDiffDTO> changedOperations) {
+        this.changedOperations = changedOperations;
+    }
+
+    public List<String> getAddedDefinitions() {
+        return addedDefinitions;
+    }
+
+    public void setAddedDefinitions(List<String> addedDefinitions) {
+        this.addedDefinitions = addedDefinitions;
+    }
+
+    public List<String> getRemovedDefinitions() {
+        return removedDefinitions;
+    }
+
+    public void setRemovedDefinitions(List<String> removedDefinitions) {
+        this.removedDefinitions = removedDefinitions;
+    }
+
+    public List<String> getChangedDefinitions() {
+        return changedDefinitions;
+    }
+
+    public void setChangedDefinitions(List<String> changedDefinitions) {
+        this.changedDefinitions = changedDefinitions;
+    }
+}
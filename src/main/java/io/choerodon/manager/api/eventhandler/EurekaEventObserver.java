@@ -4,40 +4,159 @@ import io.choerodon.eureka.event.AbstractEurekaEventObserver;
 import io.choerodon.eureka.event.EurekaEventPayload;
 import io.choerodon.manager.domain.service.IDocumentService;
 import io.choerodon.manager.domain.service.IRouteService;
+import io.choerodon.manager.domain.service.ISwaggerService;
+import io.choerodon.manager.domain.service.LeaseService;
 import io.choerodon.manager.domain.service.SwaggerRefreshService;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.remoting.RemoteAccessException;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务实例上下线事件处理
+ * 多个副本都会收到同一个实例的UP事件，同一(服务, 版本)只由获取到租约的副本拉取并写入文档，
+ * 其他副本不等待，立即只失效本地缓存；租约仍被持有时在后台线程定期检查，
+ * 持有者崩溃时租约在lease-ttl后过期，由检查到的副本重新获取并写入，eureka事件线程不会被阻塞
+ */
 @Component
 public class EurekaEventObserver extends AbstractEurekaEventObserver {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(EurekaEventObserver.class);
+
+    private static final String INGEST_LEASE_PREFIX = "manager-service:swagger-ingest:";
+
+    private static final long RECHECK_INTERVAL = 1000L;
+
+    private final ScheduledThreadPoolExecutor takeoverExecutor = (ScheduledThreadPoolExecutor) MetricsUtil.monitorExecutor(
+            "swagger-ingest-takeover", new ScheduledThreadPoolExecutor(1));
+
     private IDocumentService iDocumentService;
 
     private SwaggerRefreshService swaggerRefreshService;
 
     private IRouteService iRouteService;
 
+    private ISwaggerService iSwaggerService;
+
+    private LeaseService leaseService;
+
+    @Value("${choerodon.swagger.ingest.lease-ttl:30000}")
+    private long leaseTtl = 30000L;
+
+    @Value("${choerodon.swagger.ingest.window:60000}")
+    private long window = 60000L;
+
+    @Value("${choerodon.swagger.ingest.wait-timeout:35000}")
+    private long waitTimeout = 35000L;
+
     public EurekaEventObserver(IDocumentService iDocumentService,
                                SwaggerRefreshService swaggerRefreshService,
-                               IRouteService iRouteService) {
+                               IRouteService iRouteService,
+                               ISwaggerService iSwaggerService,
+                               LeaseService leaseService) {
         this.iDocumentService = iDocumentService;
         this.swaggerRefreshService = swaggerRefreshService;
         this.iRouteService = iRouteService;
+        this.iSwaggerService = iSwaggerService;
+        this.leaseService = leaseService;
+    }
+
+    public void setLeaseTtl(long leaseTtl) {
+        this.leaseTtl = leaseTtl;
+    }
+
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    public void setWaitTimeout(long waitTimeout) {
+        this.waitTimeout = waitTimeout;
     }
 
     @Override
     public void receiveUpEvent(EurekaEventPayload payload) {
+        String key = INGEST_LEASE_PREFIX + payload.getAppName() + ":" + payload.getVersion();
+        String token = leaseService.tryAcquire(key, leaseTtl);
+        if (token == null) {
+            //文档由其他副本写入，本地缓存由其发出的失效消息处理，这里只失效与本副本实例列表相关的缓存
+            iSwaggerService.evictSwaggerResource();
+            iDocumentService.evictExpandedDocuments(payload.getAppName());
+            if (leaseService.getState(key) != LeaseService.State.COMPLETED) {
+                scheduleTakeover(payload, key, System.currentTimeMillis() + waitTimeout);
+            }
+            return;
+        }
+        ingestUnderLease(payload, key, token);
+    }
+
+    private void ingestUnderLease(EurekaEventPayload payload, String key, String token) {
+        try {
+            ingest(payload);
+        } catch (RuntimeException e) {
+            leaseService.release(key, token);
+            throw e;
+        }
+        if (!leaseService.complete(key, token, window)) {
+            LOGGER.warn("swagger ingest lease {} expired before completion, consider a larger lease-ttl", key);
+        }
+    }
+
+    private void ingest(EurekaEventPayload payload) {
         String json = iDocumentService.fetchSwaggerJsonByIp(payload);
         if (StringUtils.isEmpty(json)) {
             throw new RemoteAccessException("fetch swagger json data is empty, " + payload);
         }
         swaggerRefreshService.updateOrInsertSwagger(payload, json);
         iRouteService.autoRefreshRoute(json);
+        iSwaggerService.evictSwaggerResource();
+        iDocumentService.evictExpandedDocuments(payload.getAppName());
+    }
+
+    private void scheduleTakeover(EurekaEventPayload payload, String key, long deadline) {
+        takeoverExecutor.schedule(() -> takeover(payload, key, deadline), RECHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在后台线程检查其他副本持有的租约，其完成时结束，释放或过期时接替写入，仍被持有时在间隔后再次检查，
+     * 超过wait-timeout后放弃
+     */
+    private void takeover(EurekaEventPayload payload, String key, long deadline) {
+        try {
+            String token = leaseService.tryAcquire(key, leaseTtl);
+            if (token != null) {
+                LOGGER.info("swagger ingest {} released or expired by another replica, take over", key);
+                ingestUnderLease(payload, key, token);
+                return;
+            }
+            if (leaseService.getState(key) == LeaseService.State.COMPLETED) {
+                LOGGER.debug("swagger ingest {} completed by another replica, skip", key);
+                return;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                LOGGER.info("swagger ingest {} still held by another replica after {} ms, skip", key, waitTimeout);
+                return;
+            }
+            scheduleTakeover(payload, key, deadline);
+        } catch (RuntimeException e) {
+            LOGGER.warn("swagger ingest {} take over failed, exception: {}", key, e.getMessage());
+        }
     }
 
     @Override
     public void receiveDownEvent(EurekaEventPayload payload) {
-       // do nothing
+        iSwaggerService.evictSwaggerResource();
+        iDocumentService.evictExpandedDocuments(payload.getAppName());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        takeoverExecutor.shutdownNow();
     }
 }
@@ -2,8 +2,12 @@ package io.choerodon.manager.app.service;
 
 import io.choerodon.core.domain.Page;
 import io.choerodon.manager.api.dto.swagger.ControllerDTO;
+import io.choerodon.manager.api.dto.swagger.PermissionDTO;
+import io.choerodon.manager.api.dto.swagger.SwaggerDiffDTO;
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
 import io.choerodon.mybatis.pagehelper.domain.PageRequest;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,6 +35,43 @@ public interface ApiService {
      */
     String getSwaggerJson(String name, String version);
 
+    /**
+     * 根据route name和version计算扩展后swagger json的强ETag，不获取和扩展文档
+     *
+     * @param name    route name
+     * @param version instance version
+     * @return 无法由已存储的文档确定时返回null
+     */
+    String queryDocumentEtag(String name, String version);
+
+    /**
+     * 获取序列化后的扩展swagger json，已生成时直接返回内存中的结果
+     *
+     * @param name    route name
+     * @param version instance version
+     * @return 服务未运行或文档为空时返回null
+     */
+    SerializedResponse getSwaggerJsonResponse(String name, String version);
+
+    /**
+     * 查询服务文档中所有接口的权限信息，由内存中的文档索引直接返回
+     *
+     * @param name    route name
+     * @param version instance version
+     * @return 权限列表，按文档顺序
+     */
+    List<PermissionDTO> queryPermissions(String name, String version);
+
+    /**
+     * 比较服务两个已存储版本的接口差异
+     *
+     * @param name route name
+     * @param from 旧版本
+     * @param to   新版本
+     * @return 接口差异
+     */
+    SwaggerDiffDTO queryDiff(String name, String from, String to);
+
     /**
      * 根据日期范围在redis中查询服务调用次数
      *
@@ -2,8 +2,11 @@ package io.choerodon.manager.app.service;
 
 import io.choerodon.core.domain.Page;
 import io.choerodon.manager.api.dto.*;
+import io.choerodon.manager.domain.manager.entity.ConfigSnapshot;
 import io.choerodon.mybatis.pagehelper.domain.PageRequest;
 
+import java.util.List;
+
 /**
  * @author wuguokai
  */
@@ -11,6 +14,14 @@ public interface ConfigService {
 
     ConfigDTO queryDefaultByServiceName(String serviceName);
 
+    /**
+     * 获取服务默认配置的预计算快照
+     *
+     * @param serviceName 服务名
+     * @return ConfigSnapshot
+     */
+    ConfigSnapshot queryDefaultSnapshot(String serviceName);
+
     ConfigDTO queryByServiceNameAndConfigVersion(String serviceName, String configVersion);
 
     Page<ConfigDTO> listByServiceName(String serviceName, PageRequest pageRequest, ConfigDTO queryInfo, String queryParam);
@@ -31,6 +42,15 @@ public interface ConfigService {
 
     void check(ConfigCheckDTO configDTO);
 
+    /**
+     * 在所有配置中检索配置项
+     *
+     * @param key   配置项key的查询文本
+     * @param value 配置项value的查询文本
+     * @return 命中的配置项
+     */
+    List<ConfigSearchResultDTO> search(String key, String value);
+
     /**
      * 保存配置项信息到指定的config
      *
@@ -4,6 +4,7 @@ import java.util.List;
 
 import io.choerodon.core.domain.Page;
 import io.choerodon.manager.api.dto.RouteDTO;
+import io.choerodon.manager.api.dto.RouteOverlapDTO;
 import io.choerodon.manager.infra.dataobject.RouteDO;
 import io.choerodon.mybatis.pagehelper.domain.PageRequest;
 
@@ -61,6 +62,19 @@ public interface RouteService {
 
     RouteDTO queryByName(String name);
 
+    /**
+     * 校验路由名称和路径是否重复，并检查路径与已有路由的重叠
+     *
+     * @param routeDTO 路由对象
+     * @return 与已有路由的重叠关系
+     */
+    List<RouteOverlapDTO> checkRoute(RouteDTO routeDTO);
 
-    void checkRoute(RouteDTO routeDTO);
+    /**
+     * 根据请求url查找处理该请求的路由
+     *
+     * @param url 请求url
+     * @return routeDTO
+     */
+    RouteDTO matchRoute(String url);
 }
@@ -6,6 +6,8 @@ import springfox.documentation.swagger.web.SecurityConfiguration;
 import springfox.documentation.swagger.web.SwaggerResource;
 import springfox.documentation.swagger.web.UiConfiguration;
 
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
+
 /**
  * @author superleader8@gmail.com
  * @data 2018/3/15
@@ -17,4 +19,10 @@ public interface SwaggerService {
     UiConfiguration getUiConfiguration();
 
     SecurityConfiguration getSecurityConfiguration();
+
+    SerializedResponse getSwaggerResourceResponse();
+
+    SerializedResponse getUiConfigurationResponse();
+
+    SerializedResponse getSecurityConfigurationResponse();
 }
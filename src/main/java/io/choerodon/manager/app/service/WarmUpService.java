@@ -0,0 +1,29 @@
+package io.choerodon.manager.app.service;
+
+import io.choerodon.manager.domain.manager.entity.WarmUpReport;
+
+/**
+ * 启动预热：应用就绪后加载路由、服务默认配置和各运行服务的swagger文档及文档树，
+ * 避免重启后的第一批请求落在冷路径上
+ *
+ * @author agent
+ */
+public interface WarmUpService {
+
+    /**
+     * 同步执行一次预热，单个预热项失败不影响其他项
+     *
+     * @return 本次预热的结果
+     */
+    WarmUpReport warmUp();
+
+    /**
+     * @return 最近一次预热的结果
+     */
+    WarmUpReport getReport();
+
+    /**
+     * @return 预热仍在进行且已超过choerodon.warm-up.timeout
+     */
+    boolean isTimedOut();
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.choerodon.manager.domain.service.FanOutStrategy;
+import io.choerodon.manager.domain.service.ISwaggerDiffService;
 import io.choerodon.manager.domain.service.ISwaggerService;
 import io.choerodon.manager.infra.dataobject.RouteDO;
 import io.choerodon.manager.infra.mapper.RouteMapper;
@@ -12,8 +14,14 @@ import org.apache.commons.collections.keyvalue.MultiKey;
 import org.apache.commons.collections.map.MultiKeyMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.StringUtils;
 
 import io.choerodon.core.domain.Page;
@@ -23,12 +31,21 @@ import io.choerodon.core.swagger.SwaggerExtraData;
 import io.choerodon.manager.api.dto.swagger.*;
 import io.choerodon.manager.app.service.ApiService;
 import io.choerodon.manager.domain.manager.entity.MyLinkedList;
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
+import io.choerodon.manager.domain.manager.entity.SwaggerDocumentIndex;
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent;
+import io.choerodon.manager.domain.manager.event.SwaggerChangedEvent;
+import io.choerodon.manager.domain.manager.entity.SwaggerSummary;
 import io.choerodon.manager.domain.service.IDocumentService;
 import io.choerodon.manager.infra.common.utils.ManualPageHelper;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+import io.choerodon.manager.infra.common.utils.SwaggerUtil;
+import io.choerodon.manager.infra.common.utils.SymbolTable;
 import io.choerodon.mybatis.pagehelper.domain.PageRequest;
 import springfox.documentation.swagger.web.SwaggerResource;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -52,6 +69,9 @@ public class ApiServiceImpl implements ApiService {
     private static final String API_TREE_DOC = "api-tree-doc";
     private static final String PATH_DETAIL = "path-detail";
     private static final String COLON = ":";
+    private static final String CONTROLLER_SUFFIX = "-controller";
+    private static final String WILDCARD = "*";
+    private static final int SCAN_COUNT = 1000;
 
     private IDocumentService iDocumentService;
 
@@ -59,23 +79,59 @@ public class ApiServiceImpl implements ApiService {
 
     private ISwaggerService iSwaggerService;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    /**
+     * readTree生成的文本节点经过SymbolTable，缓存的文档索引及由其生成的PathDTO、ParameterDTO共享重复的字符串
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper().setNodeFactory(SymbolTable.nodeFactory());
 
     private StringRedisTemplate redisTemplate;
 
-    public ApiServiceImpl(IDocumentService iDocumentService, RouteMapper routeMapper, ISwaggerService iSwaggerService, StringRedisTemplate redisTemplate) {
+    private FanOutStrategy fanOutStrategy;
+
+    private ISwaggerDiffService iSwaggerDiffService;
+
+    @Value("${choerodon.swagger.document-index.cache-size:64}")
+    private int documentIndexCacheSize = 64;
+
+    /**
+     * key为 路由名:版本，文档内容变化时按指纹重建，超出数量时淘汰最久未访问的索引
+     */
+    private final Map<String, SwaggerDocumentIndex> documentIndexes = new LinkedHashMap<String, SwaggerDocumentIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SwaggerDocumentIndex> eldest) {
+            return size() > documentIndexCacheSize;
+        }
+    };
+
+    @Value("${choerodon.swagger.path-detail.redis-cache:true}")
+    private boolean pathDetailRedisCache = true;
+
+    public ApiServiceImpl(IDocumentService iDocumentService, RouteMapper routeMapper, ISwaggerService iSwaggerService,
+                          StringRedisTemplate redisTemplate, FanOutStrategy fanOutStrategy,
+                          ISwaggerDiffService iSwaggerDiffService) {
         this.iDocumentService = iDocumentService;
         this.routeMapper = routeMapper;
         this.iSwaggerService = iSwaggerService;
         this.redisTemplate = redisTemplate;
+        this.fanOutStrategy = fanOutStrategy;
+        this.iSwaggerDiffService = iSwaggerDiffService;
+    }
+
+    public void setPathDetailRedisCache(boolean pathDetailRedisCache) {
+        this.pathDetailRedisCache = pathDetailRedisCache;
+    }
+
+    public void setDocumentIndexCacheSize(int documentIndexCacheSize) {
+        this.documentIndexCacheSize = documentIndexCacheSize;
     }
 
     @Override
     public Page<ControllerDTO> getControllers(String name, String version, PageRequest pageRequest, Map<String, Object> map) {
-        String json = getSwaggerJson(name, version);
-        return Optional.ofNullable(json)
-                .map(j -> ManualPageHelper.postPage(processJson2ControllerDTO(name, j), pageRequest, map))
-                .orElseThrow(() -> new CommonException("error.service.swaggerJson.empty"));
+        try {
+            return processControllerPage(getDocumentIndex(name, version), pageRequest, map);
+        } catch (IOException e) {
+            throw new CommonException("error.parseJson");
+        }
     }
 
     @Override
@@ -94,6 +150,29 @@ public class ApiServiceImpl implements ApiService {
         return json;
     }
 
+    @Override
+    public String queryDocumentEtag(String name, String version) {
+        SerializedResponse expanded = iDocumentService.getExpandedDocument(name, version);
+        if (expanded != null) {
+            return expanded.getEtag();
+        }
+        return iDocumentService.queryDocumentEtag(getRouteName(name), name, version);
+    }
+
+    @Override
+    public SerializedResponse getSwaggerJsonResponse(String name, String version) {
+        SerializedResponse expanded = iDocumentService.getExpandedDocument(name, version);
+        if (expanded != null) {
+            return expanded;
+        }
+        try {
+            return iDocumentService.materializeExpandedDocument(getRouteName(name), name, version);
+        } catch (IOException e) {
+            logger.error("fetch swagger json error, service: {}, version: {}, exception: {}", name, version, e.getMessage());
+            throw new CommonException(e, "error.service.not.run", name, version);
+        }
+    }
+
     @Override
     public Map<String, Object> queryServiceInvoke(String beginDate, String endDate) {
         MultiKeyMap multiKeyMap = getServiceMap();
@@ -223,6 +302,8 @@ public class ApiServiceImpl implements ApiService {
         List<Map<String, Object>> list = new ArrayList<>();
         map.put("service", list);
         int serviceCount = 0;
+        //各服务的文档树互不依赖，收集后并发构建
+        List<Runnable> jobs = new ArrayList<>();
         MapIterator mapIterator = multiKeyMap.mapIterator();
         while (mapIterator.hasNext()) {
             MultiKey multiKey = (MultiKey) mapIterator.next();
@@ -237,9 +318,13 @@ public class ApiServiceImpl implements ApiService {
             serviceMap.put(KEY, serviceKey);
             List<Map<String, Object>> children = new ArrayList<>();
             serviceMap.put(CHILDREN, children);
-            processTreeOnVersionNode(routeName, service, versions, children, serviceKey);
+            jobs.add(() -> processTreeOnVersionNode(routeName, service, versions, children, serviceKey));
             serviceCount++;
         }
+        fanOutStrategy.invokeAll(jobs, job -> {
+            job.run();
+            return null;
+        });
         return map;
     }
 
@@ -261,11 +346,14 @@ public class ApiServiceImpl implements ApiService {
                             objectMapper.readValue(childrenStr, new TypeReference<List<Map<String, Object>>>() {
                             });
                     versionChildren.addAll(list);
+                    MetricsUtil.recordCache(MetricsUtil.CACHE_API_TREE_DOC, true);
                 } catch (IOException e) {
                     logger.error("object mapper read redis cache value {} to List<Map<String, Object>> error, so process children version from db or swagger, exception: {} ", childrenStr, e);
+                    MetricsUtil.recordCache(MetricsUtil.CACHE_API_TREE_DOC, false);
                     processChildrenFromSwaggerJson(routeName, service, version, versionKey, versionChildren);
                 }
             } else {
+                MetricsUtil.recordCache(MetricsUtil.CACHE_API_TREE_DOC, false);
                 processChildrenFromSwaggerJson(routeName, service, version, versionKey, versionChildren);
             }
             versionCount++;
@@ -273,22 +361,21 @@ public class ApiServiceImpl implements ApiService {
     }
 
     private void processChildrenFromSwaggerJson(String routeName, String service, String version, String versionKey, List<Map<String, Object>> versionChildren) {
-        String json = iDocumentService.fetchSwaggerJsonByService(service, version);
-        if (StringUtils.isEmpty(json)) {
-            logger.warn("the swagger json of service {} version {} is empty, skip", service, version);
-        } else {
-            try {
-                JsonNode node = objectMapper.readTree(json);
-                processTreeOnControllerNode(routeName, service, version, node, versionChildren, versionKey);
-            } catch (IOException e) {
-                logger.error("object mapper read tree error, service: {}, version: {}", service, version);
+        try {
+            SwaggerSummary summary = iDocumentService.querySummary(service, version);
+            if (summary == null) {
+                logger.warn("the swagger json of service {} version {} is empty, skip", service, version);
+            } else {
+                processTreeOnControllerNode(routeName, service, version, summary, versionChildren, versionKey);
             }
+        } catch (IOException e) {
+            logger.error("object mapper read tree error, service: {}, version: {}", service, version);
         }
     }
 
-    private void processTreeOnControllerNode(String routeName, String service, String version, JsonNode node, List<Map<String, Object>> children, String parentKey) {
-        Map<String, Map> controllerMap = processControllerMap(node);
-        Map<String, List> pathMap = processPathMap(routeName, service, version, node);
+    private void processTreeOnControllerNode(String routeName, String service, String version, SwaggerSummary summary, List<Map<String, Object>> children, String parentKey) {
+        Map<String, Map> controllerMap = processControllerMap(summary);
+        Map<String, List> pathMap = processPathMap(routeName, service, version, summary);
         int controllerCount = 0;
         for (Map.Entry<String, Map> entry : controllerMap.entrySet()) {
             int pathCount = 0;
@@ -327,50 +414,35 @@ public class ApiServiceImpl implements ApiService {
         return stringBuilder.toString();
     }
 
-    private Map<String, List> processPathMap(String routeName, String service, String version, JsonNode node) {
+    private Map<String, List> processPathMap(String routeName, String service, String version, SwaggerSummary summary) {
         Map<String, List> pathMap = new HashMap<>();
-        JsonNode pathNode = node.get("paths");
-        Iterator<String> urlIterator = pathNode.fieldNames();
-        while (urlIterator.hasNext()) {
-            String url = urlIterator.next();
-            JsonNode methodNode = pathNode.get(url);
-            Iterator<String> methodIterator = methodNode.fieldNames();
-            while (methodIterator.hasNext()) {
-                String method = methodIterator.next();
-                JsonNode jsonNode = methodNode.findValue(method);
-                if (jsonNode.get("description") == null) {
-                    continue;
-                }
-                Map<String, Object> path = new HashMap<>();
-                path.put(TITLE, url);
-                path.put("method", method);
-                path.put("operationId", Optional.ofNullable(jsonNode.get("operationId")).map(JsonNode::asText).orElse(null));
-                path.put("service", service);
-                path.put("version", version);
-                path.put("servicePrefix", routeName);
-                JsonNode tagNode = jsonNode.get("tags");
-                for (int i = 0; i < tagNode.size(); i++) {
-                    String tag = tagNode.get(i).asText();
-                    if (pathMap.get(tag) == null) {
-                        List<Map<String, Object>> list = new ArrayList<>();
-                        list.add(path);
-                        pathMap.put(tag, list);
-                    } else {
-                        pathMap.get(tag).add(path);
-                    }
+        for (SwaggerSummary.Operation operation : summary.getOperations()) {
+            if (!operation.isHasDescription()) {
+                continue;
+            }
+            Map<String, Object> path = new HashMap<>();
+            path.put(TITLE, operation.getUrl());
+            path.put("method", operation.getMethod());
+            path.put("operationId", operation.getOperationId());
+            path.put("service", service);
+            path.put("version", version);
+            path.put("servicePrefix", routeName);
+            for (String tag : operation.getTags()) {
+                if (pathMap.get(tag) == null) {
+                    List<Map<String, Object>> list = new ArrayList<>();
+                    list.add(path);
+                    pathMap.put(tag, list);
+                } else {
+                    pathMap.get(tag).add(path);
                 }
             }
         }
         return pathMap;
     }
 
-    private Map<String, Map> processControllerMap(JsonNode node) {
+    private Map<String, Map> processControllerMap(SwaggerSummary summary) {
         Map<String, Map> controllerMap = new HashMap<>();
-        JsonNode tagNodes = node.get("tags");
-        Iterator<JsonNode> iterator = tagNodes.iterator();
-        while (iterator.hasNext()) {
-            JsonNode jsonNode = iterator.next();
-            String name = jsonNode.findValue("name").asText();
+        for (String name : summary.getTags()) {
             if (!name.contains("-controller") && !name.contains("-endpoint")) {
                 continue;
             }
@@ -473,14 +545,17 @@ public class ApiServiceImpl implements ApiService {
     @Override
     public ControllerDTO queryPathDetail(String serviceName, String version, String controllerName, String operationId) {
         String key = getPathDetailRedisKey(serviceName, version, controllerName, operationId);
-        if (redisTemplate.hasKey(key)) {
+        if (pathDetailRedisCache && redisTemplate.hasKey(key)) {
             String value = redisTemplate.opsForValue().get(key);
             try {
-                return objectMapper.readValue(value, ControllerDTO.class);
+                ControllerDTO controller = objectMapper.readValue(value, ControllerDTO.class);
+                MetricsUtil.recordCache(MetricsUtil.CACHE_PATH_DETAIL, true);
+                return controller;
             } catch (IOException e) {
                 logger.error("object mapper read redis cache value {} to ControllerDTO error, so process from db or swagger, exception: {} ", value, e);
             }
         }
+        MetricsUtil.recordCache(MetricsUtil.CACHE_PATH_DETAIL, false);
         try {
             return processPathDetailFromSwagger(serviceName, version, controllerName, operationId, key);
         } catch (IOException e) {
@@ -491,23 +566,210 @@ public class ApiServiceImpl implements ApiService {
     }
 
     private ControllerDTO processPathDetailFromSwagger(String name, String version, String controllerName, String operationId, String key) throws IOException {
-        String json = getSwaggerJson(name, version);
-        JsonNode node = objectMapper.readTree(json);
-        List<ControllerDTO> controllers = processControllers(node);
+        SwaggerDocumentIndex index = getDocumentIndex(name, version);
         List<ControllerDTO> targetControllers =
-                controllers.stream().filter(c -> controllerName.equals(c.getName())).collect(Collectors.toList());
+                processControllers(index).stream().filter(c -> controllerName.equals(c.getName())).collect(Collectors.toList());
         if (targetControllers.isEmpty()) {
             throw new CommonException("error.controller.not.found", controllerName);
         }
-        Map<String, Map<String, FieldDTO>> map = processDefinitions(node);
-        Map<String, String> dtoMap = convertMap2JsonWithComments(map);
-        JsonNode pathNode = node.get("paths");
-        String basePath = node.get("basePath").asText();
-        ControllerDTO controller = queryPathDetailByOptions(name, pathNode, targetControllers, operationId, dtoMap, basePath);
-        cache2Redis(key, controller);
+        ControllerDTO controller = queryPathDetailByOptions(index, targetControllers, operationId);
+        if (pathDetailRedisCache) {
+            cache2Redis(key, controller);
+        }
         return controller;
     }
 
+    /**
+     * 获取文档索引，扩展后的文档未变化（ETag相同）时直接复用，不再解析json
+     */
+    private SwaggerDocumentIndex getDocumentIndex(String name, String version) throws IOException {
+        SerializedResponse document = getSwaggerJsonResponse(name, version);
+        if (document == null) {
+            throw new CommonException("error.service.swaggerJson.empty");
+        }
+        String key = name + COLON + version;
+        SwaggerDocumentIndex index;
+        synchronized (documentIndexes) {
+            index = documentIndexes.get(key);
+        }
+        if (index == null || !index.getFingerprint().equals(document.getEtag())) {
+            index = buildDocumentIndex(name, document.getEtag(), new String(document.getBody(), StandardCharsets.UTF_8));
+            synchronized (documentIndexes) {
+                documentIndexes.put(key, index);
+            }
+        }
+        return index;
+    }
+
+    SwaggerDocumentIndex buildDocumentIndex(String name, String fingerprint, String json) throws IOException {
+        JsonNode node = MetricsUtil.readSwaggerTree(objectMapper, name, json);
+        List<SwaggerDocumentIndex.Tag> tags = new ArrayList<>();
+        Iterator<JsonNode> iterator = node.get("tags").iterator();
+        while (iterator.hasNext()) {
+            JsonNode jsonNode = iterator.next();
+            tags.add(new SwaggerDocumentIndex.Tag(jsonNode.findValue("name").asText(), jsonNode.findValue(DESCRIPTION).asText()));
+        }
+        //解析definitions,构造json
+        Map<String, String> dtoMap = convertMap2JsonWithComments(processDefinitions(node));
+        JsonNode pathNode = node.get("paths");
+        return new SwaggerDocumentIndex(fingerprint, node.get("basePath").asText(), tags, pathNode, dtoMap,
+                processPermissions(name, pathNode));
+    }
+
+    /**
+     * 解析所有接口描述中的权限信息，每份文档只解析一次
+     */
+    private Map<String, PermissionDTO> processPermissions(String name, JsonNode pathNode) {
+        Map<String, PermissionDTO> permissions = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> urlIterator = pathNode.fields();
+        while (urlIterator.hasNext()) {
+            Map.Entry<String, JsonNode> urlEntry = urlIterator.next();
+            Iterator<Map.Entry<String, JsonNode>> methodIterator = urlEntry.getValue().fields();
+            while (methodIterator.hasNext()) {
+                Map.Entry<String, JsonNode> methodEntry = methodIterator.next();
+                JsonNode jsonNode = methodEntry.getValue();
+                JsonNode extraDataNode = jsonNode.get(DESCRIPTION);
+                JsonNode operationIdNode = jsonNode.get("operationId");
+                if (extraDataNode == null || operationIdNode == null) {
+                    continue;
+                }
+                try {
+                    SwaggerExtraData extraData = objectMapper.readValue(extraDataNode.asText(), SwaggerExtraData.class);
+                    if (extraData.getPermission() == null) {
+                        continue;
+                    }
+                    PermissionDTO permission = processPermission(name, extraData.getPermission(), jsonNode.get("tags"));
+                    permission.setOperationId(operationIdNode.asText());
+                    permission.setUrl(urlEntry.getKey());
+                    permission.setMethod(methodEntry.getKey());
+                    permissions.put(permission.getOperationId(), permission);
+                } catch (IOException e) {
+                    logger.info("extraData read failed.", e);
+                }
+            }
+        }
+        return permissions;
+    }
+
+    private PermissionDTO processPermission(String name, PermissionData permissionData, JsonNode tagNode) {
+        String resourceCode = null;
+        if (tagNode != null) {
+            for (JsonNode tag : tagNode) {
+                String tagName = tag.asText();
+                if (tagName.endsWith(CONTROLLER_SUFFIX)) {
+                    resourceCode = tagName.substring(0, tagName.length() - CONTROLLER_SUFFIX.length());
+                }
+            }
+        }
+        PermissionDTO permission = new PermissionDTO();
+        permission.setResourceCode(resourceCode);
+        permission.setAction(SymbolTable.intern(permissionData.getAction()));
+        permission.setCode(name + "-service." + resourceCode + "." + permissionData.getAction());
+        permission.setPermissionLevel(SymbolTable.intern(permissionData.getPermissionLevel()));
+        permission.setRoles(internRoles(permissionData.getRoles()));
+        permission.setPermissionLogin(permissionData.isPermissionLogin());
+        permission.setPermissionPublic(permissionData.isPermissionPublic());
+        permission.setInnerInterface(permissionData.isPermissionWithin());
+        return permission;
+    }
+
+    private List<String> internRoles(String[] roles) {
+        if (roles == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(roles.length);
+        for (String role : roles) {
+            result.add(SymbolTable.intern(role));
+        }
+        return result;
+    }
+
+    @Override
+    public List<PermissionDTO> queryPermissions(String name, String version) {
+        try {
+            return new ArrayList<>(getDocumentIndex(name, version).getPermissions());
+        } catch (IOException e) {
+            throw new CommonException("error.parseJson");
+        }
+    }
+
+    @Override
+    public SwaggerDiffDTO queryDiff(String name, String from, String to) {
+        return iSwaggerDiffService.diff(getRouteName(name), from, to);
+    }
+
+    /**
+     * 文档写入后移除本地该服务版本的文档索引；
+     * redis中该服务版本的接口树和接口详情缓存只由写入的副本删除，redis不可用时只记录日志，不影响已提交的写入
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwaggerChanged(SwaggerChangedEvent event) {
+        if (event.getService() == null || event.getVersion() == null) {
+            synchronized (documentIndexes) {
+                documentIndexes.clear();
+            }
+            return;
+        }
+        RouteDO example = new RouteDO();
+        example.setServiceId(event.getService());
+        List<RouteDO> routes = routeMapper.select(example);
+        synchronized (documentIndexes) {
+            routes.forEach(route -> documentIndexes.remove(route.getName() + COLON + event.getVersion()));
+        }
+        if (event.isRemote()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(getApiTreeDocKey(event.getService(), event.getVersion()));
+            for (RouteDO route : routes) {
+                deleteRedisKeys(PATH_DETAIL + COLON + route.getName() + COLON + event.getVersion() + COLON + WILDCARD);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("delete api cache in redis error, service: {}, version: {}, exception: {}",
+                    event.getService(), event.getVersion(), e.getMessage());
+        }
+    }
+
+    /**
+     * 接口树、接口详情和文档索引中包含路由名和basePath，路由变更很少，移除本地全部文档索引；
+     * redis中全部接口树和接口详情缓存只由写入的副本删除，redis不可用时只记录日志
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChanged(RouteChangedEvent event) {
+        synchronized (documentIndexes) {
+            documentIndexes.clear();
+        }
+        if (event.isRemote()) {
+            return;
+        }
+        try {
+            deleteRedisKeys(API_TREE_DOC + COLON + WILDCARD);
+            deleteRedisKeys(PATH_DETAIL + COLON + WILDCARD);
+        } catch (DataAccessException e) {
+            logger.warn("delete api cache in redis error on {}, exception: {}", event, e.getMessage());
+        }
+    }
+
+    /**
+     * 通过SCAN查找匹配的key后删除，避免KEYS阻塞与gateway-helper共用的redis
+     */
+    private void deleteRedisKeys(String pattern) {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            List<byte[]> keys = new ArrayList<>();
+            try (Cursor<byte[]> cursor = connection.scan(ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build())) {
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                }
+            } catch (IOException e) {
+                logger.warn("close redis scan cursor error, pattern: {}, exception: {}", pattern, e.getMessage());
+            }
+            if (!keys.isEmpty()) {
+                connection.del(keys.toArray(new byte[keys.size()][]));
+            }
+            return null;
+        });
+    }
+
     private String getPathDetailRedisKey(String name, String version, String controllerName, String operationId) {
         StringBuilder builder = new StringBuilder(PATH_DETAIL);
         builder
@@ -527,6 +789,7 @@ public class ApiServiceImpl implements ApiService {
         Map<String, Object> apiCountMap = new HashMap<>(2);
         List<String> services = new ArrayList<>();
         List<Integer> apiCounts = new ArrayList<>();
+        List<String> serviceVersions = new ArrayList<>();
         apiCountMap.put("services", services);
         apiCountMap.put("apiCounts", apiCounts);
         MultiKeyMap multiKeyMap = getServiceMap();
@@ -537,7 +800,6 @@ public class ApiServiceImpl implements ApiService {
             String routeName = (String) keys[0];
             String service = (String) keys[1];
             Set<String> versions = (Set<String>) multiKeyMap.get(routeName, service);
-            int count = 0;
             //目前只有一个版本，所以取第一个，如果后续支持多版本，此处遍历版本即可
             Iterator<String> iterator = versions.iterator();
             String version = null;
@@ -545,49 +807,49 @@ public class ApiServiceImpl implements ApiService {
                 version = iterator.next();
                 break;
             }
-            if (version != null) {
-                String json = iDocumentService.fetchSwaggerJsonByService(service, version);
-                if (StringUtils.isEmpty(json)) {
-                    logger.warn("the swagger json of service {} version {} is empty, skip", service, version);
-                } else {
-                    try {
-                        JsonNode node = objectMapper.readTree(json);
-                        JsonNode pathNode = node.get("paths");
-                        Iterator<String> urlIterator = pathNode.fieldNames();
-                        while (urlIterator.hasNext()) {
-                            String url = urlIterator.next();
-                            JsonNode methodNode = pathNode.get(url);
-                            count = count + methodNode.size();
-                        }
-                    } catch (IOException e) {
-                        logger.error("object mapper read tree error, service: {}, version: {}", service, version);
-                    }
-                }
-            }
             services.add(service);
+            serviceVersions.add(version);
+        }
+        //接口数量在文档写入时已统计，仅对表中缺失的服务版本实时获取文档
+        Map<String, Integer> storedCounts = iDocumentService.queryApiCounts();
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < services.size(); i++) {
+            String version = serviceVersions.get(i);
+            Integer count = version == null ? Integer.valueOf(0) : storedCounts.get(services.get(i) + COLON + version);
+            if (count == null) {
+                missing.add(i);
+            }
             apiCounts.add(count);
         }
+        List<Integer> fetched = fanOutStrategy.invokeAll(missing, i -> countApi(services.get(i), serviceVersions.get(i)));
+        for (int i = 0; i < missing.size(); i++) {
+            apiCounts.set(missing.get(i), fetched.get(i));
+        }
         return apiCountMap;
     }
 
-    private List<ControllerDTO> processJson2ControllerDTO(String serviceName, String json) {
-        List<ControllerDTO> controllers;
-        try {
-            JsonNode node = objectMapper.readTree(json);
-            //解析definitions,构造json
-            String basePath = node.get("basePath").asText();
-            Map<String, Map<String, FieldDTO>> map = processDefinitions(node);
-            Map<String, String> dtoMap = convertMap2JsonWithComments(map);
-            controllers = processControllers(node);
-            JsonNode pathNode = node.get("paths");
-            processPaths(serviceName, pathNode, controllers, dtoMap, basePath);
-        } catch (IOException e) {
-            throw new CommonException("error.parseJson");
+    private int countApi(String service, String version) {
+        String json = iDocumentService.fetchSwaggerJsonByService(service, version);
+        if (StringUtils.isEmpty(json)) {
+            logger.warn("the swagger json of service {} version {} is empty, skip", service, version);
+            return 0;
         }
-        return controllers;
+        return SwaggerUtil.countApi(service, json);
+    }
+
+    /**
+     * 先用只含名称和描述的controller过滤、排序、分页，再只为当前页的controller生成接口详情
+     * 过滤和排序条件只涉及controller的name和description，与paths无关
+     */
+    Page<ControllerDTO> processControllerPage(SwaggerDocumentIndex index, PageRequest pageRequest, Map<String, Object> map) {
+        Page<ControllerDTO> page = ManualPageHelper.postPage(processControllers(index), pageRequest, map);
+        if (!page.getContent().isEmpty()) {
+            processPaths(index, page.getContent());
+        }
+        return page;
     }
 
-    private Map<String, String> convertMap2JsonWithComments(Map<String, Map<String, FieldDTO>> map) {
+    Map<String, String> convertMap2JsonWithComments(Map<String, Map<String, FieldDTO>> map) {
         Map<String, String> returnMap = new HashMap<>();
         for (Map.Entry<String, Map<String, FieldDTO>> entry : map.entrySet()) {
             StringBuilder sb = new StringBuilder();
@@ -602,89 +864,88 @@ public class ApiServiceImpl implements ApiService {
     }
 
     private void process2String(String ref, Map<String, Map<String, FieldDTO>> map, StringBuilder sb, MyLinkedList<String> linkedList) {
-        for (Map.Entry<String, Map<String, FieldDTO>> entry : map.entrySet()) {
-            String className = subString4ClassName(ref);
-            if (className.equals(entry.getKey())) {
-                sb.append("{\n");
-                Map<String, FieldDTO> fileds = entry.getValue();
-                //两个空格为缩进单位
-                if (fileds != null) {
-                    for (Map.Entry<String, FieldDTO> entry1 : fileds.entrySet()) {
-                        String field = entry1.getKey();
-                        FieldDTO dto = entry1.getValue();
-                        //如果是集合类型，注释拼到字段的上一行
-                        String type = dto.getType();
-                        if ("array".equals(type)) {
-                            //处理集合引用的情况，type为array
+        String className = subString4ClassName(ref);
+        //按类名直接查找，不再遍历所有definitions
+        if (map.containsKey(className)) {
+            sb.append("{\n");
+            Map<String, FieldDTO> fileds = map.get(className);
+            //两个空格为缩进单位
+            if (fileds != null) {
+                for (Map.Entry<String, FieldDTO> entry1 : fileds.entrySet()) {
+                    String field = entry1.getKey();
+                    FieldDTO dto = entry1.getValue();
+                    //如果是集合类型，注释拼到字段的上一行
+                    String type = dto.getType();
+                    if ("array".equals(type)) {
+                        //处理集合引用的情况，type为array
+                        if (dto.getComment() != null) {
+                            sb.append("//");
+                            sb.append(dto.getComment());
+                            sb.append("\n");
+                        }
+                        appendField(sb, field);
+                        sb.append("[\n");
+                        if (dto.getRef() != null) {
+                            String refClassName = subString4ClassName(dto.getRef());
+                            //linkedList深拷贝一份，处理同一个对象对另一个对象的多次引用的情况
+                            MyLinkedList<String> copyLinkedList = linkedList.deepCopy();
+                            copyLinkedList.addNode(refClassName);
+                            //循环引用直接跳出递归
+                            if (copyLinkedList.isLoop()) {
+                                sb.append("{}");
+                            } else {
+                                //递归解析
+                                process2String(refClassName, map, sb, copyLinkedList);
+                            }
+                        } else {
+                            sb.append(type);
+                            sb.append("\n");
+                        }
+                        sb.append("]\n");
+                    } else if (StringUtils.isEmpty(type)) {
+                        //单一对象引用的情况，只有ref
+                        if (dto.getRef() != null) {
                             if (dto.getComment() != null) {
                                 sb.append("//");
                                 sb.append(dto.getComment());
                                 sb.append("\n");
                             }
                             appendField(sb, field);
-                            sb.append("[\n");
-                            if (dto.getRef() != null) {
-                                String refClassName = subString4ClassName(dto.getRef());
-                                //linkedList深拷贝一份，处理同一个对象对另一个对象的多次引用的情况
-                                MyLinkedList<String> copyLinkedList = linkedList.deepCopy();
-                                copyLinkedList.addNode(refClassName);
-                                //循环引用直接跳出递归
-                                if (copyLinkedList.isLoop()) {
-                                    sb.append("{}");
-                                } else {
-                                    //递归解析
-                                    process2String(refClassName, map, sb, copyLinkedList);
-                                }
-                            } else {
-                                sb.append(type);
-                                sb.append("\n");
-                            }
-                            sb.append("]\n");
-                        } else if (StringUtils.isEmpty(type)) {
-                            //单一对象引用的情况，只有ref
-                            if (dto.getRef() != null) {
-                                if (dto.getComment() != null) {
-                                    sb.append("//");
-                                    sb.append(dto.getComment());
-                                    sb.append("\n");
-                                }
-                                appendField(sb, field);
-                                String refClassName = subString4ClassName(dto.getRef());
-                                //linkedList深拷贝一份，处理同一个对象对另一个对象的多次引用的情况
-                                MyLinkedList<String> copyLinkedList = linkedList.deepCopy();
-                                copyLinkedList.addNode(refClassName);
-                                //循环引用直接跳出递归
-                                if (copyLinkedList.isLoop()) {
-                                    sb.append("{}");
-                                } else {
-                                    //递归解析
-                                    process2String(refClassName, map, sb, copyLinkedList);
-                                }
+                            String refClassName = subString4ClassName(dto.getRef());
+                            //linkedList深拷贝一份，处理同一个对象对另一个对象的多次引用的情况
+                            MyLinkedList<String> copyLinkedList = linkedList.deepCopy();
+                            copyLinkedList.addNode(refClassName);
+                            //循环引用直接跳出递归
+                            if (copyLinkedList.isLoop()) {
+                                sb.append("{}");
                             } else {
-                                sb.append("{}\n");
+                                //递归解析
+                                process2String(refClassName, map, sb, copyLinkedList);
                             }
                         } else {
-                            if ("integer".equals(type) || "string".equals(type) || "boolean".equals(type)) {
-                                appendField(sb, field);
-                                sb.append("\"");
-                                sb.append(type);
-                                sb.append("\"");
-                                //拼注释
-                                appendComment(sb, dto);
-                                sb.append("\n");
-                            }
-                            if ("object".equals(type)) {
-                                appendField(sb, field);
-                                sb.append("\"{}\"");
-                                //拼注释
-                                appendComment(sb, dto);
-                                sb.append("\n");
-                            }
+                            sb.append("{}\n");
+                        }
+                    } else {
+                        if ("integer".equals(type) || "string".equals(type) || "boolean".equals(type)) {
+                            appendField(sb, field);
+                            sb.append("\"");
+                            sb.append(type);
+                            sb.append("\"");
+                            //拼注释
+                            appendComment(sb, dto);
+                            sb.append("\n");
+                        }
+                        if ("object".equals(type)) {
+                            appendField(sb, field);
+                            sb.append("\"{}\"");
+                            //拼注释
+                            appendComment(sb, dto);
+                            sb.append("\n");
                         }
                     }
                 }
-                sb.append("}");
             }
+            sb.append("}");
         }
     }
 
@@ -708,24 +969,19 @@ public class ApiServiceImpl implements ApiService {
         }
     }
 
-    private List<ControllerDTO> processControllers(JsonNode node) {
+    private List<ControllerDTO> processControllers(SwaggerDocumentIndex index) {
         List<ControllerDTO> controllers = new ArrayList<>();
-        JsonNode tagNodes = node.get("tags");
-        Iterator<JsonNode> iterator = tagNodes.iterator();
-        while (iterator.hasNext()) {
-            JsonNode jsonNode = iterator.next();
-            String name = jsonNode.findValue("name").asText();
-            String description = jsonNode.findValue(DESCRIPTION).asText();
+        for (SwaggerDocumentIndex.Tag tag : index.getTags()) {
             ControllerDTO controller = new ControllerDTO();
-            controller.setName(name);
-            controller.setDescription(description);
+            controller.setName(tag.getName());
+            controller.setDescription(tag.getDescription());
             controller.setPaths(new ArrayList<>());
             controllers.add(controller);
         }
         return controllers;
     }
 
-    private Map<String, Map<String, FieldDTO>> processDefinitions(JsonNode node) {
+    Map<String, Map<String, FieldDTO>> processDefinitions(JsonNode node) {
         Map<String, Map<String, FieldDTO>> map = new HashMap<>();
         //definitions节点是controller里面的对象json集合
         JsonNode definitionNodes = node.get("definitions");
@@ -770,8 +1026,16 @@ public class ApiServiceImpl implements ApiService {
         return map;
     }
 
-    private ControllerDTO queryPathDetailByOptions(String serviceName, JsonNode pathNode, List<ControllerDTO> targetControllers, String operationId,
-                                                   Map<String, String> dtoMap, String basePath) {
+    private ControllerDTO queryPathDetailByOptions(SwaggerDocumentIndex index, List<ControllerDTO> targetControllers, String operationId) {
+        for (SwaggerDocumentIndex.OperationRef operation : index.findOperations(operationId)) {
+            processPathDetail(index, targetControllers, operation.getUrl(), operation.getMethodNode(), operation.getMethod());
+        }
+        return targetControllers.get(0);
+    }
+
+    private void processPaths(SwaggerDocumentIndex index, List<ControllerDTO> controllers) {
+        JsonNode pathNode = index.getPathNode();
+        Set<String> controllerNames = controllers.stream().map(ControllerDTO::getName).collect(Collectors.toSet());
         Iterator<String> urlIterator = pathNode.fieldNames();
         while (urlIterator.hasNext()) {
             String url = urlIterator.next();
@@ -779,40 +1043,39 @@ public class ApiServiceImpl implements ApiService {
             Iterator<String> methodIterator = methodNode.fieldNames();
             while (methodIterator.hasNext()) {
                 String method = methodIterator.next();
-                JsonNode pathDetailNode = methodNode.get(method);
-                String pathOperationId = pathDetailNode.get("operationId").asText();
-                if (operationId.equals(pathOperationId)) {
-                    processPathDetail(serviceName, targetControllers, dtoMap, url, methodNode, method, basePath);
+                //不属于这些controller的接口不生成详情
+                if (belongsTo(methodNode.get(method), controllerNames)) {
+                    processPathDetail(index, controllers, url, methodNode, method);
                 }
             }
         }
-        return targetControllers.get(0);
     }
 
-    private void processPaths(String serviceName, JsonNode pathNode, List<ControllerDTO> controllers, Map<String, String> dtoMap, String basePath) {
-        Iterator<String> urlIterator = pathNode.fieldNames();
-        while (urlIterator.hasNext()) {
-            String url = urlIterator.next();
-            JsonNode methodNode = pathNode.get(url);
-            Iterator<String> methodIterator = methodNode.fieldNames();
-            while (methodIterator.hasNext()) {
-                String method = methodIterator.next();
-                processPathDetail(serviceName, controllers, dtoMap, url, methodNode, method, basePath);
+    private boolean belongsTo(JsonNode operationNode, Set<String> controllerNames) {
+        JsonNode tagNode = operationNode.get("tags");
+        if (tagNode == null) {
+            return false;
+        }
+        for (JsonNode tag : tagNode) {
+            if (controllerNames.contains(tag.asText())) {
+                return true;
             }
         }
+        return false;
     }
 
-    private void processPathDetail(String serviceName, List<ControllerDTO> controllers, Map<String, String> dtoMap,
-                                   String url, JsonNode methodNode, String method, String basePath) {
+    private void processPathDetail(SwaggerDocumentIndex index, List<ControllerDTO> controllers,
+                                   String url, JsonNode methodNode, String method) {
+        Map<String, String> dtoMap = index.getDefinitionBodies();
         PathDTO path = new PathDTO();
-        path.setBasePath(basePath);
+        path.setBasePath(index.getBasePath());
         path.setUrl(url);
         path.setMethod(method);
         JsonNode jsonNode = methodNode.findValue(method);
         JsonNode tagNode = jsonNode.get("tags");
 
         path.setInnerInterface(false);
-        setCodeOfPathIfExists(serviceName, path, jsonNode.get(DESCRIPTION), tagNode);
+        setCodeOfPathIfExists(path, index.getPermission(Optional.ofNullable(jsonNode.get("operationId")).map(JsonNode::asText).orElse(null)));
 
         for (int i = 0; i < tagNode.size(); i++) {
             String tag = tagNode.get(i).asText();
@@ -847,11 +1110,9 @@ public class ApiServiceImpl implements ApiService {
             if (schemaNode != null) {
                 JsonNode refNode = schemaNode.get("$ref");
                 if (refNode != null) {
-                    for (Map.Entry<String, String> entry : controllerMaps.entrySet()) {
-                        String className = subString4ClassName(refNode.asText());
-                        if (className.equals(entry.getKey())) {
-                            response.setBody(entry.getValue());
-                        }
+                    String body = controllerMaps.get(subString4ClassName(refNode.asText()));
+                    if (body != null) {
+                        response.setBody(body);
                     }
                 } else {
                     String type = Optional.ofNullable(schemaNode.get("type")).map(JsonNode::asText).orElse(null);
@@ -862,13 +1123,7 @@ public class ApiServiceImpl implements ApiService {
                                             .orElse(null))
                             .orElse(null);
                     if (ref != null) {
-                        String body = "";
-                        for (Map.Entry<String, String> entry : controllerMaps.entrySet()) {
-                            String className = subString4ClassName(ref);
-                            if (className.equals(entry.getKey())) {
-                                body = entry.getValue();
-                            }
-                        }
+                        String body = controllerMaps.getOrDefault(subString4ClassName(ref), "");
                         StringBuilder sb = arrayTypeAppendBrackets(type, body);
                         //给array前面的注释加上缩进，即满足\n//\\S+\n的注释
                         response.setBody(sb.toString());
@@ -887,33 +1142,16 @@ public class ApiServiceImpl implements ApiService {
     }
 
     /**
-     * set the code field of the instance of {@link PathDTO} if the extraDataNode parameter
-     * is not null
+     * set the code and innerInterface fields of the instance of {@link PathDTO} if the
+     * permission parameter is not null
      *
-     * @param serviceName   the name of the service
-     * @param path          the dto
-     * @param extraDataNode the extra data node
-     * @param tagNode       the tag node
+     * @param path       the dto
+     * @param permission the permission of the operation in the document index, null if absent
      */
-    private void setCodeOfPathIfExists(String serviceName, PathDTO path, JsonNode extraDataNode, JsonNode tagNode) {
-        if (extraDataNode != null) {
-            try {
-                SwaggerExtraData extraData;
-                String resourceCode = null;
-                for (int i = 0; i < tagNode.size(); i++) {
-                    String tag = tagNode.get(i).asText();
-                    if (tag.endsWith("-controller")) {
-                        resourceCode = tag.substring(0, tag.length() - "-controller".length());
-                    }
-                }
-                extraData = new ObjectMapper().readValue(extraDataNode.asText(), SwaggerExtraData.class);
-                PermissionData permission = extraData.getPermission();
-                String action = permission.getAction();
-                path.setInnerInterface(permission.isPermissionWithin());
-                path.setCode(String.format("%s-service.%s.%s", serviceName, resourceCode, action));
-            } catch (IOException e) {
-                logger.info("extraData read failed.", e);
-            }
+    private void setCodeOfPathIfExists(PathDTO path, PermissionDTO permission) {
+        if (permission != null) {
+            path.setInnerInterface(permission.getInnerInterface());
+            path.setCode(permission.getCode());
         }
     }
 
@@ -946,24 +1184,15 @@ public class ApiServiceImpl implements ApiService {
                     if ("body".equals(parameter.getIn()) && schema != null) {
                         String ref = schema.getRef();
                         if (ref != null) {
-                            for (Map.Entry<String, String> entry : controllerMaps.entrySet()) {
-                                String className = subString4ClassName(ref);
-                                if (className.equals(entry.getKey())) {
-                                    String body = entry.getValue();
-                                    parameter.setBody(body);
-                                }
+                            String body = controllerMaps.get(subString4ClassName(ref));
+                            if (body != null) {
+                                parameter.setBody(body);
                             }
                         } else {
                             String type = schema.getType();
                             String itemRef = Optional.ofNullable(schema.getItems()).map(m -> m.get("$ref")).orElse(null);
                             if (itemRef != null) {
-                                String body = "";
-                                for (Map.Entry<String, String> entry : controllerMaps.entrySet()) {
-                                    String className = subString4ClassName(itemRef);
-                                    if (className.equals(entry.getKey())) {
-                                        body = entry.getValue();
-                                    }
-                                }
+                                String body = controllerMaps.getOrDefault(subString4ClassName(itemRef), "");
                                 StringBuilder sb = arrayTypeAppendBrackets(type, body);
                                 parameter.setBody(sb.toString());
                             } else {
@@ -6,11 +6,14 @@ import io.choerodon.core.domain.Page;
 import io.choerodon.core.exception.CommonException;
 import io.choerodon.manager.api.dto.*;
 import io.choerodon.manager.app.service.ConfigService;
+import io.choerodon.manager.domain.manager.entity.ConfigSnapshot;
 import io.choerodon.manager.domain.manager.entity.RouteE;
 import io.choerodon.manager.domain.manager.entity.ServiceE;
 import io.choerodon.manager.domain.repository.ConfigRepository;
 import io.choerodon.manager.domain.repository.RouteRepository;
 import io.choerodon.manager.domain.repository.ServiceRepository;
+import io.choerodon.manager.domain.service.IConfigSearchService;
+import io.choerodon.manager.domain.service.IConfigSnapshotService;
 import io.choerodon.manager.infra.common.annotation.ConfigNotifyRefresh;
 import io.choerodon.manager.infra.common.utils.config.ConfigUtil;
 import io.choerodon.manager.infra.dataobject.ConfigDO;
@@ -51,12 +54,20 @@ public class ConfigServiceImpl implements ConfigService {
 
     private RouteRepository routeRepository;
 
+    private IConfigSnapshotService configSnapshotService;
+
+    private IConfigSearchService configSearchService;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(ConfigServiceImpl.class);
 
-    public ConfigServiceImpl(ConfigRepository configRepository, ServiceRepository serviceRepository, RouteRepository routeRepository) {
+    public ConfigServiceImpl(ConfigRepository configRepository, ServiceRepository serviceRepository,
+                             RouteRepository routeRepository, IConfigSnapshotService configSnapshotService,
+                             IConfigSearchService configSearchService) {
         this.configRepository = configRepository;
         this.serviceRepository = serviceRepository;
         this.routeRepository = routeRepository;
+        this.configSnapshotService = configSnapshotService;
+        this.configSearchService = configSearchService;
     }
 
     public void setGetRouteServices(String[] getRouteServices) {
@@ -123,41 +134,6 @@ public class ConfigServiceImpl implements ConfigService {
         return update(configId, configDTO);
     }
 
-    /**
-     * 提取出来的判断方法
-     */
-    @SuppressWarnings("unchecked")
-    private void setRoutes(final List<RouteE> routeEList, final Map map) {
-        for (RouteE routeE : routeEList) {
-            String prefix = "zuul.routes." + routeE.getName() + ".";
-            if (routeE.getPath() != null) {
-                map.put(prefix + "path", routeE.getPath());
-            }
-            if (routeE.getServiceId() != null) {
-                map.put(prefix + "serviceId", routeE.getServiceId());
-            }
-            if (routeE.getUrl() != null) {
-                map.put(prefix + "url", routeE.getUrl());
-            }
-            if (routeE.getStripPrefix() != null) {
-                map.put(prefix + "stripPrefix", routeE.getStripPrefix());
-            }
-            if (routeE.getRetryable() != null) {
-                map.put(prefix + "retryable", routeE.getRetryable());
-            }
-            if (routeE.getHelperService() != null) {
-                map.put(prefix + "helperService", routeE.getHelperService());
-            }
-            if (routeE.getCustomSensitiveHeaders() != null && routeE.getCustomSensitiveHeaders()) {
-                map.put(prefix + "customSensitiveHeaders", routeE.getCustomSensitiveHeaders());
-            }
-            if (routeE.getSensitiveHeaders() != null) {
-                map.put(prefix + "sensitiveHeaders", routeE.getSensitiveHeaders());
-            }
-        }
-    }
-
-
     @Override
     public ConfigDTO queryDefaultByServiceName(String serviceName) {
         ConfigDTO configDTO = configRepository.queryDefaultByServiceName(serviceName);
@@ -167,11 +143,20 @@ public class ConfigServiceImpl implements ConfigService {
         }
         if (ArrayUtils.contains(getRouteServices, serviceName)) {
             final List<RouteE> routeEList = routeRepository.getAllRoute();
-            setRoutes(routeEList, configDTO.getValue());
+            ConfigUtil.appendZuulRoutes(routeEList, configDTO.getValue());
         }
         return configDTO;
     }
 
+    @Override
+    public ConfigSnapshot queryDefaultSnapshot(String serviceName) {
+        ConfigSnapshot snapshot = configSnapshotService.queryDefault(serviceName);
+        if (snapshot == null) {
+            throw new CommonException("error.serviceConfigDO.query.serviceNameNotFound");
+        }
+        return snapshot;
+    }
+
 
     @Override
     public ConfigDTO queryByServiceNameAndConfigVersion(String serviceName, String configVersion) {
@@ -182,7 +167,7 @@ public class ConfigServiceImpl implements ConfigService {
         }
         if (ArrayUtils.contains(getRouteServices, serviceName)) {
             final List<RouteE> routeEList = routeRepository.getAllRoute();
-            setRoutes(routeEList, configDTO.getValue());
+            ConfigUtil.appendZuulRoutes(routeEList, configDTO.getValue());
         }
         return configDTO;
     }
@@ -307,4 +292,12 @@ public class ConfigServiceImpl implements ConfigService {
             }
         }
     }
+
+    @Override
+    public List<ConfigSearchResultDTO> search(String key, String value) {
+        if (StringUtils.isBlank(key) && StringUtils.isBlank(value)) {
+            throw new CommonException("error.config.search.empty");
+        }
+        return configSearchService.search(key, value);
+    }
 }
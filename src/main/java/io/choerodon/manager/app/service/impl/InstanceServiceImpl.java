@@ -5,7 +5,6 @@ import static io.choerodon.manager.infra.common.utils.VersionUtil.METADATA_VERSI
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +30,7 @@ import io.choerodon.manager.api.dto.InstanceDetailDTO;
 import io.choerodon.manager.api.dto.YamlDTO;
 import io.choerodon.manager.app.service.InstanceService;
 import io.choerodon.manager.infra.common.utils.ManualPageHelper;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
 import io.choerodon.manager.infra.common.utils.config.ConfigUtil;
 import io.choerodon.manager.infra.feign.ConfigServerClient;
 import io.choerodon.manager.infra.mapper.ConfigMapper;
@@ -44,7 +44,7 @@ public class InstanceServiceImpl implements InstanceService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(InstanceService.class);
 
-    private final ExecutorService asyncExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService asyncExecutor = MetricsUtil.newMonitoredSingleThreadExecutor("instance-config-update");
 
     private static final String CONFIG_VERSION_DEFAULT = "default";
 
@@ -93,6 +93,7 @@ public class InstanceServiceImpl implements InstanceService {
     }
 
     private InstanceDetailDTO processInstanceDetail(InstanceInfo instanceInfo) {
+        String app = instanceInfo.getAppName();
         InstanceDetailDTO instanceDetail = new InstanceDetailDTO();
         instanceDetail.setInstanceId(instanceInfo.getInstanceId());
         instanceDetail.setHostName(instanceInfo.getHostName());
@@ -105,11 +106,11 @@ public class InstanceServiceImpl implements InstanceService {
         instanceDetail.setRegistrationTime(new Date(instanceInfo.getLeaseInfo().getRegistrationTimestamp() * 1000));
         instanceDetail.setMetadata(metadata);
         String healthCheckUrl = instanceInfo.getHealthCheckUrl();
-        fetchEnvInfo(healthCheckUrl, instanceDetail);
+        fetchEnvInfo(app, healthCheckUrl, instanceDetail);
         return instanceDetail;
     }
 
-    private void fetchEnvInfo(String healthCheckUrl, InstanceDetailDTO instanceDetail) {
+    private void fetchEnvInfo(String app, String healthCheckUrl, InstanceDetailDTO instanceDetail) {
         String regex = "http://(\\d+\\.){3}\\d+:\\d+/";
         Pattern pattern = Pattern.compile(regex);
         Matcher matcher = pattern.matcher(healthCheckUrl);
@@ -122,7 +123,7 @@ public class InstanceServiceImpl implements InstanceService {
         String envUrl = url + "env";
         ResponseEntity<String> response;
         try {
-            response = restTemplate.getForEntity(envUrl, String.class);
+            response = MetricsUtil.recordOutbound(app, "env", () -> restTemplate.getForEntity(envUrl, String.class));
             if (response.getStatusCode() == HttpStatus.OK) {
                 processEnvJson(instanceDetail, response.getBody());
             } else {
@@ -202,7 +203,7 @@ public class InstanceServiceImpl implements InstanceService {
         return ConfigUtil.convertDataMapToYaml(map);
     }
 
-    private static class PropertySourceBuilder {
+    static class PropertySourceBuilder {
 
         private final JsonNode root;
         private final Map<String, Data> map = new HashMap<>();
@@ -5,9 +5,11 @@ import io.choerodon.core.convertor.ConvertPageHelper;
 import io.choerodon.core.domain.Page;
 import io.choerodon.core.exception.CommonException;
 import io.choerodon.manager.api.dto.RouteDTO;
+import io.choerodon.manager.api.dto.RouteOverlapDTO;
 import io.choerodon.manager.app.service.RouteService;
 import io.choerodon.manager.domain.factory.RouteEFactory;
 import io.choerodon.manager.domain.manager.entity.RouteE;
+import io.choerodon.manager.domain.manager.entity.RouteOverlap;
 import io.choerodon.manager.domain.repository.RouteRepository;
 import io.choerodon.manager.domain.service.IRouteService;
 import io.choerodon.manager.infra.dataobject.RouteDO;
@@ -15,7 +17,9 @@ import io.choerodon.mybatis.pagehelper.domain.PageRequest;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * 应用层实现
@@ -84,7 +88,7 @@ public class RouteServiceImpl implements RouteService {
     }
 
     @Override
-    public void checkRoute(RouteDTO routeDTO) {
+    public List<RouteOverlapDTO> checkRoute(RouteDTO routeDTO) {
         if (!StringUtils.isEmpty(routeDTO.getName())) {
             RouteDO routeDO = new RouteDO();
             routeDO.setName(routeDTO.getName());
@@ -98,6 +102,25 @@ public class RouteServiceImpl implements RouteService {
             if (routeRepository.countRoute(routeDO) > 0) {
                 throw new CommonException("error.route.insert.pathDuplicate");
             }
+        } else {
+            return Collections.emptyList();
         }
+        List<RouteOverlap> overlaps = irouteService.findOverlaps(routeDTO.getPath(), routeDTO.getId());
+        return overlaps.stream()
+                .map(o -> new RouteOverlapDTO(o.getRoute().getId(), o.getRoute().getName(), o.getRoute().getPath(),
+                        o.getRoute().getServiceId(), o.getType().name()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public RouteDTO matchRoute(String url) {
+        if (StringUtils.isEmpty(url)) {
+            throw new CommonException("error.route.match.urlEmpty");
+        }
+        RouteE routeE = irouteService.matchRoute(url);
+        if (routeE == null) {
+            throw new CommonException("error.route.match.notFound", url);
+        }
+        return ConvertHelper.convert(routeE, RouteDTO.class);
     }
 }
@@ -1,6 +1,5 @@
 package io.choerodon.manager.app.service.impl;
 
-import java.util.Comparator;
 import java.util.List;
 
 import org.springframework.stereotype.Component;
@@ -9,6 +8,7 @@ import springfox.documentation.swagger.web.SwaggerResource;
 import springfox.documentation.swagger.web.UiConfiguration;
 
 import io.choerodon.manager.app.service.SwaggerService;
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
 import io.choerodon.manager.domain.service.ISwaggerService;
 
 /**
@@ -26,9 +26,7 @@ public class SwaggerServiceImpl implements SwaggerService {
 
     @Override
     public List<SwaggerResource> getSwaggerResource() {
-        List<SwaggerResource> swaggerResources = service.getSwaggerResource();
-        swaggerResources.sort(Comparator.comparing(SwaggerResource::getName));
-        return swaggerResources;
+        return service.getSwaggerResource();
     }
 
     @Override
@@ -40,4 +38,19 @@ public class SwaggerServiceImpl implements SwaggerService {
     public SecurityConfiguration getSecurityConfiguration() {
         return service.getSecurityConfiguration();
     }
+
+    @Override
+    public SerializedResponse getSwaggerResourceResponse() {
+        return service.getSwaggerResourceResponse();
+    }
+
+    @Override
+    public SerializedResponse getUiConfigurationResponse() {
+        return service.getUiConfigurationResponse();
+    }
+
+    @Override
+    public SerializedResponse getSecurityConfigurationResponse() {
+        return service.getSecurityConfigurationResponse();
+    }
 }
@@ -0,0 +1,204 @@
+package io.choerodon.manager.app.service.impl;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.collections.keyvalue.MultiKey;
+import org.apache.commons.collections.map.MultiKeyMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import springfox.documentation.swagger.web.SwaggerResource;
+
+import io.choerodon.manager.app.service.ApiService;
+import io.choerodon.manager.app.service.WarmUpService;
+import io.choerodon.manager.domain.manager.entity.WarmUpReport;
+import io.choerodon.manager.domain.service.IConfigSnapshotService;
+import io.choerodon.manager.domain.service.IDocumentService;
+import io.choerodon.manager.domain.service.IRouteService;
+import io.choerodon.manager.domain.service.ISwaggerService;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+
+/**
+ * 预热分三个阶段：
+ * 1. 依次加载路由索引和swagger资源列表（包含一次服务发现扫描）
+ * 2. 以choerodon.warm-up.parallelism个线程并发加载各运行服务的默认配置快照和扩展后的swagger文档
+ * 3. 构建文档树，写入api-tree-doc缓存
+ * 超过choerodon.warm-up.timeout后健康检查不再等待预热，尚未开始的预热项直接记为超时
+ *
+ * @author agent
+ */
+@Service
+public class WarmUpServiceImpl implements WarmUpService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmUpServiceImpl.class);
+
+    private static final String COLON = ":";
+    private static final String VERSION_PARAM = "?version=";
+
+    @Value("${choerodon.warm-up.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${choerodon.warm-up.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${choerodon.warm-up.timeout:120000}")
+    private long timeout = 120000L;
+
+    private IRouteService iRouteService;
+
+    private ISwaggerService iSwaggerService;
+
+    private IConfigSnapshotService iConfigSnapshotService;
+
+    private IDocumentService iDocumentService;
+
+    private ApiService apiService;
+
+    private volatile WarmUpReport report = new WarmUpReport();
+
+    public WarmUpServiceImpl(IRouteService iRouteService, ISwaggerService iSwaggerService,
+                             IConfigSnapshotService iConfigSnapshotService, IDocumentService iDocumentService,
+                             ApiService apiService) {
+        this.iRouteService = iRouteService;
+        this.iSwaggerService = iSwaggerService;
+        this.iConfigSnapshotService = iConfigSnapshotService;
+        this.iDocumentService = iDocumentService;
+        this.apiService = apiService;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * 应用就绪后在后台线程中预热，不阻塞启动流程
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            report.disable();
+            LOGGER.info("warm up is disabled");
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public WarmUpReport warmUp() {
+        WarmUpReport current = new WarmUpReport();
+        current.start();
+        report = current;
+        LOGGER.info("warm up start, parallelism: {}, timeout: {}ms", parallelism, timeout);
+        run(current, "routes", () -> iRouteService.getAll());
+        MultiKeyMap running = new MultiKeyMap();
+        run(current, "instances", () -> running.putAll(iRouteService.getAllRunningInstances()));
+        List<SwaggerResource> resources = new ArrayList<>();
+        run(current, "swagger-resources", () -> resources.addAll(iSwaggerService.getSwaggerResource()));
+
+        Map<String, Runnable> items = new LinkedHashMap<>();
+        for (String service : runningServices(running)) {
+            items.put("config:" + service, () -> iConfigSnapshotService.queryDefault(service));
+        }
+        for (SwaggerResource resource : resources) {
+            String[] name = resource.getName().split(COLON);
+            int index = resource.getLocation().indexOf(VERSION_PARAM);
+            if (name.length != 2 || index < 0) {
+                continue;
+            }
+            String version = resource.getLocation().substring(index + VERSION_PARAM.length());
+            items.put("swagger:" + resource.getName() + COLON + version, () -> {
+                try {
+                    iDocumentService.materializeExpandedDocument(name[1], name[0], version);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+        }
+        runAll(current, items);
+
+        run(current, "api-tree", () -> apiService.queryTreeMenu());
+        current.complete();
+        MetricsUtil.recordWarmUp(current.getDuration(), current.getFailures().size());
+        if (current.getFailures().isEmpty()) {
+            LOGGER.info("warm up finished in {}ms, items: {}", current.getDuration(), current.getItemCount());
+        } else {
+            LOGGER.warn("warm up finished in {}ms, items: {}, failures: {}",
+                    current.getDuration(), current.getItemCount(), current.getFailures());
+        }
+        return current;
+    }
+
+    @Override
+    public WarmUpReport getReport() {
+        return report;
+    }
+
+    @Override
+    public boolean isTimedOut() {
+        WarmUpReport current = report;
+        return current.getStatus() == WarmUpReport.Status.RUNNING && current.getDuration() > timeout;
+    }
+
+    private Set<String> runningServices(MultiKeyMap running) {
+        Set<String> services = new TreeSet<>();
+        for (Object key : running.keySet()) {
+            services.add((String) ((MultiKey) key).getKey(0));
+        }
+        return services;
+    }
+
+    private void runAll(WarmUpReport current, Map<String, Runnable> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "warm-up-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<?>[] futures = items.entrySet().stream()
+                    .map(item -> CompletableFuture.runAsync(() -> run(current, item.getKey(), item.getValue()), executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).join();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void run(WarmUpReport current, String item, Runnable task) {
+        if (isTimedOut()) {
+            current.fail(item, "timeout");
+            return;
+        }
+        try {
+            task.run();
+            current.success();
+        } catch (RuntimeException e) {
+            LOGGER.warn("warm up item {} error, exception: {}", item, e.getMessage());
+            current.fail(item, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 配置项的倒排索引，分别对配置项的key和value分词后建立 词 -> 配置项编号 的位图
+ * 非线程安全，由调用方加锁
+ *
+ * @author agent
+ */
+public class ConfigInvertedIndex {
+
+    private static final Pattern SPLITTER = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+
+    private final Map<Long, int[]> entriesOfConfig = new HashMap<>();
+
+    private final Map<String, BitSet> keyPostings = new HashMap<>();
+
+    private final Map<String, BitSet> valuePostings = new HashMap<>();
+
+    /**
+     * 将配置加入索引，已存在时先移除旧的配置项
+     *
+     * @param configId      配置id
+     * @param serviceName   服务名
+     * @param configVersion 配置版本
+     * @param value         配置项集合
+     */
+    public void put(Long configId, String serviceName, String configVersion, Map<String, Object> value) {
+        remove(configId);
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        int[] ids = new int[value.size()];
+        int i = 0;
+        for (Map.Entry<String, Object> item : value.entrySet()) {
+            Entry entry = new Entry(configId, serviceName, configVersion, item.getKey(), item.getValue());
+            int id = allocate(entry);
+            ids[i++] = id;
+            for (String token : entry.keyTokens) {
+                keyPostings.computeIfAbsent(token, t -> new BitSet()).set(id);
+            }
+            for (String token : entry.valueTokens) {
+                valuePostings.computeIfAbsent(token, t -> new BitSet()).set(id);
+            }
+        }
+        entriesOfConfig.put(configId, ids);
+    }
+
+    /**
+     * 从索引中移除配置的所有配置项
+     *
+     * @param configId 配置id
+     */
+    public void remove(Long configId) {
+        int[] ids = entriesOfConfig.remove(configId);
+        if (ids == null) {
+            return;
+        }
+        for (int id : ids) {
+            Entry entry = entries.get(id);
+            clear(keyPostings, entry.keyTokens, id);
+            clear(valuePostings, entry.valueTokens, id);
+            entries.set(id, null);
+            freeIds.push(id);
+        }
+    }
+
+    /**
+     * 检索同时包含key和value中所有词的配置项
+     *
+     * @param key   配置项key的查询文本，可为空
+     * @param value 配置项value的查询文本，可为空
+     * @return 命中的配置项，按服务名、配置版本、key排序
+     */
+    public List<Entry> search(String key, String value) {
+        List<BitSet> postings = new ArrayList<>();
+        if (!collect(keyPostings, key, postings) || !collect(valuePostings, value, postings) || postings.isEmpty()) {
+            return Collections.emptyList();
+        }
+        postings.sort(Comparator.comparingInt(BitSet::cardinality));
+        BitSet hits = (BitSet) postings.get(0).clone();
+        for (int i = 1; i < postings.size() && !hits.isEmpty(); i++) {
+            hits.and(postings.get(i));
+        }
+        List<Entry> result = new ArrayList<>(hits.cardinality());
+        for (int id = hits.nextSetBit(0); id >= 0; id = hits.nextSetBit(id + 1)) {
+            result.add(entries.get(id));
+        }
+        result.sort(Comparator.comparing(Entry::getServiceName, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Entry::getConfigVersion, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Entry::getKey));
+        return result;
+    }
+
+    public int size() {
+        return entries.size() - freeIds.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        freeIds.clear();
+        entriesOfConfig.clear();
+        keyPostings.clear();
+        valuePostings.clear();
+    }
+
+    /**
+     * 取出查询文本每个词的位图，有词不在索引中时返回false
+     */
+    private static boolean collect(Map<String, BitSet> index, String text, List<BitSet> postings) {
+        for (String token : tokenize(text)) {
+            BitSet bitSet = index.get(token);
+            if (bitSet == null) {
+                return false;
+            }
+            postings.add(bitSet);
+        }
+        return true;
+    }
+
+    private static void clear(Map<String, BitSet> index, String[] tokens, int id) {
+        for (String token : tokens) {
+            BitSet bitSet = index.get(token);
+            if (bitSet != null) {
+                bitSet.clear(id);
+                if (bitSet.isEmpty()) {
+                    index.remove(token);
+                }
+            }
+        }
+    }
+
+    private int allocate(Entry entry) {
+        Integer id = freeIds.poll();
+        if (id == null) {
+            entries.add(entry);
+            return entries.size() - 1;
+        }
+        entries.set(id, entry);
+        return id;
+    }
+
+    /**
+     * 按非字母数字字符分词并转为小写，去重
+     *
+     * @param text 文本
+     * @return 词数组
+     */
+    public static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return new String[0];
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SPLITTER.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token.intern());
+            }
+        }
+        return tokens.toArray(new String[tokens.size()]);
+    }
+
+    /**
+     * 索引中的一个配置项
+     */
+    public static final class Entry {
+
+        private final Long configId;
+
+        private final String serviceName;
+
+        private final String configVersion;
+
+        private final String key;
+
+        private final Object value;
+
+        private final String[] keyTokens;
+
+        private final String[] valueTokens;
+
+        Entry(Long configId, String serviceName, String configVersion, String key, Object value) {
+            this.configId = configId;
+            this.serviceName = serviceName;
+            this.configVersion = configVersion;
+            this.key = key;
+            this.value = value;
+            this.keyTokens = tokenize(key);
+            this.valueTokens = value == null ? new String[0] : tokenize(String.valueOf(value));
+        }
+
+        public Long getConfigId() {
+            return configId;
+        }
+
+        public String getServiceName() {
+            return serviceName;
+        }
+
+        public String getConfigVersion() {
+            return configVersion;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.choerodon.manager.infra.common.utils.config.ConfigFileFormat;
+import io.choerodon.manager.infra.common.utils.config.ConfigUtil;
+
+import static io.choerodon.manager.app.service.impl.ConfigServiceImpl.CONFIG_TYPE_PROPERTIES;
+import static io.choerodon.manager.app.service.impl.ConfigServiceImpl.CONFIG_TYPE_YAML;
+
+/**
+ * 服务默认配置的不可变快照
+ * 配置项的key为排序后并intern的字符串数组，value为与之下标对应的数组，
+ * yaml和properties两种文本格式在构建时预先渲染为字节数组，读取时不再产生新的对象
+ *
+ * @author agent
+ */
+public final class ConfigSnapshot {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String serviceName;
+
+    private final Long serviceId;
+
+    private final Long configId;
+
+    private final String configVersion;
+
+    private final Long objectVersionNumber;
+
+    private final String[] keys;
+
+    private final Object[] values;
+
+    private final byte[] yaml;
+
+    private final byte[] properties;
+
+    private ConfigSnapshot(String serviceName, Long serviceId, Long configId, String configVersion,
+                           Long objectVersionNumber, String[] keys, Object[] values) {
+        this.serviceName = serviceName;
+        this.serviceId = serviceId;
+        this.configId = configId;
+        this.configVersion = configVersion;
+        this.objectVersionNumber = objectVersionNumber;
+        this.keys = keys;
+        this.values = values;
+        Map<String, Object> sorted = toMap();
+        this.yaml = render(sorted, CONFIG_TYPE_YAML);
+        this.properties = render(sorted, CONFIG_TYPE_PROPERTIES);
+    }
+
+    private ConfigSnapshot(String serviceName, Long serviceId, Long configId, String configVersion,
+                           Long objectVersionNumber, String[] keys, Object[] values, byte[] yaml, byte[] properties) {
+        this.serviceName = serviceName;
+        this.serviceId = serviceId;
+        this.configId = configId;
+        this.configVersion = configVersion;
+        this.objectVersionNumber = objectVersionNumber;
+        this.keys = keys;
+        this.values = values;
+        this.yaml = yaml;
+        this.properties = properties;
+    }
+
+    /**
+     * 根据配置项集合构建快照
+     *
+     * @param serviceName         服务名
+     * @param serviceId           服务id
+     * @param configId            配置id
+     * @param configVersion       配置版本
+     * @param objectVersionNumber 配置的乐观锁版本号
+     * @param value               配置项集合
+     * @return ConfigSnapshot
+     */
+    public static ConfigSnapshot of(String serviceName, Long serviceId, Long configId, String configVersion,
+                                    Long objectVersionNumber, Map<String, Object> value) {
+        int size = value == null ? 0 : value.size();
+        String[] keys = new String[size];
+        int i = 0;
+        if (value != null) {
+            for (String key : value.keySet()) {
+                keys[i++] = key.intern();
+            }
+        }
+        Arrays.sort(keys);
+        Object[] values = new Object[size];
+        for (int j = 0; j < size; j++) {
+            values[j] = value.get(keys[j]);
+        }
+        return new ConfigSnapshot(serviceName, serviceId, configId, configVersion, objectVersionNumber, keys, values);
+    }
+
+    /**
+     * 序列化为二进制格式，用于本地检查点，预先渲染的文本一并保存，还原时无需重新渲染
+     *
+     * @return byte[]
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeLong(out, serviceId);
+            writeLong(out, configId);
+            writeLong(out, objectVersionNumber);
+            out.writeBoolean(configVersion != null);
+            if (configVersion != null) {
+                out.writeUTF(configVersion);
+            }
+            writeBytes(out, MAPPER.writeValueAsBytes(toMap()));
+            writeBytes(out, yaml);
+            writeBytes(out, properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 从encode生成的二进制内容还原
+     *
+     * @param serviceName 服务名
+     * @param buffer      二进制内容
+     * @return ConfigSnapshot
+     * @throws IOException 内容格式错误
+     */
+    public static ConfigSnapshot decode(String serviceName, ByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            Long serviceId = readLong(in);
+            Long configId = readLong(in);
+            Long objectVersionNumber = readLong(in);
+            String configVersion = in.readBoolean() ? in.readUTF() : null;
+            Map<String, Object> value = MAPPER.readValue(readBytes(in), new TypeReference<LinkedHashMap<String, Object>>() {
+            });
+            String[] keys = new String[value.size()];
+            Object[] values = new Object[value.size()];
+            int i = 0;
+            for (Map.Entry<String, Object> entry : value.entrySet()) {
+                keys[i] = entry.getKey().intern();
+                values[i++] = entry.getValue();
+            }
+            return new ConfigSnapshot(serviceName, serviceId, configId, configVersion, objectVersionNumber,
+                    keys, values, readBytes(in), readBytes(in));
+        }
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        out.writeInt(value.length);
+        out.write(value);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] value = new byte[in.readInt()];
+        in.readFully(value);
+        return value;
+    }
+
+    private static byte[] render(Map<String, Object> map, String type) {
+        if (map.isEmpty()) {
+            return new byte[0];
+        }
+        return ConfigUtil.convertMapToText(map, type).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 根据key二分查找配置项的值
+     *
+     * @param key 配置项key
+     * @return 不存在时返回null
+     */
+    public Object get(String key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index < 0 ? null : values[index];
+    }
+
+    public boolean containsKey(String key) {
+        return Arrays.binarySearch(keys, key) >= 0;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String keyAt(int index) {
+        return keys[index];
+    }
+
+    public Object valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * 转换为按key排序的map，每次调用返回新的对象，仅用于兼容需要map的场景
+     *
+     * @return Map
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], values[i]);
+        }
+        return map;
+    }
+
+    /**
+     * 获取预先渲染的配置文本，返回的数组为快照内部共享，调用方不得修改
+     *
+     * @param type 文本类型，yaml、yml或properties
+     * @return byte[]
+     */
+    public byte[] getText(String type) {
+        if (ConfigFileFormat.PROPERTIES == ConfigFileFormat.fromString(type)) {
+            return properties;
+        }
+        return yaml;
+    }
+
+    public byte[] getYaml() {
+        return yaml;
+    }
+
+    public byte[] getProperties() {
+        return properties;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public Long getConfigId() {
+        return configId;
+    }
+
+    public String getConfigVersion() {
+        return configVersion;
+    }
+
+    public Long getObjectVersionNumber() {
+        return objectVersionNumber;
+    }
+}
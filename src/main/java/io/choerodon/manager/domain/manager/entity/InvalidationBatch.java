@@ -0,0 +1,172 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * 副本之间传递的一批缓存失效消息
+ * origin为发送副本的标识，每次启动生成新的标识；sequence在每发送一批非空消息后加一，
+ * 没有消息时按心跳间隔发送entries为空、sequence不变的批次，接收方据此发现丢失的消息
+ * 序列化为紧凑的json：{"o":"origin","s":12,"e":[["S","manager-service","1.0"],["R","manager",null]]}
+ *
+ * @author agent
+ */
+public class InvalidationBatch {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String origin;
+
+    private final long sequence;
+
+    private final List<Entry> entries;
+
+    public InvalidationBatch(String origin, long sequence, List<Entry> entries) {
+        this.origin = origin;
+        this.sequence = sequence;
+        this.entries = entries;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public boolean isHeartbeat() {
+        return entries.isEmpty();
+    }
+
+    public String encode() {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("o", origin);
+        root.put("s", sequence);
+        ArrayNode array = root.putArray("e");
+        for (Entry entry : entries) {
+            array.addArray().add(entry.entity.name()).add(entry.key).add(entry.version);
+        }
+        return root.toString();
+    }
+
+    /**
+     * @param payload encode的结果
+     * @return InvalidationBatch
+     * @throws IOException 格式错误或包含未知的实体类型
+     */
+    public static InvalidationBatch decode(String payload) throws IOException {
+        JsonNode root = MAPPER.readTree(payload);
+        if (root == null || !root.hasNonNull("o") || !root.hasNonNull("s")) {
+            throw new IOException("invalid invalidation batch: " + payload);
+        }
+        List<Entry> entries = new ArrayList<>();
+        JsonNode array = root.get("e");
+        if (array != null) {
+            for (JsonNode node : array) {
+                try {
+                    Entry entry = new Entry(Entity.valueOf(node.get(0).asText()), text(node.get(1)), text(node.get(2)));
+                    if (entry.entity == Entity.C) {
+                        parseId(entry.key);
+                        parseId(entry.version);
+                    }
+                    entries.add(entry);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("invalid invalidation entry: " + node, e);
+                }
+            }
+        }
+        return new InvalidationBatch(root.get("o").asText(), root.get("s").asLong(), entries);
+    }
+
+    private static void parseId(String id) {
+        if (id != null) {
+            Long.parseLong(id);
+        }
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    /**
+     * 失效的实体类型
+     */
+    public enum Entity {
+        /**
+         * 路由，key为路由名
+         */
+        R,
+        /**
+         * 配置，key为服务id，version为配置id
+         */
+        C,
+        /**
+         * swagger文档，key为服务名，version为服务版本
+         */
+        S
+    }
+
+    /**
+     * 单条失效消息，key为null表示该类实体全部失效
+     */
+    public static class Entry {
+
+        private final Entity entity;
+
+        private final String key;
+
+        private final String version;
+
+        public Entry(Entity entity, String key, String version) {
+            this.entity = entity;
+            this.key = key;
+            this.version = version;
+        }
+
+        public Entity getEntity() {
+            return entity;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Entry entry = (Entry) o;
+            return entity == entry.entity && Objects.equals(key, entry.key) && Objects.equals(version, entry.version);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entity, key, version);
+        }
+
+        @Override
+        public String toString() {
+            return entity + ":" + key + ":" + version;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 响应体及其gzip压缩结果保存在堆外的SerializedResponse，创建后不可变
+ * 直接写出时使用getBodyBuffer、getGzipBodyBuffer，不产生堆上的副本；
+ * getBody、getGzipBody每次调用都会复制到堆上，只用于构建索引等不频繁的场景
+ *
+ * @author agent
+ */
+public final class OffHeapResponse extends SerializedResponse {
+
+    private final ByteBuffer body;
+
+    private final ByteBuffer gzipBody;
+
+    private OffHeapResponse(String etag, ByteBuffer body, ByteBuffer gzipBody) {
+        super(etag);
+        this.body = body;
+        this.gzipBody = gzipBody;
+    }
+
+    /**
+     * 将响应体及其gzip压缩结果复制到堆外
+     *
+     * @param response 堆上的响应
+     * @return OffHeapResponse
+     */
+    public static OffHeapResponse copyOf(SerializedResponse response) {
+        return new OffHeapResponse(response.getEtag(), direct(response.getBodyBuffer()),
+                direct(response.getGzipBodyBuffer()));
+    }
+
+    private static ByteBuffer direct(ByteBuffer source) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(source.remaining());
+        buffer.put(source);
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return 占用的堆外字节数
+     */
+    public int size() {
+        return body.capacity() + gzipBody.capacity();
+    }
+
+    @Override
+    public byte[] getBody() {
+        return copy(body);
+    }
+
+    @Override
+    public byte[] getGzipBody() {
+        return copy(gzipBody);
+    }
+
+    @Override
+    public ByteBuffer getBodyBuffer() {
+        return body.duplicate();
+    }
+
+    @Override
+    public ByteBuffer getGzipBodyBuffer() {
+        return gzipBody.duplicate();
+    }
+
+    private static byte[] copy(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
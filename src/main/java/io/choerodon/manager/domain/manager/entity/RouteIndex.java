@@ -0,0 +1,318 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.util.*;
+
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * 路由的内存索引，构建后不可变
+ * 按name、serviceId建立哈希索引，按路由path的每一段建立前缀树用于根据请求url查找路由
+ * 索引中的RouteE为共享对象，调用方不得修改
+ *
+ * @author agent
+ */
+public final class RouteIndex {
+
+    private static final String DOUBLE_STAR = "**";
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    private final List<Entry> entries;
+
+    private final Map<String, RouteE> byName;
+
+    private final Map<String, RouteE> byServiceId;
+
+    private final Node root = new Node();
+
+    public RouteIndex(Collection<RouteE> routes) {
+        List<RouteE> sorted = routes == null ? new ArrayList<>() : new ArrayList<>(routes);
+        sorted.sort(Comparator.comparing(RouteE::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        this.entries = new ArrayList<>(sorted.size());
+        this.byName = new HashMap<>(sorted.size() * 2);
+        this.byServiceId = new HashMap<>(sorted.size() * 2);
+        for (RouteE routeE : sorted) {
+            entries.add(new Entry(routeE));
+            if (routeE.getName() != null) {
+                byName.putIfAbsent(routeE.getName(), routeE);
+            }
+            if (routeE.getServiceId() != null) {
+                byServiceId.putIfAbsent(routeE.getServiceId(), routeE);
+            }
+            if (routeE.getPath() != null) {
+                insert(routeE);
+            }
+        }
+    }
+
+    public RouteE getByName(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * 获取服务对应的路由，存在多个时返回id最小的路由
+     *
+     * @param serviceId 服务名
+     * @return RouteE
+     */
+    public RouteE getByServiceId(String serviceId) {
+        return byServiceId.get(serviceId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 根据请求url查找对应的路由，多个路由匹配时返回最精确的路由
+     *
+     * @param url 请求url，形如/iam/v1/users
+     * @return 不存在时返回null
+     */
+    public RouteE match(String url) {
+        if (url == null) {
+            return null;
+        }
+        String[] segments = tokenize(url);
+        Set<RouteE> candidates = new LinkedHashSet<>();
+        collect(root, segments, 0, candidates);
+        RouteE best = null;
+        Comparator<String> comparator = MATCHER.getPatternComparator(url);
+        for (RouteE candidate : candidates) {
+            if (!MATCHER.match(candidate.getPath(), url)) {
+                continue;
+            }
+            if (best == null || comparator.compare(candidate.getPath(), best.getPath()) < 0) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 按条件过滤路由，字符串条件为忽略大小写的包含匹配，与原有sql的like语义一致
+     *
+     * @param name      路由名
+     * @param path      路由path
+     * @param serviceId 服务名
+     * @param builtIn   是否内置
+     * @param params    name、path、serviceId任一包含即匹配
+     * @return 按id排序的路由
+     */
+    public List<RouteE> filter(String name, String path, String serviceId, Boolean builtIn, String params) {
+        String lowerName = lower(name);
+        String lowerPath = lower(path);
+        String lowerServiceId = lower(serviceId);
+        String lowerParams = lower(params);
+        List<RouteE> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (contains(entry.name, lowerName) && contains(entry.path, lowerPath)
+                    && contains(entry.serviceId, lowerServiceId)
+                    && (builtIn == null || builtIn.equals(entry.route.getBuiltIn()))
+                    && (lowerParams == null || contains(entry.name, lowerParams)
+                    || contains(entry.path, lowerParams) || contains(entry.serviceId, lowerParams))) {
+                result.add(entry.route);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 查找与path存在重叠的路由，只沿前缀树上可能重叠的分支遍历，不与所有路由逐一比较
+     *
+     * @param path      Ant风格的路由path
+     * @param excludeId 排除的路由id，更新路由时为自身id，可为空
+     * @return 按路由id排序的重叠关系
+     */
+    public List<RouteOverlap> findOverlaps(String path, Long excludeId) {
+        if (path == null) {
+            return Collections.emptyList();
+        }
+        String[] segments = tokenize(path);
+        Set<RouteE> candidates = new LinkedHashSet<>();
+        overlapping(root, segments, 0, candidates, new IdentityHashMap<>());
+        List<RouteOverlap> overlaps = new ArrayList<>();
+        for (RouteE candidate : candidates) {
+            if (excludeId != null && excludeId.equals(candidate.getId())) {
+                continue;
+            }
+            String[] other = tokenize(candidate.getPath());
+            boolean covered = covers(other, 0, segments, 0);
+            boolean covering = covers(segments, 0, other, 0);
+            RouteOverlap.Type type;
+            if (covered && covering) {
+                type = RouteOverlap.Type.DUPLICATE;
+            } else if (covered) {
+                type = RouteOverlap.Type.SHADOWED;
+            } else if (covering) {
+                type = RouteOverlap.Type.SHADOWS;
+            } else {
+                type = RouteOverlap.Type.OVERLAP;
+            }
+            overlaps.add(new RouteOverlap(candidate, type));
+        }
+        overlaps.sort(Comparator.comparing(o -> o.getRoute().getId(), Comparator.nullsLast(Comparator.naturalOrder())));
+        return overlaps;
+    }
+
+    /**
+     * 收集前缀树中可能与segments同时匹配某个url的路由
+     */
+    private static void overlapping(Node node, String[] segments, int index, Set<RouteE> candidates,
+                                    Map<Node, BitSet> visited) {
+        BitSet visitedIndexes = visited.computeIfAbsent(node, n -> new BitSet());
+        if (visitedIndexes.get(index)) {
+            return;
+        }
+        visitedIndexes.set(index);
+        if (index == segments.length) {
+            candidates.addAll(node.routes);
+        } else if (DOUBLE_STAR.equals(segments[index])) {
+            overlapping(node, segments, index + 1, candidates, visited);
+            for (Node child : node.literals.values()) {
+                overlapping(child, segments, index, candidates, visited);
+            }
+            for (Node child : node.patterns.values()) {
+                overlapping(child, segments, index, candidates, visited);
+            }
+        } else {
+            String segment = segments[index];
+            if (isPattern(segment)) {
+                for (Map.Entry<String, Node> literal : node.literals.entrySet()) {
+                    if (MATCHER.match(segment, literal.getKey())) {
+                        overlapping(literal.getValue(), segments, index + 1, candidates, visited);
+                    }
+                }
+                for (Node child : node.patterns.values()) {
+                    overlapping(child, segments, index + 1, candidates, visited);
+                }
+            } else {
+                Node literal = node.literals.get(segment);
+                if (literal != null) {
+                    overlapping(literal, segments, index + 1, candidates, visited);
+                }
+                for (Map.Entry<String, Node> pattern : node.patterns.entrySet()) {
+                    if (MATCHER.match(pattern.getKey(), segment)) {
+                        overlapping(pattern.getValue(), segments, index + 1, candidates, visited);
+                    }
+                }
+            }
+        }
+        if (node.doubleStar != null) {
+            for (int i = index; i <= segments.length; i++) {
+                overlapping(node.doubleStar, segments, i, candidates, visited);
+            }
+        }
+    }
+
+    /**
+     * 判断pattern是否覆盖other能匹配的所有url，无法精确判断的通配段按不覆盖处理
+     */
+    private static boolean covers(String[] pattern, int i, String[] other, int j) {
+        if (i == pattern.length) {
+            return j == other.length;
+        }
+        if (DOUBLE_STAR.equals(pattern[i])) {
+            return covers(pattern, i + 1, other, j) || (j < other.length && covers(pattern, i, other, j + 1));
+        }
+        if (j == other.length || DOUBLE_STAR.equals(other[j])) {
+            return false;
+        }
+        return segmentCovers(pattern[i], other[j]) && covers(pattern, i + 1, other, j + 1);
+    }
+
+    private static boolean segmentCovers(String pattern, String other) {
+        if (pattern.equals(other) || "*".equals(pattern) || (pattern.startsWith("{") && pattern.endsWith("}"))) {
+            return true;
+        }
+        return isPattern(pattern) && !isPattern(other) && MATCHER.match(pattern, other);
+    }
+
+    private void insert(RouteE routeE) {
+        Node node = root;
+        for (String segment : tokenize(routeE.getPath())) {
+            if (DOUBLE_STAR.equals(segment)) {
+                if (node.doubleStar == null) {
+                    node.doubleStar = new Node();
+                }
+                node = node.doubleStar;
+            } else if (isPattern(segment)) {
+                node = node.patterns.computeIfAbsent(segment, s -> new Node());
+            } else {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        node.routes.add(routeE);
+    }
+
+    private static void collect(Node node, String[] segments, int index, Set<RouteE> candidates) {
+        if (index == segments.length) {
+            candidates.addAll(node.routes);
+        } else {
+            Node literal = node.literals.get(segments[index]);
+            if (literal != null) {
+                collect(literal, segments, index + 1, candidates);
+            }
+            for (Map.Entry<String, Node> pattern : node.patterns.entrySet()) {
+                if (MATCHER.match(pattern.getKey(), segments[index])) {
+                    collect(pattern.getValue(), segments, index + 1, candidates);
+                }
+            }
+        }
+        if (node.doubleStar != null) {
+            for (int i = index; i <= segments.length; i++) {
+                collect(node.doubleStar, segments, i, candidates);
+            }
+        }
+    }
+
+    private static String[] tokenize(String path) {
+        StringTokenizer tokenizer = new StringTokenizer(path, AntPathMatcher.DEFAULT_PATH_SEPARATOR);
+        String[] segments = new String[tokenizer.countTokens()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = tokenizer.nextToken().trim();
+        }
+        return segments;
+    }
+
+    private static boolean isPattern(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    private static String lower(String value) {
+        return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean contains(String value, String part) {
+        return part == null || (value != null && value.contains(part));
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>(4);
+
+        private final Map<String, Node> patterns = new LinkedHashMap<>(2);
+
+        private final List<RouteE> routes = new ArrayList<>(1);
+
+        private Node doubleStar;
+    }
+
+    private static final class Entry {
+
+        private final RouteE route;
+
+        private final String name;
+
+        private final String path;
+
+        private final String serviceId;
+
+        private Entry(RouteE route) {
+            this.route = route;
+            this.name = lower(route.getName());
+            this.path = lower(route.getPath());
+            this.serviceId = lower(route.getServiceId());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.choerodon.manager.domain.manager.entity;
+
+/**
+ * 路由path之间的重叠关系
+ *
+ * @author agent
+ */
+public class RouteOverlap {
+
+    /**
+     * 重叠类型
+     */
+    public enum Type {
+        /**
+         * path相同
+         */
+        DUPLICATE,
+        /**
+         * 被检查的path被已有路由完全覆盖，请求可能被已有路由拦截
+         */
+        SHADOWED,
+        /**
+         * 被检查的path完全覆盖已有路由
+         */
+        SHADOWS,
+        /**
+         * 部分url同时匹配两个路由
+         */
+        OVERLAP
+    }
+
+    private final RouteE route;
+
+    private final Type type;
+
+    public RouteOverlap(RouteE route, Type type) {
+        this.route = route;
+        this.type = type;
+    }
+
+    public RouteE getRoute() {
+        return route;
+    }
+
+    public Type getType() {
+        return type;
+    }
+}
@@ -0,0 +1,153 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.DigestUtils;
+
+import io.choerodon.core.exception.CommonException;
+
+/**
+ * 预先序列化好的json响应体及其强ETag，内容不变时可直接写出，无需重复序列化
+ *
+ * @author agent
+ */
+public class SerializedResponse {
+
+    private final byte[] body;
+
+    private final String etag;
+
+    private volatile byte[] gzipBody;
+
+    public SerializedResponse(byte[] body) {
+        this(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+    }
+
+    /**
+     * @param body 响应体
+     * @param etag 由调用方根据内容来源计算的强ETag，需带双引号
+     */
+    public SerializedResponse(byte[] body, String etag) {
+        this.body = body;
+        this.etag = etag;
+    }
+
+    /**
+     * 供响应体不在堆上的子类使用
+     *
+     * @param etag 强ETag，需带双引号
+     */
+    protected SerializedResponse(String etag) {
+        this.body = null;
+        this.etag = etag;
+    }
+
+    /**
+     * 将对象序列化为json字节
+     *
+     * @param mapper ObjectMapper
+     * @param value  响应对象
+     * @return SerializedResponse
+     */
+    public static SerializedResponse of(ObjectMapper mapper, Object value) {
+        try {
+            return new SerializedResponse(mapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new CommonException("error.response.serialize", e);
+        }
+    }
+
+    /**
+     * 判断请求头If-None-Match是否与当前ETag一致，一致时可直接返回304
+     *
+     * @param ifNoneMatch If-None-Match请求头，可能包含多个以逗号分隔的ETag
+     * @return 是否一致
+     */
+    public boolean matches(String ifNoneMatch) {
+        return matches(etag, ifNoneMatch);
+    }
+
+    /**
+     * 判断请求头If-None-Match是否与给定的ETag一致
+     *
+     * @param etag        ETag，为空时总是不一致
+     * @param ifNoneMatch If-None-Match请求头
+     * @return 是否一致
+     */
+    public static boolean matches(String etag, String ifNoneMatch) {
+        if (etag == null || ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if ("*".equals(trimmed) || etag.equals(trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * gzip编码的响应体使用的强ETag，与原文的ETag不同，在引号内追加-gzip
+     *
+     * @param etag 原文的强ETag，为空时返回null
+     * @return gzip编码的ETag
+     */
+    public static String gzipEtag(String etag) {
+        if (etag == null) {
+            return null;
+        }
+        return etag.endsWith("\"") ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag + "-gzip";
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * 只读的响应体，用于直接写出到响应通道，不复制内容
+     *
+     * @return ByteBuffer
+     */
+    public ByteBuffer getBodyBuffer() {
+        return ByteBuffer.wrap(getBody()).asReadOnlyBuffer();
+    }
+
+    /**
+     * 只读的gzip响应体，首次调用时压缩并缓存
+     *
+     * @return ByteBuffer
+     */
+    public ByteBuffer getGzipBodyBuffer() {
+        return ByteBuffer.wrap(getGzipBody()).asReadOnlyBuffer();
+    }
+
+    /**
+     * gzip压缩后的响应体，首次调用时压缩并缓存
+     *
+     * @return gzip字节
+     */
+    public byte[] getGzipBody() {
+        byte[] current = gzipBody;
+        if (current == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(body.length / 4, 64));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new CommonException("error.response.serialize", e);
+            }
+            current = out.toByteArray();
+            gzipBody = current;
+        }
+        return current;
+    }
+}
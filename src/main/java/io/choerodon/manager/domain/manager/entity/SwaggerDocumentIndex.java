@@ -0,0 +1,172 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.util.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import io.choerodon.manager.api.dto.swagger.PermissionDTO;
+
+/**
+ * 单个服务版本swagger文档的索引，每份文档只构建一次
+ * 包含operationId到(url, method, 节点)的索引、definition类名到渲染后请求/响应体的索引
+ * 以及operationId到权限信息的索引，查询接口详情时无需遍历paths和definitions，也无需重复解析权限
+ *
+ * @author agent
+ */
+public class SwaggerDocumentIndex {
+
+    private final String fingerprint;
+
+    private final String basePath;
+
+    private final List<Tag> tags;
+
+    private final JsonNode pathNode;
+
+    private final Map<String, List<OperationRef>> operations;
+
+    private final Map<String, String> definitionBodies;
+
+    private final Map<String, PermissionDTO> permissions;
+
+    /**
+     * @param fingerprint 文档指纹，即扩展后文档的ETag，变化时索引需要重建
+     * @param permissions key为operationId，按文档顺序
+     */
+    public SwaggerDocumentIndex(String fingerprint, String basePath, List<Tag> tags, JsonNode pathNode,
+                                Map<String, String> definitionBodies, Map<String, PermissionDTO> permissions) {
+        this.fingerprint = fingerprint;
+        this.basePath = basePath;
+        this.tags = Collections.unmodifiableList(tags);
+        this.pathNode = pathNode;
+        this.definitionBodies = Collections.unmodifiableMap(definitionBodies);
+        this.permissions = Collections.unmodifiableMap(permissions);
+        Map<String, List<OperationRef>> index = new HashMap<>();
+        if (pathNode != null) {
+            Iterator<Map.Entry<String, JsonNode>> urlIterator = pathNode.fields();
+            while (urlIterator.hasNext()) {
+                Map.Entry<String, JsonNode> url = urlIterator.next();
+                Iterator<Map.Entry<String, JsonNode>> methodIterator = url.getValue().fields();
+                while (methodIterator.hasNext()) {
+                    Map.Entry<String, JsonNode> method = methodIterator.next();
+                    JsonNode operationId = method.getValue().get("operationId");
+                    if (operationId != null) {
+                        index.computeIfAbsent(operationId.asText(), k -> new ArrayList<>(1))
+                                .add(new OperationRef(url.getKey(), method.getKey(), url.getValue()));
+                    }
+                }
+            }
+        }
+        this.operations = index;
+    }
+
+    /**
+     * 根据operationId查找接口，文档中operationId重复时按文档顺序全部返回
+     *
+     * @param operationId operationId
+     * @return 不存在时返回空集合
+     */
+    public List<OperationRef> findOperations(String operationId) {
+        return operations.getOrDefault(operationId, Collections.emptyList());
+    }
+
+    /**
+     * 根据$ref或类名获取渲染后的对象体
+     *
+     * @param ref 形如#/definitions/RouteDTO或RouteDTO
+     * @return 不存在时返回null
+     */
+    public String getDefinitionBody(String ref) {
+        return definitionBodies.get(ref.substring(ref.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * 根据operationId获取接口的权限信息
+     *
+     * @param operationId operationId
+     * @return 接口描述中没有权限信息时返回null
+     */
+    public PermissionDTO getPermission(String operationId) {
+        return permissions.get(operationId);
+    }
+
+    public Collection<PermissionDTO> getPermissions() {
+        return permissions.values();
+    }
+
+    public Map<String, String> getDefinitionBodies() {
+        return definitionBodies;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getBasePath() {
+        return basePath;
+    }
+
+    public List<Tag> getTags() {
+        return tags;
+    }
+
+    public JsonNode getPathNode() {
+        return pathNode;
+    }
+
+    /**
+     * 顶层tag，即controller
+     */
+    public static class Tag {
+
+        private final String name;
+
+        private final String description;
+
+        public Tag(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * 接口在文档中的位置
+     */
+    public static class OperationRef {
+
+        private final String url;
+
+        private final String method;
+
+        private final JsonNode methodNode;
+
+        public OperationRef(String url, String method, JsonNode methodNode) {
+            this.url = url;
+            this.method = method;
+            this.methodNode = methodNode;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * url对应的节点，包含该url下的所有请求方法
+         */
+        public JsonNode getMethodNode() {
+            return methodNode;
+        }
+    }
+}
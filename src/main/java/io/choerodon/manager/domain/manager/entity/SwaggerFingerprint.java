@@ -0,0 +1,53 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * swagger json的结构哈希，写入文档时计算并以json形式存储在mgmt_swagger.fingerprint中
+ * 接口和definition的哈希中，对definition的$ref引用替换为被引用definition的哈希，
+ * 因此definition的变化会传递到所有引用它的接口，比较两个版本时只需比较哈希
+ *
+ * @author agent
+ */
+public class SwaggerFingerprint {
+
+    private String root;
+
+    private Map<String, String> operations = new TreeMap<>();
+
+    private Map<String, String> definitions = new TreeMap<>();
+
+    /**
+     * 整个文档的哈希，由全部接口和definition的哈希计算得到，相同则两个版本的文档结构一致
+     */
+    public String getRoot() {
+        return root;
+    }
+
+    public void setRoot(String root) {
+        this.root = root;
+    }
+
+    /**
+     * key为 method url，如 get /v1/swaggers/resources
+     */
+    public Map<String, String> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, String> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * key为definition名
+     */
+    public Map<String, String> getDefinitions() {
+        return definitions;
+    }
+
+    public void setDefinitions(Map<String, String> definitions) {
+        this.definitions = definitions;
+    }
+}
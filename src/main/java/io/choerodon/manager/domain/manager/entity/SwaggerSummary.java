@@ -0,0 +1,189 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.choerodon.manager.infra.common.utils.SymbolTable;
+
+/**
+ * swagger json的精简摘要，只包含文档树和接口统计需要的字段
+ * 由SwaggerUtil.summarize流式解析生成，不包含definitions、parameters、responses等内容
+ *
+ * @author agent
+ */
+public class SwaggerSummary {
+
+    private final List<String> tags = new ArrayList<>();
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    private int apiCount;
+
+    /**
+     * 顶层tags中各tag的name，保持文档顺序
+     */
+    public List<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * paths下所有对象类型的请求方法，保持文档顺序
+     */
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    /**
+     * paths下所有字段的个数，与原readTree统计方式一致
+     */
+    public int getApiCount() {
+        return apiCount;
+    }
+
+    public void setApiCount(int apiCount) {
+        this.apiCount = apiCount;
+    }
+
+    /**
+     * 序列化为紧凑的二进制格式，用于本地检查点
+     *
+     * @return byte[]
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(apiCount);
+            writeStrings(out, tags);
+            out.writeInt(operations.size());
+            for (Operation operation : operations) {
+                out.writeUTF(operation.getUrl());
+                out.writeUTF(operation.getMethod());
+                writeString(out, operation.getOperationId());
+                out.writeBoolean(operation.isHasDescription());
+                writeStrings(out, operation.getTags());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 从encode生成的二进制内容还原
+     *
+     * @param buffer 二进制内容
+     * @return SwaggerSummary
+     * @throws IOException 内容格式错误
+     */
+    public static SwaggerSummary decode(ByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            SwaggerSummary summary = new SwaggerSummary();
+            summary.setApiCount(in.readInt());
+            summary.getTags().addAll(readStrings(in));
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                Operation operation = new Operation(SymbolTable.intern(in.readUTF()), SymbolTable.intern(in.readUTF()));
+                operation.setOperationId(readString(in));
+                operation.setHasDescription(in.readBoolean());
+                operation.setTags(readStrings(in));
+                summary.getOperations().add(operation);
+            }
+            return summary;
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? SymbolTable.intern(in.readUTF()) : null;
+    }
+
+    /**
+     * 单个接口的摘要
+     */
+    public static class Operation {
+
+        private final String url;
+
+        private final String method;
+
+        private String operationId;
+
+        private boolean hasDescription;
+
+        private List<String> tags = Collections.emptyList();
+
+        public Operation(String url, String method) {
+            this.url = url;
+            this.method = method;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getOperationId() {
+            return operationId;
+        }
+
+        public void setOperationId(String operationId) {
+            this.operationId = operationId;
+        }
+
+        public boolean isHasDescription() {
+            return hasDescription;
+        }
+
+        public void setHasDescription(boolean hasDescription) {
+            this.hasDescription = hasDescription;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+
+        @Override
+        public String toString() {
+            return "Operation{" +
+                    "url='" + url + '\'' +
+                    ", method='" + method + '\'' +
+                    ", operationId='" + operationId + '\'' +
+                    ", tags=" + tags +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+import io.choerodon.manager.infra.common.utils.VersionUtil;
+
+/**
+ * 服务版本解析后的排序键，版本字符串只解析一次
+ * major/minor/patch以及是否为正式版本压缩进两个long，比较时只做整数比较，
+ * 只有两者完全相同时才比较限定符（如SNAPSHOT、RC1）和原始字符串（如1.0与1.0.0）
+ * 排序：null_version/空版本 < 无法解析的版本（按字符串比较） < 语义化版本
+ *
+ * @author agent
+ */
+public final class VersionKey implements Comparable<VersionKey> {
+
+    private static final Pattern SEMANTIC = Pattern.compile("^[vV]?(\\d{1,9})(?:\\.(\\d{1,9}))?(?:\\.(\\d{1,9}))?(?:[-.+_](.+))?$");
+
+    private static final long RANK_EMPTY = 0L;
+    private static final long RANK_UNPARSED = 1L;
+    private static final long RANK_SEMANTIC = 2L;
+
+    private final String version;
+
+    private final long high;
+
+    private final long low;
+
+    private final String qualifier;
+
+    private VersionKey(String version, long high, long low, String qualifier) {
+        this.version = version;
+        this.high = high;
+        this.low = low;
+        this.qualifier = qualifier;
+    }
+
+    /**
+     * 解析版本字符串
+     *
+     * @param version 服务版本
+     * @return 排序键
+     */
+    public static VersionKey parse(String version) {
+        if (StringUtils.isEmpty(version) || VersionUtil.NULL_VERSION.equals(version)) {
+            return new VersionKey(StringUtils.defaultString(version), RANK_EMPTY << 62, 0L, "");
+        }
+        Matcher matcher = SEMANTIC.matcher(version);
+        if (!matcher.matches()) {
+            return new VersionKey(version, RANK_UNPARSED << 62, 0L, version);
+        }
+        long major = Long.parseLong(matcher.group(1));
+        long minor = matcher.group(2) == null ? 0L : Long.parseLong(matcher.group(2));
+        long patch = matcher.group(3) == null ? 0L : Long.parseLong(matcher.group(3));
+        String qualifier = matcher.group(4) == null ? "" : matcher.group(4);
+        long release = isRelease(qualifier) ? 1L : 0L;
+        return new VersionKey(version, RANK_SEMANTIC << 62 | major << 31 | minor, patch << 1 | release, qualifier);
+    }
+
+    private static boolean isRelease(String qualifier) {
+        return qualifier.isEmpty() || "RELEASE".equalsIgnoreCase(qualifier)
+                || "FINAL".equalsIgnoreCase(qualifier) || "GA".equalsIgnoreCase(qualifier);
+    }
+
+    /**
+     * @return 是否为可按数字比较的语义化版本
+     */
+    public boolean isSemantic() {
+        return high >>> 62 == RANK_SEMANTIC;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public int compareTo(VersionKey other) {
+        //high的最高两位为类别，语义化版本的类别位使high为负数，按无符号比较
+        int result = Long.compareUnsigned(high, other.high);
+        if (result == 0) {
+            result = Long.compare(low, other.low);
+        }
+        if (result == 0) {
+            result = qualifier.compareTo(other.qualifier);
+        }
+        if (result == 0) {
+            result = version.compareTo(other.version);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VersionKey)) {
+            return false;
+        }
+        VersionKey that = (VersionKey) o;
+        return version.equals(that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return version.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return version;
+    }
+}
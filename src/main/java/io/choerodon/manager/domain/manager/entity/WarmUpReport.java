@@ -0,0 +1,104 @@
+package io.choerodon.manager.domain.manager.entity;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动预热的执行结果，预热线程写入，健康检查和日志读取
+ *
+ * @author agent
+ */
+public class WarmUpReport {
+
+    public enum Status {
+        /**
+         * 应用尚未就绪，预热未开始
+         */
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        /**
+         * 预热已关闭
+         */
+        DISABLED
+    }
+
+    private volatile Status status = Status.PENDING;
+
+    private volatile long startTime;
+
+    private volatile long duration;
+
+    private final AtomicInteger itemCount = new AtomicInteger();
+
+    private final AtomicInteger successCount = new AtomicInteger();
+
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+    public void start() {
+        startTime = System.currentTimeMillis();
+        status = Status.RUNNING;
+    }
+
+    public void complete() {
+        duration = System.currentTimeMillis() - startTime;
+        status = Status.COMPLETED;
+    }
+
+    public void disable() {
+        status = Status.DISABLED;
+    }
+
+    public void success() {
+        itemCount.incrementAndGet();
+        successCount.incrementAndGet();
+    }
+
+    /**
+     * @param item    预热项，形如 config:manager-service
+     * @param message 失败原因
+     */
+    public void fail(String item, String message) {
+        itemCount.incrementAndGet();
+        failures.put(item, String.valueOf(message));
+    }
+
+    /**
+     * @return 预热已结束或已关闭
+     */
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.DISABLED;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return 预热耗时（毫秒），未结束时为已运行的时间
+     */
+    public long getDuration() {
+        return status == Status.RUNNING ? System.currentTimeMillis() - startTime : duration;
+    }
+
+    public int getItemCount() {
+        return itemCount.get();
+    }
+
+    public int getSuccessCount() {
+        return successCount.get();
+    }
+
+    /**
+     * @return key为预热项，value为失败原因，按预热项排序
+     */
+    public Map<String, String> getFailures() {
+        return new TreeMap<>(failures);
+    }
+}
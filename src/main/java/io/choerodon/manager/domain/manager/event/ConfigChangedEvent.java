@@ -0,0 +1,48 @@
+package io.choerodon.manager.domain.manager.event;
+
+/**
+ * 配置发生新增、修改、删除或默认配置切换后发布的事件
+ * remote为true时由其他副本的失效消息转换而来，serviceId为null表示全部服务的配置需重新加载，
+ * configId为null表示不确定具体的配置，按配置维护的缓存需全部重新加载
+ *
+ * @author agent
+ */
+public class ConfigChangedEvent {
+
+    private final Long configId;
+
+    private final Long serviceId;
+
+    private final boolean remote;
+
+    public ConfigChangedEvent(Long configId, Long serviceId) {
+        this(configId, serviceId, false);
+    }
+
+    public ConfigChangedEvent(Long configId, Long serviceId, boolean remote) {
+        this.configId = configId;
+        this.serviceId = serviceId;
+        this.remote = remote;
+    }
+
+    public Long getConfigId() {
+        return configId;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigChangedEvent{" +
+                "configId=" + configId +
+                ", serviceId=" + serviceId +
+                ", remote=" + remote +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package io.choerodon.manager.domain.manager.event;
+
+/**
+ * 路由发生新增、修改、删除后发布的事件
+ * remote为true时由其他副本的失效消息转换而来，name为null表示全部路由需重新加载
+ *
+ * @author agent
+ */
+public class RouteChangedEvent {
+
+    private final Long routeId;
+
+    private final String name;
+
+    private final boolean remote;
+
+    public RouteChangedEvent(Long routeId, String name) {
+        this(routeId, name, false);
+    }
+
+    public RouteChangedEvent(Long routeId, String name, boolean remote) {
+        this.routeId = routeId;
+        this.name = name;
+        this.remote = remote;
+    }
+
+    public Long getRouteId() {
+        return routeId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteChangedEvent{" +
+                "routeId=" + routeId +
+                ", name='" + name + '\'' +
+                ", remote=" + remote +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package io.choerodon.manager.domain.manager.event;
+
+/**
+ * 服务的swagger文档写入或更新后发布的事件
+ * remote为true时由其他副本的失效消息转换而来，service为null表示全部服务的文档需重新加载
+ *
+ * @author agent
+ */
+public class SwaggerChangedEvent {
+
+    private final String service;
+
+    private final String version;
+
+    private final boolean remote;
+
+    public SwaggerChangedEvent(String service, String version) {
+        this(service, version, false);
+    }
+
+    public SwaggerChangedEvent(String service, String version, boolean remote) {
+        this.service = service;
+        this.version = version;
+        this.remote = remote;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "SwaggerChangedEvent{" +
+                "service='" + service + '\'' +
+                ", version='" + version + '\'' +
+                ", remote=" + remote +
+                '}';
+    }
+}
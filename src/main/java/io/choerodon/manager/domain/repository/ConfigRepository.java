@@ -5,6 +5,8 @@ import io.choerodon.manager.api.dto.ConfigDTO;
 import io.choerodon.manager.infra.dataobject.ConfigDO;
 import io.choerodon.mybatis.pagehelper.domain.PageRequest;
 
+import java.util.List;
+
 /**
  * {@inheritDoc}
  *
@@ -14,12 +16,22 @@ public interface ConfigRepository {
 
     ConfigDTO queryDefaultByServiceName(String serviceName);
 
+    /**
+     * 查询服务默认配置的id和乐观锁版本号，不查询配置内容
+     *
+     * @param serviceName 服务名
+     * @return 服务没有默认配置时返回null
+     */
+    ConfigDO queryDefaultVersionByServiceName(String serviceName);
+
     ConfigDTO queryByServiceNameAndConfigVersion(String serviceName, String configVersion);
 
     Page<ConfigDTO> listByServiceName(String serviceName, PageRequest pageRequest, ConfigDO queryInfo, String queryParam);
 
     Page<ConfigDTO> list(PageRequest pageRequest);
 
+    List<ConfigDTO> listAll();
+
     ConfigDO setConfigDefault(Long configId);
 
     ConfigDO query(Long serviceConfigId);
@@ -0,0 +1,23 @@
+package io.choerodon.manager.domain.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 对多个服务或实例并发执行阻塞调用的执行策略
+ *
+ * @author agent
+ */
+public interface FanOutStrategy {
+
+    /**
+     * 对每个目标执行任务，等待全部完成后按目标顺序返回结果
+     * 任一任务抛出异常时，在全部任务结束后抛出第一个异常
+     *
+     * @param targets 目标集合
+     * @param task    对单个目标执行的任务
+     * @return 与targets顺序一致的结果
+     */
+    <T, R> List<R> invokeAll(List<T> targets, Function<T, R> task);
+
+}
@@ -0,0 +1,29 @@
+package io.choerodon.manager.domain.service;
+
+/**
+ * 副本之间的本地缓存一致性
+ * 本副本发布的路由、配置、swagger文档变更事件在事务提交后合并为一批，通过redis频道广播；
+ * 收到其他副本的消息后以remote事件的形式在本地重新发布，由原有的监听器失效本地缓存；
+ * 发现丢失消息时所有本地缓存全部失效，之后按需从数据库重新加载
+ *
+ * @author agent
+ */
+public interface ICacheCoherenceService {
+
+    /**
+     * 发送待发送的失效消息，没有消息且超过心跳间隔时发送心跳
+     */
+    void flush();
+
+    /**
+     * 处理从redis频道收到的消息
+     *
+     * @param payload InvalidationBatch.encode的结果
+     */
+    void receive(String payload);
+
+    /**
+     * @return 本副本的标识，发送的消息中携带，收到自己发送的消息时忽略
+     */
+    String getOrigin();
+}
@@ -0,0 +1,27 @@
+package io.choerodon.manager.domain.service;
+
+import java.util.List;
+
+import io.choerodon.manager.api.dto.ConfigSearchResultDTO;
+
+/**
+ * 配置项全文检索业务service
+ *
+ * @author agent
+ */
+public interface IConfigSearchService {
+
+    /**
+     * 检索key和value同时包含查询文本中所有词的配置项
+     *
+     * @param key   配置项key的查询文本，可为空
+     * @param value 配置项value的查询文本，可为空
+     * @return 命中的配置项
+     */
+    List<ConfigSearchResultDTO> search(String key, String value);
+
+    /**
+     * 从数据库重建索引
+     */
+    void rebuild();
+}
@@ -0,0 +1,32 @@
+package io.choerodon.manager.domain.service;
+
+import io.choerodon.manager.domain.manager.entity.ConfigSnapshot;
+
+/**
+ * 服务默认配置快照业务service
+ *
+ * @author agent
+ */
+public interface IConfigSnapshotService {
+
+    /**
+     * 获取服务默认配置的快照，不存在时从数据库构建并缓存
+     * 网关服务的快照中包含zuul路由配置
+     *
+     * @param serviceName 服务名
+     * @return 快照，服务没有默认配置时返回null
+     */
+    ConfigSnapshot queryDefault(String serviceName);
+
+    /**
+     * 使指定服务的快照失效
+     *
+     * @param serviceId 服务id
+     */
+    void evictByServiceId(Long serviceId);
+
+    /**
+     * 使网关服务的快照失效
+     */
+    void evictGateways();
+}
@@ -2,8 +2,11 @@ package io.choerodon.manager.domain.service;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.choerodon.eureka.event.EurekaEventPayload;
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
+import io.choerodon.manager.domain.manager.entity.SwaggerSummary;
 
 import java.io.IOException;
+import java.util.Map;
 
 /**
  * swagger json的业务service
@@ -35,6 +38,61 @@ public interface IDocumentService {
 
     String expandSwaggerJson(String name, String version, String json) throws IOException;
 
+    /**
+     * 获取文档摘要，文档已存储且本地检查点中的摘要与文档版本号一致时不读取文档内容
+     *
+     * @param service 服务名
+     * @param version 服务版本
+     * @return 文档为空时返回null
+     * @throws IOException json解析异常
+     */
+    SwaggerSummary querySummary(String service, String version) throws IOException;
+
     String fetchSwaggerJsonByIp(EurekaEventPayload payload);
 
+    /**
+     * 查询swagger表中各服务版本的接口数量，不读取文档内容
+     * 尚未统计接口数量的历史数据在此补齐并回写
+     *
+     * @return key为 服务名:版本，value为接口数量
+     */
+    Map<String, Integer> queryApiCounts();
+
+    /**
+     * 根据已存储文档的版本号、路由和swagger配置计算扩展后文档的强ETag，不读取和扩展文档
+     *
+     * @param service 服务名
+     * @param name    路由名
+     * @param version 服务版本
+     * @return default环境、文档未存储或服务未运行时返回null
+     */
+    String queryDocumentEtag(String service, String name, String version);
+
+    /**
+     * 获取已生成的扩展后文档，只查询内存，不访问数据库和服务发现
+     *
+     * @param name    路由名
+     * @param version 服务版本
+     * @return 尚未生成或已失效时返回null
+     */
+    SerializedResponse getExpandedDocument(String name, String version);
+
+    /**
+     * 获取并扩展文档，可由已存储文档确定ETag时保存结果，供getExpandedDocument直接返回
+     *
+     * @param service 服务名
+     * @param name    路由名
+     * @param version 服务版本
+     * @return 服务未运行或文档为空时返回null
+     * @throws IOException json解析异常
+     */
+    SerializedResponse materializeExpandedDocument(String service, String name, String version) throws IOException;
+
+    /**
+     * 服务实例上下线或文档更新后使该服务的扩展后文档失效
+     *
+     * @param service 服务名
+     */
+    void evictExpandedDocuments(String service);
+
 }
@@ -0,0 +1,41 @@
+package io.choerodon.manager.domain.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 内存派生数据的本地检查点
+ * 每一项由key、来源版本标签和二进制内容组成，定期写入本地文件，重启后映射该文件，
+ * 标签与数据库中来源记录的当前版本一致的项直接复用，不一致的项由调用方重新计算
+ *
+ * @author agent
+ */
+public interface ILocalSnapshotService {
+
+    /**
+     * @return 是否启用本地检查点，关闭时调用方无需查询来源记录的版本标签
+     */
+    boolean isEnabled();
+
+    /**
+     * 读取检查点中的一项
+     *
+     * @param key 形如 swagger-summary:manager-service:1.0
+     * @param tag 来源记录的当前版本标签，如 id:objectVersionNumber
+     * @return 标签一致时返回只读的内容，不存在、标签不一致或检查点关闭时返回null
+     */
+    ByteBuffer read(String key, String tag);
+
+    /**
+     * 写入一项，下次检查点时持久化
+     *
+     * @param key     key
+     * @param tag     计算该内容时来源记录的版本标签
+     * @param payload 二进制内容
+     */
+    void write(String key, String tag, byte[] payload);
+
+    /**
+     * 将当前所有有效项写入本地文件，没有变化时不写
+     */
+    void checkpoint();
+}
@@ -0,0 +1,56 @@
+package io.choerodon.manager.domain.service;
+
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
+
+/**
+ * 扩展后swagger文档的存储，文档字节保存在堆外，按最近访问顺序淘汰
+ *
+ * @author agent
+ */
+public interface IOffHeapDocumentService {
+
+    /**
+     * 保存文档，容量不足时淘汰最久未访问的文档
+     *
+     * @param key      形如 路由名:版本
+     * @param service  文档所属服务名，用于按服务失效
+     * @param response 堆上的文档
+     * @return 实际保存的文档，可直接返回给调用方；文档大于总容量时不保存并返回null
+     */
+    SerializedResponse put(String key, String service, SerializedResponse response);
+
+    /**
+     * 代数与expectedGeneration一致时保存文档，检查与保存在同一把锁内完成；
+     * 生成文档期间发生过失效时不保存，避免过期的文档及其ETag一直留在缓存中
+     *
+     * @param key                形如 路由名:版本
+     * @param service            文档所属服务名，用于按服务失效
+     * @param response           堆上的文档
+     * @param expectedGeneration 开始生成文档前getGeneration的结果
+     * @return 实际保存的文档；代数不一致时返回response本身；文档大于总容量时不保存并返回null
+     */
+    SerializedResponse put(String key, String service, SerializedResponse response, long expectedGeneration);
+
+    /**
+     * @return 当前代数，每次evictService、clear后加一
+     */
+    long getGeneration();
+
+    /**
+     * @param key 形如 路由名:版本
+     * @return 不存在或已被淘汰时返回null
+     */
+    SerializedResponse get(String key);
+
+    /**
+     * 使服务的所有文档失效
+     *
+     * @param service 服务名，不区分大小写
+     */
+    void evictService(String service);
+
+    /**
+     * 使所有文档失效
+     */
+    void clear();
+}
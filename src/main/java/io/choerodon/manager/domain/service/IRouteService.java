@@ -8,6 +8,7 @@ import org.apache.commons.collections.map.MultiKeyMap;
 import io.choerodon.core.domain.Page;
 import io.choerodon.core.swagger.ChoerodonRouteData;
 import io.choerodon.manager.domain.manager.entity.RouteE;
+import io.choerodon.manager.domain.manager.entity.RouteOverlap;
 import io.choerodon.mybatis.pagehelper.domain.PageRequest;
 
 /**
@@ -61,4 +62,21 @@ public interface IRouteService {
     ChoerodonRouteData fetchRouteData(String service, String version);
 
     RouteE queryRouteByService(String service);
+
+    /**
+     * 根据请求url查找处理该请求的路由
+     *
+     * @param url 请求url，形如：/iam/v1/users
+     * @return 匹配的路由，不存在时返回null
+     */
+    RouteE matchRoute(String url);
+
+    /**
+     * 查找与path存在重叠的已有路由
+     *
+     * @param path      路由path，形如：/iam/**
+     * @param excludeId 排除的路由id，可为空
+     * @return 重叠关系列表
+     */
+    List<RouteOverlap> findOverlaps(String path, Long excludeId);
 }
@@ -0,0 +1,31 @@
+package io.choerodon.manager.domain.service;
+
+import io.choerodon.manager.api.dto.swagger.SwaggerDiffDTO;
+import io.choerodon.manager.domain.manager.entity.SwaggerFingerprint;
+
+/**
+ * 基于已存储文档结构哈希的服务版本接口差异比较
+ *
+ * @author agent
+ */
+public interface ISwaggerDiffService {
+
+    /**
+     * 查询已存储文档的结构哈希，尚未计算的历史数据在此补齐并回写
+     *
+     * @param service 服务名
+     * @param version 服务版本
+     * @return 文档未存储或内容为空时返回null
+     */
+    SwaggerFingerprint queryFingerprint(String service, String version);
+
+    /**
+     * 比较服务两个版本的接口差异，先比较哈希，只解析发生变化的接口
+     *
+     * @param service 服务名
+     * @param from    旧版本
+     * @param to      新版本
+     * @return SwaggerDiffDTO
+     */
+    SwaggerDiffDTO diff(String service, String from, String to);
+}
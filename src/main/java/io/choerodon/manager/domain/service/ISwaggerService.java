@@ -6,6 +6,8 @@ import springfox.documentation.swagger.web.SecurityConfiguration;
 import springfox.documentation.swagger.web.SwaggerResource;
 import springfox.documentation.swagger.web.UiConfiguration;
 
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
+
 /**
  * swagger业务service
  *
@@ -14,9 +16,40 @@ import springfox.documentation.swagger.web.UiConfiguration;
  */
 public interface ISwaggerService {
 
+    /**
+     * 获取过滤并按名称排序后的swagger资源列表，返回的列表不可修改
+     *
+     * @return list
+     */
     List<SwaggerResource> getSwaggerResource();
 
+    /**
+     * 服务上下线或路由变更后使资源列表失效
+     */
+    void evictSwaggerResource();
+
     UiConfiguration getUiConfiguration();
 
     SecurityConfiguration getSecurityConfiguration();
+
+    /**
+     * 获取预先序列化的资源列表，与资源列表同时失效
+     *
+     * @return SerializedResponse
+     */
+    SerializedResponse getSwaggerResourceResponse();
+
+    /**
+     * 获取预先序列化的ui配置，配置只在启动时确定，只序列化一次
+     *
+     * @return SerializedResponse
+     */
+    SerializedResponse getUiConfigurationResponse();
+
+    /**
+     * 获取预先序列化的security配置，配置只在启动时确定，只序列化一次
+     *
+     * @return SerializedResponse
+     */
+    SerializedResponse getSecurityConfigurationResponse();
 }
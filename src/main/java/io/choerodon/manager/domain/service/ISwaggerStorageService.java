@@ -0,0 +1,36 @@
+package io.choerodon.manager.domain.service;
+
+import io.choerodon.manager.infra.dataobject.SwaggerDO;
+
+/**
+ * swagger文档的存储编码
+ * full模式下每个版本存储完整文档；delta模式下定期存储完整快照，
+ * 其余版本只存储与同一服务上一个版本相比变化的path、definition和顶层字段
+ *
+ * @author agent
+ */
+public interface ISwaggerStorageService {
+
+    /**
+     * 将文档编码后设置到待写入的记录上，写入前调用
+     * 新增记录按存储模式编码；覆盖已有记录时总是存储完整文档，并先将依赖它的差异版本改写为完整快照
+     *
+     * @param swagger 待写入的记录，需已设置服务名，覆盖时需已设置id
+     * @param json    完整的swagger json
+     */
+    void encode(SwaggerDO swagger, String json);
+
+    /**
+     * 还原记录对应的完整文档，差异版本通过有界缓存沿基准链还原
+     *
+     * @param swagger 包含value和差异基准的记录
+     * @return 完整的swagger json，记录为空时返回null
+     */
+    String reconstruct(SwaggerDO swagger);
+
+    /**
+     * 按写入顺序重新编码所有服务的文档，将过长的差异链改写为完整快照，
+     * 并将历史完整文档改写为差异版本，只改变存储形式，不改变文档内容和乐观锁版本号
+     */
+    void compact();
+}
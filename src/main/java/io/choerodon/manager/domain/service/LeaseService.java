@@ -0,0 +1,63 @@
+package io.choerodon.manager.domain.service;
+
+/**
+ * 多个副本之间的租约，同一个key同一时间只有一个持有者
+ * 持有者完成后将租约标记为已完成并保留一段时间，期间其他副本不再重复执行；
+ * 持有者崩溃时租约在ttl后过期，其他副本可重新获取
+ *
+ * @author agent
+ */
+public interface LeaseService {
+
+    /**
+     * 尝试获取租约
+     *
+     * @param key 租约key
+     * @param ttl 租约有效期（毫秒），持有者未完成也未释放时到期自动失效
+     * @return 获取成功时返回持有者令牌，已被持有或已完成时返回null
+     */
+    String tryAcquire(String key, long ttl);
+
+    /**
+     * 持有者执行成功后将租约标记为已完成
+     *
+     * @param key    租约key
+     * @param token  tryAcquire返回的令牌
+     * @param window 已完成状态的保留时间（毫秒）
+     * @return 令牌与当前持有者一致时返回true，租约已过期或被他人持有时返回false
+     */
+    boolean complete(String key, String token, long window);
+
+    /**
+     * 持有者执行失败后释放租约，其他副本可立即获取
+     *
+     * @param key   租约key
+     * @param token tryAcquire返回的令牌
+     * @return 令牌与当前持有者一致时返回true
+     */
+    boolean release(String key, String token);
+
+    /**
+     * @param key 租约key
+     * @return 租约的当前状态
+     */
+    State getState(String key);
+
+    /**
+     * 租约状态
+     */
+    enum State {
+        /**
+         * 不存在或已过期
+         */
+        ABSENT,
+        /**
+         * 正在被持有
+         */
+        HELD,
+        /**
+         * 持有者已完成，处于保留时间内
+         */
+        COMPLETED
+    }
+}
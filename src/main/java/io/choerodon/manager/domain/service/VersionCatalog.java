@@ -0,0 +1,26 @@
+package io.choerodon.manager.domain.service;
+
+/**
+ * 按服务维护的版本目录，版本字符串只解析一次并在内存中保持有序，
+ * 写入新版本时判断其是否为默认（最新）版本不再访问数据库
+ *
+ * @author agent
+ */
+public interface VersionCatalog {
+
+    /**
+     * 登记服务新写入的版本
+     *
+     * @param service 服务名
+     * @param version 服务版本
+     * @return 登记后该版本是否为最新版本
+     */
+    boolean register(String service, String version);
+
+    /**
+     * 丢弃服务的版本目录，下次查询时从数据库重新加载
+     *
+     * @param service 服务名
+     */
+    void evict(String service);
+}
@@ -0,0 +1,88 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.choerodon.manager.domain.service.FanOutStrategy;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+
+/**
+ * 固定大小线程池并发执行，线程数由choerodon.fan-out.parallelism决定，不随服务数量增长
+ * 默认启用；在线程池的工作线程中再次发起的调用直接在当前线程依次执行，避免线程池自身等待造成死锁
+ *
+ * @author agent
+ */
+@Component
+@ConditionalOnProperty(prefix = "choerodon.fan-out", name = "mode", havingValue = "bounded", matchIfMissing = true)
+public class IBoundedFanOutStrategy implements FanOutStrategy {
+
+    private static final ThreadLocal<Boolean> IN_WORKER = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ThreadPoolExecutor executor;
+
+    public IBoundedFanOutStrategy(@Value("${choerodon.fan-out.parallelism:8}") int parallelism) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = MetricsUtil.monitorExecutor("fan-out",
+                new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                        runnable -> {
+                            Thread thread = new Thread(() -> {
+                                IN_WORKER.set(Boolean.TRUE);
+                                runnable.run();
+                            }, "fan-out-" + count.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public <T, R> List<R> invokeAll(List<T> targets, Function<T, R> task) {
+        if (targets.size() <= 1 || IN_WORKER.get()) {
+            List<R> results = new ArrayList<>(targets.size());
+            for (T target : targets) {
+                results.add(task.apply(target));
+            }
+            return results;
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(targets.size());
+        for (T target : targets) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(target), executor));
+        }
+        List<R> results = new ArrayList<>(targets.size());
+        Throwable first = null;
+        for (CompletableFuture<R> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                results.add(null);
+                if (first == null) {
+                    first = e.getCause() == null ? e : e.getCause();
+                }
+            }
+        }
+        if (first instanceof Error) {
+            throw (Error) first;
+        }
+        if (first != null) {
+            throw (RuntimeException) first;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
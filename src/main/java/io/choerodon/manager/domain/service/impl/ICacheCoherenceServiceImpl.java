@@ -0,0 +1,199 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.io.IOException;
+import java.util.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.choerodon.manager.domain.manager.entity.InvalidationBatch;
+import io.choerodon.manager.domain.manager.event.ConfigChangedEvent;
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent;
+import io.choerodon.manager.domain.manager.event.SwaggerChangedEvent;
+import io.choerodon.manager.domain.service.ICacheCoherenceService;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+
+/**
+ * 实现类
+ * 同一批次内重复的失效消息只发送一次；每个发送方的sequence单独记录，
+ * 收到的sequence大于期望值说明中间的批次丢失（redis断线、发送失败等），此时本地缓存全部失效
+ * 每个发送方的sequence从0开始，发送方重启后使用新的标识；首次收到某个发送方的消息时sequence大于1（心跳大于0），
+ * 说明订阅或重连之前该发送方已发送过批次，同样按丢失处理
+ *
+ * @author agent
+ */
+@Service
+public class ICacheCoherenceServiceImpl implements ICacheCoherenceService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ICacheCoherenceServiceImpl.class);
+
+    @Value("${choerodon.cache.coherence.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${choerodon.cache.coherence.channel:manager-service:cache-invalidation}")
+    private String channel = "manager-service:cache-invalidation";
+
+    @Value("${choerodon.cache.coherence.heartbeat-interval:10000}")
+    private long heartbeatInterval = 10000L;
+
+    private final String origin = UUID.randomUUID().toString();
+
+    private final Set<InvalidationBatch.Entry> pending = new LinkedHashSet<>();
+
+    private final Map<String, Long> sequences = new HashMap<>();
+
+    private long sequence;
+
+    private long lastSent;
+
+    private StringRedisTemplate redisTemplate;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    public ICacheCoherenceServiceImpl(StringRedisTemplate redisTemplate, ApplicationEventPublisher eventPublisher) {
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public void setHeartbeatInterval(long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    @Override
+    public String getOrigin() {
+        return origin;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChanged(RouteChangedEvent event) {
+        if (!event.isRemote()) {
+            enqueue(new InvalidationBatch.Entry(InvalidationBatch.Entity.R, event.getName(), null));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChanged(ConfigChangedEvent event) {
+        if (!event.isRemote()) {
+            String serviceId = event.getServiceId() == null ? null : String.valueOf(event.getServiceId());
+            String configId = event.getConfigId() == null ? null : String.valueOf(event.getConfigId());
+            enqueue(new InvalidationBatch.Entry(InvalidationBatch.Entity.C, serviceId, configId));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwaggerChanged(SwaggerChangedEvent event) {
+        if (!event.isRemote()) {
+            enqueue(new InvalidationBatch.Entry(InvalidationBatch.Entity.S, event.getService(), event.getVersion()));
+        }
+    }
+
+    private void enqueue(InvalidationBatch.Entry entry) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (pending) {
+            pending.add(entry);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${choerodon.cache.coherence.batch-interval:200}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<InvalidationBatch.Entry> entries;
+        synchronized (pending) {
+            entries = new ArrayList<>(pending);
+            pending.clear();
+        }
+        long now = System.currentTimeMillis();
+        if (entries.isEmpty() && now - lastSent < heartbeatInterval) {
+            return;
+        }
+        if (!entries.isEmpty()) {
+            sequence++;
+        }
+        InvalidationBatch batch = new InvalidationBatch(origin, sequence, entries);
+        try {
+            redisTemplate.convertAndSend(channel, batch.encode());
+            lastSent = now;
+            MetricsUtil.recordCoherence("sent", entries.size());
+        } catch (RuntimeException e) {
+            //sequence已增加，其他副本收到下一批时发现缺口并全部失效
+            LOGGER.warn("publish cache invalidation error, entries: {}, exception: {}", entries, e.getMessage());
+            MetricsUtil.recordCoherence("send-error", entries.size());
+        }
+    }
+
+    @Override
+    public synchronized void receive(String payload) {
+        InvalidationBatch batch;
+        try {
+            batch = InvalidationBatch.decode(payload);
+        } catch (IOException e) {
+            LOGGER.warn("decode cache invalidation error, resync all local caches, exception: {}", e.getMessage());
+            resync();
+            return;
+        }
+        if (origin.equals(batch.getOrigin())) {
+            return;
+        }
+        long last = sequences.getOrDefault(batch.getOrigin(), 0L);
+        long expected = batch.isHeartbeat() ? last : last + 1;
+        if (batch.getSequence() < expected) {
+            return;
+        }
+        sequences.put(batch.getOrigin(), batch.getSequence());
+        if (batch.getSequence() > expected) {
+            LOGGER.warn("missed cache invalidation from {}, expected sequence {}, received {}, resync all local caches",
+                    batch.getOrigin(), expected, batch.getSequence());
+            resync();
+            return;
+        }
+        apply(batch.getEntries());
+    }
+
+    private void apply(List<InvalidationBatch.Entry> entries) {
+        for (InvalidationBatch.Entry entry : entries) {
+            LOGGER.debug("apply remote cache invalidation {}", entry);
+            switch (entry.getEntity()) {
+                case R:
+                    eventPublisher.publishEvent(new RouteChangedEvent(null, entry.getKey(), true));
+                    break;
+                case C:
+                    Long serviceId = entry.getKey() == null ? null : Long.valueOf(entry.getKey());
+                    Long configId = entry.getVersion() == null ? null : Long.valueOf(entry.getVersion());
+                    eventPublisher.publishEvent(new ConfigChangedEvent(configId, serviceId, true));
+                    break;
+                case S:
+                    eventPublisher.publishEvent(new SwaggerChangedEvent(entry.getKey(), entry.getVersion(), true));
+                    break;
+                default:
+                    break;
+            }
+        }
+        MetricsUtil.recordCoherence("received", entries.size());
+    }
+
+    private void resync() {
+        eventPublisher.publishEvent(new RouteChangedEvent(null, null, true));
+        eventPublisher.publishEvent(new ConfigChangedEvent(null, null, true));
+        eventPublisher.publishEvent(new SwaggerChangedEvent(null, null, true));
+        MetricsUtil.recordCoherence("resync", 1);
+    }
+}
@@ -0,0 +1,148 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.choerodon.core.convertor.ConvertHelper;
+import io.choerodon.manager.api.dto.ConfigDTO;
+import io.choerodon.manager.api.dto.ConfigSearchResultDTO;
+import io.choerodon.manager.domain.manager.entity.ConfigInvertedIndex;
+import io.choerodon.manager.domain.manager.entity.ServiceE;
+import io.choerodon.manager.domain.manager.event.ConfigChangedEvent;
+import io.choerodon.manager.domain.repository.ConfigRepository;
+import io.choerodon.manager.domain.repository.ServiceRepository;
+import io.choerodon.manager.domain.service.IConfigSearchService;
+import io.choerodon.manager.infra.dataobject.ConfigDO;
+import io.choerodon.manager.infra.dataobject.ServiceDO;
+
+/**
+ * 基于内存倒排索引的配置项检索
+ * 第一次检索时从数据库全量构建，之后在配置变更的事务提交后按配置增量更新
+ *
+ * @author agent
+ */
+@Service
+public class IConfigSearchServiceImpl implements IConfigSearchService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IConfigSearchServiceImpl.class);
+
+    private final ConfigInvertedIndex index = new ConfigInvertedIndex();
+
+    private final Map<Long, String> serviceNames = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded;
+
+    private ConfigRepository configRepository;
+
+    private ServiceRepository serviceRepository;
+
+    public IConfigSearchServiceImpl(ConfigRepository configRepository, ServiceRepository serviceRepository) {
+        this.configRepository = configRepository;
+        this.serviceRepository = serviceRepository;
+    }
+
+    public void setConfigRepository(ConfigRepository configRepository) {
+        this.configRepository = configRepository;
+    }
+
+    public void setServiceRepository(ServiceRepository serviceRepository) {
+        this.serviceRepository = serviceRepository;
+    }
+
+    @Override
+    public List<ConfigSearchResultDTO> search(String key, String value) {
+        if (!loaded) {
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    load();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(key, value).stream()
+                    .map(e -> new ConfigSearchResultDTO(e.getConfigId(), e.getServiceName(),
+                            e.getConfigVersion(), e.getKey(), e.getValue()))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            load();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        index.clear();
+        serviceNames.clear();
+        for (ServiceDO serviceDO : serviceRepository.getAllService()) {
+            serviceNames.put(serviceDO.getId(), serviceDO.getName());
+        }
+        for (ConfigDTO configDTO : configRepository.listAll()) {
+            put(configDTO);
+        }
+        loaded = true;
+        LOGGER.info("config search index rebuilt, {} items, cost {} ms",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChanged(ConfigChangedEvent event) {
+        //在写锁内检查loaded并读取数据库，避免与load交错，以及同一配置的两次变更读取结果乱序写入索引
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            if (event.getConfigId() == null) {
+                //不确定哪些配置发生了变化，丢弃整个索引，下次检索时重新构建
+                index.clear();
+                serviceNames.clear();
+                loaded = false;
+                return;
+            }
+            ConfigDO configDO = configRepository.query(event.getConfigId());
+            if (configDO == null) {
+                index.remove(event.getConfigId());
+            } else {
+                put(ConvertHelper.convert(configDO, ConfigDTO.class));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(ConfigDTO configDTO) {
+        index.put(configDTO.getId(), serviceName(configDTO.getServiceId()),
+                configDTO.getConfigVersion(), configDTO.getValue());
+    }
+
+    private String serviceName(Long serviceId) {
+        return serviceNames.computeIfAbsent(serviceId, id -> {
+            ServiceE serviceE = serviceRepository.getService(id);
+            return serviceE == null ? null : serviceE.getName();
+        });
+    }
+}
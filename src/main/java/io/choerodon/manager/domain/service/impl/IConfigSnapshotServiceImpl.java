@@ -0,0 +1,163 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.choerodon.manager.api.dto.ConfigDTO;
+import io.choerodon.manager.domain.manager.entity.ConfigSnapshot;
+import io.choerodon.manager.domain.manager.event.ConfigChangedEvent;
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent;
+import io.choerodon.manager.domain.repository.ConfigRepository;
+import io.choerodon.manager.domain.repository.RouteRepository;
+import io.choerodon.manager.domain.service.IConfigSnapshotService;
+import io.choerodon.manager.domain.service.ILocalSnapshotService;
+import io.choerodon.manager.infra.common.utils.GatewayProperties;
+import io.choerodon.manager.infra.common.utils.config.ConfigUtil;
+import io.choerodon.manager.infra.dataobject.ConfigDO;
+
+/**
+ * 服务默认配置快照的内存缓存
+ * 配置或路由变更的事务提交后按服务失效，下次读取时重新构建
+ * 启用本地检查点时，非网关服务的快照以默认配置的id和版本号为标签写入检查点，重启后标签一致则直接还原
+ *
+ * @author agent
+ */
+@Service
+public class IConfigSnapshotServiceImpl implements IConfigSnapshotService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IConfigSnapshotServiceImpl.class);
+
+    private final Map<String, ConfigSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 每次失效时递增，构建期间发生过失效的快照不写入缓存，避免缓存旧数据；
+     * 与快照的写入和失效一起由this保护，读取快照不加锁
+     */
+    private long generation;
+
+    private ConfigRepository configRepository;
+
+    private RouteRepository routeRepository;
+
+    private GatewayProperties gatewayProperties;
+
+    private ILocalSnapshotService iLocalSnapshotService;
+
+    public IConfigSnapshotServiceImpl(ConfigRepository configRepository,
+                                      RouteRepository routeRepository,
+                                      GatewayProperties gatewayProperties,
+                                      ILocalSnapshotService iLocalSnapshotService) {
+        this.configRepository = configRepository;
+        this.routeRepository = routeRepository;
+        this.gatewayProperties = gatewayProperties;
+        this.iLocalSnapshotService = iLocalSnapshotService;
+    }
+
+    public void setConfigRepository(ConfigRepository configRepository) {
+        this.configRepository = configRepository;
+    }
+
+    public void setRouteRepository(RouteRepository routeRepository) {
+        this.routeRepository = routeRepository;
+    }
+
+    @Override
+    public ConfigSnapshot queryDefault(String serviceName) {
+        ConfigSnapshot snapshot = snapshots.get(serviceName);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long current;
+        synchronized (this) {
+            current = generation;
+        }
+        snapshot = build(serviceName);
+        if (snapshot != null) {
+            synchronized (this) {
+                if (generation == current) {
+                    snapshots.put(serviceName, snapshot);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private ConfigSnapshot build(String serviceName) {
+        boolean gateway = ArrayUtils.contains(gatewayProperties.getNames(), serviceName);
+        String key = "config-snapshot:" + serviceName;
+        String tag = null;
+        //网关的快照还依赖路由，不写入检查点
+        if (!gateway && iLocalSnapshotService.isEnabled()) {
+            ConfigDO version = configRepository.queryDefaultVersionByServiceName(serviceName);
+            if (version == null) {
+                return null;
+            }
+            tag = version.getId() + ":" + version.getObjectVersionNumber();
+            ConfigSnapshot restored = restore(serviceName, key, tag);
+            if (restored != null) {
+                return restored;
+            }
+        }
+        ConfigDTO configDTO = configRepository.queryDefaultByServiceName(serviceName);
+        if (configDTO == null) {
+            return null;
+        }
+        Map<String, Object> value = configDTO.getValue();
+        if (gateway) {
+            ConfigUtil.appendZuulRoutes(routeRepository.getAllRoute(), value);
+        }
+        ConfigSnapshot snapshot = ConfigSnapshot.of(serviceName, configDTO.getServiceId(), configDTO.getId(),
+                configDTO.getConfigVersion(), configDTO.getObjectVersionNumber(), value);
+        if (tag != null) {
+            iLocalSnapshotService.write(key, tag, snapshot.encode());
+        }
+        return snapshot;
+    }
+
+    private ConfigSnapshot restore(String serviceName, String key, String tag) {
+        ByteBuffer cached = iLocalSnapshotService.read(key, tag);
+        if (cached == null) {
+            return null;
+        }
+        try {
+            return ConfigSnapshot.decode(serviceName, cached);
+        } catch (IOException e) {
+            LOGGER.warn("decode local config snapshot error, service: {}, exception: {}", serviceName, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void evictByServiceId(Long serviceId) {
+        generation++;
+        snapshots.values().removeIf(s -> serviceId == null || serviceId.equals(s.getServiceId()));
+    }
+
+    @Override
+    public synchronized void evictGateways() {
+        generation++;
+        for (String name : gatewayProperties.getNames()) {
+            snapshots.remove(name);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfigChanged(ConfigChangedEvent event) {
+        LOGGER.debug("evict config snapshot on {}", event);
+        evictByServiceId(event.getServiceId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChanged(RouteChangedEvent event) {
+        LOGGER.debug("evict gateway config snapshot on {}", event);
+        evictGateways();
+    }
+}
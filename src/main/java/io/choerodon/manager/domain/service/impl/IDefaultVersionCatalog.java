@@ -0,0 +1,73 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.choerodon.manager.domain.manager.entity.VersionKey;
+import io.choerodon.manager.domain.manager.event.SwaggerChangedEvent;
+import io.choerodon.manager.domain.service.VersionCatalog;
+import io.choerodon.manager.infra.mapper.SwaggerMapper;
+
+/**
+ * 实现类，每个服务首次查询时从数据库加载一次版本列表，之后由写入方登记维护
+ *
+ * @author agent
+ */
+@Component
+public class IDefaultVersionCatalog implements VersionCatalog {
+
+    private final Map<String, NavigableSet<VersionKey>> catalogs = new ConcurrentHashMap<>();
+
+    private SwaggerMapper swaggerMapper;
+
+    public IDefaultVersionCatalog(SwaggerMapper swaggerMapper) {
+        this.swaggerMapper = swaggerMapper;
+    }
+
+    @Override
+    public boolean register(String service, String version) {
+        NavigableSet<VersionKey> versions = load(service);
+        VersionKey key = VersionKey.parse(version);
+        synchronized (versions) {
+            versions.add(key);
+            return versions.last().equals(key);
+        }
+    }
+
+    @Override
+    public void evict(String service) {
+        catalogs.remove(service);
+    }
+
+    /**
+     * 本副本写入的版本已由register登记，其他副本写入时重新从数据库加载
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwaggerChanged(SwaggerChangedEvent event) {
+        if (!event.isRemote()) {
+            return;
+        }
+        if (event.getService() == null) {
+            catalogs.clear();
+        } else {
+            evict(event.getService());
+        }
+    }
+
+    private NavigableSet<VersionKey> load(String service) {
+        return catalogs.computeIfAbsent(service, s -> {
+            NavigableSet<VersionKey> versions = new ConcurrentSkipListSet<>();
+            List<String> stored = swaggerMapper.selectVersions(s);
+            if (stored != null) {
+                stored.forEach(v -> versions.add(VersionKey.parse(v)));
+            }
+            return versions;
+        });
+    }
+}
@@ -3,6 +3,7 @@ package io.choerodon.manager.domain.service.impl;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.stereotype.Component;
 
+import io.choerodon.manager.domain.manager.entity.VersionKey;
 import io.choerodon.manager.domain.service.VersionStrategy;
 import io.choerodon.manager.infra.common.utils.VersionUtil;
 
@@ -26,6 +27,12 @@ public class IDefaultVersionStrategy implements VersionStrategy {
         if (VersionUtil.NULL_VERSION.equals(v2) || StringUtils.isEmpty(v2)) {
             return 1;
         }
+        //语义化版本按数字比较，0.10.0大于0.9.0
+        VersionKey k1 = VersionKey.parse(v1);
+        VersionKey k2 = VersionKey.parse(v2);
+        if (k1.isSemantic() && k2.isSemantic()) {
+            return Integer.signum(k1.compareTo(k2));
+        }
         char[] chars1 = v1.toCharArray();
         char[] chars2 = v2.toCharArray();
         if (chars1.length <= chars2.length) {
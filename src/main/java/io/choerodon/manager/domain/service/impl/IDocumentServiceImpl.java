@@ -6,8 +6,19 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.choerodon.core.exception.CommonException;
 import io.choerodon.eureka.event.EurekaEventPayload;
 import io.choerodon.manager.domain.manager.entity.RouteE;
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
+import io.choerodon.manager.domain.manager.entity.SwaggerSummary;
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent;
+import io.choerodon.manager.domain.manager.event.SwaggerChangedEvent;
 import io.choerodon.manager.domain.service.IDocumentService;
+import io.choerodon.manager.domain.service.ILocalSnapshotService;
+import io.choerodon.manager.domain.service.IOffHeapDocumentService;
 import io.choerodon.manager.domain.service.IRouteService;
+import io.choerodon.manager.domain.service.ISwaggerStorageService;
+import io.choerodon.manager.domain.service.VersionCatalog;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+import io.choerodon.manager.infra.common.utils.SwaggerFingerprintUtil;
+import io.choerodon.manager.infra.common.utils.SwaggerUtil;
 import io.choerodon.manager.infra.common.utils.VersionUtil;
 import io.choerodon.manager.infra.dataobject.SwaggerDO;
 import io.choerodon.manager.infra.mapper.SwaggerMapper;
@@ -22,10 +33,14 @@ import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.remoting.RemoteAccessException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -56,15 +71,30 @@ public class IDocumentServiceImpl implements IDocumentService {
     private SwaggerMapper swaggerMapper;
     private DiscoveryClient discoveryClient;
     private IRouteService iRouteService;
+    private VersionCatalog versionCatalog;
+    private ISwaggerStorageService iSwaggerStorageService;
+    private ILocalSnapshotService iLocalSnapshotService;
+
+    /**
+     * 扩展后的文档，key为 路由名:版本，文档或路由变化时失效，下次请求时重建
+     */
+    private IOffHeapDocumentService expandedDocuments;
 
     /**
      * 构造器
      */
     public IDocumentServiceImpl(SwaggerMapper swaggerMapper,
-                                DiscoveryClient discoveryClient, IRouteService iRouteService) {
+                                DiscoveryClient discoveryClient, IRouteService iRouteService,
+                                VersionCatalog versionCatalog, ISwaggerStorageService iSwaggerStorageService,
+                                ILocalSnapshotService iLocalSnapshotService,
+                                IOffHeapDocumentService iOffHeapDocumentService) {
         this.swaggerMapper = swaggerMapper;
         this.discoveryClient = discoveryClient;
         this.iRouteService = iRouteService;
+        this.versionCatalog = versionCatalog;
+        this.iSwaggerStorageService = iSwaggerStorageService;
+        this.iLocalSnapshotService = iLocalSnapshotService;
+        this.expandedDocuments = iOffHeapDocumentService;
     }
 
     public void setProfiles(String profiles) {
@@ -126,23 +156,148 @@ public class IDocumentServiceImpl implements IDocumentService {
                 insertSwagger.setServiceName(service);
                 insertSwagger.setServiceVersion(version);
                 insertSwagger.setDefault(false);
-                insertSwagger.setValue(json);
+                iSwaggerStorageService.encode(insertSwagger, json);
+                insertSwagger.setApiCount(SwaggerUtil.countApi(service, json));
+                insertSwagger.setFingerprint(SwaggerFingerprintUtil.fingerprintJson(service, json));
                 if (swaggerMapper.insertSelective(insertSwagger) != 1) {
                     LOGGER.warn("insert swagger error, swagger : {}", insertSwagger);
+                } else {
+                    versionCatalog.evict(service);
                 }
             } else if (json != null && StringUtils.isEmpty(data.getValue())) {
                 //update
                 query.setValue(json);
+                query.setApiCount(SwaggerUtil.countApi(service, json));
+                query.setFingerprint(SwaggerFingerprintUtil.fingerprintJson(service, json));
                 if (swaggerMapper.updateByPrimaryKeySelective(query) != 1) {
                     LOGGER.warn("update swagger error, swagger : {}", query);
                 }
             }
             return json;
         } else {
-            return data.getValue();
+            return iSwaggerStorageService.reconstruct(data);
+        }
+    }
+
+    @Override
+    public SwaggerSummary querySummary(String service, String version) throws IOException {
+        //先查询版本号再读取文档，期间文档被更新时标签比内容旧，下次读取时重新计算
+        SwaggerDO stored = iLocalSnapshotService.isEnabled() ? selectStoredVersion(service, version) : null;
+        String key = "swagger-summary:" + service + ":" + version;
+        String tag = stored == null ? null : stored.getId() + ":" + stored.getObjectVersionNumber();
+        if (tag != null) {
+            ByteBuffer cached = iLocalSnapshotService.read(key, tag);
+            if (cached != null) {
+                return SwaggerSummary.decode(cached);
+            }
+        }
+        String json = fetchSwaggerJsonByService(service, version);
+        if (StringUtils.isEmpty(json)) {
+            return null;
+        }
+        SwaggerSummary summary = SwaggerUtil.summarize(service, json);
+        if (tag != null) {
+            iLocalSnapshotService.write(key, tag, summary.encode());
+        }
+        return summary;
+    }
+
+    @Override
+    public Map<String, Integer> queryApiCounts() {
+        if (profiles.equals(DEFAULT)) {
+            //default环境下文档总是实时获取，表中的统计不可信
+            return Collections.emptyMap();
+        }
+        List<SwaggerDO> swaggers = swaggerMapper.selectApiCounts();
+        Map<String, Integer> counts = new HashMap<>(swaggers.size() * 2);
+        for (SwaggerDO swagger : swaggers) {
+            Integer apiCount = swagger.getApiCount();
+            if (apiCount == null) {
+                SwaggerDO data = swaggerMapper.selectByPrimaryKey(swagger.getId());
+                apiCount = SwaggerUtil.countApi(swagger.getServiceName(), iSwaggerStorageService.reconstruct(data));
+                swaggerMapper.updateApiCount(swagger.getId(), apiCount);
+            }
+            counts.put(swagger.getServiceName() + ":" + swagger.getServiceVersion(), apiCount);
+        }
+        return counts;
+    }
+
+    @Override
+    public String queryDocumentEtag(String service, String name, String version) {
+        SwaggerDO stored = selectStoredVersion(service, version);
+        if (stored == null) {
+            return null;
+        }
+        RouteE routeE = iRouteService.getRouteFromRunningInstancesMap(iRouteService.getAllRunningInstances(), name, version);
+        return routeE == null ? null : documentEtag(stored, routeE);
+    }
+
+    private SwaggerDO selectStoredVersion(String service, String version) {
+        //default环境下文档总是实时获取，无法由表中的版本号确定内容
+        return profiles.equals(DEFAULT) ? null : swaggerMapper.selectStoredVersion(service, version);
+    }
+
+    private String documentEtag(SwaggerDO stored, RouteE routeE) {
+        //扩展后的文档由文档内容、路由路径和swagger配置决定
+        String source = stored.getId() + ":" + stored.getObjectVersionNumber() + ":" + routeE.getPath() + ":"
+                + swaggerLocal + ":" + gatewayDomain + ":" + oauthUrl + ":" + client;
+        return "\"" + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    @Override
+    public SerializedResponse getExpandedDocument(String name, String version) {
+        return expandedDocuments.get(name + ":" + version);
+    }
+
+    @Override
+    public SerializedResponse materializeExpandedDocument(String service, String name, String version) throws IOException {
+        long currentGeneration = expandedDocuments.getGeneration();
+        SwaggerDO stored = selectStoredVersion(service, version);
+        RouteE routeE = iRouteService.getRouteFromRunningInstancesMap(iRouteService.getAllRunningInstances(), name, version);
+        if (routeE == null) {
+            return null;
+        }
+        //先确定版本号再读取文档，期间文档被更新时最多多生成一次
+        String etag = stored == null ? null : documentEtag(stored, routeE);
+        String json = fetchSwaggerJsonByService(service, version);
+        if (StringUtils.isEmpty(json)) {
+            return null;
+        }
+        byte[] body = MAPPER.writeValueAsBytes(expand(json, routeE));
+        if (etag == null) {
+            return new SerializedResponse(body);
+        }
+        SerializedResponse response = new SerializedResponse(body, etag);
+        //生成期间发生过失效时不保存
+        SerializedResponse cached = expandedDocuments.put(name + ":" + version, service, response, currentGeneration);
+        return cached == null ? response : cached;
+    }
+
+    @Override
+    public void evictExpandedDocuments(String service) {
+        expandedDocuments.evictService(service);
+    }
+
+    /**
+     * 文档写入后使该服务扩展后的文档失效，service为null时全部失效
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwaggerChanged(SwaggerChangedEvent event) {
+        if (event.getService() == null) {
+            expandedDocuments.clear();
+        } else {
+            evictExpandedDocuments(event.getService());
         }
     }
 
+    /**
+     * 路由路径和路由名都会影响扩展后的文档，路由变更很少，直接全部失效
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChanged(RouteChangedEvent event) {
+        expandedDocuments.clear();
+    }
+
     private String fetchFromDiscoveryClient(String service, String version) {
         List<ServiceInstance> instances = discoveryClient.getInstances(service);
         List<String> mdVersions = new ArrayList<>();
@@ -168,6 +323,10 @@ public class IDocumentServiceImpl implements IDocumentService {
         if (routeE == null) {
             return "";
         }
+        return MAPPER.writeValueAsString(expand(json, routeE));
+    }
+
+    private ObjectNode expand(String json, RouteE routeE) throws IOException {
         String basePath = routeE.getPath().replace("/**", "");
         if (swaggerLocal) {
             basePath = "/";
@@ -177,7 +336,7 @@ public class IDocumentServiceImpl implements IDocumentService {
         root.put("basePath", basePath);
         root.put("host", gatewayDomain);
         LOGGER.debug("put basePath:{}, host:{}", basePath, root.get("host"));
-        return MAPPER.writeValueAsString(root);
+        return root;
     }
 
     private String fetch(ServiceInstance instance) {
@@ -188,9 +347,9 @@ public class IDocumentServiceImpl implements IDocumentService {
         }
         LOGGER.info("service: {} metadata : {}", instance.getServiceId(), instance.getMetadata());
         try {
-            response = restTemplate.getForEntity(
-                    instance.getUri() + contextPath + "/v2/choerodon/api-docs",
-                    String.class);
+            String url = instance.getUri() + contextPath + "/v2/choerodon/api-docs";
+            response = MetricsUtil.recordOutbound(instance.getServiceId(), "api-docs",
+                    () -> restTemplate.getForEntity(url, String.class));
         } catch (RestClientException e) {
             String msg = "fetch failed, instance:" + instance.getServiceId() + ", uri: " + instance.getUri() + ", contextPath: " + contextPath;
             throw new RemoteAccessException(msg);
@@ -203,8 +362,9 @@ public class IDocumentServiceImpl implements IDocumentService {
 
     @Override
     public String fetchSwaggerJsonByIp(final EurekaEventPayload payload) {
-        ResponseEntity<String> response = restTemplate.getForEntity("http://" + payload.getInstanceAddress() + "/v2/choerodon/api-docs",
-                String.class);
+        ResponseEntity<String> response = MetricsUtil.recordOutbound(payload.getAppName(), "api-docs",
+                () -> restTemplate.getForEntity("http://" + payload.getInstanceAddress() + "/v2/choerodon/api-docs",
+                        String.class));
         if (response.getStatusCode() == HttpStatus.OK) {
             return response.getBody();
         } else {
@@ -212,5 +372,4 @@ public class IDocumentServiceImpl implements IDocumentService {
         }
 
     }
-
 }
@@ -0,0 +1,88 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.choerodon.manager.domain.service.LeaseService;
+
+/**
+ * 进程内的租约，行为与IRedisLeaseService一致，choerodon.swagger.ingest.lease=local时启用
+ * 只在单副本部署和本地测试中使用，多副本之间不互斥
+ *
+ * @author agent
+ */
+@Component
+@ConditionalOnProperty(prefix = "choerodon.swagger.ingest", name = "lease", havingValue = "local")
+public class ILocalLeaseService implements LeaseService {
+
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    @Override
+    public String tryAcquire(String key, long ttl) {
+        String token = UUID.randomUUID().toString();
+        long now = System.currentTimeMillis();
+        Lease lease = leases.compute(key, (k, old) -> old == null || old.isExpired(now) ? new Lease(token, now + ttl) : old);
+        return token.equals(lease.value) ? token : null;
+    }
+
+    @Override
+    public boolean complete(String key, String token, long window) {
+        long now = System.currentTimeMillis();
+        boolean[] completed = new boolean[1];
+        leases.computeIfPresent(key, (k, old) -> {
+            if (!old.isExpired(now) && token.equals(old.value)) {
+                completed[0] = true;
+                return new Lease(IRedisLeaseService.COMPLETED, now + window);
+            }
+            return old;
+        });
+        return completed[0];
+    }
+
+    @Override
+    public boolean release(String key, String token) {
+        long now = System.currentTimeMillis();
+        boolean[] released = new boolean[1];
+        leases.computeIfPresent(key, (k, old) -> {
+            if (!old.isExpired(now) && token.equals(old.value)) {
+                released[0] = true;
+                return null;
+            }
+            return old;
+        });
+        return released[0];
+    }
+
+    @Override
+    public State getState(String key) {
+        Lease lease = leases.get(key);
+        if (lease == null) {
+            return State.ABSENT;
+        }
+        if (lease.isExpired(System.currentTimeMillis())) {
+            leases.remove(key, lease);
+            return State.ABSENT;
+        }
+        return IRedisLeaseService.COMPLETED.equals(lease.value) ? State.COMPLETED : State.HELD;
+    }
+
+    private static final class Lease {
+
+        private final String value;
+
+        private final long expireAt;
+
+        private Lease(String value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expireAt;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.choerodon.manager.domain.service.ILocalSnapshotService;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+
+/**
+ * 实现类
+ * 文件格式（大端序）：magic(int) 格式版本(int) 项数(int) crc32(long)，之后依次为每一项的
+ * key长度(int) key(utf-8) 标签长度(int) 标签(utf-8) 内容长度(int) 内容
+ * 启动时以只读方式映射文件，各项内容为映射区域的切片，读取时不复制；
+ * 检查点先写入同目录下的临时文件，再原子替换原文件，已映射的旧文件在进程内仍然有效
+ *
+ * @author agent
+ */
+@Service
+public class ILocalSnapshotServiceImpl implements ILocalSnapshotService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ILocalSnapshotServiceImpl.class);
+
+    private static final int MAGIC = 0x4D534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+    private static final int CRC_OFFSET = 12;
+
+    @Value("${choerodon.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${choerodon.snapshot.path:snapshot/manager-service.snapshot}")
+    private String path = "snapshot/manager-service.snapshot";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    /**
+     * 映射并校验本地文件，格式或校验和不正确时忽略整个文件
+     */
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        Path file = Paths.get(path);
+        if (!Files.isRegularFile(file)) {
+            LOGGER.info("local snapshot {} not found, start without it", file);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Map<String, Entry> loaded = parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            entries.putAll(loaded);
+            LOGGER.info("load local snapshot {}, entries: {}", file, loaded.size());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("ignore invalid local snapshot {}, exception: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public ByteBuffer read(String key, String tag) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(key);
+        boolean hit = entry != null && entry.tag.equals(tag);
+        MetricsUtil.recordCache(MetricsUtil.CACHE_LOCAL_SNAPSHOT, hit);
+        if (hit) {
+            return entry.payload.duplicate();
+        }
+        if (entry != null && entries.remove(key, entry)) {
+            //来源记录已变化，丢弃过期项
+            dirty.set(true);
+        }
+        return null;
+    }
+
+    @Override
+    public void write(String key, String tag, byte[] payload) {
+        if (!enabled) {
+            return;
+        }
+        entries.put(key, new Entry(tag, ByteBuffer.wrap(payload).asReadOnlyBuffer()));
+        dirty.set(true);
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled(initialDelayString = "${choerodon.snapshot.checkpoint-interval:300000}",
+            fixedDelayString = "${choerodon.snapshot.checkpoint-interval:300000}")
+    public synchronized void checkpoint() {
+        if (!enabled || !dirty.getAndSet(false)) {
+            return;
+        }
+        Map<String, Entry> current = new TreeMap<>(entries);
+        Path file = Paths.get(path).toAbsolutePath();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            write(temp, current);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.info("checkpoint local snapshot {}, entries: {}", file, current.size());
+        } catch (IOException e) {
+            dirty.set(true);
+            LOGGER.warn("checkpoint local snapshot {} error, exception: {}", file, e.getMessage());
+        }
+    }
+
+    private void write(Path temp, Map<String, Entry> current) throws IOException {
+        long size = HEADER_SIZE;
+        Map<String, byte[][]> encoded = new HashMap<>(current.size() * 2);
+        for (Map.Entry<String, Entry> item : current.entrySet()) {
+            byte[][] strings = {item.getKey().getBytes(StandardCharsets.UTF_8),
+                    item.getValue().tag.getBytes(StandardCharsets.UTF_8)};
+            encoded.put(item.getKey(), strings);
+            size += 4 + strings[0].length + 4 + strings[1].length + 4 + item.getValue().payload.remaining();
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(current.size()).putLong(0L);
+            for (Map.Entry<String, Entry> item : current.entrySet()) {
+                byte[][] strings = encoded.get(item.getKey());
+                ByteBuffer payload = item.getValue().payload.duplicate();
+                buffer.putInt(strings[0].length).put(strings[0])
+                        .putInt(strings[1].length).put(strings[1])
+                        .putInt(payload.remaining()).put(payload);
+            }
+            ByteBuffer body = buffer.duplicate();
+            body.position(HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            buffer.putLong(CRC_OFFSET, crc.getValue());
+            buffer.force();
+        }
+    }
+
+    private static Map<String, Entry> parse(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IllegalStateException("unknown snapshot format");
+        }
+        int count = buffer.getInt();
+        long checksum = buffer.getLong();
+        ByteBuffer body = buffer.slice();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        if (crc.getValue() != checksum) {
+            throw new IllegalStateException("snapshot checksum mismatch");
+        }
+        Map<String, Entry> result = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String key = readString(body);
+            String tag = readString(body);
+            result.put(key, new Entry(tag, slice(body, body.getInt()).asReadOnlyBuffer()));
+        }
+        return result;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        ByteBuffer bytes = slice(buffer, buffer.getInt());
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("snapshot entry out of bounds");
+        }
+        ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static final class Entry {
+
+        private final String tag;
+
+        private final ByteBuffer payload;
+
+        private Entry(String tag, ByteBuffer payload) {
+            this.tag = tag;
+            this.payload = payload;
+        }
+    }
+}
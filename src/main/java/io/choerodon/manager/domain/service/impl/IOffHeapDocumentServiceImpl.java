@@ -0,0 +1,146 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.choerodon.manager.domain.manager.entity.OffHeapResponse;
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
+import io.choerodon.manager.domain.service.IOffHeapDocumentService;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+
+/**
+ * 实现类
+ * 每个文档的原文和gzip结果分别复制到独立的direct ByteBuffer，已用容量由本类统计，
+ * 淘汰时只移除索引，正在写出的请求仍持有buffer，不再被引用后由GC回收对应的堆外内存，
+ * 因此-XX:MaxDirectMemorySize需大于choerodon.swagger.off-heap.capacity
+ * capacity小于等于0时文档保留在堆上且不限容量，与之前的行为一致
+ *
+ * @author agent
+ */
+@Service
+public class IOffHeapDocumentServiceImpl implements IOffHeapDocumentService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IOffHeapDocumentServiceImpl.class);
+
+    @Value("${choerodon.swagger.off-heap.capacity:134217728}")
+    private long capacity = 134217728L;
+
+    private final LinkedHashMap<String, Document> documents = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long used;
+
+    private long generation;
+
+    public IOffHeapDocumentServiceImpl() {
+        MetricsUtil.registry().gauge(MetricsUtil.SWAGGER_OFF_HEAP_BYTES, this, IOffHeapDocumentServiceImpl::getUsed);
+    }
+
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public SerializedResponse put(String key, String service, SerializedResponse response) {
+        return put(key, service, response, null);
+    }
+
+    @Override
+    public SerializedResponse put(String key, String service, SerializedResponse response, long expectedGeneration) {
+        return put(key, service, response, Long.valueOf(expectedGeneration));
+    }
+
+    @Override
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    private SerializedResponse put(String key, String service, SerializedResponse response, Long expectedGeneration) {
+        if (capacity <= 0) {
+            synchronized (this) {
+                if (expectedGeneration != null && expectedGeneration != generation) {
+                    return response;
+                }
+                documents.put(key, new Document(service, response, 0));
+            }
+            return response;
+        }
+        //复制和压缩在锁外完成
+        OffHeapResponse offHeap = OffHeapResponse.copyOf(response);
+        if (offHeap.size() > capacity) {
+            LOGGER.warn("swagger document {} is larger than off-heap capacity, size: {}", key, offHeap.size());
+            return null;
+        }
+        synchronized (this) {
+            if (expectedGeneration != null && expectedGeneration != generation) {
+                return response;
+            }
+            remove(documents.remove(key));
+            documents.put(key, new Document(service, offHeap, offHeap.size()));
+            used += offHeap.size();
+            Iterator<Document> iterator = documents.values().iterator();
+            while (used > capacity && iterator.hasNext()) {
+                Document eldest = iterator.next();
+                iterator.remove();
+                remove(eldest);
+            }
+        }
+        return offHeap;
+    }
+
+    @Override
+    public synchronized SerializedResponse get(String key) {
+        Document document = documents.get(key);
+        return document == null ? null : document.response;
+    }
+
+    @Override
+    public synchronized void evictService(String service) {
+        generation++;
+        Iterator<Document> iterator = documents.values().iterator();
+        while (iterator.hasNext()) {
+            Document document = iterator.next();
+            if (document.service.equalsIgnoreCase(service)) {
+                iterator.remove();
+                remove(document);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        generation++;
+        documents.clear();
+        used = 0;
+    }
+
+    public synchronized long getUsed() {
+        return used;
+    }
+
+    private void remove(Document document) {
+        if (document != null) {
+            used -= document.size;
+        }
+    }
+
+    private static final class Document {
+
+        private final String service;
+
+        private final SerializedResponse response;
+
+        private final int size;
+
+        private Document(String service, SerializedResponse response, int size) {
+            this.service = service;
+            this.response = response;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import io.choerodon.manager.domain.service.LeaseService;
+
+/**
+ * 基于redis的租约，默认启用
+ * 获取使用SET NX PX，完成和释放通过lua脚本比较令牌后再修改，不会误改已过期后被他人获取的租约
+ *
+ * @author agent
+ */
+@Component
+@ConditionalOnProperty(prefix = "choerodon.swagger.ingest", name = "lease", havingValue = "redis", matchIfMissing = true)
+public class IRedisLeaseService implements LeaseService {
+
+    static final String COMPLETED = "completed";
+
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>(
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return 1 end return 0", Long.class);
+
+    private static final RedisScript<Long> COMPLETE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 end return 0",
+            Long.class);
+
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0", Long.class);
+
+    private StringRedisTemplate redisTemplate;
+
+    public IRedisLeaseService(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String tryAcquire(String key, long ttl) {
+        String token = UUID.randomUUID().toString();
+        Long result = redisTemplate.execute(ACQUIRE, Collections.singletonList(key), token, String.valueOf(ttl));
+        return result != null && result == 1L ? token : null;
+    }
+
+    @Override
+    public boolean complete(String key, String token, long window) {
+        Long result = redisTemplate.execute(COMPLETE, Collections.singletonList(key), token, COMPLETED, String.valueOf(window));
+        return result != null && result == 1L;
+    }
+
+    @Override
+    public boolean release(String key, String token) {
+        Long result = redisTemplate.execute(RELEASE, Collections.singletonList(key), token);
+        return result != null && result == 1L;
+    }
+
+    @Override
+    public State getState(String key) {
+        String value = redisTemplate.opsForValue().get(key);
+        if (value == null) {
+            return State.ABSENT;
+        }
+        return COMPLETED.equals(value) ? State.COMPLETED : State.HELD;
+    }
+}
@@ -5,13 +5,18 @@ import io.choerodon.core.convertor.ConvertHelper;
 import io.choerodon.core.domain.Page;
 import io.choerodon.core.exception.CommonException;
 import io.choerodon.core.swagger.ChoerodonRouteData;
-import io.choerodon.manager.api.dto.RouteDTO;
 import io.choerodon.manager.domain.manager.entity.RouteE;
+import io.choerodon.manager.domain.manager.entity.RouteIndex;
+import io.choerodon.manager.domain.manager.entity.RouteOverlap;
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent;
 import io.choerodon.manager.domain.repository.RouteRepository;
 import io.choerodon.manager.domain.service.IRouteService;
+import io.choerodon.manager.infra.common.utils.ManualPageHelper;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
 import io.choerodon.manager.infra.common.utils.VersionUtil;
 import io.choerodon.manager.infra.dataobject.RouteDO;
 import io.choerodon.mybatis.pagehelper.domain.PageRequest;
+import io.choerodon.mybatis.pagehelper.domain.Sort;
 import io.choerodon.swagger.swagger.extra.ExtraData;
 import org.apache.commons.collections.map.MultiKeyMap;
 import org.apache.commons.lang.StringUtils;
@@ -24,13 +29,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.remoting.RemoteAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Function;
 
 /**
  * 实现类
@@ -46,6 +51,11 @@ public class IRouteServiceImpl implements IRouteService {
     private RestTemplate restTemplate = new RestTemplate();
     private RouteRepository routeRepository;
     private DiscoveryClient discoveryClient;
+    private volatile RouteIndex routeIndex;
+    /**
+     * 每次路由变更时递增，与routeIndex一起由this保护，构建期间发生过变更的索引不发布
+     */
+    private long routeGeneration;
 
     public IRouteServiceImpl(RouteRepository routeRepository, DiscoveryClient discoveryClient) {
         this.routeRepository = routeRepository;
@@ -54,7 +64,108 @@ public class IRouteServiceImpl implements IRouteService {
 
     @Override
     public Page<RouteE> pageAll(PageRequest pageRequest, RouteDO routeDO, String params) {
-        return routeRepository.pageAllRoutes(pageRequest, routeDO, params);
+        Comparator<RouteE> comparator = routeComparator(pageRequest.getSort());
+        if (comparator == null) {
+            return routeRepository.pageAllRoutes(pageRequest, routeDO, params);
+        }
+        List<RouteE> routes = getRouteIndex().filter(routeDO.getName(), routeDO.getPath(),
+                routeDO.getServiceId(), routeDO.getBuiltIn(), params);
+        return ManualPageHelper.postPage(routes, pageRequest, Collections.emptyMap(), comparator);
+    }
+
+    /**
+     * 根据排序条件构造内存排序的比较器，存在索引不支持的排序字段时返回null，由数据库分页
+     */
+    private Comparator<RouteE> routeComparator(Sort sort) {
+        Comparator<RouteE> comparator = Comparator.comparing(RouteE::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (sort == null) {
+            return comparator;
+        }
+        Comparator<RouteE> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<RouteE> current = propertyComparator(order.getProperty());
+            if (current == null) {
+                return null;
+            }
+            if (!order.getDirection().isAscending()) {
+                current = current.reversed();
+            }
+            result = result == null ? current : result.thenComparing(current);
+        }
+        return result == null ? comparator : result.thenComparing(comparator);
+    }
+
+    private static Comparator<RouteE> propertyComparator(String property) {
+        switch (property) {
+            case "id":
+                return Comparator.comparing(RouteE::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "name":
+                return nullsFirst(RouteE::getName);
+            case "path":
+                return nullsFirst(RouteE::getPath);
+            case "serviceId":
+            case "service_id":
+                return nullsFirst(RouteE::getServiceId);
+            default:
+                return null;
+        }
+    }
+
+    private static Comparator<RouteE> nullsFirst(Function<RouteE, String> getter) {
+        return Comparator.comparing(getter, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+    }
+
+    /**
+     * 获取路由索引，路由变更后第一次调用时从数据库重建
+     *
+     * @return RouteIndex
+     */
+    private RouteIndex getRouteIndex() {
+        RouteIndex index = routeIndex;
+        if (index == null) {
+            long generation;
+            synchronized (this) {
+                generation = routeGeneration;
+            }
+            index = new RouteIndex(routeRepository.getAllRoute());
+            synchronized (this) {
+                if (routeGeneration == generation) {
+                    routeIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChanged(RouteChangedEvent event) {
+        LOGGER.debug("reset route index on {}", event);
+        synchronized (this) {
+            routeGeneration++;
+            routeIndex = null;
+        }
+        //其他副本的变更由写入的副本检查重叠
+        if (event.getName() == null || event.isRemote()) {
+            return;
+        }
+        RouteE routeE = getRouteIndex().getByName(event.getName());
+        if (routeE == null) {
+            return;
+        }
+        for (RouteOverlap overlap : findOverlaps(routeE.getPath(), routeE.getId())) {
+            LOGGER.warn("route {} path {} is {} with route {} path {}", routeE.getName(), routeE.getPath(),
+                    overlap.getType(), overlap.getRoute().getName(), overlap.getRoute().getPath());
+        }
+    }
+
+    @Override
+    public RouteE matchRoute(String url) {
+        return getRouteIndex().match(url);
+    }
+
+    @Override
+    public List<RouteOverlap> findOverlaps(String path, Long excludeId) {
+        return getRouteIndex().findOverlaps(path, excludeId);
     }
 
     @Override
@@ -70,7 +181,7 @@ public class IRouteServiceImpl implements IRouteService {
 
     @Override
     public MultiKeyMap getAllRunningInstances() {
-        List<RouteE> routeEList = routeRepository.getAllRoute();
+        RouteIndex index = getRouteIndex();
         List<String> serviceIds = discoveryClient.getServices();
         MultiKeyMap multiKeyMap = new MultiKeyMap();
         for (String serviceIdInList : serviceIds) {
@@ -80,7 +191,7 @@ public class IRouteServiceImpl implements IRouteService {
                     version = VersionUtil.NULL_VERSION;
                 }
                 if (multiKeyMap.get(serviceIdInList, version) == null) {
-                    RouteE routeE = selectZuulRouteByServiceId(routeEList, serviceIdInList);
+                    RouteE routeE = index.getByServiceId(serviceIdInList);
                     if (routeE == null) {
                         continue;
                     }
@@ -91,17 +202,15 @@ public class IRouteServiceImpl implements IRouteService {
         return multiKeyMap;
     }
 
-    private RouteE selectZuulRouteByServiceId(List<RouteE> routeEList, String serviceId) {
-        for (RouteE routeE : routeEList) {
-            if (routeE.getServiceId().equals(serviceId)) {
-                return routeE;
-            }
-        }
-        return null;
-    }
-
     @Override
     public RouteE getRouteFromRunningInstancesMap(MultiKeyMap runningMap, String name, String version) {
+        RouteE indexed = getRouteIndex().getByName(name);
+        if (indexed != null) {
+            Object running = runningMap.get(indexed.getServiceId(), version);
+            if (running instanceof RouteE && name.equals(((RouteE) running).getName())) {
+                return (RouteE) running;
+            }
+        }
         Iterator iterator = runningMap.values().iterator();
         while (iterator.hasNext()) {
             Object object = iterator.next();
@@ -189,9 +298,9 @@ public class IRouteServiceImpl implements IRouteService {
             contextPath = "/oauth";
         }
         try {
-            response = restTemplate.getForEntity(
-                    instance.getUri() + contextPath + "/v2/route_json",
-                    String.class);
+            String url = instance.getUri() + contextPath + "/v2/route_json";
+            response = MetricsUtil.recordOutbound(instance.getServiceId(), "route_json",
+                    () -> restTemplate.getForEntity(url, String.class));
         } catch (RestClientException e) {
             throw new RemoteAccessException("fetch failed, instance:" + instance.getServiceId());
         }
@@ -208,8 +317,6 @@ public class IRouteServiceImpl implements IRouteService {
 
     @Override
     public RouteE queryRouteByService(String service) {
-        RouteDTO routeDTO = new RouteDTO();
-        routeDTO.setServiceId(service);
-        return routeRepository.queryRoute(ConvertHelper.convert(routeDTO, RouteE.class));
+        return getRouteIndex().getByServiceId(service);
     }
 }
@@ -0,0 +1,29 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.choerodon.manager.domain.service.FanOutStrategy;
+
+/**
+ * 在调用线程中依次执行，choerodon.fan-out.mode=serial时启用
+ *
+ * @author agent
+ */
+@Component
+@ConditionalOnProperty(prefix = "choerodon.fan-out", name = "mode", havingValue = "serial")
+public class ISerialFanOutStrategy implements FanOutStrategy {
+
+    @Override
+    public <T, R> List<R> invokeAll(List<T> targets, Function<T, R> task) {
+        List<R> results = new ArrayList<>(targets.size());
+        for (T target : targets) {
+            results.add(task.apply(target));
+        }
+        return results;
+    }
+}
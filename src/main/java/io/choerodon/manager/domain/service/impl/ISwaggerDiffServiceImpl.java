@@ -0,0 +1,211 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.stereotype.Service;
+
+import io.choerodon.core.exception.CommonException;
+import io.choerodon.manager.api.dto.swagger.OperationDiffDTO;
+import io.choerodon.manager.api.dto.swagger.SwaggerDiffDTO;
+import io.choerodon.manager.domain.manager.entity.SwaggerFingerprint;
+import io.choerodon.manager.domain.service.ISwaggerDiffService;
+import io.choerodon.manager.domain.service.ISwaggerStorageService;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+import io.choerodon.manager.infra.common.utils.SwaggerFingerprintUtil;
+import io.choerodon.manager.infra.dataobject.SwaggerDO;
+import io.choerodon.manager.infra.mapper.SwaggerMapper;
+
+/**
+ * 实现类
+ *
+ * @author agent
+ */
+@Service
+public class ISwaggerDiffServiceImpl implements ISwaggerDiffService {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String OPERATION_ID = "operationId";
+
+    /**
+     * 已反序列化的结构哈希，key为 服务名:版本，文档的id或乐观锁版本号变化时重新读取
+     */
+    private final Map<String, CachedFingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    private SwaggerMapper swaggerMapper;
+
+    private ISwaggerStorageService iSwaggerStorageService;
+
+    public ISwaggerDiffServiceImpl(SwaggerMapper swaggerMapper, ISwaggerStorageService iSwaggerStorageService) {
+        this.swaggerMapper = swaggerMapper;
+        this.iSwaggerStorageService = iSwaggerStorageService;
+    }
+
+    @Override
+    public SwaggerFingerprint queryFingerprint(String service, String version) {
+        SwaggerDO stored = swaggerMapper.selectStoredVersion(service, version);
+        if (stored == null) {
+            return null;
+        }
+        String key = service + ":" + version;
+        CachedFingerprint cached = fingerprints.get(key);
+        if (cached != null && cached.matches(stored)) {
+            return cached.fingerprint;
+        }
+        String json = swaggerMapper.selectFingerprint(stored.getId());
+        if (StringUtils.isEmpty(json)) {
+            SwaggerDO data = swaggerMapper.selectByPrimaryKey(stored.getId());
+            json = SwaggerFingerprintUtil.fingerprintJson(service, iSwaggerStorageService.reconstruct(data));
+            if (json == null) {
+                return null;
+            }
+            swaggerMapper.updateFingerprint(stored.getId(), json);
+        }
+        try {
+            SwaggerFingerprint fingerprint = SwaggerFingerprintUtil.readFingerprint(json);
+            fingerprints.put(key, new CachedFingerprint(stored, fingerprint));
+            return fingerprint;
+        } catch (IOException e) {
+            throw new CommonException("error.parseJson", e);
+        }
+    }
+
+    @Override
+    public SwaggerDiffDTO diff(String service, String from, String to) {
+        SwaggerFingerprint source = requireFingerprint(service, from);
+        SwaggerFingerprint target = requireFingerprint(service, to);
+        SwaggerDiffDTO diff = new SwaggerDiffDTO();
+        diff.setService(service);
+        diff.setFrom(from);
+        diff.setTo(to);
+        diff.setIdentical(source.getRoot().equals(target.getRoot()));
+        List<String> addedOperations = new ArrayList<>();
+        List<String> removedOperations = new ArrayList<>();
+        List<String> changedOperations = new ArrayList<>();
+        compare(source.getOperations(), target.getOperations(), addedOperations, removedOperations, changedOperations);
+        List<String> addedDefinitions = new ArrayList<>();
+        List<String> removedDefinitions = new ArrayList<>();
+        List<String> changedDefinitions = new ArrayList<>();
+        compare(source.getDefinitions(), target.getDefinitions(), addedDefinitions, removedDefinitions, changedDefinitions);
+        diff.setAddedOperations(addedOperations);
+        diff.setRemovedOperations(removedOperations);
+        diff.setAddedDefinitions(addedDefinitions);
+        diff.setRemovedDefinitions(removedDefinitions);
+        diff.setChangedDefinitions(changedDefinitions);
+        diff.setChangedOperations(changedOperations.isEmpty() ? new ArrayList<>()
+                : diffOperations(service, from, to, source, target, changedOperations));
+        return diff;
+    }
+
+    private SwaggerFingerprint requireFingerprint(String service, String version) {
+        SwaggerFingerprint fingerprint = queryFingerprint(service, version);
+        if (fingerprint == null) {
+            throw new CommonException("error.swagger.version.not.found", service, version);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 比较两组哈希，结果按key排序
+     */
+    private void compare(Map<String, String> source, Map<String, String> target,
+                         List<String> added, List<String> removed, List<String> changed) {
+        for (Map.Entry<String, String> entry : target.entrySet()) {
+            String hash = source.get(entry.getKey());
+            if (hash == null) {
+                added.add(entry.getKey());
+            } else if (!hash.equals(entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String key : source.keySet()) {
+            if (!target.containsKey(key)) {
+                removed.add(key);
+            }
+        }
+    }
+
+    /**
+     * 只对哈希不同的接口读取两个版本的文档，逐字段比较
+     */
+    private List<OperationDiffDTO> diffOperations(String service, String from, String to,
+                                                  SwaggerFingerprint source, SwaggerFingerprint target,
+                                                  List<String> operations) {
+        JsonNode sourcePaths = readPaths(service, from);
+        JsonNode targetPaths = readPaths(service, to);
+        List<OperationDiffDTO> result = new ArrayList<>(operations.size());
+        for (String operation : operations) {
+            int separator = operation.indexOf(' ');
+            String method = operation.substring(0, separator);
+            String url = operation.substring(separator + 1);
+            JsonNode sourceNode = sourcePaths.path(url).path(method);
+            JsonNode targetNode = targetPaths.path(url).path(method);
+            Set<String> sourceRefs = new HashSet<>();
+            Set<String> targetRefs = new HashSet<>();
+            Map<String, String> sourceFields = SwaggerFingerprintUtil.hashFields(sourceNode, source.getDefinitions(), sourceRefs);
+            Map<String, String> targetFields = SwaggerFingerprintUtil.hashFields(targetNode, target.getDefinitions(), targetRefs);
+            Set<String> fields = new TreeSet<>(sourceFields.keySet());
+            fields.addAll(targetFields.keySet());
+            List<String> changedFields = new ArrayList<>();
+            for (String field : fields) {
+                if (!Objects.equals(sourceFields.get(field), targetFields.get(field))) {
+                    changedFields.add(field);
+                }
+            }
+            Set<String> refs = new TreeSet<>(sourceRefs);
+            refs.addAll(targetRefs);
+            List<String> changedDefinitions = new ArrayList<>();
+            for (String ref : refs) {
+                if (!Objects.equals(source.getDefinitions().get(ref), target.getDefinitions().get(ref))) {
+                    changedDefinitions.add(ref);
+                }
+            }
+            OperationDiffDTO diff = new OperationDiffDTO();
+            diff.setOperation(operation);
+            diff.setOperationId(targetNode.path(OPERATION_ID).asText(null));
+            diff.setChangedFields(changedFields);
+            diff.setChangedDefinitions(changedDefinitions);
+            result.add(diff);
+        }
+        return result;
+    }
+
+    private JsonNode readPaths(String service, String version) {
+        SwaggerDO query = new SwaggerDO();
+        query.setServiceName(service);
+        query.setServiceVersion(version);
+        String json = iSwaggerStorageService.reconstruct(swaggerMapper.selectOne(query));
+        if (StringUtils.isEmpty(json)) {
+            throw new CommonException("error.swagger.version.not.found", service, version);
+        }
+        try {
+            return MetricsUtil.readSwaggerTree(MAPPER, service, json).path("paths");
+        } catch (IOException e) {
+            throw new CommonException("error.parseJson", e);
+        }
+    }
+
+    private static final class CachedFingerprint {
+
+        private final Long id;
+
+        private final Long objectVersionNumber;
+
+        private final SwaggerFingerprint fingerprint;
+
+        private CachedFingerprint(SwaggerDO stored, SwaggerFingerprint fingerprint) {
+            this.id = stored.getId();
+            this.objectVersionNumber = stored.getObjectVersionNumber();
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean matches(SwaggerDO stored) {
+            return Objects.equals(id, stored.getId()) && Objects.equals(objectVersionNumber, stored.getObjectVersionNumber());
+        }
+    }
+}
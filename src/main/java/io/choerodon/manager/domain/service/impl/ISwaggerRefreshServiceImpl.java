@@ -2,10 +2,15 @@ package io.choerodon.manager.domain.service.impl;
 
 import io.choerodon.core.exception.CommonException;
 import io.choerodon.eureka.event.EurekaEventPayload;
+import io.choerodon.manager.domain.manager.event.SwaggerChangedEvent;
+import io.choerodon.manager.domain.service.ISwaggerStorageService;
 import io.choerodon.manager.domain.service.SwaggerRefreshService;
-import io.choerodon.manager.domain.service.VersionStrategy;
+import io.choerodon.manager.domain.service.VersionCatalog;
+import io.choerodon.manager.infra.common.utils.SwaggerFingerprintUtil;
+import io.choerodon.manager.infra.common.utils.SwaggerUtil;
 import io.choerodon.manager.infra.dataobject.SwaggerDO;
 import io.choerodon.manager.infra.mapper.SwaggerMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /**
@@ -19,15 +24,23 @@ public class ISwaggerRefreshServiceImpl implements SwaggerRefreshService {
 
     private SwaggerMapper swaggerMapper;
 
-    private VersionStrategy versionStrategy;
+    private VersionCatalog versionCatalog;
+
+    private ISwaggerStorageService iSwaggerStorageService;
+
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * 构造器
      */
     public ISwaggerRefreshServiceImpl(SwaggerMapper swaggerMapper,
-                                      VersionStrategy versionStrategy) {
+                                      VersionCatalog versionCatalog,
+                                      ISwaggerStorageService iSwaggerStorageService,
+                                      ApplicationEventPublisher eventPublisher) {
         this.swaggerMapper = swaggerMapper;
-        this.versionStrategy = versionStrategy;
+        this.versionCatalog = versionCatalog;
+        this.iSwaggerStorageService = iSwaggerStorageService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -36,8 +49,14 @@ public class ISwaggerRefreshServiceImpl implements SwaggerRefreshService {
         example.setServiceVersion(registerInstancePayload.getVersion());
         example.setServiceName(registerInstancePayload.getAppName());
         SwaggerDO swagger = swaggerMapper.selectOne(example);
+        //接口数量在写入时统计，查询仪表盘时不再解析文档
+        int apiCount = SwaggerUtil.countApi(registerInstancePayload.getAppName(), json);
+        //结构哈希同样在写入时计算，比较版本差异时不再解析文档
+        String fingerprint = SwaggerFingerprintUtil.fingerprintJson(registerInstancePayload.getAppName(), json);
         if (swagger != null) {
-            swagger.setValue(json);
+            iSwaggerStorageService.encode(swagger, json);
+            swagger.setApiCount(apiCount);
+            swagger.setFingerprint(fingerprint);
             if (swaggerMapper.updateByPrimaryKey(swagger) != 1) {
                 throw new CommonException("error.swagger.update");
             }
@@ -45,27 +64,21 @@ public class ISwaggerRefreshServiceImpl implements SwaggerRefreshService {
             SwaggerDO swaggerDO = new SwaggerDO();
             swaggerDO.setServiceName(registerInstancePayload.getAppName());
             swaggerDO.setServiceVersion(registerInstancePayload.getVersion());
-            swaggerDO.setValue(json);
-            SwaggerDO queryDefault = new SwaggerDO();
-            queryDefault.setServiceName(registerInstancePayload.getAppName());
-            queryDefault.setDefault(true);
-            SwaggerDO defaultVersion = swaggerMapper.selectOne(queryDefault);
-            if (defaultVersion == null) {
-                swaggerDO.setDefault(true);
-            } else if (versionStrategy
-                    .compareVersion(registerInstancePayload.getVersion(), defaultVersion.getServiceVersion()) > 0) {
-                swaggerDO.setDefault(true);
-                defaultVersion.setDefault(false);
-                if (swaggerMapper.updateByPrimaryKeySelective(defaultVersion) != 1) {
-                    throw new CommonException("error.swagger.update");
-                }
-            } else {
-                swaggerDO.setDefault(false);
-            }
+            iSwaggerStorageService.encode(swaggerDO, json);
+            swaggerDO.setApiCount(apiCount);
+            swaggerDO.setFingerprint(fingerprint);
+            //由版本目录判断是否为最新版本，不再查询并逐条更新原默认版本
+            boolean latest = versionCatalog.register(registerInstancePayload.getAppName(), registerInstancePayload.getVersion());
+            swaggerDO.setDefault(latest);
             if (swaggerMapper.insert(swaggerDO) != 1) {
+                versionCatalog.evict(registerInstancePayload.getAppName());
                 throw new CommonException("error.swagger.insert");
             }
+            if (latest) {
+                swaggerMapper.updateDefaultVersion(registerInstancePayload.getAppName(), registerInstancePayload.getVersion());
+            }
         }
+        eventPublisher.publishEvent(new SwaggerChangedEvent(registerInstancePayload.getAppName(), registerInstancePayload.getVersion()));
     }
 
 }
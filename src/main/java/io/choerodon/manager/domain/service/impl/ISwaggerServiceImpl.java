@@ -1,14 +1,22 @@
 package io.choerodon.manager.domain.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.choerodon.eureka.event.EurekaEventProperties;
 import io.choerodon.manager.domain.factory.SwaggerEFactory;
 import io.choerodon.manager.domain.manager.entity.RouteE;
+import io.choerodon.manager.domain.manager.entity.SerializedResponse;
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent;
 import io.choerodon.manager.domain.service.IRouteService;
 import io.choerodon.manager.domain.service.ISwaggerService;
+import io.choerodon.manager.infra.common.utils.SkipServiceMatcher;
 import org.apache.commons.collections.keyvalue.MultiKey;
 import org.apache.commons.collections.map.MultiKeyMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.util.AntPathMatcher;
+import org.springframework.transaction.event.TransactionalEventListener;
 import springfox.documentation.swagger.web.SecurityConfiguration;
 import springfox.documentation.swagger.web.SwaggerResource;
 import springfox.documentation.swagger.web.UiConfiguration;
@@ -25,11 +33,33 @@ import java.util.*;
 @Service
 public class ISwaggerServiceImpl implements ISwaggerService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ISwaggerServiceImpl.class);
+
     private IRouteService iRouteService;
 
     private EurekaEventProperties properties;
 
-    private final AntPathMatcher matcher = new AntPathMatcher();
+    private SkipServiceMatcher skipServiceMatcher;
+
+    /**
+     * 过滤并排序后的不可变资源列表，服务上下线或路由变更后重建
+     */
+    private volatile List<SwaggerResource> resources;
+
+    private volatile SerializedResponse resourcesResponse;
+
+    private volatile SerializedResponse uiConfigurationResponse;
+
+    private volatile SerializedResponse securityConfigurationResponse;
+
+    private volatile Set<MultiKey> runningKeys = Collections.emptySet();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 每次失效时递增，与缓存的发布一起由this保护，构建期间发生过失效的结果不发布
+     */
+    private long generation;
 
     public ISwaggerServiceImpl(IRouteService iRouteService, EurekaEventProperties properties) {
         this.iRouteService = iRouteService;
@@ -41,29 +71,102 @@ public class ISwaggerServiceImpl implements ISwaggerService {
      */
     public void setIRouteService(IRouteService iRouteService) {
         this.iRouteService = iRouteService;
+        evictSwaggerResource();
     }
 
     @Override
     public List<SwaggerResource> getSwaggerResource() {
-        List<SwaggerResource> resources = new LinkedList<>();
-        MultiKeyMap multiKeyMap = iRouteService.getAllRunningInstances();
-        Set set = multiKeyMap.keySet();
-        Iterator iterator = set.iterator();
-        while (iterator.hasNext()) {
-            MultiKey multiKey = (MultiKey) iterator.next();
-            RouteE localRouteE = (RouteE) multiKeyMap.get(multiKey);
-            if (localRouteE.getServiceId() != null) {
-                boolean isSkipService = Arrays.stream(properties.getSkipServices()).anyMatch(t -> matcher.match(t, localRouteE.getServiceId()));
-                if (!isSkipService) {
-                    SwaggerResource resource = new SwaggerResource();
-                    resource.setName(localRouteE.getName() + ":" + localRouteE.getServiceId());
-                    resource.setSwaggerVersion("2.0");
-                    resource.setLocation("/docs/" + localRouteE.getName() + "?version=" + multiKey.getKey(1));
-                    resources.add(resource);
+        List<SwaggerResource> current = resources;
+        if (current == null) {
+            long currentGeneration = currentGeneration();
+            MultiKeyMap multiKeyMap = iRouteService.getAllRunningInstances();
+            current = buildSwaggerResource(multiKeyMap);
+            Set<MultiKey> keys = keys(multiKeyMap);
+            synchronized (this) {
+                if (generation == currentGeneration) {
+                    runningKeys = keys;
+                    resources = current;
                 }
             }
         }
-        return resources;
+        return current;
+    }
+
+    @Override
+    public SerializedResponse getSwaggerResourceResponse() {
+        SerializedResponse current = resourcesResponse;
+        if (current == null) {
+            long currentGeneration = currentGeneration();
+            current = SerializedResponse.of(objectMapper, getSwaggerResource());
+            synchronized (this) {
+                if (generation == currentGeneration) {
+                    resourcesResponse = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SwaggerResource> buildSwaggerResource(MultiKeyMap multiKeyMap) {
+        List<SwaggerResource> list = new ArrayList<>(multiKeyMap.size());
+        SkipServiceMatcher skipMatcher = getSkipServiceMatcher();
+        for (Object entry : multiKeyMap.entrySet()) {
+            MultiKey multiKey = (MultiKey) ((Map.Entry) entry).getKey();
+            RouteE localRouteE = (RouteE) ((Map.Entry) entry).getValue();
+            if (localRouteE.getServiceId() != null && !skipMatcher.isSkip(localRouteE.getServiceId())) {
+                SwaggerResource resource = new SwaggerResource();
+                resource.setName(localRouteE.getName() + ":" + localRouteE.getServiceId());
+                resource.setSwaggerVersion("2.0");
+                resource.setLocation("/docs/" + localRouteE.getName() + "?version=" + multiKey.getKey(1));
+                list.add(resource);
+            }
+        }
+        list.sort(Comparator.comparing(SwaggerResource::getName));
+        return Collections.unmodifiableList(list);
+    }
+
+    private SkipServiceMatcher getSkipServiceMatcher() {
+        if (skipServiceMatcher == null) {
+            skipServiceMatcher = new SkipServiceMatcher(properties.getSkipServices());
+        }
+        return skipServiceMatcher;
+    }
+
+    @Override
+    public synchronized void evictSwaggerResource() {
+        generation++;
+        resources = null;
+        resourcesResponse = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChanged(RouteChangedEvent event) {
+        evictSwaggerResource();
+    }
+
+    /**
+     * 服务发现心跳时比较运行实例的(服务名, 版本)集合，发生变化才重建资源列表
+     */
+    @EventListener
+    public void onHeartbeat(HeartbeatEvent event) {
+        if (resources == null) {
+            return;
+        }
+        Set<MultiKey> latest = keys(iRouteService.getAllRunningInstances());
+        if (!latest.equals(runningKeys)) {
+            LOGGER.debug("running instances changed, rebuild swagger resources");
+            evictSwaggerResource();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<MultiKey> keys(MultiKeyMap multiKeyMap) {
+        return new HashSet<>(multiKeyMap.keySet());
     }
 
     @Override
@@ -75,4 +178,20 @@ public class ISwaggerServiceImpl implements ISwaggerService {
     public SecurityConfiguration getSecurityConfiguration() {
         return SwaggerEFactory.createSwaggerE().getSecurityConfiguration();
     }
+
+    @Override
+    public SerializedResponse getUiConfigurationResponse() {
+        if (uiConfigurationResponse == null) {
+            uiConfigurationResponse = SerializedResponse.of(objectMapper, getUiConfiguration());
+        }
+        return uiConfigurationResponse;
+    }
+
+    @Override
+    public SerializedResponse getSecurityConfigurationResponse() {
+        if (securityConfigurationResponse == null) {
+            securityConfigurationResponse = SerializedResponse.of(objectMapper, getSecurityConfiguration());
+        }
+        return securityConfigurationResponse;
+    }
 }
@@ -0,0 +1,338 @@
+package io.choerodon.manager.domain.service.impl;
+
+import java.io.IOException;
+import java.util.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.choerodon.core.exception.CommonException;
+import io.choerodon.manager.domain.service.ISwaggerStorageService;
+import io.choerodon.manager.domain.service.LeaseService;
+import io.choerodon.manager.infra.dataobject.SwaggerDO;
+import io.choerodon.manager.infra.mapper.SwaggerMapper;
+
+/**
+ * 实现类
+ * 差异版本的value形如 {"paths":{url:pathItem},"definitions":{name:definition},"root":{field:value}}，
+ * 值为null表示该项在新版本中被删除
+ * 压缩在每个副本上定时触发，通过租约保证同一时间只有一个副本执行；改写记录时校验读取时的乐观锁版本号，
+ * 期间被写入的记录不改写
+ *
+ * @author agent
+ */
+@Service
+public class ISwaggerStorageServiceImpl implements ISwaggerStorageService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ISwaggerStorageServiceImpl.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String MODE_DELTA = "delta";
+    private static final String COMPACTION_LEASE = "swagger-storage-compaction";
+    private static final String PATHS = "paths";
+    private static final String DEFINITIONS = "definitions";
+    private static final String ROOT = "root";
+    private static final Set<String> NESTED = new HashSet<>(Arrays.asList(PATHS, DEFINITIONS));
+
+    @Value("${choerodon.swagger.storage.mode:full}")
+    private String mode = "full";
+
+    @Value("${choerodon.swagger.storage.snapshot-interval:10}")
+    private int snapshotInterval = 10;
+
+    @Value("${choerodon.swagger.storage.cache-size:32}")
+    private int cacheSize = 32;
+
+    @Value("${choerodon.swagger.storage.compaction-delay:3600000}")
+    private long compactionDelay = 3600000L;
+
+    @Value("${choerodon.swagger.storage.compaction-lease-ttl:600000}")
+    private long compactionLeaseTtl = 600000L;
+
+    private SwaggerMapper swaggerMapper;
+
+    private LeaseService leaseService;
+
+    /**
+     * 还原后的完整文档，key为记录id，按访问顺序淘汰
+     */
+    private final Map<Long, Reconstructed> reconstructed = new LinkedHashMap<Long, Reconstructed>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Reconstructed> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    public ISwaggerStorageServiceImpl(SwaggerMapper swaggerMapper, LeaseService leaseService) {
+        this.swaggerMapper = swaggerMapper;
+        this.leaseService = leaseService;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public void setSnapshotInterval(int snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public void setCompactionDelay(long compactionDelay) {
+        this.compactionDelay = compactionDelay;
+    }
+
+    public void setCompactionLeaseTtl(long compactionLeaseTtl) {
+        this.compactionLeaseTtl = compactionLeaseTtl;
+    }
+
+    @Override
+    public synchronized void encode(SwaggerDO swagger, String json) {
+        swagger.setValue(json);
+        swagger.setDeltaBaseId(null);
+        swagger.setDeltaDepth(0);
+        if (swagger.getId() != null) {
+            //被覆盖的记录可能是其他差异版本的基准
+            detachDependents(swagger.getId());
+            return;
+        }
+        if (!MODE_DELTA.equals(mode) || StringUtils.isEmpty(json)) {
+            return;
+        }
+        SwaggerDO head = swaggerMapper.selectDeltaHead(swagger.getServiceName());
+        if (head == null) {
+            return;
+        }
+        int depth = head.getDeltaDepth() == null ? 0 : head.getDeltaDepth();
+        if (depth + 1 >= snapshotInterval) {
+            return;
+        }
+        String delta = delta(reconstruct(swaggerMapper.selectByPrimaryKey(head.getId())), json);
+        if (delta != null && delta.length() < json.length()) {
+            swagger.setValue(delta);
+            swagger.setDeltaBaseId(head.getId());
+            swagger.setDeltaDepth(depth + 1);
+        }
+    }
+
+    @Override
+    public String reconstruct(SwaggerDO swagger) {
+        if (swagger == null) {
+            return null;
+        }
+        if (swagger.getDeltaBaseId() == null) {
+            return swagger.getValue();
+        }
+        synchronized (reconstructed) {
+            Reconstructed cached = reconstructed.get(swagger.getId());
+            if (cached != null && Objects.equals(cached.objectVersionNumber, swagger.getObjectVersionNumber())) {
+                return cached.json;
+            }
+        }
+        SwaggerDO base = swaggerMapper.selectByPrimaryKey(swagger.getDeltaBaseId());
+        if (base == null) {
+            throw new CommonException("error.swagger.delta.base.notFound", swagger.getId(), swagger.getDeltaBaseId());
+        }
+        String json = apply(reconstruct(base), swagger.getValue());
+        synchronized (reconstructed) {
+            reconstructed.put(swagger.getId(), new Reconstructed(swagger.getObjectVersionNumber(), json));
+        }
+        return json;
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${choerodon.swagger.storage.compaction-delay:3600000}",
+            fixedDelayString = "${choerodon.swagger.storage.compaction-delay:3600000}")
+    public void compact() {
+        if (!MODE_DELTA.equals(mode)) {
+            return;
+        }
+        String token = leaseService.tryAcquire(COMPACTION_LEASE, compactionLeaseTtl);
+        if (token == null) {
+            LOGGER.debug("swagger storage compaction is running or finished on another replica");
+            return;
+        }
+        boolean finished = false;
+        try {
+            for (String service : swaggerMapper.selectServiceNames()) {
+                try {
+                    compact(service);
+                } catch (CommonException e) {
+                    LOGGER.warn("compact swagger storage error, service: {}, exception: {}", service, e.getMessage());
+                }
+            }
+            finished = true;
+        } finally {
+            if (finished) {
+                //本轮已完成，其他副本在本轮间隔内不再重复执行
+                leaseService.complete(COMPACTION_LEASE, token, compactionDelay / 2);
+            } else {
+                leaseService.release(COMPACTION_LEASE, token);
+            }
+        }
+    }
+
+    /**
+     * 按id顺序重新编码一个服务的所有版本，每snapshotInterval个版本存储一份完整快照，
+     * 只改写编码方式发生变化的记录；
+     * 某条记录在读取后被写入时，之后的记录无法确定基准的内容，本次不再继续，等待下次压缩
+     */
+    private synchronized void compact(String service) {
+        String previous = null;
+        Long previousId = null;
+        Long previousVersion = null;
+        int depth = 0;
+        int rewritten = 0;
+        for (SwaggerDO row : swaggerMapper.selectDeltaChain(service)) {
+            SwaggerDO data = swaggerMapper.selectByPrimaryKey(row.getId());
+            String json = reconstruct(data);
+            if (StringUtils.isEmpty(json)) {
+                continue;
+            }
+            String value = json;
+            Long baseId = null;
+            int newDepth = 0;
+            if (previous != null && depth + 1 < snapshotInterval) {
+                String delta = delta(previous, json);
+                if (delta != null && delta.length() < json.length()) {
+                    value = delta;
+                    baseId = previousId;
+                    newDepth = depth + 1;
+                }
+            }
+            int oldDepth = data.getDeltaDepth() == null ? 0 : data.getDeltaDepth();
+            if (!Objects.equals(baseId, data.getDeltaBaseId()) || newDepth != oldDepth) {
+                if (swaggerMapper.updateStorage(data.getId(), data.getObjectVersionNumber(), value, baseId, newDepth) != 1) {
+                    LOGGER.info("swagger {} changed during compaction, stop compacting service {}", data.getId(), service);
+                    break;
+                }
+                rewritten++;
+                if (baseId != null && !Objects.equals(previousVersion, swaggerMapper.selectObjectVersionNumber(baseId))) {
+                    //基准在计算差异后被写入，且写入方未能看到新的依赖关系，改回完整文档
+                    swaggerMapper.updateStorage(data.getId(), data.getObjectVersionNumber(), json, null, 0);
+                    LOGGER.info("swagger {} changed during compaction, stop compacting service {}", baseId, service);
+                    break;
+                }
+            }
+            previous = json;
+            previousId = data.getId();
+            previousVersion = data.getObjectVersionNumber();
+            depth = newDepth;
+        }
+        if (rewritten > 0) {
+            LOGGER.info("compact swagger storage, service: {}, rewritten: {}", service, rewritten);
+        }
+    }
+
+    /**
+     * 将直接依赖该记录的差异版本改写为完整快照，更深的版本仍以它们为基准，内容不变；
+     * 依赖的记录在读取后被其他副本写入时已是完整文档，不再改写
+     */
+    private void detachDependents(Long id) {
+        for (Long dependentId : swaggerMapper.selectDependentIds(id)) {
+            SwaggerDO dependent = swaggerMapper.selectByPrimaryKey(dependentId);
+            if (dependent == null) {
+                continue;
+            }
+            if (swaggerMapper.updateStorage(dependentId, dependent.getObjectVersionNumber(), reconstruct(dependent), null, 0) != 1) {
+                LOGGER.info("swagger {} changed while detaching from base {}", dependentId, id);
+            }
+        }
+    }
+
+    /**
+     * 计算两个版本之间的差异，文档格式错误时返回null
+     */
+    private String delta(String baseJson, String json) {
+        if (StringUtils.isEmpty(baseJson)) {
+            return null;
+        }
+        try {
+            JsonNode base = MAPPER.readTree(baseJson);
+            JsonNode target = MAPPER.readTree(json);
+            if (!base.isObject() || !target.isObject()) {
+                return null;
+            }
+            ObjectNode delta = MAPPER.createObjectNode();
+            delta.set(PATHS, diffFields(base.path(PATHS), target.path(PATHS), Collections.emptySet()));
+            delta.set(DEFINITIONS, diffFields(base.path(DEFINITIONS), target.path(DEFINITIONS), Collections.emptySet()));
+            delta.set(ROOT, diffFields(base, target, NESTED));
+            return MAPPER.writeValueAsString(delta);
+        } catch (IOException e) {
+            LOGGER.warn("compute swagger delta error, exception: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private ObjectNode diffFields(JsonNode base, JsonNode target, Set<String> skip) {
+        ObjectNode changes = MAPPER.createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> iterator = target.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> field = iterator.next();
+            if (!skip.contains(field.getKey()) && !field.getValue().equals(base.get(field.getKey()))) {
+                changes.set(field.getKey(), field.getValue());
+            }
+        }
+        Iterator<String> names = base.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            if (!skip.contains(name) && !target.has(name)) {
+                changes.set(name, NullNode.getInstance());
+            }
+        }
+        return changes;
+    }
+
+    private String apply(String baseJson, String deltaJson) {
+        try {
+            ObjectNode document = (ObjectNode) MAPPER.readTree(baseJson);
+            JsonNode delta = MAPPER.readTree(deltaJson);
+            applyFields(document, delta.path(ROOT));
+            applyFields(child(document, PATHS), delta.path(PATHS));
+            applyFields(child(document, DEFINITIONS), delta.path(DEFINITIONS));
+            return MAPPER.writeValueAsString(document);
+        } catch (IOException | ClassCastException e) {
+            throw new CommonException("error.swagger.delta.apply", e);
+        }
+    }
+
+    private ObjectNode child(ObjectNode document, String name) {
+        JsonNode node = document.get(name);
+        return node instanceof ObjectNode ? (ObjectNode) node : document.putObject(name);
+    }
+
+    private void applyFields(ObjectNode target, JsonNode changes) {
+        Iterator<Map.Entry<String, JsonNode>> iterator = changes.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> change = iterator.next();
+            if (change.getValue().isNull()) {
+                target.remove(change.getKey());
+            } else {
+                target.set(change.getKey(), change.getValue());
+            }
+        }
+    }
+
+    private static final class Reconstructed {
+
+        private final Long objectVersionNumber;
+
+        private final String json;
+
+        private Reconstructed(Long objectVersionNumber, String json) {
+            this.objectVersionNumber = objectVersionNumber;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.choerodon.manager.infra.common.spring;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import io.choerodon.manager.domain.service.ICacheCoherenceService;
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+
+/**
+ * 订阅副本之间的缓存失效频道
+ * 消息在单线程中按到达顺序处理，避免sequence乱序被误判为丢失
+ *
+ * @author agent
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "choerodon.cache.coherence", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheCoherenceConfig {
+
+    @Bean
+    public RedisMessageListenerContainer cacheCoherenceListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            ICacheCoherenceService iCacheCoherenceService,
+            @Value("${choerodon.cache.coherence.channel:manager-service:cache-invalidation}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(MetricsUtil.newMonitoredSingleThreadExecutor("cache-coherence"));
+        container.addMessageListener((message, pattern) ->
+                iCacheCoherenceService.receive(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(channel));
+        return container;
+    }
+}
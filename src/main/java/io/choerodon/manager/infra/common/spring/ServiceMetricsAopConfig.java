@@ -0,0 +1,52 @@
+package io.choerodon.manager.infra.common.spring;
+
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.context.annotation.Configuration;
+
+import io.choerodon.manager.infra.common.utils.MetricsUtil;
+
+/**
+ * 对所有*ServiceImpl的public方法计时的aop处理类，按类名、方法名和异常类型打标签
+ *
+ * @author agent
+ */
+@Aspect
+@Configuration
+public class ServiceMetricsAopConfig {
+
+    private static final String NONE = "none";
+
+    @Pointcut("execution(public * io.choerodon.manager..*ServiceImpl.*(..)) && !execution(* io.choerodon.manager..*ServiceImpl.set*(..))")
+    public void serviceMethod() {
+        // for aop
+    }
+
+    /**
+     * 环绕执行服务方法并记录耗时
+     *
+     * @param joinPoint 截点
+     * @return 方法返回值
+     * @throws Throwable 方法抛出的异常原样抛出
+     */
+    @Around("serviceMethod()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(MetricsUtil.registry());
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(MetricsUtil.SERVICE_METHOD)
+                    .tags("class", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                            "method", joinPoint.getSignature().getName(),
+                            "exception", exception)
+                    .register(MetricsUtil.registry()));
+        }
+    }
+}
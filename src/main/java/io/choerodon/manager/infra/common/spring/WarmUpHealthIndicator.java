@@ -0,0 +1,40 @@
+package io.choerodon.manager.infra.common.spring;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import io.choerodon.manager.app.service.WarmUpService;
+import io.choerodon.manager.domain.manager.entity.WarmUpReport;
+
+/**
+ * 启动预热结束（或超时）前健康检查返回OUT_OF_SERVICE，避免实例在缓存就绪前接收流量
+ * 单个预热项失败不影响健康状态，失败项在details中列出
+ *
+ * @author agent
+ */
+@Component
+public class WarmUpHealthIndicator extends AbstractHealthIndicator {
+
+    private WarmUpService warmUpService;
+
+    public WarmUpHealthIndicator(WarmUpService warmUpService) {
+        this.warmUpService = warmUpService;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        WarmUpReport report = warmUpService.getReport();
+        boolean timedOut = warmUpService.isTimedOut();
+        if (report.isFinished() || timedOut) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+        builder.withDetail("status", report.getStatus())
+                .withDetail("timedOut", timedOut)
+                .withDetail("duration", report.getDuration())
+                .withDetail("items", report.getItemCount())
+                .withDetail("failures", report.getFailures());
+    }
+}
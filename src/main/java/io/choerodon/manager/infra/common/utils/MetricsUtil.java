@@ -0,0 +1,168 @@
+package io.choerodon.manager.infra.common.utils;
+
+import java.io.IOException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * 指标埋点工具类
+ * 指标统一注册到Metrics.globalRegistry，由micrometer-spring-legacy将其与prometheus注册表关联，
+ * 未启动spring容器时（如单元测试中手动构造的对象）全局注册表为空，埋点不产生任何开销
+ *
+ * @author agent
+ */
+public final class MetricsUtil {
+
+    public static final String SERVICE_METHOD = "manager.service.method";
+    public static final String OUTBOUND_REQUEST = "manager.outbound.request";
+    public static final String CACHE_REQUEST = "manager.cache.request";
+    public static final String SWAGGER_DOCUMENT_SIZE = "manager.swagger.document.size";
+    public static final String SWAGGER_DOCUMENT_PARSE = "manager.swagger.document.parse";
+    public static final String WARM_UP = "manager.warm-up";
+    public static final String SWAGGER_OFF_HEAP_BYTES = "manager.swagger.off-heap.bytes";
+    public static final String CACHE_COHERENCE = "manager.cache.coherence";
+
+    public static final String CACHE_API_TREE_DOC = "api-tree-doc";
+    public static final String CACHE_PATH_DETAIL = "path-detail";
+    public static final String CACHE_LOCAL_SNAPSHOT = "local-snapshot";
+
+    private static final String TAG_TARGET = "target";
+    private static final String TAG_OPERATION = "operation";
+    private static final String TAG_OUTCOME = "outcome";
+    private static final String TAG_SERVICE = "service";
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+    private static final String UNKNOWN = "unknown";
+
+    private MetricsUtil() {
+    }
+
+    public static MeterRegistry registry() {
+        return Metrics.globalRegistry;
+    }
+
+    /**
+     * 对外部服务的调用计时，按目标服务、操作和结果打标签
+     *
+     * @param target    目标服务名
+     * @param operation 操作名，如api-docs、route_json、env
+     * @param call      实际调用
+     * @return 调用结果
+     */
+    public static <T> T recordOutbound(String target, String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = call.get();
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } finally {
+            Timer.builder(OUTBOUND_REQUEST)
+                    .tags(TAG_TARGET, normalize(target), TAG_OPERATION, operation, TAG_OUTCOME, outcome)
+                    .register(registry())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 记录缓存的一次命中或未命中
+     *
+     * @param cache 缓存名，redis中的api-tree-doc、path-detail或本地检查点local-snapshot
+     * @param hit   是否命中
+     */
+    public static void recordCache(String cache, boolean hit) {
+        registry().counter(CACHE_REQUEST, "cache", cache, "result", hit ? "hit" : "miss").increment();
+    }
+
+    /**
+     * 解析swagger json并记录文档大小和解析耗时
+     *
+     * @param mapper  ObjectMapper
+     * @param service 服务名
+     * @param json    swagger json
+     * @return JsonNode
+     * @throws IOException json格式错误
+     */
+    public static JsonNode readSwaggerTree(ObjectMapper mapper, String service, String json) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return mapper.readTree(json);
+        } finally {
+            recordSwaggerDocument(service, json == null ? 0 : json.length(), System.nanoTime() - start);
+        }
+    }
+
+    public static void recordSwaggerDocument(String service, int length, long parseNanos) {
+        String tag = normalize(service);
+        DistributionSummary.builder(SWAGGER_DOCUMENT_SIZE)
+                .baseUnit("chars")
+                .tags(TAG_SERVICE, tag)
+                .register(registry())
+                .record(length);
+        Timer.builder(SWAGGER_DOCUMENT_PARSE)
+                .tags(TAG_SERVICE, tag)
+                .register(registry())
+                .record(parseNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录启动预热的耗时，按结果打标签
+     *
+     * @param duration 耗时（毫秒）
+     * @param failures 失败的预热项数量
+     */
+    public static void recordWarmUp(long duration, int failures) {
+        Timer.builder(WARM_UP)
+                .tags(TAG_OUTCOME, failures == 0 ? OUTCOME_SUCCESS : OUTCOME_ERROR)
+                .register(registry())
+                .record(duration, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录副本之间缓存失效消息的数量
+     *
+     * @param result sent、send-error、received或resync
+     * @param count  失效消息条数，resync时为1
+     */
+    public static void recordCoherence(String result, int count) {
+        registry().counter(CACHE_COHERENCE, "result", result).increment(count);
+    }
+
+    /**
+     * 注册线程池的队列长度、活跃线程数等指标
+     *
+     * @param name     线程池名
+     * @param executor 线程池
+     * @return 传入的线程池
+     */
+    public static ThreadPoolExecutor monitorExecutor(String name, ThreadPoolExecutor executor) {
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry());
+        return executor;
+    }
+
+    /**
+     * 创建单线程、无界队列的线程池并注册指标，与Executors.newSingleThreadExecutor行为一致
+     *
+     * @param name 线程池名
+     * @return ThreadPoolExecutor
+     */
+    public static ThreadPoolExecutor newMonitoredSingleThreadExecutor(String name) {
+        return monitorExecutor(name, new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>()));
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isEmpty() ? UNKNOWN : value.toLowerCase();
+    }
+}
@@ -3,7 +3,6 @@ package io.choerodon.manager.infra.common.utils;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,7 +18,7 @@ import io.choerodon.manager.infra.feign.ConfigServerClient;
 @Component
 public class RefreshUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(RefreshUtil.class);
-    private final ExecutorService asyncExecutor = Executors.newSingleThreadExecutor();
+    private final ExecutorService asyncExecutor = MetricsUtil.newMonitoredSingleThreadExecutor("config-refresh");
     private ConfigServerClient configServerClient;
 
     public RefreshUtil(ConfigServerClient configServerClient) {
@@ -36,7 +35,7 @@ public class RefreshUtil {
         map.put("path", path);
         LOGGER.info("{} :配置刷新通知", path);
         asyncExecutor.submit(() ->
-                configServerClient.refresh(map)
+                MetricsUtil.recordOutbound("config-server", "refresh", () -> configServerClient.refresh(map))
         );
     }
 }
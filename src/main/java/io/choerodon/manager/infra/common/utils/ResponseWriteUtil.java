@@ -0,0 +1,45 @@
+package io.choerodon.manager.infra.common.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import io.undertow.servlet.spec.ServletOutputStreamImpl;
+
+/**
+ * 将ByteBuffer写入servlet响应
+ * 运行在undertow上时直接交给ServletOutputStreamImpl写出，堆外buffer不经过堆上的byte数组；
+ * 其他容器或测试中的响应按块复制后写出
+ *
+ * @author agent
+ */
+public class ResponseWriteUtil {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private ResponseWriteUtil() {
+    }
+
+    /**
+     * 写出buffer的剩余内容，不修改传入buffer的position
+     *
+     * @param response servlet响应
+     * @param buffer   响应体
+     * @throws IOException 写出失败
+     */
+    public static void write(HttpServletResponse response, ByteBuffer buffer) throws IOException {
+        ByteBuffer source = buffer.duplicate();
+        ServletOutputStream outputStream = response.getOutputStream();
+        if (outputStream instanceof ServletOutputStreamImpl) {
+            ((ServletOutputStreamImpl) outputStream).write(source);
+            return;
+        }
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, source.remaining())];
+        while (source.hasRemaining()) {
+            int length = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, length);
+            outputStream.write(chunk, 0, length);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.choerodon.manager.infra.common.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 将skip-services中的Ant风格服务名模式合并编译为一个正则，并缓存每个服务名的判断结果
+ * 服务名中不包含路径分隔符，*和**均匹配任意字符，?匹配单个字符
+ *
+ * @author agent
+ */
+public class SkipServiceMatcher {
+
+    private final Pattern pattern;
+
+    private final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+    public SkipServiceMatcher(String[] skipServices) {
+        this.pattern = compile(skipServices);
+    }
+
+    /**
+     * 判断服务是否需要跳过
+     *
+     * @param serviceId 服务名
+     * @return 是否跳过
+     */
+    public boolean isSkip(String serviceId) {
+        if (pattern == null || serviceId == null) {
+            return false;
+        }
+        return decisions.computeIfAbsent(serviceId, id -> pattern.matcher(id).matches());
+    }
+
+    private static Pattern compile(String[] skipServices) {
+        if (skipServices == null || skipServices.length == 0) {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        for (String skipService : skipServices) {
+            if (skipService == null || skipService.trim().isEmpty()) {
+                continue;
+            }
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append("(?:");
+            appendPattern(regex, skipService.trim());
+            regex.append(')');
+        }
+        return regex.length() == 0 ? null : Pattern.compile(regex.toString());
+    }
+
+    private static void appendPattern(StringBuilder regex, String antPattern) {
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < antPattern.length(); i++) {
+            char c = antPattern.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                if (c == '?') {
+                    regex.append('.');
+                } else if (!endsWithAnyChars(regex)) {
+                    regex.append(".*");
+                }
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+    }
+
+    private static boolean endsWithAnyChars(StringBuilder regex) {
+        int length = regex.length();
+        return length >= 2 && regex.charAt(length - 2) == '.' && regex.charAt(length - 1) == '*';
+    }
+}
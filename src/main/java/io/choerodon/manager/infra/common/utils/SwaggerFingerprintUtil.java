@@ -0,0 +1,319 @@
+package io.choerodon.manager.infra.common.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import io.choerodon.manager.domain.manager.entity.SwaggerFingerprint;
+
+/**
+ * 计算swagger json的结构哈希
+ * 对象字段按名称排序后计算，字段顺序不同但内容相同的文档哈希相同；
+ * 对definition的$ref引用以被引用definition的哈希代替，形成自底向上的哈希树；
+ * 相互引用的definition（强连通分量）作为一个整体计算哈希，其中任一definition变化时分量内所有definition的哈希都会变化
+ *
+ * @author agent
+ */
+public final class SwaggerFingerprintUtil {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SwaggerFingerprintUtil.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String DEFINITION_PREFIX = "#/definitions/";
+    private static final String REF = "$ref";
+    private static final String PATHS = "paths";
+    private static final String DEFINITIONS = "definitions";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private SwaggerFingerprintUtil() {
+    }
+
+    /**
+     * 计算结构哈希并序列化为json，用于写入文档时存储
+     *
+     * @param service 服务名，用于日志
+     * @param json    swagger json
+     * @return json为空或格式错误时返回null
+     */
+    public static String fingerprintJson(String service, String json) {
+        if (StringUtils.isEmpty(json)) {
+            return null;
+        }
+        try {
+            return MAPPER.writeValueAsString(fingerprint(MAPPER.readTree(json)));
+        } catch (IOException e) {
+            LOGGER.warn("parse swagger json error while computing fingerprint, service: {}, exception: {}", service, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 反序列化存储的结构哈希
+     *
+     * @param json fingerprint列的值
+     * @return SwaggerFingerprint
+     * @throws IOException json格式错误
+     */
+    public static SwaggerFingerprint readFingerprint(String json) throws IOException {
+        return MAPPER.readValue(json, SwaggerFingerprint.class);
+    }
+
+    /**
+     * 计算文档中每个接口、每个definition以及整个文档的结构哈希
+     *
+     * @param node swagger json树
+     * @return SwaggerFingerprint
+     */
+    public static SwaggerFingerprint fingerprint(JsonNode node) {
+        SwaggerFingerprint fingerprint = new SwaggerFingerprint();
+        JsonNode definitions = node.get(DEFINITIONS);
+        Hasher hasher = new Hasher(new HashMap<>());
+        if (definitions != null) {
+            hasher.hashDefinitions(definitions);
+            //按名称顺序输出
+            List<String> names = new ArrayList<>();
+            definitions.fieldNames().forEachRemaining(names::add);
+            Collections.sort(names);
+            for (String name : names) {
+                fingerprint.getDefinitions().put(name, hasher.definition(name));
+            }
+        }
+        JsonNode paths = node.get(PATHS);
+        if (paths != null) {
+            Iterator<Map.Entry<String, JsonNode>> urlIterator = paths.fields();
+            while (urlIterator.hasNext()) {
+                Map.Entry<String, JsonNode> url = urlIterator.next();
+                Iterator<Map.Entry<String, JsonNode>> methodIterator = url.getValue().fields();
+                while (methodIterator.hasNext()) {
+                    Map.Entry<String, JsonNode> method = methodIterator.next();
+                    fingerprint.getOperations().put(operationKey(method.getKey(), url.getKey()), hasher.hash(method.getValue(), null));
+                }
+            }
+        }
+        MessageDigest digest = md5();
+        for (Map.Entry<String, String> entry : fingerprint.getOperations().entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue());
+        }
+        digest.update((byte) '|');
+        for (Map.Entry<String, String> entry : fingerprint.getDefinitions().entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue());
+        }
+        fingerprint.setRoot(hex(digest.digest()));
+        return fingerprint;
+    }
+
+    /**
+     * 分别计算接口各顶层字段的结构哈希，用于定位两个版本间接口的具体变化
+     *
+     * @param operation        接口节点
+     * @param definitionHashes 文档中各definition的哈希
+     * @param refs             收集接口直接引用的definition名
+     * @return key为字段名
+     */
+    public static Map<String, String> hashFields(JsonNode operation, Map<String, String> definitionHashes, Set<String> refs) {
+        Hasher hasher = new Hasher(definitionHashes);
+        Map<String, String> hashes = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> iterator = operation.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> field = iterator.next();
+            hashes.put(field.getKey(), hasher.hash(field.getValue(), refs));
+        }
+        return hashes;
+    }
+
+    /**
+     * @return 接口key，形如 get /v1/swaggers/resources
+     */
+    public static String operationKey(String method, String url) {
+        return method + " " + url;
+    }
+
+    private static final class Hasher {
+
+        private final Map<String, String> definitionHashes;
+
+        private Hasher(Map<String, String> definitionHashes) {
+            this.definitionHashes = definitionHashes;
+        }
+
+        private String definition(String name) {
+            String hash = definitionHashes.get(name);
+            //未知definition或同一强连通分量内的引用以名称代替
+            return hash == null ? "ref:" + name : hash;
+        }
+
+        /**
+         * 按Tarjan算法求出definition引用图的强连通分量，分量按被依赖在前的顺序得到，
+         * 计算每个分量时其引用的其他分量均已有哈希
+         */
+        private void hashDefinitions(JsonNode definitions) {
+            Map<String, Set<String>> graph = new TreeMap<>();
+            Iterator<String> names = definitions.fieldNames();
+            while (names.hasNext()) {
+                String name = names.next();
+                Set<String> refs = new TreeSet<>();
+                //借助哈希的遍历收集直接引用的definition
+                update(md5(), definitions.get(name), refs);
+                refs.removeIf(ref -> !definitions.has(ref));
+                graph.put(name, refs);
+            }
+            new Tarjan(graph).run().forEach(members -> hashComponent(definitions, graph, members));
+        }
+
+        private void hashComponent(JsonNode definitions, Map<String, Set<String>> graph, List<String> members) {
+            String first = members.get(0);
+            if (members.size() == 1 && !graph.get(first).contains(first)) {
+                definitionHashes.put(first, hash(definitions.get(first), null));
+                return;
+            }
+            //分量内的引用以名称代替，先计算整个分量的哈希，再由其派生每个definition的哈希
+            Collections.sort(members);
+            MessageDigest digest = md5();
+            for (String member : members) {
+                SwaggerFingerprintUtil.update(digest, member);
+                SwaggerFingerprintUtil.update(digest, hash(definitions.get(member), null));
+            }
+            String componentHash = hex(digest.digest());
+            for (String member : members) {
+                MessageDigest memberDigest = md5();
+                memberDigest.update((byte) 'c');
+                SwaggerFingerprintUtil.update(memberDigest, componentHash);
+                SwaggerFingerprintUtil.update(memberDigest, member);
+                definitionHashes.put(member, hex(memberDigest.digest()));
+            }
+        }
+
+        private String hash(JsonNode node, Set<String> refs) {
+            MessageDigest digest = md5();
+            update(digest, node, refs);
+            return hex(digest.digest());
+        }
+
+        private void update(MessageDigest digest, JsonNode node, Set<String> refs) {
+            if (node == null || node.isNull()) {
+                digest.update((byte) 'n');
+            } else if (node.isObject()) {
+                JsonNode ref = node.get(REF);
+                if (ref != null && ref.isTextual() && ref.asText().startsWith(DEFINITION_PREFIX)) {
+                    String name = ref.asText().substring(DEFINITION_PREFIX.length());
+                    if (refs != null) {
+                        refs.add(name);
+                    }
+                    digest.update((byte) 'r');
+                    SwaggerFingerprintUtil.update(digest, definition(name));
+                    return;
+                }
+                List<String> names = new ArrayList<>(node.size());
+                node.fieldNames().forEachRemaining(names::add);
+                Collections.sort(names);
+                digest.update((byte) '{');
+                for (String name : names) {
+                    SwaggerFingerprintUtil.update(digest, name);
+                    update(digest, node.get(name), refs);
+                }
+                digest.update((byte) '}');
+            } else if (node.isArray()) {
+                digest.update((byte) '[');
+                for (JsonNode child : node) {
+                    update(digest, child, refs);
+                }
+                digest.update((byte) ']');
+            } else {
+                digest.update((byte) node.getNodeType().ordinal());
+                SwaggerFingerprintUtil.update(digest, node.asText());
+            }
+        }
+    }
+
+    /**
+     * Tarjan强连通分量算法，run返回的分量中被引用的分量总在引用它的分量之前
+     */
+    private static final class Tarjan {
+
+        private final Map<String, Set<String>> graph;
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private final Map<String, Integer> lowLinks = new HashMap<>();
+
+        private final Deque<String> stack = new ArrayDeque<>();
+
+        private final Set<String> onStack = new HashSet<>();
+
+        private final List<List<String>> components = new ArrayList<>();
+
+        private Tarjan(Map<String, Set<String>> graph) {
+            this.graph = graph;
+        }
+
+        private List<List<String>> run() {
+            for (String node : graph.keySet()) {
+                if (!indexes.containsKey(node)) {
+                    connect(node);
+                }
+            }
+            return components;
+        }
+
+        private void connect(String node) {
+            int index = indexes.size();
+            indexes.put(node, index);
+            lowLinks.put(node, index);
+            stack.push(node);
+            onStack.add(node);
+            for (String next : graph.get(node)) {
+                if (!indexes.containsKey(next)) {
+                    connect(next);
+                    lowLinks.put(node, Math.min(lowLinks.get(node), lowLinks.get(next)));
+                } else if (onStack.contains(next)) {
+                    lowLinks.put(node, Math.min(lowLinks.get(node), indexes.get(next)));
+                }
+            }
+            if (lowLinks.get(node) == index) {
+                List<String> component = new ArrayList<>();
+                String member;
+                do {
+                    member = stack.pop();
+                    onStack.remove(member);
+                    component.add(member);
+                } while (!member.equals(node));
+                components.add(component);
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        digest.update(bytes);
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >>> 4) & 0x0f];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+}
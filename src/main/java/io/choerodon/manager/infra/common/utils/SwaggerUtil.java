@@ -0,0 +1,156 @@
+package io.choerodon.manager.infra.common.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import io.choerodon.manager.domain.manager.entity.SwaggerSummary;
+
+/**
+ * swagger json相关的工具类
+ *
+ * @author agent
+ */
+public final class SwaggerUtil {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SwaggerUtil.class);
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final String TAGS = "tags";
+    private static final String PATHS = "paths";
+    private static final String NAME = "name";
+    private static final String OPERATION_ID = "operationId";
+    private static final String DESCRIPTION = "description";
+
+    private SwaggerUtil() {
+    }
+
+    /**
+     * 统计swagger json中的接口数量，即paths下所有请求方法的个数
+     *
+     * @param service 服务名，用于日志和指标
+     * @param json    swagger json
+     * @return 接口数量，json为空或格式错误时返回0
+     */
+    public static int countApi(String service, String json) {
+        if (StringUtils.isEmpty(json)) {
+            return 0;
+        }
+        try {
+            return summarize(service, json).getApiCount();
+        } catch (IOException e) {
+            LOGGER.warn("parse swagger json error while counting api, service: {}, exception: {}", service, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 流式解析swagger json，只读取tags和paths下接口的url、method、operationId、description、tags，
+     * 其余子树通过skipChildren跳过，不构建JsonNode树，并记录文档大小和解析耗时；
+     * url、method为字段名，已由jackson共享，tag名和operationId经过SymbolTable
+     *
+     * @param service 服务名，用于指标
+     * @param json    swagger json
+     * @return SwaggerSummary
+     * @throws IOException json格式错误
+     */
+    public static SwaggerSummary summarize(String service, String json) throws IOException {
+        long start = System.nanoTime();
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            return summarize(parser);
+        } finally {
+            MetricsUtil.recordSwaggerDocument(service, json.length(), System.nanoTime() - start);
+        }
+    }
+
+    private static SwaggerSummary summarize(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("swagger json is not an object");
+        }
+        SwaggerSummary summary = new SwaggerSummary();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (TAGS.equals(field) && token == JsonToken.START_ARRAY) {
+                readTags(parser, summary);
+            } else if (PATHS.equals(field) && token == JsonToken.START_OBJECT) {
+                readPaths(parser, summary);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return summary;
+    }
+
+    private static void readTags(JsonParser parser, SwaggerSummary summary) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (NAME.equals(field)) {
+                    summary.getTags().add(SymbolTable.intern(parser.getValueAsString()));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void readPaths(JsonParser parser, SwaggerSummary summary) throws IOException {
+        int apiCount = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String url = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String method = parser.getCurrentName();
+                apiCount++;
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    summary.getOperations().add(readOperation(parser, url, method));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        summary.setApiCount(summary.getApiCount() + apiCount);
+    }
+
+    private static SwaggerSummary.Operation readOperation(JsonParser parser, String url, String method) throws IOException {
+        SwaggerSummary.Operation operation = new SwaggerSummary.Operation(url, method);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (OPERATION_ID.equals(field)) {
+                operation.setOperationId(token == JsonToken.VALUE_NULL ? null : SymbolTable.intern(parser.getValueAsString()));
+            } else if (DESCRIPTION.equals(field)) {
+                operation.setHasDescription(true);
+                parser.skipChildren();
+            } else if (TAGS.equals(field) && token == JsonToken.START_ARRAY) {
+                List<String> tags = new ArrayList<>(2);
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    tags.add(SymbolTable.intern(parser.getValueAsString()));
+                    parser.skipChildren();
+                }
+                operation.setTags(tags);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return operation;
+    }
+}
@@ -0,0 +1,149 @@
+package io.choerodon.manager.infra.common.utils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+/**
+ * swagger文档中重复出现的字符串的共享表
+ * 各服务文档中的类型名、media type、参数名、tag名、#/definitions/引用等在内存中只保留一份，
+ * 表中的项为弱引用，所有缓存的模型都不再引用某个字符串后由GC回收，不会随文档版本增长
+ * 只共享长度不超过MAX_LENGTH的字符串，描述等长文本基本不重复，直接返回原字符串
+ * json字段名已由jackson的CharsToNameCanonicalizer共享，这里只处理字符串值
+ * 表基于ConcurrentHashMap，并行解析文档时不争用同一把锁；被回收的项经ReferenceQueue在后续调用中清除
+ *
+ * @author agent
+ */
+public final class SymbolTable {
+
+    public static final int MAX_LENGTH = 128;
+
+    private static final ConcurrentHashMap<Object, Symbol> SYMBOLS = new ConcurrentHashMap<>();
+
+    private static final ReferenceQueue<String> QUEUE = new ReferenceQueue<>();
+
+    private static final JsonNodeFactory NODE_FACTORY = new InterningNodeFactory();
+
+    private SymbolTable() {
+    }
+
+    /**
+     * @param value 字符串
+     * @return 表中与value相等的实例，不存在时放入value并返回；value为null或过长时原样返回
+     */
+    public static String intern(String value) {
+        if (value == null || value.length() > MAX_LENGTH) {
+            return value;
+        }
+        purge();
+        Symbol existing = SYMBOLS.get(new Lookup(value));
+        String symbol = existing == null ? null : existing.get();
+        if (symbol != null) {
+            return symbol;
+        }
+        Symbol created = new Symbol(value, QUEUE);
+        while (true) {
+            Symbol current = SYMBOLS.putIfAbsent(created, created);
+            if (current == null) {
+                return value;
+            }
+            symbol = current.get();
+            if (symbol != null) {
+                return symbol;
+            }
+            //比较后恰好被回收，移除后重试
+            SYMBOLS.remove(current, current);
+        }
+    }
+
+    /**
+     * @return 表中当前的字符串数量，包括已不再被引用但尚未被GC清除的项
+     */
+    public static int size() {
+        purge();
+        return SYMBOLS.size();
+    }
+
+    /**
+     * 用于ObjectMapper.setNodeFactory，readTree生成的文本节点的值经过共享表
+     *
+     * @return JsonNodeFactory
+     */
+    public static JsonNodeFactory nodeFactory() {
+        return NODE_FACTORY;
+    }
+
+    private static void purge() {
+        Reference<? extends String> reference;
+        while ((reference = QUEUE.poll()) != null) {
+            //ConcurrentHashMap先按引用相等比较key，已回收的项可按自身移除
+            SYMBOLS.remove(reference, reference);
+        }
+    }
+
+    /**
+     * 表中的项，按字符串内容计算hash，字符串被回收后只与自身相等
+     */
+    private static final class Symbol extends WeakReference<String> {
+
+        private final int hash;
+
+        private Symbol(String value, ReferenceQueue<String> queue) {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Symbol)) {
+                return false;
+            }
+            String value = get();
+            return value != null && value.equals(((Symbol) o).get());
+        }
+    }
+
+    /**
+     * 查询用的key，不创建弱引用
+     */
+    private static final class Lookup {
+
+        private final String value;
+
+        private Lookup(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Symbol && value.equals(((Symbol) o).get());
+        }
+    }
+
+    private static final class InterningNodeFactory extends JsonNodeFactory {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public TextNode textNode(String text) {
+            return super.textNode(intern(text));
+        }
+    }
+}
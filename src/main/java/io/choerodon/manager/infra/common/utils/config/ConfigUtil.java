@@ -5,11 +5,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 import io.choerodon.manager.app.service.impl.InstanceServiceImpl;
+import io.choerodon.manager.domain.manager.entity.RouteE;
 import io.codearte.props2yaml.Props2YAML;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -87,4 +89,40 @@ public class ConfigUtil {
         return count;
     }
 
+    /**
+     * 将路由信息以zuul.routes.*的形式写入网关服务的配置项中
+     *
+     * @param routeEList 路由列表
+     * @param map        配置项集合
+     */
+    public static void appendZuulRoutes(final List<RouteE> routeEList, final Map<String, Object> map) {
+        for (RouteE routeE : routeEList) {
+            String prefix = "zuul.routes." + routeE.getName() + ".";
+            if (routeE.getPath() != null) {
+                map.put(prefix + "path", routeE.getPath());
+            }
+            if (routeE.getServiceId() != null) {
+                map.put(prefix + "serviceId", routeE.getServiceId());
+            }
+            if (routeE.getUrl() != null) {
+                map.put(prefix + "url", routeE.getUrl());
+            }
+            if (routeE.getStripPrefix() != null) {
+                map.put(prefix + "stripPrefix", routeE.getStripPrefix());
+            }
+            if (routeE.getRetryable() != null) {
+                map.put(prefix + "retryable", routeE.getRetryable());
+            }
+            if (routeE.getHelperService() != null) {
+                map.put(prefix + "helperService", routeE.getHelperService());
+            }
+            if (routeE.getCustomSensitiveHeaders() != null && routeE.getCustomSensitiveHeaders()) {
+                map.put(prefix + "customSensitiveHeaders", routeE.getCustomSensitiveHeaders());
+            }
+            if (routeE.getSensitiveHeaders() != null) {
+                map.put(prefix + "sensitiveHeaders", routeE.getSensitiveHeaders());
+            }
+        }
+    }
+
 }
@@ -31,6 +31,14 @@ public class SwaggerDO extends AuditDomain {
 
     private String value;
 
+    private Integer apiCount;
+
+    private String fingerprint;
+
+    private Long deltaBaseId;
+
+    private Integer deltaDepth;
+
     public Long getId() {
         return id;
     }
@@ -71,6 +79,38 @@ public class SwaggerDO extends AuditDomain {
         this.value = value;
     }
 
+    public Integer getApiCount() {
+        return apiCount;
+    }
+
+    public void setApiCount(Integer apiCount) {
+        this.apiCount = apiCount;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public Long getDeltaBaseId() {
+        return deltaBaseId;
+    }
+
+    public void setDeltaBaseId(Long deltaBaseId) {
+        this.deltaBaseId = deltaBaseId;
+    }
+
+    public Integer getDeltaDepth() {
+        return deltaDepth;
+    }
+
+    public void setDeltaDepth(Integer deltaDepth) {
+        this.deltaDepth = deltaDepth;
+    }
+
     @Override
     public String toString() {
         return "SwaggerDO{" +
@@ -79,6 +119,10 @@ public class SwaggerDO extends AuditDomain {
                 ", serviceVersion='" + serviceVersion + '\'' +
                 ", isDefault=" + isDefault +
                 ", value='" + value + '\'' +
+                ", apiCount=" + apiCount +
+                ", fingerprint='" + fingerprint + '\'' +
+                ", deltaBaseId=" + deltaBaseId +
+                ", deltaDepth=" + deltaDepth +
                 '}';
     }
 }
@@ -10,6 +10,14 @@ public interface ConfigMapper extends BaseMapper<ConfigDO> {
 
     List selectByServiceDefault(@Param("serviceName") String serviceName);
 
+    /**
+     * 查询服务默认配置的id和版本号，不查询配置内容
+     *
+     * @param serviceName 服务名
+     * @return 默认配置列表
+     */
+    List<ConfigDO> selectDefaultVersionByServiceName(@Param("serviceName") String serviceName);
+
     List selectByServiceAndConfigVersion(@Param("serviceName") String serviceName,
                                          @Param("configVersion") String configVersion);
 
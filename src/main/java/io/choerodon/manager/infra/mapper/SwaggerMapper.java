@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import io.choerodon.manager.infra.dataobject.SwaggerDO;
 import io.choerodon.mybatis.common.BaseMapper;
@@ -20,6 +21,125 @@ public interface SwaggerMapper extends BaseMapper<SwaggerDO> {
      * @param service 查询的服务
      * @return 版本列表
      */
-    @Select({"select version from swagger where service = #{mgmt_service}"})
+    @Select({"select service_version from mgmt_swagger where service_name = #{service}"})
     List<String> selectVersions(@Param("service") String service);
+
+    /**
+     * 将给定版本设为默认版本，同时取消该服务其他版本的默认标记，一条语句完成
+     *
+     * @param service 服务名
+     * @param version 新的默认版本
+     * @return 更新行数
+     */
+    @Update({"update mgmt_swagger set is_default = case when service_version = #{version} then 1 else 0 end",
+            "where service_name = #{service} and (is_default = 1 or service_version = #{version})"})
+    int updateDefaultVersion(@Param("service") String service, @Param("version") String version);
+
+    /**
+     * 查询所有文档的服务名、版本和接口数量，不查询文档内容
+     *
+     * @return 文档列表，value为空
+     */
+    @Select({"select id, service_name, service_version, api_count from mgmt_swagger"})
+    List<SwaggerDO> selectApiCounts();
+
+    /**
+     * 仅更新接口数量，不改变乐观锁版本号
+     *
+     * @param id       文档id
+     * @param apiCount 接口数量
+     * @return 更新行数
+     */
+    @Update({"update mgmt_swagger set api_count = #{apiCount} where id = #{id}"})
+    int updateApiCount(@Param("id") Long id, @Param("apiCount") Integer apiCount);
+
+    /**
+     * 查询已存储且内容不为空的文档的id和乐观锁版本号，不查询文档内容
+     *
+     * @param service 服务名
+     * @param version 服务版本
+     * @return 文档不存在或内容为空时返回null
+     */
+    @Select({"select id, object_version_number from mgmt_swagger",
+            "where service_name = #{service} and service_version = #{version} and value <> ''"})
+    SwaggerDO selectStoredVersion(@Param("service") String service, @Param("version") String version);
+
+    /**
+     * 仅查询文档的结构哈希，不查询文档内容
+     *
+     * @param id 文档id
+     * @return fingerprint列的值
+     */
+    @Select({"select fingerprint from mgmt_swagger where id = #{id}"})
+    String selectFingerprint(@Param("id") Long id);
+
+    /**
+     * 仅更新结构哈希，不改变乐观锁版本号
+     *
+     * @param id          文档id
+     * @param fingerprint 结构哈希json
+     * @return 更新行数
+     */
+    @Update({"update mgmt_swagger set fingerprint = #{fingerprint} where id = #{id}"})
+    int updateFingerprint(@Param("id") Long id, @Param("fingerprint") String fingerprint);
+
+    /**
+     * 查询服务最近写入的一条记录，作为新版本的差异基准
+     *
+     * @param service 服务名
+     * @return 仅包含id和差异链深度，服务没有任何版本时返回null
+     */
+    @Select({"select id, delta_depth from mgmt_swagger where service_name = #{service} order by id desc limit 1"})
+    SwaggerDO selectDeltaHead(@Param("service") String service);
+
+    /**
+     * 查询服务所有记录的存储形式，按写入顺序排列，不查询文档内容
+     *
+     * @param service 服务名
+     * @return 仅包含id、差异基准id和差异链深度
+     */
+    @Select({"select id, delta_base_id, delta_depth from mgmt_swagger where service_name = #{service} order by id"})
+    List<SwaggerDO> selectDeltaChain(@Param("service") String service);
+
+    /**
+     * 查询以给定记录为差异基准的记录
+     *
+     * @param id 基准记录id
+     * @return 记录id列表
+     */
+    @Select({"select id from mgmt_swagger where delta_base_id = #{id}"})
+    List<Long> selectDependentIds(@Param("id") Long id);
+
+    /**
+     * 查询所有存储了文档的服务名
+     *
+     * @return 服务名列表
+     */
+    @Select({"select distinct service_name from mgmt_swagger"})
+    List<String> selectServiceNames();
+
+    /**
+     * 查询记录的乐观锁版本号
+     *
+     * @param id 文档id
+     * @return 记录不存在时返回null
+     */
+    @Select({"select object_version_number from mgmt_swagger where id = #{id}"})
+    Long selectObjectVersionNumber(@Param("id") Long id);
+
+    /**
+     * 仅改变文档的存储形式，文档内容不变，因此不改变乐观锁版本号；
+     * 读取后记录被其他副本改写时乐观锁版本号不一致，不更新
+     *
+     * @param id                  文档id
+     * @param objectVersionNumber 读取文档时的乐观锁版本号
+     * @param value               完整文档或差异
+     * @param deltaBaseId         差异基准id，完整文档时为空
+     * @param deltaDepth          差异链深度，完整文档时为0
+     * @return 更新行数，乐观锁版本号不一致时为0
+     */
+    @Update({"update mgmt_swagger set value = #{value}, delta_base_id = #{deltaBaseId}, delta_depth = #{deltaDepth}",
+            "where id = #{id} and object_version_number = #{objectVersionNumber}"})
+    int updateStorage(@Param("id") Long id, @Param("objectVersionNumber") Long objectVersionNumber, @Param("value") String value,
+                      @Param("deltaBaseId") Long deltaBaseId, @Param("deltaDepth") Integer deltaDepth);
 }
@@ -5,11 +5,13 @@ import io.choerodon.core.convertor.ConvertPageHelper;
 import io.choerodon.core.domain.Page;
 import io.choerodon.core.exception.CommonException;
 import io.choerodon.manager.api.dto.ConfigDTO;
+import io.choerodon.manager.domain.manager.event.ConfigChangedEvent;
 import io.choerodon.manager.domain.repository.ConfigRepository;
 import io.choerodon.manager.infra.dataobject.ConfigDO;
 import io.choerodon.manager.infra.mapper.ConfigMapper;
 import io.choerodon.mybatis.pagehelper.PageHelper;
 import io.choerodon.mybatis.pagehelper.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,8 +30,11 @@ public class ConfigRepositoryImpl implements ConfigRepository {
 
     private ConfigMapper configMapper;
 
-    public ConfigRepositoryImpl(ConfigMapper configMapper) {
+    private ApplicationEventPublisher eventPublisher;
+
+    public ConfigRepositoryImpl(ConfigMapper configMapper, ApplicationEventPublisher eventPublisher) {
         this.configMapper = configMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -45,6 +50,11 @@ public class ConfigRepositoryImpl implements ConfigRepository {
                 () -> configMapper.selectAll()), ConfigDTO.class);
     }
 
+    @Override
+    public List<ConfigDTO> listAll() {
+        return ConvertHelper.convertList(configMapper.selectAll(), ConfigDTO.class);
+    }
+
     @Override
     @Transactional
     public ConfigDO setConfigDefault(Long configId) {
@@ -64,6 +74,7 @@ public class ConfigRepositoryImpl implements ConfigRepository {
         if (configMapper.updateByPrimaryKeySelective(configDO) != 1) {
             throw new CommonException("error.config.set.default");
         }
+        eventPublisher.publishEvent(new ConfigChangedEvent(configId, configDO.getServiceId()));
         return configMapper.selectByPrimaryKey(configId);
     }
 
@@ -84,6 +95,7 @@ public class ConfigRepositoryImpl implements ConfigRepository {
         if (configMapper.deleteByPrimaryKey(configId) != 1) {
             throw new CommonException("error.config.delete");
         }
+        eventPublisher.publishEvent(new ConfigChangedEvent(configId, configDO.getServiceId()));
         return true;
     }
 
@@ -99,7 +111,9 @@ public class ConfigRepositoryImpl implements ConfigRepository {
         if (configMapper.updateByPrimaryKeySelective(configDO) != 1) {
             throw new CommonException("error.config.update");
         }
-        return configMapper.selectByPrimaryKey(configDO.getId());
+        ConfigDO updated = configMapper.selectByPrimaryKey(configDO.getId());
+        eventPublisher.publishEvent(new ConfigChangedEvent(configId, updated.getServiceId()));
+        return updated;
     }
 
     @Override
@@ -112,6 +126,12 @@ public class ConfigRepositoryImpl implements ConfigRepository {
         return ConvertHelper.convert(config, ConfigDTO.class);
     }
 
+    @Override
+    public ConfigDO queryDefaultVersionByServiceName(String serviceName) {
+        List<ConfigDO> configs = configMapper.selectDefaultVersionByServiceName(serviceName);
+        return configs.isEmpty() ? null : configs.get(0);
+    }
+
     @Override
     public ConfigDTO queryByServiceNameAndConfigVersion(String serviceName, String configVersion) {
         List<ConfigDO> configs = configMapper.selectByServiceAndConfigVersion(serviceName, configVersion);
@@ -132,6 +152,7 @@ public class ConfigRepositoryImpl implements ConfigRepository {
         if (configMapper.insert(configDO) != 1) {
             throw new CommonException("error.config.create");
         }
+        eventPublisher.publishEvent(new ConfigChangedEvent(configDO.getId(), configDO.getServiceId()));
         return configMapper.selectByPrimaryKey(configDO.getId());
     }
 
@@ -5,12 +5,14 @@ import io.choerodon.core.convertor.ConvertPageHelper;
 import io.choerodon.core.domain.Page;
 import io.choerodon.core.exception.CommonException;
 import io.choerodon.manager.domain.manager.entity.RouteE;
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent;
 import io.choerodon.manager.domain.repository.RouteRepository;
 import io.choerodon.manager.infra.common.annotation.RouteNotifyRefresh;
 import io.choerodon.manager.infra.dataobject.RouteDO;
 import io.choerodon.manager.infra.mapper.RouteMapper;
 import io.choerodon.mybatis.pagehelper.PageHelper;
 import io.choerodon.mybatis.pagehelper.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Component;
 
@@ -25,8 +27,11 @@ public class RouteRepositoryImpl implements RouteRepository {
 
     private RouteMapper routeMapper;
 
-    public RouteRepositoryImpl(RouteMapper routeMapper) {
+    private ApplicationEventPublisher eventPublisher;
+
+    public RouteRepositoryImpl(RouteMapper routeMapper, ApplicationEventPublisher eventPublisher) {
         this.routeMapper = routeMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -54,6 +59,7 @@ public class RouteRepositoryImpl implements RouteRepository {
                 throw new CommonException("error.route.insert.pathDuplicate");
             }
         }
+        eventPublisher.publishEvent(new RouteChangedEvent(routeDO.getId(), routeDO.getName()));
         return ConvertHelper.convert(routeMapper.selectByPrimaryKey(routeDO.getId()), RouteE.class);
     }
 
@@ -84,6 +90,9 @@ public class RouteRepositoryImpl implements RouteRepository {
                 throw new CommonException("error.route.insert.pathDuplicate");
             }
         }
+        //改名时监听者按新的路由名查找路由，未修改路由名时沿用原路由名
+        String name = routeE.getName() == null ? oldRouteD.getName() : routeE.getName();
+        eventPublisher.publishEvent(new RouteChangedEvent(routeE.getId(), name));
         return ConvertHelper.convert(routeMapper.selectByPrimaryKey(routeE.getId()), RouteE.class);
     }
 
@@ -95,6 +104,7 @@ public class RouteRepositoryImpl implements RouteRepository {
         if (isDelete != 1) {
             throw new CommonException("error.delete.route");
         }
+        eventPublisher.publishEvent(new RouteChangedEvent(routeE.getId(), routeE.getName()));
         return true;
     }
 
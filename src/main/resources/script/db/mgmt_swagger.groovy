@@ -37,4 +37,23 @@ databaseChangeLog(logicalFilePath: 'script/db/mgmt_swaggeragger.groovy') {
             column(name: 'SERVICE_VERSION', type: 'VARCHAR(64)')
         }
     }
+
+    changeSet(author: 'guokai.wu.work@gmail.com', id: '2018-11-20-add_column_api_count') {
+        addColumn(tableName: 'MGMT_SWAGGER') {
+            column(name: 'API_COUNT', type: 'INT UNSIGNED', remarks: '文档中的接口数量，写入文档时统计，为空表示尚未统计')
+        }
+    }
+
+    changeSet(author: 'guokai.wu.work@gmail.com', id: '2018-12-04-add_column_fingerprint') {
+        addColumn(tableName: 'MGMT_SWAGGER') {
+            column(name: 'FINGERPRINT', type: 'MEDIUMTEXT', remarks: '文档中各接口和definition的结构哈希，json格式，写入文档时计算，为空表示尚未计算')
+        }
+    }
+
+    changeSet(author: 'guokai.wu.work@gmail.com', id: '2018-12-06-add_column_delta') {
+        addColumn(tableName: 'MGMT_SWAGGER') {
+            column(name: 'DELTA_BASE_ID', type: 'BIGINT UNSIGNED', remarks: '差异基准记录id，为空表示value为完整文档，否则value为与基准相比的差异')
+            column(name: 'DELTA_DEPTH', type: 'INT UNSIGNED', defaultValue: '0', remarks: '差异链深度，完整文档为0')
+        }
+    }
 }
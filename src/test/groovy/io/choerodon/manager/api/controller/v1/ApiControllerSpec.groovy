@@ -5,7 +5,10 @@ import io.choerodon.manager.app.service.ApiService
 import io.choerodon.manager.app.service.SwaggerService
 import io.choerodon.manager.app.service.impl.ApiServiceImpl
 import io.choerodon.manager.domain.service.IDocumentService
+import io.choerodon.manager.domain.service.ISwaggerDiffService
 import io.choerodon.manager.domain.service.ISwaggerService
+import io.choerodon.manager.domain.service.impl.ISerialFanOutStrategy
+import io.choerodon.manager.infra.common.utils.SwaggerUtil
 import io.choerodon.manager.infra.dataobject.RouteDO
 import io.choerodon.manager.infra.mapper.RouteMapper
 import io.choerodon.mybatis.pagehelper.domain.PageRequest
@@ -85,12 +88,38 @@ class ApiControllerSpec extends Specification {
         0 * _
     }
 
+    def "QueryPermissions"() {
+        given: '构造请求参数'
+        def map = ["service_prefix": "manager", "version": "test_version"]
+
+        when: "调用批量查询服务权限接口"
+        def entity = restTemplate.getForEntity("/v1/swaggers/{service_prefix}/permissions?version={version}", String, map)
+
+        then: "校验状态码和调用次数"
+        entity.statusCode.is2xxSuccessful()
+        1 * mockApiService.queryPermissions("manager", "test_version") >> []
+        0 * _
+    }
+
+    def "QueryDiff"() {
+        given: '构造请求参数'
+        def map = ["service_prefix": "manager", "from": "0.9.0", "to": "0.10.0"]
+
+        when: "调用比较版本差异接口"
+        def entity = restTemplate.getForEntity("/v1/swaggers/{service_prefix}/diff?from={from}&to={to}", String, map)
+
+        then: "校验状态码和调用次数"
+        entity.statusCode.is2xxSuccessful()
+        1 * mockApiService.queryDiff("manager", "0.9.0", "0.10.0")
+        0 * _
+    }
+
     def "QueryInstancesAndApiCount"() {
         given:
         IDocumentService iDocumentService = Mock(IDocumentService)
         ISwaggerService iSwaggerService = Mock(ISwaggerService)
         RouteMapper routeMapper = Mock(RouteMapper)
-        ApiServiceImpl impl = new ApiServiceImpl(iDocumentService, routeMapper, iSwaggerService, Mock(StringRedisTemplate))
+        ApiServiceImpl impl = new ApiServiceImpl(iDocumentService, routeMapper, iSwaggerService, Mock(StringRedisTemplate), new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
         ApiController controller = new ApiController(null, impl)
 
         SwaggerResource swaggerResource = new SwaggerResource()
@@ -101,6 +130,7 @@ class ApiControllerSpec extends Specification {
         resources << swaggerResource
         iSwaggerService.getSwaggerResource() >> resources
         def file = new File(this.class.getResource('/swagger.json').toURI())
+        iDocumentService.queryApiCounts() >> [:]
         iDocumentService.fetchSwaggerJsonByService(_, _) >> { file.getText('UTF-8') }
         iDocumentService.expandSwaggerJson(_, _, _) >> { file.getText('UTF-8') }
         RouteDO routeDO = new RouteDO()
@@ -114,11 +144,33 @@ class ApiControllerSpec extends Specification {
         Integer.valueOf(entity.getBody().get("apiCounts").getAt(0)) == 25
     }
 
+    def "QueryInstancesAndApiCount[使用已统计的接口数量]"() {
+        given:
+        IDocumentService iDocumentService = Mock(IDocumentService)
+        ISwaggerService iSwaggerService = Mock(ISwaggerService)
+        ApiServiceImpl impl = new ApiServiceImpl(iDocumentService, Mock(RouteMapper), iSwaggerService, Mock(StringRedisTemplate), new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
+        ApiController controller = new ApiController(null, impl)
+
+        SwaggerResource swaggerResource = new SwaggerResource()
+        swaggerResource.setName("manager:manager-service")
+        swaggerResource.setLocation("/docs/manager?version=null_version")
+        swaggerResource.setSwaggerVersion("2.0")
+        iSwaggerService.getSwaggerResource() >> [swaggerResource]
+
+        when:
+        def entity = controller.queryInstancesAndApiCount()
+        then: "直接使用表中的统计，不再获取和解析文档"
+        1 * iDocumentService.queryApiCounts() >> ["manager-service:null_version": 7]
+        0 * iDocumentService.fetchSwaggerJsonByService(_, _)
+        entity.getBody().get("apiCounts") == [7]
+        entity.getBody().get("services") == ["manager-service"]
+    }
+
     def "QueryServiceInvoke"() {
         given:
         StringRedisTemplate redisTemplate = Mock(StringRedisTemplate)
         ISwaggerService iSwaggerService = Mock(ISwaggerService)
-        ApiServiceImpl apiService = new ApiServiceImpl(null, null, iSwaggerService, redisTemplate)
+        ApiServiceImpl apiService = new ApiServiceImpl(null, null, iSwaggerService, redisTemplate, new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
         ApiController controller = new ApiController(null, apiService)
         List swaggerList = new ArrayList()
         SwaggerResource swaggerResource = Mock(SwaggerResource)
@@ -138,7 +190,7 @@ class ApiControllerSpec extends Specification {
     def "QueryApiInvoke"() {
         given:
         StringRedisTemplate redisTemplate = Mock(StringRedisTemplate)
-        ApiServiceImpl apiService = new ApiServiceImpl(null, null, null, redisTemplate)
+        ApiServiceImpl apiService = new ApiServiceImpl(null, null, null, redisTemplate, new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
         ApiController controller = new ApiController(null, apiService)
         ValueOperations valueOperations = Mock(ValueOperations)
         redisTemplate.opsForValue() >> valueOperations
@@ -158,7 +210,7 @@ class ApiControllerSpec extends Specification {
         ISwaggerService iSwaggerService = Mock(ISwaggerService)
         IDocumentService iDocumentService = Mock(IDocumentService)
         StringRedisTemplate stringRedisTemplate = Mock(StringRedisTemplate)
-        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, null, iSwaggerService, stringRedisTemplate)
+        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, null, iSwaggerService, stringRedisTemplate, new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
         ApiController controller = new ApiController(null, apiService)
         List<SwaggerResource> resources = new ArrayList<>()
         SwaggerResource resource = new SwaggerResource()
@@ -167,7 +219,7 @@ class ApiControllerSpec extends Specification {
         resources << resource
         iSwaggerService.getSwaggerResource() >> resources
         def file = new File(this.class.getResource('/swagger.json').toURI())
-        iDocumentService.fetchSwaggerJsonByService(_, _) >> { file.getText('UTF-8') }
+        iDocumentService.querySummary(_, _) >> { SwaggerUtil.summarize("manager-service", file.getText('UTF-8')) }
 
         when:
         controller.queryTreeMenu()
@@ -182,7 +234,7 @@ class ApiControllerSpec extends Specification {
         ISwaggerService iSwaggerService = Mock(ISwaggerService)
         IDocumentService iDocumentService = Mock(IDocumentService)
         StringRedisTemplate stringRedisTemplate = Mock(StringRedisTemplate)
-        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, null, iSwaggerService, stringRedisTemplate)
+        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, null, iSwaggerService, stringRedisTemplate, new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
         ApiController controller = new ApiController(null, apiService)
         List<SwaggerResource> resources = new ArrayList<>()
         SwaggerResource resource = new SwaggerResource()
@@ -191,7 +243,7 @@ class ApiControllerSpec extends Specification {
         resources << resource
         iSwaggerService.getSwaggerResource() >> resources
         def file = new File(this.class.getResource('/swagger.json').toURI())
-        iDocumentService.fetchSwaggerJsonByService(_, _) >> { file.getText('UTF-8') }
+        iDocumentService.querySummary(_, _) >> { SwaggerUtil.summarize("manager-service", file.getText('UTF-8')) }
         ValueOperations valueOperations = Mock(ValueOperations)
 
         when:
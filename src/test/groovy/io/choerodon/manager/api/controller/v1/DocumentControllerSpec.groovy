@@ -0,0 +1,108 @@
+package io.choerodon.manager.api.controller.v1
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.app.service.ApiService
+import io.choerodon.manager.domain.manager.entity.OffHeapResponse
+import io.choerodon.manager.domain.manager.entity.SerializedResponse
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import org.springframework.http.HttpStatus
+import org.springframework.mock.web.MockHttpServletResponse
+import spock.lang.Specification
+
+import java.util.zip.GZIPInputStream
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class DocumentControllerSpec extends Specification {
+
+    private ApiService mockApiService = Mock(ApiService)
+
+    private DocumentController documentController = new DocumentController(mockApiService)
+
+    def "Get"() {
+        given: "准备参数"
+        def etag = '"manager-etag"'
+        def json = '{"swagger":"2.0","basePath":"/manager"}'
+        def response = OffHeapResponse.copyOf(new SerializedResponse(json.getBytes("UTF-8"), etag))
+
+        when: "ETag一致"
+        def entity = documentController.get("manager", "1.0", '"manager-etag-gzip"', "gzip", new MockHttpServletResponse())
+
+        then: "不获取文档直接返回304"
+        1 * mockApiService.queryDocumentEtag("manager", "1.0") >> etag
+        0 * mockApiService.getSwaggerJsonResponse(_, _)
+        entity.statusCode == HttpStatus.NOT_MODIFIED
+        entity.headers.getETag() == '"manager-etag-gzip"'
+
+        when: "原文的ETag用于gzip请求"
+        def servletResponse = new MockHttpServletResponse()
+        entity = documentController.get("manager", "1.0", etag, "gzip", servletResponse)
+
+        then: "编码不同，返回200"
+        1 * mockApiService.queryDocumentEtag("manager", "1.0") >> etag
+        1 * mockApiService.getSwaggerJsonResponse("manager", "1.0") >> response
+        entity == null
+        servletResponse.status == HttpStatus.OK.value()
+
+        when: "接受gzip"
+        servletResponse = new MockHttpServletResponse()
+        entity = documentController.get("manager", "1.0", null, "gzip, deflate", servletResponse)
+
+        then: "直接写出压缩后的文档"
+        1 * mockApiService.queryDocumentEtag("manager", "1.0") >> etag
+        1 * mockApiService.getSwaggerJsonResponse("manager", "1.0") >> response
+        entity == null
+        servletResponse.status == HttpStatus.OK.value()
+        servletResponse.getHeader("ETag") == '"manager-etag-gzip"'
+        servletResponse.getHeader("Content-Encoding") == "gzip"
+        servletResponse.contentLength == response.gzipBody.length
+        new GZIPInputStream(new ByteArrayInputStream(servletResponse.contentAsByteArray)).getText("UTF-8") == json
+
+        when: "不接受gzip"
+        servletResponse = new MockHttpServletResponse()
+        entity = documentController.get("manager", "1.0", '"old"', null, servletResponse)
+
+        then: "直接写出原文"
+        1 * mockApiService.queryDocumentEtag("manager", "1.0") >> etag
+        1 * mockApiService.getSwaggerJsonResponse("manager", "1.0") >> response
+        entity == null
+        servletResponse.getHeader("ETag") == etag
+        servletResponse.getHeader("Content-Encoding") == null
+        servletResponse.contentType.startsWith("application/json")
+        new String(servletResponse.contentAsByteArray, "UTF-8") == json
+    }
+
+    def "AcceptsGzip"() {
+        expect: "按q值判断是否接受gzip"
+        DocumentController.acceptsGzip(acceptEncoding) == accepted
+
+        where:
+        acceptEncoding                || accepted
+        null                          || false
+        "gzip"                        || true
+        "deflate, GZIP;q=0.5"         || true
+        "gzip;q=0"                    || false
+        "gzip; q=0.0, deflate"        || false
+        "identity"                    || false
+        "*"                           || true
+        "*;q=0"                       || false
+        "gzip;q=0, *"                 || false
+        "x-gzip"                      || true
+    }
+
+    def "Get[文档为空]"() {
+        when: "方法调用"
+        def entity = documentController.get("manager", "1.0", null, null, new MockHttpServletResponse())
+
+        then: "返回404"
+        1 * mockApiService.queryDocumentEtag("manager", "1.0") >> null
+        1 * mockApiService.getSwaggerJsonResponse("manager", "1.0") >> null
+        entity.statusCode == HttpStatus.NOT_FOUND
+    }
+}
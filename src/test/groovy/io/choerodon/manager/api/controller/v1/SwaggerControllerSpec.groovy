@@ -0,0 +1,67 @@
+package io.choerodon.manager.api.controller.v1
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.app.service.SwaggerService
+import io.choerodon.manager.domain.manager.entity.SerializedResponse
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import org.springframework.http.HttpStatus
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class SwaggerControllerSpec extends Specification {
+
+    private SwaggerService mockSwaggerService = Mock(SwaggerService)
+
+    private SwaggerController swaggerController = new SwaggerController(mockSwaggerService)
+
+    def "SwaggerResources"() {
+        given: "预先序列化的资源列表"
+        def response = new SerializedResponse('[{"name":"manager:manager-service"}]'.getBytes("UTF-8"))
+        mockSwaggerService.getSwaggerResourceResponse() >> response
+
+        when: "首次请求"
+        def entity = swaggerController.swaggerResources(null)
+
+        then: "返回响应体和ETag"
+        entity.statusCode == HttpStatus.OK
+        entity.body == response.getBody()
+        entity.headers.getETag() == response.getEtag()
+        entity.headers.getCacheControl() == "no-cache"
+
+        when: "携带ETag再次请求"
+        entity = swaggerController.swaggerResources(response.getEtag())
+
+        then: "返回304且不带响应体"
+        entity.statusCode == HttpStatus.NOT_MODIFIED
+        entity.body == null
+
+        when: "ETag不一致"
+        entity = swaggerController.swaggerResources('"other"')
+
+        then: "返回响应体"
+        entity.statusCode == HttpStatus.OK
+    }
+
+    def "Configuration"() {
+        given: "预先序列化的配置"
+        def ui = new SerializedResponse('{"validatorUrl":null}'.getBytes("UTF-8"))
+        def security = new SerializedResponse('{"clientId":"client"}'.getBytes("UTF-8"))
+
+        when: "请求ui和security配置"
+        def uiEntity = swaggerController.uiConfiguration("W/" + ui.getEtag())
+        def securityEntity = swaggerController.securityConfiguration(null)
+
+        then: "弱比较命中时返回304"
+        1 * mockSwaggerService.getUiConfigurationResponse() >> ui
+        1 * mockSwaggerService.getSecurityConfigurationResponse() >> security
+        uiEntity.statusCode == HttpStatus.NOT_MODIFIED
+        securityEntity.body == security.getBody()
+    }
+}
@@ -1,12 +1,23 @@
 package io.choerodon.manager.api.eventhandler
 
+import com.fasterxml.jackson.databind.ObjectMapper
 import io.choerodon.eureka.event.EurekaEventPayload
 import io.choerodon.manager.domain.service.IDocumentService
 import io.choerodon.manager.domain.service.IRouteService
+import io.choerodon.manager.domain.service.ISwaggerService
+import io.choerodon.manager.domain.service.LeaseService
 import io.choerodon.manager.domain.service.SwaggerRefreshService
+import io.choerodon.manager.domain.service.impl.ILocalLeaseService
+import org.springframework.remoting.RemoteAccessException
 import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
 
 class EurekaEventObserverSpec extends Specification {
+
+    def upPayload() {
+        return new ObjectMapper().readValue('{"status":"UP","appName":"manager-service","version":"1.0"}', EurekaEventPayload)
+    }
+
     def "test receiveUpEvent"() {
         given: 'mock RegisterInstanceService'
         def service = Mock(IDocumentService) {
@@ -14,13 +25,137 @@ class EurekaEventObserverSpec extends Specification {
         }
         def service1 = Mock(SwaggerRefreshService)
         def service2 = Mock(IRouteService)
-        def observer = new EurekaEventObserver(service, service1, service2)
+        def service3 = Mock(ISwaggerService)
+        def observer = new EurekaEventObserver(service, service1, service2, service3, new ILocalLeaseService())
 
         when:
         observer.receiveUpEvent(new EurekaEventPayload())
         then:
         1 * service1.updateOrInsertSwagger(_, _)
         1 * service2.autoRefreshRoute(_)
+        1 * service3.evictSwaggerResource()
+        1 * service.evictExpandedDocuments(_)
+
+    }
+
+    def "test receiveUpEvent[其他副本已写入]"() {
+        given: '两个副本共享同一个租约'
+        def leaseService = new ILocalLeaseService()
+        def payload = upPayload()
+        def service = Mock(IDocumentService)
+        def service1 = Mock(SwaggerRefreshService)
+        def service3 = Mock(ISwaggerService)
+        def first = new EurekaEventObserver(service, service1, Mock(IRouteService), service3, leaseService)
+        def second = new EurekaEventObserver(service, service1, Mock(IRouteService), service3, leaseService)
+
+        when: '第一个副本收到UP事件'
+        first.receiveUpEvent(payload)
+
+        then: '拉取并写入文档'
+        1 * service.fetchSwaggerJsonByIp(payload) >> '{}'
+        1 * service1.updateOrInsertSwagger(payload, '{}')
+
+        when: '第二个副本收到同一个UP事件'
+        second.receiveUpEvent(payload)
+
+        then: '不再拉取和写入，只失效本地缓存'
+        0 * service.fetchSwaggerJsonByIp(_)
+        0 * service1.updateOrInsertSwagger(_, _)
+        1 * service3.evictSwaggerResource()
+        1 * service.evictExpandedDocuments("manager-service")
+    }
+
+    def "test receiveUpEvent[写入失败]"() {
+        given: '参数准备'
+        def leaseService = new ILocalLeaseService()
+        def payload = upPayload()
+        def service = Mock(IDocumentService)
+        def service1 = Mock(SwaggerRefreshService)
+        def observer = new EurekaEventObserver(service, service1, Mock(IRouteService), Mock(ISwaggerService), leaseService)
+
+        when: '拉取的文档为空'
+        observer.receiveUpEvent(payload)
+
+        then: '抛出异常并释放租约'
+        1 * service.fetchSwaggerJsonByIp(payload) >> ''
+        thrown(RemoteAccessException)
+        leaseService.getState("manager-service:swagger-ingest:manager-service:1.0") == LeaseService.State.ABSENT
+
+        when: '重试'
+        observer.receiveUpEvent(payload)
+
+        then: '重新获取租约并写入'
+        1 * service.fetchSwaggerJsonByIp(payload) >> '{}'
+        1 * service1.updateOrInsertSwagger(payload, '{}')
+    }
+
+    def "test receiveUpEvent[持有者崩溃]"() {
+        given: '其他副本获取租约后崩溃'
+        def leaseService = new ILocalLeaseService()
+        def payload = upPayload()
+        def key = "manager-service:swagger-ingest:manager-service:1.0"
+        leaseService.tryAcquire(key, 300)
+        def service = Mock(IDocumentService)
+        def service1 = Mock(SwaggerRefreshService)
+        def service3 = Mock(ISwaggerService)
+        def observer = new EurekaEventObserver(service, service1, Mock(IRouteService), service3, leaseService)
+        observer.setWaitTimeout(5000)
+        def conditions = new PollingConditions(timeout: 5)
+
+        when: '收到UP事件'
+        def start = System.currentTimeMillis()
+        observer.receiveUpEvent(payload)
+
+        then: '事件线程不等待，只失效本地缓存'
+        System.currentTimeMillis() - start < 300
+        0 * service.fetchSwaggerJsonByIp(_)
+        1 * service3.evictSwaggerResource()
+
+        when: '租约过期'
+        conditions.eventually {
+            assert leaseService.getState(key) == LeaseService.State.COMPLETED
+        }
+
+        then: '后台线程接替写入'
+        1 * service.fetchSwaggerJsonByIp(payload) >> '{}'
+        1 * service1.updateOrInsertSwagger(payload, '{}')
+
+        cleanup:
+        observer.shutdown()
+    }
+
+    def "test receiveUpEvent[持有者正常完成]"() {
+        given: '其他副本正在写入'
+        def leaseService = new ILocalLeaseService()
+        def payload = upPayload()
+        def key = "manager-service:swagger-ingest:manager-service:1.0"
+        def holder = leaseService.tryAcquire(key, 30000)
+        def service = Mock(IDocumentService)
+        def observer = new EurekaEventObserver(service, Mock(SwaggerRefreshService), Mock(IRouteService), Mock(ISwaggerService), leaseService)
+
+        when: '收到UP事件后持有者完成写入'
+        observer.receiveUpEvent(payload)
+        leaseService.complete(key, holder, 60000)
+        Thread.sleep(1500)
 
+        then: '后台检查到已完成，不再拉取'
+        0 * service.fetchSwaggerJsonByIp(_)
+        leaseService.getState(key) == LeaseService.State.COMPLETED
+
+        cleanup:
+        observer.shutdown()
+    }
+
+    def "test receiveDownEvent"() {
+        given:
+        def service = Mock(IDocumentService)
+        def service3 = Mock(ISwaggerService)
+        def observer = new EurekaEventObserver(service, Mock(SwaggerRefreshService), Mock(IRouteService), service3, new ILocalLeaseService())
+
+        when:
+        observer.receiveDownEvent(new EurekaEventPayload())
+        then:
+        1 * service3.evictSwaggerResource()
+        1 * service.evictExpandedDocuments(_)
     }
 }
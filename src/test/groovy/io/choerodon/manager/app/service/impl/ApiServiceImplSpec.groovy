@@ -3,8 +3,13 @@ package io.choerodon.manager.app.service.impl
 import io.choerodon.manager.IntegrationTestConfiguration
 import io.choerodon.manager.api.dto.swagger.ControllerDTO
 import io.choerodon.manager.app.service.ApiService
+import io.choerodon.manager.domain.manager.entity.SerializedResponse
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent
+import io.choerodon.manager.domain.manager.event.SwaggerChangedEvent
 import io.choerodon.manager.domain.service.IDocumentService
+import io.choerodon.manager.domain.service.ISwaggerDiffService
 import io.choerodon.manager.domain.service.ISwaggerService
+import io.choerodon.manager.domain.service.impl.ISerialFanOutStrategy
 import io.choerodon.manager.infra.dataobject.RouteDO
 import io.choerodon.manager.infra.mapper.RouteMapper
 import io.choerodon.mybatis.pagehelper.domain.PageRequest
@@ -12,6 +17,8 @@ import io.choerodon.mybatis.pagehelper.domain.Sort
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.SpringBootTest
 import org.springframework.context.annotation.Import
+import org.springframework.data.redis.RedisConnectionFailureException
+import org.springframework.data.redis.core.RedisCallback
 import org.springframework.data.redis.core.StringRedisTemplate
 import org.springframework.data.redis.core.ValueOperations
 import spock.lang.Specification
@@ -36,7 +43,7 @@ class ApiServiceImplSpec extends Specification {
     RouteMapper routeMapper
 
     def setup() {
-        apiService = new ApiServiceImpl(mockIDocumentService, routeMapper, iSwaggerService, Mock(StringRedisTemplate))
+        apiService = new ApiServiceImpl(mockIDocumentService, routeMapper, iSwaggerService, Mock(StringRedisTemplate), new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
     }
 
     def "GetControllers"() {
@@ -55,8 +62,7 @@ class ApiServiceImplSpec extends Specification {
 
         and: 'mock getSwaggerJson方法'
         def file = new File(this.class.getResource('/swagger.json').toURI())
-        mockIDocumentService.fetchSwaggerJsonByService(_, _) >> { file.getText('UTF-8') }
-        mockIDocumentService.expandSwaggerJson(_, _, _) >> { file.getText('UTF-8') }
+        mockIDocumentService.materializeExpandedDocument(_, _, _) >> { new SerializedResponse(file.getText('UTF-8').getBytes('UTF-8')) }
 
         when: "方法调用"
         def list = apiService.getControllers(name, version, pageRequest, map)
@@ -65,6 +71,38 @@ class ApiServiceImplSpec extends Specification {
         !list.isEmpty()
     }
 
+    def "GetControllers[分页]"() {
+        given: "按名称排序，每页2条"
+        def pageRequest = new PageRequest(1, 2, new Sort(new Sort.Order("name")))
+        def map = new HashMap<String, Object>()
+
+        and: 'mock getSwaggerJson方法'
+        def file = new File(this.class.getResource('/swagger.json').toURI())
+        mockIDocumentService.materializeExpandedDocument(_, _, _) >> { new SerializedResponse(file.getText('UTF-8').getBytes('UTF-8')) }
+        RouteDO routeDO = new RouteDO()
+        routeDO.setServiceId("manager-service")
+        RouteMapper mockRouteMapper = Mock(RouteMapper)
+        mockRouteMapper.selectOne(_) >> routeDO
+        apiService = new ApiServiceImpl(mockIDocumentService, mockRouteMapper, iSwaggerService, Mock(StringRedisTemplate), new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
+
+        when: "方法调用"
+        def page = apiService.getControllers("manager", "null_version", pageRequest, map)
+
+        then: "总数按全部controller计算，只生成当前页的接口详情"
+        page.getTotalElements() == 6
+        page.getContent()*.name == ["eureka-event-endpoint", "instance-controller"]
+        page.getContent()*.paths*.size() == [2, 3]
+        page.getContent()*.paths.flatten().every { it.refController in ["eureka-event-endpoint", "instance-controller"] }
+
+        when: "按名称过滤"
+        map.put("name", "route")
+        page = apiService.getControllers("manager", "null_version", new PageRequest(0, 20, new Sort(new Sort.Order("name"))), map)
+
+        then: "结果验证"
+        page.getTotalElements() == 1
+        page.getContent().get(0).getPaths().size() == 5
+    }
+
 //    def "GetControllers[Exception]"() {
 //        given: "准备参数"
 //        def name = "manager"
@@ -121,7 +159,7 @@ class ApiServiceImplSpec extends Specification {
         IDocumentService iDocumentService = Mock(IDocumentService)
         StringRedisTemplate stringRedisTemplate = Mock(StringRedisTemplate)
         RouteMapper routeMapper1 = Mock(RouteMapper)
-        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, routeMapper1, iSwaggerService, stringRedisTemplate)
+        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, routeMapper1, iSwaggerService, stringRedisTemplate, new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
         List<SwaggerResource> resources = new ArrayList<>()
         SwaggerResource resource = new SwaggerResource()
         resource.setName("manager:manager-service")
@@ -129,8 +167,7 @@ class ApiServiceImplSpec extends Specification {
         resources << resource
         iSwaggerService.getSwaggerResource() >> resources
         def file = new File(this.class.getResource('/swagger.json').toURI())
-        iDocumentService.fetchSwaggerJsonByService(_, _) >> { file.getText('UTF-8') }
-        iDocumentService.expandSwaggerJson(_, _, _) >> { file.getText('UTF-8') }
+        iDocumentService.materializeExpandedDocument(_, _, _) >> { new SerializedResponse(file.getText('UTF-8').getBytes('UTF-8')) }
         RouteDO routeDO = Mock(RouteDO)
         routeMapper1.selectOne(_) >> routeDO
         routeDO.getServiceId() >> "manager-service"
@@ -150,7 +187,7 @@ class ApiServiceImplSpec extends Specification {
         IDocumentService iDocumentService = Mock(IDocumentService)
         StringRedisTemplate stringRedisTemplate = Mock(StringRedisTemplate)
         RouteMapper routeMapper1 = Mock(RouteMapper)
-        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, routeMapper1, iSwaggerService, stringRedisTemplate)
+        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, routeMapper1, iSwaggerService, stringRedisTemplate, new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
         List<SwaggerResource> resources = new ArrayList<>()
         SwaggerResource resource = new SwaggerResource()
         resource.setName("manager:manager-service")
@@ -158,8 +195,7 @@ class ApiServiceImplSpec extends Specification {
         resources << resource
         iSwaggerService.getSwaggerResource() >> resources
         def file = new File(this.class.getResource('/swagger.json').toURI())
-        iDocumentService.fetchSwaggerJsonByService(_, _) >> { file.getText('UTF-8') }
-        iDocumentService.expandSwaggerJson(_, _, _) >> { file.getText('UTF-8') }
+        iDocumentService.materializeExpandedDocument(_, _, _) >> { new SerializedResponse(file.getText('UTF-8').getBytes('UTF-8')) }
         RouteDO routeDO = Mock(RouteDO)
         routeMapper1.selectOne(_) >> routeDO
         routeDO.getServiceId() >> "manager-service"
@@ -174,4 +210,158 @@ class ApiServiceImplSpec extends Specification {
         1*valueOperations.get(_)>>"{\"name\":\"api-controller\",\"description\":\"api测试\",\"paths\":[{\"url\":\"/v1/swaggers/resources\",\"method\":\"get\",\"consumes\":[\"application/json\"],\"produces\":[\"*/*\"],\"operationId\":\"resourcesUsingGET\",\"parameters\":[],\"responses\":[{\"httpStatus\":\"200\",\"description\":\"OK\",\"body\":\"[\\n{\\n\\\"swaggerVersion\\\":\\\"string\\\"\\n\\\"name\\\":\\\"string\\\"\\n\\\"location\\\":\\\"string\\\"\\n}\\n]\"},{\"httpStatus\":\"401\",\"description\":\"Unauthorized\",\"body\":null},{\"httpStatus\":\"403\",\"description\":\"Forbidden\",\"body\":null},{\"httpStatus\":\"404\",\"description\":\"Not Found\",\"body\":null}],\"remark\":\"查询不包含跳过的服务的路由列表\",\"description\":\"{\\\"permission\\\":{\\\"action\\\":\\\"resources\\\",\\\"menuLevel\\\":null,\\\"permissionLevel\\\":\\\"site\\\",\\\"roles\\\":[\\\"role/site/default/developer\\\"],\\\"permissionLogin\\\":false,\\\"permissionPublic\\\":false,\\\"permissionWithin\\\":false},\\\"label\\\":null}\",\"refController\":\"api-controller\",\"innerInterface\":false,\"basePath\":\"/manager\",\"code\":\"manager-service.api.resources\"}]}"
         value.getName() == "api-controller"
     }
+
+    def "QueryPathDetail[without redis]"() {
+        given:
+        ISwaggerService iSwaggerService = Mock(ISwaggerService)
+        IDocumentService iDocumentService = Mock(IDocumentService)
+        StringRedisTemplate stringRedisTemplate = Mock(StringRedisTemplate)
+        RouteMapper routeMapper1 = Mock(RouteMapper)
+        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, routeMapper1, iSwaggerService, stringRedisTemplate, new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
+        apiService.setPathDetailRedisCache(false)
+        def file = new File(this.class.getResource('/swagger.json').toURI())
+        iDocumentService.materializeExpandedDocument(_, _, _) >> { new SerializedResponse(file.getText('UTF-8').getBytes('UTF-8')) }
+        RouteDO routeDO = new RouteDO()
+        routeDO.setServiceId("manager-service")
+        routeMapper1.selectOne(_) >> routeDO
+
+        when: '同一文档连续查询两个接口'
+        ControllerDTO first = apiService.queryPathDetail("manager", "null_version", "api-controller", "resourcesUsingGET")
+        ControllerDTO second = apiService.queryPathDetail("manager", "null_version", "api-controller", "resourcesUsingGET")
+
+        then: '通过operationId索引定位接口，不访问redis'
+        0 * stringRedisTemplate._
+        first.getName() == "api-controller"
+        first.getPaths().size() == 1
+        first.getPaths().get(0).getOperationId() == "resourcesUsingGET"
+        first.getPaths().get(0).getResponses().find { it.httpStatus == "200" }.body.contains("swaggerVersion")
+        second.getPaths().size() == 1
+    }
+
+    def "QueryPermissions"() {
+        given:
+        IDocumentService iDocumentService = Mock(IDocumentService)
+        RouteMapper routeMapper1 = Mock(RouteMapper)
+        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, routeMapper1, Mock(ISwaggerService), Mock(StringRedisTemplate), new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
+        def file = new File(this.class.getResource('/swagger.json').toURI())
+        def response = new SerializedResponse(file.getText('UTF-8').getBytes('UTF-8'))
+        RouteDO routeDO = new RouteDO()
+        routeDO.setServiceId("manager-service")
+        routeMapper1.selectOne(_) >> routeDO
+
+        when: '同一文档连续查询两次'
+        def first = apiService.queryPermissions("manager", "null_version")
+        def second = apiService.queryPermissions("manager", "null_version")
+
+        then: '文档未变化时复用已解析的权限'
+        1 * iDocumentService.materializeExpandedDocument(_, _, _) >> response
+        2 * iDocumentService.getExpandedDocument(_, _) >>> [null, response]
+        first.size() == second.size()
+        def permission = first.find { it.operationId == "resourcesUsingGET" }
+        permission.code == "manager-service.api.resources"
+        permission.url == "/v1/swaggers/resources"
+        permission.method == "get"
+        !permission.innerInterface
+        second.find { it.operationId == "resourcesUsingGET" }.is(permission)
+    }
+
+    def "GetSwaggerJsonResponse"() {
+        given:
+        IDocumentService iDocumentService = Mock(IDocumentService)
+        RouteMapper routeMapper1 = Mock(RouteMapper)
+        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, routeMapper1, Mock(ISwaggerService), Mock(StringRedisTemplate), new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
+        RouteDO routeDO = new RouteDO()
+        routeDO.setServiceId("manager-service")
+        def response = new SerializedResponse('{"swagger":"2.0"}'.getBytes("UTF-8"), '"v1"')
+
+        when: '扩展后的文档已生成'
+        def expanded = apiService.getSwaggerJsonResponse("manager", "1.0")
+        def etag = apiService.queryDocumentEtag("manager", "1.0")
+
+        then: '直接返回，不查询路由和文档'
+        2 * iDocumentService.getExpandedDocument("manager", "1.0") >> response
+        0 * routeMapper1.selectOne(_)
+        0 * iDocumentService.materializeExpandedDocument(_, _, _)
+        0 * iDocumentService.queryDocumentEtag(_, _, _)
+        expanded.is(response)
+        etag == '"v1"'
+
+        when: '尚未生成'
+        expanded = apiService.getSwaggerJsonResponse("manager", "1.0")
+
+        then: '按路由对应的服务生成'
+        1 * iDocumentService.getExpandedDocument("manager", "1.0") >> null
+        1 * routeMapper1.selectOne(_) >> routeDO
+        1 * iDocumentService.materializeExpandedDocument("manager-service", "manager", "1.0") >> response
+        expanded.is(response)
+    }
+
+    def "OnSwaggerChanged"() {
+        given:
+        StringRedisTemplate redisTemplate = Mock(StringRedisTemplate)
+        RouteMapper routeMapper1 = Mock(RouteMapper)
+        ApiServiceImpl apiService = new ApiServiceImpl(Mock(IDocumentService), routeMapper1, Mock(ISwaggerService), redisTemplate, new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
+
+        when: '本副本写入文档'
+        apiService.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1.0"))
+
+        then: '删除接口树缓存，按路由扫描删除接口详情缓存'
+        1 * redisTemplate.delete("api-tree-doc:manager-service:1.0")
+        1 * routeMapper1.select({ it.serviceId == "manager-service" }) >> [new RouteDO(name: "manager")]
+        1 * redisTemplate.execute(_ as RedisCallback)
+
+        when: '其他副本写入文档'
+        apiService.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1.0", true))
+
+        then: '只移除本地文档索引，redis缓存已由写入的副本删除'
+        0 * redisTemplate._
+        1 * routeMapper1.select({ it.serviceId == "manager-service" }) >> [new RouteDO(name: "manager")]
+    }
+
+    def "OnRouteChanged[redis不可用]"() {
+        given:
+        StringRedisTemplate redisTemplate = Mock(StringRedisTemplate)
+        ApiServiceImpl apiService = new ApiServiceImpl(Mock(IDocumentService), Mock(RouteMapper), Mock(ISwaggerService), redisTemplate, new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
+
+        when: '本副本修改路由时redis连接失败'
+        apiService.onRouteChanged(new RouteChangedEvent(1L, "manager"))
+
+        then: '只记录日志，不影响已提交的路由写入'
+        1 * redisTemplate.execute(_ as RedisCallback) >> { throw new RedisConnectionFailureException("connection refused") }
+        noExceptionThrown()
+    }
+
+    def "DocumentIndex[淘汰]"() {
+        given:
+        IDocumentService iDocumentService = Mock(IDocumentService)
+        RouteMapper routeMapper1 = Mock(RouteMapper)
+        ApiServiceImpl apiService = new ApiServiceImpl(iDocumentService, routeMapper1, Mock(ISwaggerService), Mock(StringRedisTemplate), new ISerialFanOutStrategy(), Mock(ISwaggerDiffService))
+        apiService.setDocumentIndexCacheSize(1)
+        def file = new File(this.class.getResource('/swagger.json').toURI())
+        def response = new SerializedResponse(file.getText('UTF-8').getBytes('UTF-8'))
+        iDocumentService.getExpandedDocument(_, _) >> response
+        def permission = { apiService.queryPermissions("manager", it).find { it.operationId == "resourcesUsingGET" } }
+        def first = permission("1.0")
+
+        when: '超出缓存数量'
+        permission("1.1")
+
+        then: '淘汰最久未访问的文档索引'
+        !permission("1.0").is(first)
+
+        when: '其他副本写入该版本文档'
+        first = permission("1.0")
+        apiService.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1.0", true))
+
+        then: '移除对应路由的文档索引'
+        1 * routeMapper1.select({ it.serviceId == "manager-service" }) >> [new RouteDO(name: "manager")]
+        !permission("1.0").is(first)
+
+        when: '路由变更'
+        first = permission("1.0")
+        apiService.onRouteChanged(new RouteChangedEvent(1L, "manager", true))
+
+        then: '移除全部文档索引'
+        !permission("1.0").is(first)
+    }
 }
@@ -7,11 +7,14 @@ import io.choerodon.manager.api.dto.ConfigDTO
 import io.choerodon.manager.api.dto.CreateConfigDTO
 import io.choerodon.manager.api.dto.ItemDto
 import io.choerodon.manager.app.service.ConfigService
+import io.choerodon.manager.domain.manager.entity.ConfigSnapshot
 import io.choerodon.manager.domain.manager.entity.RouteE
 import io.choerodon.manager.domain.manager.entity.ServiceE
 import io.choerodon.manager.domain.repository.ConfigRepository
 import io.choerodon.manager.domain.repository.RouteRepository
 import io.choerodon.manager.domain.repository.ServiceRepository
+import io.choerodon.manager.domain.service.IConfigSearchService
+import io.choerodon.manager.domain.service.IConfigSnapshotService
 import io.choerodon.manager.infra.common.utils.config.ConfigUtil
 import io.choerodon.manager.infra.dataobject.ConfigDO
 import io.choerodon.manager.infra.dataobject.ServiceDO
@@ -38,10 +41,14 @@ class ConfigServiceImplSpec extends Specification {
 
     private RouteRepository mockRouteRepository = Mock(RouteRepository)
 
+    private IConfigSnapshotService mockConfigSnapshotService = Mock(IConfigSnapshotService)
+
+    private IConfigSearchService mockConfigSearchService = Mock(IConfigSearchService)
+
     private String[] getRouteServices
 
     def setup() {
-        configService = new ConfigServiceImpl(mockConfigRepository, mockServiceRepository, mockRouteRepository)
+        configService = new ConfigServiceImpl(mockConfigRepository, mockServiceRepository, mockRouteRepository, mockConfigSnapshotService, mockConfigSearchService)
         getRouteServices = new String[1]
         getRouteServices[0] = "api-gateway"
         configService.setGetRouteServices(getRouteServices)
@@ -333,6 +340,41 @@ class ConfigServiceImplSpec extends Specification {
     }
 
 
+    def "queryDefaultSnapshot"() {
+        given: '构造快照'
+        def snapshot = ConfigSnapshot.of("test-service", 1L, 1L, "v1", 1L, ["test": "test"])
+
+        when: '查询不存在默认配置的服务'
+        configService.queryDefaultSnapshot("none")
+
+        then: '异常分析'
+        1 * mockConfigSnapshotService.queryDefault("none") >> null
+        def error = thrown(CommonException)
+        error.message == 'error.serviceConfigDO.query.serviceNameNotFound'
+
+        when: '查询存在默认配置的服务'
+        def result = configService.queryDefaultSnapshot("test-service")
+
+        then: '返回快照'
+        1 * mockConfigSnapshotService.queryDefault("test-service") >> snapshot
+        result.is(snapshot)
+    }
+
+    def "search"() {
+        when: '检索条件为空'
+        configService.search(null, " ")
+
+        then: '异常分析'
+        def error = thrown(CommonException)
+        error.message == 'error.config.search.empty'
+
+        when: '按key检索'
+        configService.search("datasource.url", null)
+
+        then: '调用检索服务'
+        1 * mockConfigSearchService.search("datasource.url", null) >> []
+    }
+
     def "update"() {
         given: '准备参数'
         def configId = 1L
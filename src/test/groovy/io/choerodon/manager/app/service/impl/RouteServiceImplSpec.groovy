@@ -11,6 +11,7 @@ import io.choerodon.manager.MockBeanTestConfiguration
 import io.choerodon.manager.api.dto.RouteDTO
 import io.choerodon.manager.app.service.RouteService
 import io.choerodon.manager.domain.manager.entity.RouteE
+import io.choerodon.manager.domain.manager.entity.RouteOverlap
 import io.choerodon.manager.domain.repository.RouteRepository
 import io.choerodon.manager.domain.service.IRouteService
 import io.choerodon.manager.infra.dataobject.RouteDO
@@ -155,12 +156,20 @@ class RouteServiceImplSpec extends Specification {
     def "CheckRoute"() {
         given: "构造Route"
         def routeDTO = createdRouteDTO
+        def overlapRouteE = new RouteE()
+        overlapRouteE.setId(100L)
+        overlapRouteE.setName("overlap")
+        overlapRouteE.setPath("/**")
+        mockIrouteService.findOverlaps(_, _) >> [new RouteOverlap(overlapRouteE, RouteOverlap.Type.SHADOWED)]
 
         when: "调用正常checkRoute方法"
-        routeService.checkRoute(routeDTO)
+        def overlaps = routeService.checkRoute(routeDTO)
 
         then: "校验"
         noExceptionThrown()
+        overlaps.size() == 1
+        overlaps.get(0).name == "overlap"
+        overlaps.get(0).type == "SHADOWED"
 
         when: "调用抛出异常的checkRoute方法"
         routeService.checkRoute(duplicateRouteDTO)
@@ -177,4 +186,33 @@ class RouteServiceImplSpec extends Specification {
         nameDuplicateRouteDTO || CommonException   | "error.route.insert.nameDuplicate"
         pathDuplicateRouteDTO || CommonException   | "error.route.insert.pathDuplicate"
     }
+
+    def "MatchRoute"() {
+        given: "构造路由"
+        def routeE = new RouteE()
+        routeE.setName("manager")
+        routeE.setPath("/manager/**")
+
+        when: "url为空"
+        routeService.matchRoute("")
+
+        then: "校验异常信息"
+        def error = thrown(CommonException)
+        error.message == "error.route.match.urlEmpty"
+
+        when: "没有匹配的路由"
+        routeService.matchRoute("/unknown")
+
+        then: "校验异常信息"
+        1 * mockIrouteService.matchRoute("/unknown") >> null
+        error = thrown(CommonException)
+        error.message == "error.route.match.notFound"
+
+        when: "存在匹配的路由"
+        def routeDTO = routeService.matchRoute("/manager/v1/swaggers")
+
+        then: "返回路由"
+        1 * mockIrouteService.matchRoute("/manager/v1/swaggers") >> routeE
+        routeDTO.name == "manager"
+    }
 }
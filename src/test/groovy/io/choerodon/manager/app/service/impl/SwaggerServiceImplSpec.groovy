@@ -61,6 +61,19 @@ class SwaggerServiceImplSpec extends Specification {
         0 * _
     }
 
+    def "GetSerializedResponse"() {
+        when: "获取预先序列化的响应"
+        swaggerService.getSwaggerResourceResponse()
+        swaggerService.getUiConfigurationResponse()
+        swaggerService.getSecurityConfigurationResponse()
+
+        then: "校验调用次数"
+        1 * mockISwaggerService.getSwaggerResourceResponse()
+        1 * mockISwaggerService.getUiConfigurationResponse()
+        1 * mockISwaggerService.getSecurityConfigurationResponse()
+        0 * _
+    }
+
     def "测试SwaggerConverter转换器"() {
         given:
         def swaggerDO = new SwaggerDO()
@@ -0,0 +1,111 @@
+package io.choerodon.manager.app.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.app.service.ApiService
+import io.choerodon.manager.domain.manager.entity.RouteE
+import io.choerodon.manager.domain.manager.entity.WarmUpReport
+import io.choerodon.manager.domain.service.IConfigSnapshotService
+import io.choerodon.manager.domain.service.IDocumentService
+import io.choerodon.manager.domain.service.IRouteService
+import io.choerodon.manager.domain.service.ISwaggerService
+import io.choerodon.manager.infra.common.spring.WarmUpHealthIndicator
+import org.apache.commons.collections.map.MultiKeyMap
+import org.springframework.boot.actuate.health.Status
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+import springfox.documentation.swagger.web.SwaggerResource
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class WarmUpServiceImplSpec extends Specification {
+
+    private IRouteService mockIRouteService = Mock(IRouteService)
+    private ISwaggerService mockISwaggerService = Mock(ISwaggerService)
+    private IConfigSnapshotService mockIConfigSnapshotService = Mock(IConfigSnapshotService)
+    private IDocumentService mockIDocumentService = Mock(IDocumentService)
+    private ApiService mockApiService = Mock(ApiService)
+
+    private WarmUpServiceImpl warmUpService = new WarmUpServiceImpl(mockIRouteService, mockISwaggerService,
+            mockIConfigSnapshotService, mockIDocumentService, mockApiService)
+
+    private WarmUpHealthIndicator healthIndicator = new WarmUpHealthIndicator(warmUpService)
+
+    def running() {
+        def running = new MultiKeyMap()
+        running.put("manager-service", "1.0", new RouteE(name: "manager", serviceId: "manager-service"))
+        running.put("manager-service", "1.1", new RouteE(name: "manager", serviceId: "manager-service"))
+        running.put("iam-service", "1.0", new RouteE(name: "iam", serviceId: "iam-service"))
+        return running
+    }
+
+    def resource(String name, String location) {
+        def resource = new SwaggerResource()
+        resource.setName(name)
+        resource.setLocation(location)
+        return resource
+    }
+
+    def "WarmUp"() {
+        given: '参数准备'
+        warmUpService.setParallelism(2)
+
+        when: '方法调用'
+        def report = warmUpService.warmUp()
+
+        then: '每个服务加载一次默认配置，每个服务版本加载一次文档'
+        1 * mockIRouteService.getAll() >> []
+        1 * mockIRouteService.getAllRunningInstances() >> running()
+        1 * mockISwaggerService.getSwaggerResource() >> [resource("iam:iam-service", "/docs/iam?version=1.0"),
+                                                        resource("manager:manager-service", "/docs/manager?version=1.0"),
+                                                        resource("manager:manager-service", "/docs/manager?version=1.1")]
+        1 * mockIConfigSnapshotService.queryDefault("manager-service")
+        1 * mockIConfigSnapshotService.queryDefault("iam-service")
+        1 * mockIDocumentService.materializeExpandedDocument("iam-service", "iam", "1.0")
+        1 * mockIDocumentService.materializeExpandedDocument("manager-service", "manager", "1.0")
+        1 * mockIDocumentService.materializeExpandedDocument("manager-service", "manager", "1.1") >> { throw new IOException("read error") }
+        1 * mockApiService.queryTreeMenu() >> [:]
+        report.status == WarmUpReport.Status.COMPLETED
+        report.itemCount == 9
+        report.successCount == 8
+        report.failures == ["swagger:manager:manager-service:1.1": "read error"]
+        healthIndicator.health().status == Status.UP
+        healthIndicator.health().details.get("failures") == report.failures
+    }
+
+    def "Health[预热中]"() {
+        given: '预热开始但尚未结束'
+        warmUpService.getReport().start()
+
+        when: '未超过等待时间'
+        def health = healthIndicator.health()
+
+        then: '不接收流量'
+        health.status == Status.OUT_OF_SERVICE
+
+        when: '超过等待时间'
+        warmUpService.setTimeout(-1)
+
+        then: '放行'
+        healthIndicator.health().status == Status.UP
+        healthIndicator.health().details.get("timedOut") == true
+    }
+
+    def "OnApplicationReady[关闭预热]"() {
+        given: '关闭预热'
+        warmUpService.setEnabled(false)
+
+        when: '方法调用'
+        warmUpService.onApplicationReady()
+
+        then: '不执行任何预热项'
+        0 * _
+        warmUpService.getReport().status == WarmUpReport.Status.DISABLED
+        healthIndicator.health().status == Status.UP
+    }
+}
@@ -0,0 +1,84 @@
+package io.choerodon.manager.domain.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class IBoundedFanOutStrategySpec extends Specification {
+
+    def strategy = new IBoundedFanOutStrategy(4)
+
+    void cleanup() {
+        strategy.shutdown()
+    }
+
+    def "InvokeAll"() {
+        given: '4个任务互相等待，只有并发执行才能全部完成'
+        def latch = new CountDownLatch(4)
+        def threads = ConcurrentHashMap.newKeySet()
+
+        when: '方法调用'
+        def result = strategy.invokeAll([1, 2, 3, 4], { i ->
+            threads.add(Thread.currentThread().getName())
+            latch.countDown()
+            latch.await(5, TimeUnit.SECONDS)
+            return i * 10
+        })
+
+        then: '结果按目标顺序返回'
+        result == [10, 20, 30, 40]
+        latch.count == 0
+        threads.size() == 4
+    }
+
+    def "InvokeAll[线程数不随目标数量增长]"() {
+        given: '参数准备'
+        def threads = ConcurrentHashMap.newKeySet()
+        def targets = (1..100).toList()
+
+        when: '方法调用'
+        def result = strategy.invokeAll(targets, { i ->
+            threads.add(Thread.currentThread().getName())
+            return i
+        })
+
+        then: '结果验证'
+        result == targets
+        threads.size() <= 4
+    }
+
+    def "InvokeAll[任务抛出异常]"() {
+        when: '方法调用'
+        strategy.invokeAll([1, 2, 3], { i ->
+            if (i == 2) {
+                throw new IllegalStateException("error")
+            }
+            return i
+        })
+
+        then: '抛出任务中的异常'
+        thrown(IllegalStateException)
+    }
+
+    def "InvokeAll[嵌套调用]"() {
+        when: '在工作线程中再次发起并发调用'
+        def result = strategy.invokeAll([1, 2, 3, 4, 5], { i ->
+            strategy.invokeAll([i, i], { j -> j }).sum()
+        })
+
+        then: '嵌套调用在当前线程执行，不会死锁'
+        result == [2, 4, 6, 8, 10]
+    }
+}
@@ -0,0 +1,196 @@
+package io.choerodon.manager.domain.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.domain.manager.entity.InvalidationBatch
+import io.choerodon.manager.domain.manager.event.ConfigChangedEvent
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent
+import io.choerodon.manager.domain.manager.event.SwaggerChangedEvent
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.ApplicationEventPublisher
+import org.springframework.context.annotation.Import
+import org.springframework.data.redis.core.StringRedisTemplate
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class ICacheCoherenceServiceImplSpec extends Specification {
+
+    private StringRedisTemplate mockRedisTemplate = Mock(StringRedisTemplate)
+
+    private ApplicationEventPublisher mockEventPublisher = Mock(ApplicationEventPublisher)
+
+    private List<String> sent = []
+
+    private ICacheCoherenceServiceImpl sender = new ICacheCoherenceServiceImpl(mockRedisTemplate, Mock(ApplicationEventPublisher))
+
+    private ICacheCoherenceServiceImpl receiver = new ICacheCoherenceServiceImpl(Mock(StringRedisTemplate), mockEventPublisher)
+
+    def setup() {
+        mockRedisTemplate.convertAndSend("manager-service:cache-invalidation", _) >> { channel, payload -> sent << payload }
+    }
+
+    def "Flush"() {
+        given: '同一批次内的变更事件'
+        sender.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1.0"))
+        sender.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1.0"))
+        sender.onRouteChanged(new RouteChangedEvent(1L, "manager"))
+        sender.onConfigChanged(new ConfigChangedEvent(2L, 3L))
+        sender.onSwaggerChanged(new SwaggerChangedEvent("iam-service", "1.0", true))
+
+        when: '发送'
+        sender.flush()
+
+        then: '合并为一批，重复和远程事件不发送'
+        sent.size() == 1
+        def batch = InvalidationBatch.decode(sent[0])
+        batch.origin == sender.origin
+        batch.sequence == 1L
+        batch.entries*.toString() == ["S:manager-service:1.0", "R:manager:null", "C:3:2"]
+
+        when: '没有变更且未到心跳间隔'
+        sender.flush()
+
+        then: '不发送'
+        sent.size() == 1
+
+        when: '超过心跳间隔'
+        sender.setHeartbeatInterval(0)
+        sender.flush()
+
+        then: '发送sequence不变的心跳'
+        sent.size() == 2
+        InvalidationBatch.decode(sent[1]).heartbeat
+        InvalidationBatch.decode(sent[1]).sequence == 1L
+    }
+
+    def "Receive"() {
+        given: '发送方的第一批消息'
+        sender.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1.0"))
+        sender.onRouteChanged(new RouteChangedEvent(1L, "manager"))
+        sender.onConfigChanged(new ConfigChangedEvent(2L, 3L))
+        sender.flush()
+
+        when: '接收'
+        receiver.receive(sent[0])
+
+        then: '以远程事件在本地重新发布'
+        1 * mockEventPublisher.publishEvent({ it instanceof SwaggerChangedEvent && it.remote && it.service == "manager-service" && it.version == "1.0" })
+        1 * mockEventPublisher.publishEvent({ it instanceof RouteChangedEvent && it.remote && it.name == "manager" })
+        1 * mockEventPublisher.publishEvent({ it instanceof ConfigChangedEvent && it.remote && it.serviceId == 3L && it.configId == 2L })
+
+        when: '重复收到同一批'
+        receiver.receive(sent[0])
+
+        then: '忽略'
+        0 * mockEventPublisher.publishEvent(_)
+
+        when: '收到自己发送的消息'
+        sender.receive(sent[0])
+
+        then: '忽略'
+        0 * mockEventPublisher.publishEvent(_)
+    }
+
+    def "Receive[丢失消息]"() {
+        given: '发送三批，第二批丢失'
+        (1..3).each {
+            sender.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1." + it))
+            sender.flush()
+        }
+        receiver.receive(sent[0])
+
+        when: '收到第三批'
+        receiver.receive(sent[2])
+
+        then: '本地缓存全部失效'
+        1 * mockEventPublisher.publishEvent({ it instanceof RouteChangedEvent && it.remote && it.name == null })
+        1 * mockEventPublisher.publishEvent({ it instanceof ConfigChangedEvent && it.remote && it.serviceId == null })
+        1 * mockEventPublisher.publishEvent({ it instanceof SwaggerChangedEvent && it.remote && it.service == null })
+        0 * mockEventPublisher.publishEvent(_)
+    }
+
+    def "Receive[心跳发现丢失]"() {
+        given: '收到第一批后第二批丢失'
+        sender.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1.0"))
+        sender.flush()
+        receiver.receive(sent[0])
+        sender.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1.1"))
+        sender.flush()
+        sender.setHeartbeatInterval(0)
+        sender.flush()
+
+        when: '收到心跳'
+        receiver.receive(sent[2])
+
+        then: '本地缓存全部失效'
+        3 * mockEventPublisher.publishEvent({ it.remote })
+
+        when: '再次收到相同的心跳'
+        receiver.receive(sent[2])
+
+        then: '不再失效'
+        0 * mockEventPublisher.publishEvent(_)
+    }
+
+    def "Receive[订阅前已发送]"() {
+        given: '订阅之前发送方已发送过一批'
+        (1..2).each {
+            sender.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1." + it))
+            sender.flush()
+        }
+
+        when: '首次收到该发送方的第二批'
+        receiver.receive(sent[1])
+
+        then: '本地缓存全部失效'
+        3 * mockEventPublisher.publishEvent({ it.remote })
+        0 * mockEventPublisher.publishEvent(_)
+
+        when: '另一个接收方首次收到sequence大于0的心跳'
+        def other = new ICacheCoherenceServiceImpl(Mock(StringRedisTemplate), mockEventPublisher)
+        sender.setHeartbeatInterval(0)
+        sender.flush()
+        other.receive(sent[2])
+
+        then: '本地缓存全部失效'
+        3 * mockEventPublisher.publishEvent({ it.remote })
+    }
+
+    def "Receive[首次心跳]"() {
+        given: '发送方尚未发送任何批次'
+        sender.setHeartbeatInterval(0)
+        sender.flush()
+
+        when: '收到sequence为0的心跳'
+        receiver.receive(sent[0])
+
+        then: '不失效'
+        0 * mockEventPublisher.publishEvent(_)
+    }
+
+    def "Receive[格式错误]"() {
+        when: '收到无法解析的消息'
+        receiver.receive("not json")
+
+        then: '本地缓存全部失效'
+        3 * mockEventPublisher.publishEvent({ it.remote })
+    }
+
+    def "Flush[关闭]"() {
+        given: '关闭缓存一致性'
+        sender.setEnabled(false)
+        sender.onSwaggerChanged(new SwaggerChangedEvent("manager-service", "1.0"))
+
+        when: '发送'
+        sender.flush()
+
+        then: '不发送'
+        sent.isEmpty()
+        0 * mockRedisTemplate.convertAndSend(_, _)
+    }
+}
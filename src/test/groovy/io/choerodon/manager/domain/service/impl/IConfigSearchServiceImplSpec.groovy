@@ -0,0 +1,126 @@
+package io.choerodon.manager.domain.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.api.dto.ConfigDTO
+import io.choerodon.manager.domain.manager.event.ConfigChangedEvent
+import io.choerodon.manager.domain.repository.ConfigRepository
+import io.choerodon.manager.domain.repository.ServiceRepository
+import io.choerodon.manager.infra.dataobject.ConfigDO
+import io.choerodon.manager.infra.dataobject.ServiceDO
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class IConfigSearchServiceImplSpec extends Specification {
+
+    private ConfigRepository mockConfigRepository = Mock(ConfigRepository)
+
+    private ServiceRepository mockServiceRepository = Mock(ServiceRepository)
+
+    private IConfigSearchServiceImpl configSearchService
+
+    def setup() {
+        configSearchService = new IConfigSearchServiceImpl(mockConfigRepository, mockServiceRepository)
+        def service = new ServiceDO()
+        service.setId(1L)
+        service.setName("iam-service")
+        mockServiceRepository.getAllService() >> [service]
+    }
+
+    private static ConfigDTO configDTO(Long id, String version, Map<String, Object> value) {
+        def configDTO = new ConfigDTO()
+        configDTO.setId(id)
+        configDTO.setServiceId(1L)
+        configDTO.setConfigVersion(version)
+        configDTO.setValue(value)
+        return configDTO
+    }
+
+    def "search"() {
+        given: '准备配置'
+        def configs = [configDTO(1L, "v1", ["spring.datasource.url": "jdbc:mysql://db-host:3306/iam", "server.port": 8030]),
+                       configDTO(2L, "v2", ["spring.datasource.url": "jdbc:mysql://localhost:3306/iam"])]
+
+        when: '按key和value检索'
+        def result = configSearchService.search("datasource.url", "db-host")
+
+        then: '只加载一次并命中对应配置项'
+        1 * mockConfigRepository.listAll() >> configs
+        result.size() == 1
+        result.get(0).serviceName == "iam-service"
+        result.get(0).configVersion == "v1"
+        result.get(0).key == "spring.datasource.url"
+
+        when: '只按key检索'
+        result = configSearchService.search("spring.datasource.url", null)
+
+        then: '命中两个配置'
+        0 * mockConfigRepository.listAll()
+        result*.configVersion == ["v1", "v2"]
+
+        when: '检索不存在的词'
+        result = configSearchService.search(null, "not-exist")
+
+        then: '结果为空'
+        result.isEmpty()
+    }
+
+    def "onConfigChanged"() {
+        given: '构建索引'
+        mockConfigRepository.listAll() >> [configDTO(1L, "v1", ["server.port": 8030])]
+        configSearchService.search("server.port", null)
+        def updated = new ConfigDO()
+        updated.setId(1L)
+        updated.setServiceId(1L)
+        updated.setConfigVersion("v1")
+        updated.setValue('{"server.port":9090}')
+
+        when: '配置更新'
+        configSearchService.onConfigChanged(new ConfigChangedEvent(1L, 1L))
+
+        then: '索引使用新的值'
+        1 * mockConfigRepository.query(1L) >> updated
+        configSearchService.search("server.port", "8030").isEmpty()
+        configSearchService.search("server.port", "9090").size() == 1
+
+        when: '配置删除'
+        configSearchService.onConfigChanged(new ConfigChangedEvent(1L, 1L))
+
+        then: '索引中移除'
+        1 * mockConfigRepository.query(1L) >> null
+        configSearchService.search("server.port", null).isEmpty()
+    }
+
+    def "onConfigChanged[索引未构建]"() {
+        when: '索引构建前收到配置变更'
+        configSearchService.onConfigChanged(new ConfigChangedEvent(1L, 1L))
+        def result = configSearchService.search("server.port", null)
+
+        then: '不读取变更的配置，检索时完整构建'
+        0 * mockConfigRepository.query(_)
+        1 * mockConfigRepository.listAll() >> [configDTO(1L, "v1", ["server.port": 8030])]
+        result.size() == 1
+    }
+
+    def "onConfigChanged[未知配置]"() {
+        given: '构建索引'
+        mockConfigRepository.listAll() >> [configDTO(1L, "v1", ["server.port": 8030])]
+        configSearchService.search("server.port", null)
+
+        when: '收到不带配置id的远程事件'
+        configSearchService.onConfigChanged(new ConfigChangedEvent(null, null, true))
+        def result = configSearchService.search("server.port", null)
+
+        then: '丢弃索引，下次检索时重新构建'
+        0 * mockConfigRepository.query(_)
+        1 * mockConfigRepository.listAll() >> [configDTO(1L, "v1", ["server.port": 8030])]
+        result.size() == 1
+    }
+}
@@ -0,0 +1,147 @@
+package io.choerodon.manager.domain.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.api.dto.ConfigDTO
+import io.choerodon.manager.domain.manager.entity.RouteE
+import io.choerodon.manager.domain.manager.event.ConfigChangedEvent
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent
+import io.choerodon.manager.domain.repository.ConfigRepository
+import io.choerodon.manager.domain.repository.RouteRepository
+import io.choerodon.manager.infra.common.utils.GatewayProperties
+import io.choerodon.manager.infra.dataobject.ConfigDO
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class IConfigSnapshotServiceImplSpec extends Specification {
+
+    private ConfigRepository mockConfigRepository = Mock(ConfigRepository)
+
+    private RouteRepository mockRouteRepository = Mock(RouteRepository)
+
+    private IConfigSnapshotServiceImpl configSnapshotService
+
+    def setup() {
+        configSnapshotService = new IConfigSnapshotServiceImpl(mockConfigRepository, mockRouteRepository, new GatewayProperties(), new ILocalSnapshotServiceImpl())
+    }
+
+    private static ConfigDTO configDTO(Long serviceId, Map<String, Object> value) {
+        def configDTO = new ConfigDTO()
+        configDTO.setId(1L)
+        configDTO.setServiceId(serviceId)
+        configDTO.setConfigVersion("v1")
+        configDTO.setObjectVersionNumber(1L)
+        configDTO.setValue(value)
+        return configDTO
+    }
+
+    def "queryDefault"() {
+        given: '构造默认配置'
+        def value = new HashMap<String, Object>()
+        value.put("spring.application.name", "test-service")
+        value.put("eureka.client.enabled", true)
+        value.put("a.b", 1)
+
+        when: '连续查询两次'
+        def first = configSnapshotService.queryDefault("test-service")
+        def second = configSnapshotService.queryDefault("test-service")
+
+        then: '只查询一次数据库，key有序且文本已预先渲染'
+        1 * mockConfigRepository.queryDefaultByServiceName("test-service") >> configDTO(1L, value)
+        0 * mockRouteRepository.getAllRoute()
+        first.is(second)
+        first.size() == 3
+        first.keyAt(0) == "a.b"
+        first.get("eureka.client.enabled") == true
+        first.get("not.exist") == null
+        new String(first.getText("properties"), StandardCharsets.UTF_8).contains("spring.application.name=test-service")
+        new String(first.getText("yaml"), StandardCharsets.UTF_8).contains("test-service")
+    }
+
+    def "queryDefault[NotExist]"() {
+        when: '查询两次没有默认配置的服务'
+        def snapshot = configSnapshotService.queryDefault("none")
+        def again = configSnapshotService.queryDefault("none")
+
+        then: '返回null且不缓存'
+        2 * mockConfigRepository.queryDefaultByServiceName("none") >> null
+        snapshot == null
+        again == null
+    }
+
+    def "queryDefault[gateway]"() {
+        given: '构造路由'
+        def routeE = new RouteE()
+        routeE.setName("iam")
+        routeE.setPath("/iam/**")
+        routeE.setServiceId("iam-service")
+
+        when: '查询网关服务快照'
+        def snapshot = configSnapshotService.queryDefault("api-gateway")
+
+        then: '包含zuul路由配置'
+        1 * mockConfigRepository.queryDefaultByServiceName("api-gateway") >> configDTO(2L, new HashMap<String, Object>())
+        1 * mockRouteRepository.getAllRoute() >> [routeE]
+        snapshot.get("zuul.routes.iam.path") == "/iam/**"
+        snapshot.get("zuul.routes.iam.serviceId") == "iam-service"
+    }
+
+    def "evict"() {
+        given: '缓存两个服务的快照'
+        mockConfigRepository.queryDefaultByServiceName("test-service") >> configDTO(1L, ["a": "b"])
+        mockConfigRepository.queryDefaultByServiceName("api-gateway") >> configDTO(2L, ["c": "d"])
+        mockRouteRepository.getAllRoute() >> []
+        def service = configSnapshotService.queryDefault("test-service")
+        def gateway = configSnapshotService.queryDefault("api-gateway")
+
+        when: '配置变更'
+        configSnapshotService.onConfigChanged(new ConfigChangedEvent(1L, 1L))
+
+        then: '只有对应服务的快照失效'
+        !configSnapshotService.queryDefault("test-service").is(service)
+        configSnapshotService.queryDefault("api-gateway").is(gateway)
+
+        when: '路由变更'
+        configSnapshotService.onRouteChanged(new RouteChangedEvent(1L, "iam"))
+
+        then: '网关服务的快照失效'
+        !configSnapshotService.queryDefault("api-gateway").is(gateway)
+    }
+
+    def "queryDefault[本地检查点]"() {
+        given: '启用本地检查点'
+        def snapshotService = new ILocalSnapshotServiceImpl()
+        snapshotService.setEnabled(true)
+        configSnapshotService = new IConfigSnapshotServiceImpl(mockConfigRepository, mockRouteRepository, new GatewayProperties(), snapshotService)
+        def version = new ConfigDO(id: 1L, objectVersionNumber: 1L)
+
+        when: '构建快照后失效'
+        def first = configSnapshotService.queryDefault("test-service")
+        configSnapshotService.evictByServiceId(1L)
+        def restored = configSnapshotService.queryDefault("test-service")
+
+        then: '配置版本号未变化时从检查点还原，不读取配置内容'
+        2 * mockConfigRepository.queryDefaultVersionByServiceName("test-service") >> version
+        1 * mockConfigRepository.queryDefaultByServiceName("test-service") >> configDTO(1L, ["a.b": 1])
+        !restored.is(first)
+        restored.toMap() == first.toMap()
+        restored.getYaml() == first.getYaml()
+
+        when: '配置已更新'
+        configSnapshotService.evictByServiceId(1L)
+        configSnapshotService.queryDefault("test-service")
+
+        then: '重新构建'
+        1 * mockConfigRepository.queryDefaultVersionByServiceName("test-service") >> new ConfigDO(id: 1L, objectVersionNumber: 2L)
+        1 * mockConfigRepository.queryDefaultByServiceName("test-service") >> configDTO(1L, ["a.b": 2])
+    }
+}
@@ -0,0 +1,69 @@
+package io.choerodon.manager.domain.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.infra.mapper.SwaggerMapper
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class IDefaultVersionCatalogSpec extends Specification {
+
+    private SwaggerMapper mockSwaggerMapper = Mock(SwaggerMapper)
+
+    private IDefaultVersionCatalog versionCatalog = new IDefaultVersionCatalog(mockSwaggerMapper)
+
+    def "Register"() {
+        when: '连续登记'
+        def patch = versionCatalog.register("manager", "0.10.1")
+        def major = versionCatalog.register("manager", "1.0.1")
+        def snapshot = versionCatalog.register("manager", "1.0.1-SNAPSHOT")
+
+        then: '只查询一次数据库，按语义化版本判断是否为最新版本'
+        1 * mockSwaggerMapper.selectVersions("manager") >> ["0.9.0", "null_version", "0.10.0", "0.10.0-SNAPSHOT", "1.0"]
+        !patch
+        major
+        !snapshot
+    }
+
+    def "Register[null_version]"() {
+        given: '只存储了null_version和无法解析的版本'
+        mockSwaggerMapper.selectVersions("manager") >> ["null_version", "master"]
+
+        expect: '语义化版本高于null_version和无法解析的版本'
+        versionCatalog.register("manager", "0.1.0")
+        !versionCatalog.register("manager", "develop")
+    }
+
+    def "Register[重复登记]"() {
+        given: '已存储的版本'
+        mockSwaggerMapper.selectVersions("manager") >> ["0.9.0"]
+
+        expect: '返回登记后是否为最新版本'
+        versionCatalog.register("manager", "0.10.0")
+        !versionCatalog.register("manager", "0.9.1")
+        versionCatalog.register("manager", "0.10.0")
+    }
+
+    def "Evict"() {
+        when: '丢弃后再次登记'
+        versionCatalog.register("manager", "0.10.0")
+        versionCatalog.evict("manager")
+        def latest = versionCatalog.register("manager", "0.10.0")
+
+        then: '重新从数据库加载'
+        2 * mockSwaggerMapper.selectVersions("manager") >>> [["0.9.0"], ["0.9.0", "0.11.0"]]
+        !latest
+    }
+
+    def "Register[没有版本]"() {
+        expect: '结果验证'
+        versionCatalog.register("unknown", "0.1.0")
+    }
+}
@@ -34,6 +34,9 @@ class IDefaultVersionStrategySpec extends Specification {
         "version"     | ""            || 1
         "testversion" | "version"     || 1
         "version"     | "testversion" || 1
-
+        "0.10.0"      | "0.9.0"       || 1
+        "0.9.0"       | "0.10.0"      || -1
+        "1.0.0"       | "1.0.0-RC1"   || 1
+        "2.0"         | "1.10.3"      || 1
     }
 }
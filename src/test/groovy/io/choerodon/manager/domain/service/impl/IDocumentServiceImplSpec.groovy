@@ -2,7 +2,10 @@ package io.choerodon.manager.domain.service.impl
 
 import com.netflix.appinfo.InstanceInfo
 import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.domain.manager.entity.RouteE
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent
 import io.choerodon.manager.domain.service.IRouteService
+import io.choerodon.manager.domain.service.VersionCatalog
 import io.choerodon.manager.infra.dataobject.SwaggerDO
 import io.choerodon.manager.infra.mapper.SwaggerMapper
 import org.springframework.beans.factory.annotation.Autowired
@@ -39,7 +42,9 @@ class IDocumentServiceImplSpec extends Specification {
     private IRouteService mockIRouteService = Mock(IRouteService)
 
     def setup() {
-        iDocumentService = new IDocumentServiceImpl(mockSwaggerMapper, mockDiscoveryClient, mockIRouteService)
+        iDocumentService = new IDocumentServiceImpl(mockSwaggerMapper, mockDiscoveryClient, mockIRouteService, Mock(VersionCatalog),
+                new ISwaggerStorageServiceImpl(mockSwaggerMapper, new ILocalLeaseService()), new ILocalSnapshotServiceImpl(),
+                new IOffHeapDocumentServiceImpl())
         iDocumentService.setRestTemplate(restTemplate)
         iDocumentService.setProfiles("default")
         iDocumentService.setClient("client")
@@ -173,4 +178,148 @@ class IDocumentServiceImplSpec extends Specification {
         noExceptionThrown()
     }
 
+    def "queryApiCounts"() {
+        given: '一条已统计和一条未统计的文档'
+        iDocumentService.setProfiles("sit")
+        def counted = new SwaggerDO(id: 1L, serviceName: "iam-service", serviceVersion: "1.0", apiCount: 12)
+        def uncounted = new SwaggerDO(id: 2L, serviceName: "manager-service", serviceVersion: "1.0")
+        def file = new File(this.class.getResource('/swagger.json').toURI())
+        def data = new SwaggerDO(id: 2L, serviceName: "manager-service", serviceVersion: "1.0", value: file.getText('UTF-8'))
+
+        when: '调用方法'
+        def counts = iDocumentService.queryApiCounts()
+
+        then: '未统计的文档补齐后回写'
+        1 * mockSwaggerMapper.selectApiCounts() >> [counted, uncounted]
+        1 * mockSwaggerMapper.selectByPrimaryKey(2L) >> data
+        1 * mockSwaggerMapper.updateApiCount(2L, 25)
+        counts == ["iam-service:1.0": 12, "manager-service:1.0": 25]
+
+        when: 'default环境'
+        iDocumentService.setProfiles("default")
+        counts = iDocumentService.queryApiCounts()
+
+        then: '不读取表中统计'
+        0 * mockSwaggerMapper.selectApiCounts()
+        counts.isEmpty()
+    }
+
+    def "queryDocumentEtag"() {
+        given: '已存储的文档和运行中的路由'
+        iDocumentService.setProfiles("sit")
+        def stored = new SwaggerDO(id: 1L)
+        stored.setObjectVersionNumber(3L)
+        def route = new RouteE()
+        route.setPath("/manager/**")
+        mockIRouteService.getRouteFromRunningInstancesMap(_, "manager", "1.0") >> route
+
+        when: '连续计算两次'
+        def etag = iDocumentService.queryDocumentEtag("manager-service", "manager", "1.0")
+        def same = iDocumentService.queryDocumentEtag("manager-service", "manager", "1.0")
+
+        then: 'ETag稳定且不读取文档内容'
+        2 * mockSwaggerMapper.selectStoredVersion("manager-service", "1.0") >> stored
+        0 * mockSwaggerMapper.selectOne(_)
+        etag == same
+        etag.startsWith('"') && etag.endsWith('"')
+
+        when: '文档更新后版本号变化'
+        stored.setObjectVersionNumber(4L)
+        def changed = iDocumentService.queryDocumentEtag("manager-service", "manager", "1.0")
+
+        then: 'ETag变化'
+        1 * mockSwaggerMapper.selectStoredVersion("manager-service", "1.0") >> stored
+        changed != etag
+
+        when: '文档未存储'
+        def missing = iDocumentService.queryDocumentEtag("manager-service", "manager", "1.0")
+
+        then: '无法计算ETag'
+        1 * mockSwaggerMapper.selectStoredVersion("manager-service", "1.0") >> null
+        missing == null
+
+        when: 'default环境'
+        iDocumentService.setProfiles("default")
+        def live = iDocumentService.queryDocumentEtag("manager-service", "manager", "1.0")
+
+        then: '文档总是实时获取，不计算ETag'
+        0 * mockSwaggerMapper.selectStoredVersion(_, _)
+        live == null
+    }
+
+    def "materializeExpandedDocument"() {
+        given: '已存储的文档和运行中的路由'
+        iDocumentService.setProfiles("sit")
+        iDocumentService.swaggerLocal = false
+        def file = new File(this.class.getResource('/swagger.json').toURI())
+        def stored = new SwaggerDO(id: 1L, serviceName: "manager-service", serviceVersion: "1.0", value: file.getText('UTF-8'))
+        stored.setObjectVersionNumber(1L)
+        def route = new RouteE()
+        route.setName("manager")
+        route.setPath("/manager/**")
+        mockIRouteService.getRouteFromRunningInstancesMap(_, "manager", "1.0") >> route
+        mockSwaggerMapper.selectStoredVersion("manager-service", "1.0") >> stored
+
+        when: '生成扩展后的文档'
+        def response = iDocumentService.materializeExpandedDocument("manager-service", "manager", "1.0")
+
+        then: '保存结果，ETag与按版本号计算的一致'
+        1 * mockSwaggerMapper.selectOne(_) >> stored
+        new String(response.getBody(), "UTF-8").contains('"basePath":"/manager"')
+        response.getEtag() == iDocumentService.queryDocumentEtag("manager-service", "manager", "1.0")
+        iDocumentService.getExpandedDocument("manager", "1.0").is(response)
+
+        when: '服务实例上下线'
+        iDocumentService.evictExpandedDocuments("MANAGER-SERVICE")
+
+        then: '扩展后的文档失效'
+        iDocumentService.getExpandedDocument("manager", "1.0") == null
+
+        when: '重新生成后路由变更'
+        iDocumentService.materializeExpandedDocument("manager-service", "manager", "1.0")
+        iDocumentService.onRouteChanged(new RouteChangedEvent(1L, "manager"))
+
+        then: '扩展后的文档失效'
+        1 * mockSwaggerMapper.selectOne(_) >> stored
+        iDocumentService.getExpandedDocument("manager", "1.0") == null
+    }
+
+    def "querySummary[本地检查点]"() {
+        given: '启用本地检查点'
+        def snapshotService = new ILocalSnapshotServiceImpl()
+        snapshotService.setEnabled(true)
+        iDocumentService = new IDocumentServiceImpl(mockSwaggerMapper, mockDiscoveryClient, mockIRouteService, Mock(VersionCatalog),
+                new ISwaggerStorageServiceImpl(mockSwaggerMapper, new ILocalLeaseService()), snapshotService,
+                new IOffHeapDocumentServiceImpl())
+        iDocumentService.setProfiles("sit")
+        def file = new File(this.class.getResource('/swagger.json').toURI())
+        def stored = new SwaggerDO(id: 1L, objectVersionNumber: 1L, serviceName: "manager-service",
+                serviceVersion: "1.0", value: file.getText('UTF-8'))
+
+        when: '第一次读取'
+        def summary = iDocumentService.querySummary("manager-service", "1.0")
+
+        then: '读取文档并生成摘要'
+        1 * mockSwaggerMapper.selectStoredVersion("manager-service", "1.0") >> stored
+        1 * mockSwaggerMapper.selectOne(_) >> stored
+        summary.apiCount == 25
+
+        when: '文档版本号未变化'
+        def cached = iDocumentService.querySummary("manager-service", "1.0")
+
+        then: '不读取文档内容'
+        1 * mockSwaggerMapper.selectStoredVersion("manager-service", "1.0") >> stored
+        0 * mockSwaggerMapper.selectOne(_)
+        cached.apiCount == summary.apiCount
+        cached.operations*.operationId == summary.operations*.operationId
+        cached.tags == summary.tags
+
+        when: '文档已更新'
+        def updated = iDocumentService.querySummary("manager-service", "1.0")
+
+        then: '重新生成摘要'
+        1 * mockSwaggerMapper.selectStoredVersion("manager-service", "1.0") >> new SwaggerDO(id: 1L, objectVersionNumber: 2L)
+        1 * mockSwaggerMapper.selectOne(_) >> stored
+        updated.apiCount == summary.apiCount
+    }
 }
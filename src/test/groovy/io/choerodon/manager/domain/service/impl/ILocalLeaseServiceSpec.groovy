@@ -0,0 +1,76 @@
+package io.choerodon.manager.domain.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.domain.service.LeaseService
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class ILocalLeaseServiceSpec extends Specification {
+
+    private ILocalLeaseService leaseService = new ILocalLeaseService()
+
+    def "TryAcquire"() {
+        when: '获取租约'
+        def token = leaseService.tryAcquire("manager-service:1.0", 60000)
+
+        then: '同一时间只有一个持有者'
+        token != null
+        leaseService.tryAcquire("manager-service:1.0", 60000) == null
+        leaseService.tryAcquire("iam-service:1.0", 60000) != null
+        leaseService.getState("manager-service:1.0") == LeaseService.State.HELD
+
+        when: '非持有者完成或释放'
+        def completed = leaseService.complete("manager-service:1.0", "other", 60000)
+        def released = leaseService.release("manager-service:1.0", "other")
+
+        then: '租约不变'
+        !completed
+        !released
+        leaseService.getState("manager-service:1.0") == LeaseService.State.HELD
+
+        when: '持有者完成'
+        completed = leaseService.complete("manager-service:1.0", token, 60000)
+
+        then: '保留时间内不能再次获取'
+        completed
+        leaseService.getState("manager-service:1.0") == LeaseService.State.COMPLETED
+        leaseService.tryAcquire("manager-service:1.0", 60000) == null
+        !leaseService.release("manager-service:1.0", token)
+    }
+
+    def "Release"() {
+        given: '获取租约'
+        def token = leaseService.tryAcquire("manager-service:1.0", 60000)
+
+        when: '持有者释放'
+        def released = leaseService.release("manager-service:1.0", token)
+
+        then: '其他副本可立即获取'
+        released
+        leaseService.getState("manager-service:1.0") == LeaseService.State.ABSENT
+        leaseService.tryAcquire("manager-service:1.0", 60000) != null
+    }
+
+    def "TryAcquire[租约过期]"() {
+        given: '持有者获取租约后不再响应'
+        def token = leaseService.tryAcquire("manager-service:1.0", 50)
+
+        when: '超过有效期'
+        Thread.sleep(100)
+
+        then: '租约失效，其他副本可获取，原持有者不能再完成'
+        leaseService.getState("manager-service:1.0") == LeaseService.State.ABSENT
+        def other = leaseService.tryAcquire("manager-service:1.0", 60000)
+        other != null
+        !leaseService.complete("manager-service:1.0", token, 60000)
+        leaseService.complete("manager-service:1.0", other, 60000)
+    }
+}
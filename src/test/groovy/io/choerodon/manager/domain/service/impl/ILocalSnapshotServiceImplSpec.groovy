@@ -0,0 +1,133 @@
+package io.choerodon.manager.domain.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.domain.manager.entity.ConfigSnapshot
+import io.choerodon.manager.domain.manager.entity.SwaggerSummary
+import io.choerodon.manager.infra.common.utils.SwaggerUtil
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class ILocalSnapshotServiceImplSpec extends Specification {
+
+    private File dir = File.createTempDir()
+
+    private File file = new File(dir, "manager-service.snapshot")
+
+    def cleanup() {
+        dir.deleteDir()
+    }
+
+    def open() {
+        def service = new ILocalSnapshotServiceImpl()
+        service.setEnabled(true)
+        service.setPath(file.getPath())
+        service.load()
+        return service
+    }
+
+    def text(ByteBuffer buffer) {
+        return buffer == null ? null : StandardCharsets.UTF_8.decode(buffer).toString()
+    }
+
+    def "Checkpoint"() {
+        given: '写入两项并生成检查点'
+        def service = open()
+        service.write("swagger-summary:manager-service:1.0", "1:1", "summary".getBytes("UTF-8"))
+        service.write("config-snapshot:manager-service", "2:3", "config".getBytes("UTF-8"))
+        service.checkpoint()
+
+        when: '重启后映射文件'
+        def restarted = open()
+
+        then: '标签一致的项直接复用'
+        file.exists()
+        text(restarted.read("swagger-summary:manager-service:1.0", "1:1")) == "summary"
+        text(restarted.read("swagger-summary:manager-service:1.0", "1:1")) == "summary"
+
+        and: '标签不一致的项丢弃'
+        restarted.read("config-snapshot:manager-service", "2:4") == null
+        restarted.read("config-snapshot:manager-service", "2:3") == null
+
+        when: '再次生成检查点后重启'
+        restarted.checkpoint()
+        def again = open()
+
+        then: '只保留有效项'
+        text(again.read("swagger-summary:manager-service:1.0", "1:1")) == "summary"
+        again.read("config-snapshot:manager-service", "2:3") == null
+    }
+
+    def "Load[文件损坏]"() {
+        given: '生成检查点后修改文件内容'
+        def service = open()
+        service.write("swagger-summary:manager-service:1.0", "1:1", "summary".getBytes("UTF-8"))
+        service.checkpoint()
+        def bytes = file.bytes
+        bytes[bytes.length - 1] = (byte) (bytes[bytes.length - 1] + 1)
+        file.bytes = bytes
+
+        when: '重启后映射文件'
+        def restarted = open()
+
+        then: '校验和不一致，忽略整个文件'
+        restarted.read("swagger-summary:manager-service:1.0", "1:1") == null
+    }
+
+    def "Disabled"() {
+        given: '关闭本地检查点'
+        def service = new ILocalSnapshotServiceImpl()
+        service.setPath(file.getPath())
+
+        when: '写入并生成检查点'
+        service.write("swagger-summary:manager-service:1.0", "1:1", "summary".getBytes("UTF-8"))
+        service.checkpoint()
+
+        then: '不读写文件'
+        !service.isEnabled()
+        !file.exists()
+        service.read("swagger-summary:manager-service:1.0", "1:1") == null
+    }
+
+    def "Encode[SwaggerSummary]"() {
+        given: '参数准备'
+        def json = new File(this.class.getResource('/swagger.json').toURI()).getText('UTF-8')
+        def summary = SwaggerUtil.summarize("manager-service", json)
+
+        when: '序列化后还原'
+        def decoded = SwaggerSummary.decode(ByteBuffer.wrap(summary.encode()))
+
+        then: '内容一致'
+        decoded.apiCount == summary.apiCount
+        decoded.tags == summary.tags
+        decoded.operations*.toString() == summary.operations*.toString()
+        decoded.operations*.hasDescription == summary.operations*.hasDescription
+    }
+
+    def "Encode[ConfigSnapshot]"() {
+        given: '参数准备'
+        def snapshot = ConfigSnapshot.of("manager-service", 1L, 2L, "1.0", 3L,
+                ["spring.application.name": "manager-service", "server.port": 8963, "eureka.enabled": true])
+
+        when: '序列化后还原'
+        def decoded = ConfigSnapshot.decode("manager-service", ByteBuffer.wrap(snapshot.encode()))
+
+        then: '配置项和预先渲染的文本一致'
+        decoded.toMap() == snapshot.toMap()
+        decoded.get("server.port") == 8963
+        decoded.getYaml() == snapshot.getYaml()
+        decoded.getProperties() == snapshot.getProperties()
+        decoded.getObjectVersionNumber() == 3L
+        decoded.getConfigVersion() == "1.0"
+    }
+}
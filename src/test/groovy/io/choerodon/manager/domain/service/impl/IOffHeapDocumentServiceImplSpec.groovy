@@ -0,0 +1,134 @@
+package io.choerodon.manager.domain.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.domain.manager.entity.OffHeapResponse
+import io.choerodon.manager.domain.manager.entity.SerializedResponse
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class IOffHeapDocumentServiceImplSpec extends Specification {
+
+    private IOffHeapDocumentServiceImpl offHeapDocumentService = new IOffHeapDocumentServiceImpl()
+
+    def document(String basePath) {
+        return new SerializedResponse(('{"swagger":"2.0","basePath":"' + basePath + '"}').getBytes("UTF-8"), '"' + basePath + '"')
+    }
+
+    def "Put"() {
+        given: '参数准备'
+        def response = document("/manager")
+
+        when: '保存文档'
+        def stored = offHeapDocumentService.put("manager:1.0", "manager-service", response)
+
+        then: '复制到堆外，内容一致'
+        stored instanceof OffHeapResponse
+        stored.bodyBuffer.isDirect()
+        stored.body == response.body
+        stored.gzipBody == response.gzipBody
+        stored.etag == response.etag
+        offHeapDocumentService.get("manager:1.0").is(stored)
+        offHeapDocumentService.getUsed() == ((OffHeapResponse) stored).size()
+
+        when: '覆盖同一个key'
+        def replaced = offHeapDocumentService.put("manager:1.0", "manager-service", document("/manager-v2"))
+
+        then: '已用容量只统计新文档'
+        offHeapDocumentService.get("manager:1.0").is(replaced)
+        offHeapDocumentService.getUsed() == ((OffHeapResponse) replaced).size()
+    }
+
+    def "Put[容量不足]"() {
+        given: '容量只能容纳两个文档'
+        def iamSize = OffHeapResponse.copyOf(document("/iam")).size()
+        def apiSize = OffHeapResponse.copyOf(document("/api")).size()
+        def orgSize = OffHeapResponse.copyOf(document("/org")).size()
+        offHeapDocumentService.setCapacity(iamSize + Math.max(apiSize, orgSize))
+        offHeapDocumentService.put("iam:1.0", "iam-service", document("/iam"))
+        offHeapDocumentService.put("api:1.0", "api-service", document("/api"))
+
+        when: '访问iam后保存第三个文档'
+        offHeapDocumentService.get("iam:1.0")
+        offHeapDocumentService.put("org:1.0", "org-service", document("/org"))
+
+        then: '淘汰最久未访问的文档'
+        offHeapDocumentService.get("iam:1.0") != null
+        offHeapDocumentService.get("api:1.0") == null
+        offHeapDocumentService.get("org:1.0") != null
+        offHeapDocumentService.getUsed() == iamSize + orgSize
+
+        when: '保存大于总容量的文档'
+        def stored = offHeapDocumentService.put("manager:1.0", "manager-service", document("/manager" + "-service" * 100))
+
+        then: '不保存，已有文档不受影响'
+        stored == null
+        offHeapDocumentService.get("manager:1.0") == null
+        offHeapDocumentService.get("iam:1.0") != null
+    }
+
+    def "EvictService"() {
+        given: '参数准备'
+        offHeapDocumentService.put("manager:1.0", "manager-service", document("/manager"))
+        offHeapDocumentService.put("manager:1.1", "manager-service", document("/manager"))
+        def iam = offHeapDocumentService.put("iam:1.0", "iam-service", document("/iam"))
+
+        when: '使服务的文档失效'
+        offHeapDocumentService.evictService("MANAGER-SERVICE")
+
+        then: '只移除该服务的文档'
+        offHeapDocumentService.get("manager:1.0") == null
+        offHeapDocumentService.get("manager:1.1") == null
+        offHeapDocumentService.get("iam:1.0").is(iam)
+        offHeapDocumentService.getUsed() == ((OffHeapResponse) iam).size()
+
+        when: '全部失效'
+        offHeapDocumentService.clear()
+
+        then: '已用容量归零'
+        offHeapDocumentService.get("iam:1.0") == null
+        offHeapDocumentService.getUsed() == 0
+    }
+
+    def "Put[生成期间失效]"() {
+        given: '开始生成文档前记录代数'
+        def generation = offHeapDocumentService.getGeneration()
+        def response = document("/manager")
+
+        when: '生成期间服务的文档失效'
+        offHeapDocumentService.evictService("manager-service")
+        def stored = offHeapDocumentService.put("manager:1.0", "manager-service", response, generation)
+
+        then: '不保存过期的文档'
+        stored.is(response)
+        offHeapDocumentService.get("manager:1.0") == null
+        offHeapDocumentService.getUsed() == 0
+
+        when: '代数一致'
+        stored = offHeapDocumentService.put("manager:1.0", "manager-service", response, offHeapDocumentService.getGeneration())
+
+        then: '保存'
+        offHeapDocumentService.get("manager:1.0").is(stored)
+    }
+
+    def "Put[堆上]"() {
+        given: '容量小于等于0'
+        offHeapDocumentService.setCapacity(0)
+        def response = document("/manager")
+
+        when: '保存文档'
+        def stored = offHeapDocumentService.put("manager:1.0", "manager-service", response)
+
+        then: '直接保存堆上的文档'
+        stored.is(response)
+        offHeapDocumentService.get("manager:1.0").is(response)
+        offHeapDocumentService.getUsed() == 0
+    }
+}
@@ -0,0 +1,145 @@
+package io.choerodon.manager.domain.service.impl
+
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.domain.service.LeaseService
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory
+import org.springframework.data.redis.core.StringRedisTemplate
+import redis.embedded.RedisServer
+import spock.lang.Shared
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * 在嵌入式redis上执行租约的lua脚本
+ *
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class IRedisLeaseServiceSpec extends Specification {
+
+    @Shared
+    private RedisServer redisServer
+
+    @Shared
+    private JedisConnectionFactory connectionFactory
+
+    @Shared
+    private StringRedisTemplate redisTemplate
+
+    private IRedisLeaseService leaseService
+
+    def setupSpec() {
+        int port = new ServerSocket(0).withCloseable { it.localPort }
+        redisServer = new RedisServer(port)
+        redisServer.start()
+        connectionFactory = new JedisConnectionFactory()
+        connectionFactory.setHostName("localhost")
+        connectionFactory.setPort(port)
+        connectionFactory.afterPropertiesSet()
+        redisTemplate = new StringRedisTemplate(connectionFactory)
+    }
+
+    def cleanupSpec() {
+        connectionFactory?.destroy()
+        redisServer?.stop()
+    }
+
+    def setup() {
+        leaseService = new IRedisLeaseService(redisTemplate)
+        redisTemplate.delete("manager-service:1.0")
+    }
+
+    def "TryAcquire"() {
+        when: '获取租约'
+        def token = leaseService.tryAcquire("manager-service:1.0", 30000)
+
+        then: '返回随机令牌，租约被持有并设置过期时间'
+        token != null
+        redisTemplate.opsForValue().get("manager-service:1.0") == token
+        redisTemplate.getExpire("manager-service:1.0") > 0
+        leaseService.getState("manager-service:1.0") == LeaseService.State.HELD
+
+        when: '再次获取'
+        def second = leaseService.tryAcquire("manager-service:1.0", 30000)
+
+        then: '已被持有，返回null'
+        second == null
+        redisTemplate.opsForValue().get("manager-service:1.0") == token
+    }
+
+    def "TryAcquire[过期]"() {
+        given: '租约已过期'
+        leaseService.tryAcquire("manager-service:1.0", 100)
+        Thread.sleep(300)
+
+        expect: '其他副本可重新获取'
+        leaseService.getState("manager-service:1.0") == LeaseService.State.ABSENT
+        leaseService.tryAcquire("manager-service:1.0", 30000) != null
+    }
+
+    def "Complete"() {
+        given: '持有租约'
+        def token = leaseService.tryAcquire("manager-service:1.0", 30000)
+
+        when: '令牌不一致'
+        def completed = leaseService.complete("manager-service:1.0", "other", 60000)
+
+        then: '不修改'
+        !completed
+        leaseService.getState("manager-service:1.0") == LeaseService.State.HELD
+
+        when: '令牌一致'
+        completed = leaseService.complete("manager-service:1.0", token, 60000)
+
+        then: '写入完成标记，保留时间内不能再获取'
+        completed
+        leaseService.getState("manager-service:1.0") == LeaseService.State.COMPLETED
+        redisTemplate.getExpire("manager-service:1.0") > 30
+        leaseService.tryAcquire("manager-service:1.0", 30000) == null
+
+        when: '已完成后再次完成或释放'
+        def again = leaseService.complete("manager-service:1.0", token, 60000)
+        def released = leaseService.release("manager-service:1.0", token)
+
+        then: '令牌已失效'
+        !again
+        !released
+        leaseService.getState("manager-service:1.0") == LeaseService.State.COMPLETED
+    }
+
+    def "Complete[过期后被他人获取]"() {
+        given: '租约过期后被其他副本获取'
+        def token = leaseService.tryAcquire("manager-service:1.0", 100)
+        Thread.sleep(300)
+        def other = leaseService.tryAcquire("manager-service:1.0", 30000)
+
+        expect: '原持有者不能完成或释放'
+        !leaseService.complete("manager-service:1.0", token, 60000)
+        !leaseService.release("manager-service:1.0", token)
+        redisTemplate.opsForValue().get("manager-service:1.0") == other
+    }
+
+    def "Release"() {
+        given: '持有租约'
+        def token = leaseService.tryAcquire("manager-service:1.0", 30000)
+
+        when: '令牌不一致'
+        def released = leaseService.release("manager-service:1.0", "other")
+
+        then: '不删除'
+        !released
+        leaseService.getState("manager-service:1.0") == LeaseService.State.HELD
+
+        when: '令牌一致'
+        released = leaseService.release("manager-service:1.0", token)
+
+        then: '删除后可立即重新获取'
+        released
+        leaseService.getState("manager-service:1.0") == LeaseService.State.ABSENT
+        leaseService.tryAcquire("manager-service:1.0", 30000) != null
+    }
+}
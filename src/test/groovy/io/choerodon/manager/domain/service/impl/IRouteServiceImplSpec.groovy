@@ -2,16 +2,19 @@ package io.choerodon.manager.domain.service.impl
 
 import io.choerodon.manager.IntegrationTestConfiguration
 import io.choerodon.manager.domain.manager.entity.RouteE
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent
 import io.choerodon.manager.domain.repository.RouteRepository
 import io.choerodon.manager.domain.service.IRouteService
 import io.choerodon.manager.infra.dataobject.RouteDO
 import io.choerodon.mybatis.pagehelper.domain.PageRequest
+import io.choerodon.mybatis.pagehelper.domain.Sort
 import org.apache.commons.collections.map.MultiKeyMap
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.SpringBootTest
 import org.springframework.cloud.client.discovery.DiscoveryClient
 import org.springframework.context.annotation.Import
 import org.springframework.remoting.RemoteAccessException
+import org.springframework.util.AntPathMatcher
 import spock.lang.Specification
 
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
@@ -40,10 +43,33 @@ class IRouteServiceImplSpec extends Specification {
         def pageRequest = new PageRequest(0, 10)
         def params = "params"
 
-        when: "调用创建routeDTO方法"
-        iRouteService.pageAll(pageRequest, routeDO, params)
+        and: "构建路由"
+        def routeE = new RouteE()
+        routeE.setId(1L)
+        routeE.setName("manager")
+        routeE.setPath("/manager/**")
+        routeE.setServiceId("manager-service")
+        def otherRouteE = new RouteE()
+        otherRouteE.setId(2L)
+        otherRouteE.setName("iam")
+        otherRouteE.setPath("/iam/**")
+        otherRouteE.setServiceId("iam-service")
 
-        then: "校验调用次数"
+        when: "调用分页查询方法"
+        def page = iRouteService.pageAll(pageRequest, routeDO, "MANAGER")
+        def emptyPage = iRouteService.pageAll(pageRequest, routeDO, params)
+
+        then: "从路由索引中过滤，只查询一次数据库"
+        1 * mockRouteRepository.getAllRoute() >> [otherRouteE, routeE]
+        0 * _
+        page.getContent()*.name == ["manager"]
+        page.getTotalElements() == 1
+        emptyPage.getContent().isEmpty()
+
+        when: "按索引不支持的字段排序"
+        iRouteService.pageAll(new PageRequest(0, 10, new Sort(Sort.Direction.ASC, "url")), routeDO, params)
+
+        then: "使用数据库分页"
         1 * mockRouteRepository.pageAllRoutes(_ as PageRequest, _ as RouteDO, params)
         0 * _
     }
@@ -142,11 +168,129 @@ class IRouteServiceImplSpec extends Specification {
         given: "构造请求参数"
         def service = "manager"
 
+        def routeE = new RouteE()
+        routeE.setId(1L)
+        routeE.setName("manager")
+        routeE.setPath("/manager/**")
+        routeE.setServiceId(service)
+
         when: "调用QueryRouteByService"
-        iRouteService.queryRouteByService(service)
+        def result = iRouteService.queryRouteByService(service)
 
-        then: "校验调用次数"
-        1 * mockRouteRepository.queryRoute(_ as RouteE)
+        then: "从路由索引中查询"
+        1 * mockRouteRepository.getAllRoute() >> [routeE]
         0 * _
+        result.is(routeE)
+    }
+
+    def "MatchRoute"() {
+        given: "构造路由"
+        def routes = [route(1L, "iam", "/iam/**", "iam-service"),
+                      route(2L, "iam-user", "/iam/v1/users/*", "iam-service"),
+                      route(3L, "api", "/api/{version}/**", "api-service")]
+
+        when: "根据url查找路由"
+        def iam = iRouteService.matchRoute("/iam/v1/roles")
+        def user = iRouteService.matchRoute("/iam/v1/users/1")
+        def api = iRouteService.matchRoute("/api/v2/list")
+        def none = iRouteService.matchRoute("/unknown/v1")
+
+        then: "返回最精确的路由"
+        1 * mockRouteRepository.getAllRoute() >> routes
+        iam.name == "iam"
+        user.name == "iam-user"
+        api.name == "api"
+        none == null
+
+        when: "路由变更后查找"
+        ((IRouteServiceImpl) iRouteService).onRouteChanged(new RouteChangedEvent(2L, "iam-user"))
+        user = iRouteService.matchRoute("/iam/v1/users/1")
+
+        then: "重建索引"
+        1 * mockRouteRepository.getAllRoute() >> [routes[0]]
+        user.name == "iam"
+    }
+
+    def "MatchRoute[构建期间路由变更]"() {
+        given: "构建索引期间路由被修改"
+        def routes = [route(1L, "iam", "/iam/**", "iam-service"),
+                      route(2L, "iam-user", "/iam/v1/users/**", "iam-service")]
+
+        when: "查找"
+        def user = iRouteService.matchRoute("/iam/v1/users/1")
+        def again = iRouteService.matchRoute("/iam/v1/users/1")
+
+        then: "构建前读取的索引只用于本次调用，下次调用重新构建"
+        2 * mockRouteRepository.getAllRoute() >> {
+            ((IRouteServiceImpl) iRouteService).onRouteChanged(new RouteChangedEvent(2L, null, true))
+            return routes
+        } >> [routes[0]]
+        user.name == "iam-user"
+        again.name == "iam"
+    }
+
+    def "MatchRoute[5000 routes]"() {
+        given: "构造5000个路由"
+        def routes = (1..5000).collect { route(it as Long, "route" + it, "/service" + it + "/**", "service" + it) }
+        def matcher = new AntPathMatcher()
+        def urls = (1..5000).collect { "/service" + it + "/v1/items/" + it }
+
+        when: "分别使用索引和线性遍历查找"
+        def indexed = urls.collect { iRouteService.matchRoute(it) }
+        def linear = urls.collect { url -> routes.find { matcher.match(it.path, url) } }
+
+        then: "结果一致"
+        1 * mockRouteRepository.getAllRoute() >> routes
+        indexed*.name == linear*.name
+    }
+
+    def "FindOverlaps"() {
+        given: "构造路由"
+        def routes = [route(1L, "iam", "/iam/**", "iam-service"),
+                      route(2L, "iam-user", "/iam/v1/users/*", "iam-service"),
+                      route(3L, "manager", "/manager/**", "manager-service"),
+                      route(4L, "any-v1", "/*/v1/**", "any-service")]
+
+        when: "检查新路由的重叠"
+        def overlaps = iRouteService.findOverlaps("/iam/v1/**", null)
+
+        then: "返回重叠的路由"
+        1 * mockRouteRepository.getAllRoute() >> routes
+        overlaps.collect { it.route.name + ":" + it.type } ==
+                ["iam:SHADOWED", "iam-user:SHADOWS", "any-v1:SHADOWED"]
+
+        when: "检查已有路由自身"
+        overlaps = iRouteService.findOverlaps("/manager/**", 3L)
+
+        then: "排除自身，只返回部分重叠的路由"
+        overlaps.collect { it.route.name + ":" + it.type } == ["any-v1:OVERLAP"]
+
+        when: "检查重复路径"
+        overlaps = iRouteService.findOverlaps("/iam/**", null)
+
+        then: "返回重复、被覆盖和部分重叠的路由"
+        overlaps.collect { it.route.name + ":" + it.type } ==
+                ["iam:DUPLICATE", "iam-user:SHADOWS", "any-v1:OVERLAP"]
+    }
+
+    def "FindOverlaps[5000 routes]"() {
+        given: "构造5000个路由"
+        def routes = (1..5000).collect { route(it as Long, "route" + it, "/service" + it + "/**", "service" + it) }
+
+        when: "检查每个路由的重叠"
+        def overlaps = routes.collect { iRouteService.findOverlaps(it.path, it.id) }
+
+        then: "没有重叠"
+        1 * mockRouteRepository.getAllRoute() >> routes
+        overlaps.every { it.isEmpty() }
+    }
+
+    private static RouteE route(Long id, String name, String path, String serviceId) {
+        def routeE = new RouteE()
+        routeE.setId(id)
+        routeE.setName(name)
+        routeE.setPath(path)
+        routeE.setServiceId(serviceId)
+        return routeE
     }
 }
@@ -0,0 +1,100 @@
+package io.choerodon.manager.domain.service.impl
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ObjectNode
+import io.choerodon.core.exception.CommonException
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.infra.common.utils.SwaggerFingerprintUtil
+import io.choerodon.manager.infra.dataobject.SwaggerDO
+import io.choerodon.manager.infra.mapper.SwaggerMapper
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class ISwaggerDiffServiceImplSpec extends Specification {
+
+    private SwaggerMapper mockSwaggerMapper = Mock(SwaggerMapper)
+
+    private ISwaggerDiffServiceImpl iSwaggerDiffService = new ISwaggerDiffServiceImpl(mockSwaggerMapper, new ISwaggerStorageServiceImpl(mockSwaggerMapper, new ILocalLeaseService()))
+
+    def mapper = new ObjectMapper()
+
+    def json = new File(this.class.getResource('/swagger.json').toURI()).getText('UTF-8')
+
+    def "Diff"() {
+        given: '新版本修改了SwaggerResource，删除一个接口，新增一个接口'
+        def node = mapper.readTree(json)
+        ((ObjectNode) node.get("definitions").get("SwaggerResource").get("properties"))
+                .putObject("url").put("type", "string")
+        ((ObjectNode) node.get("paths")).remove("/v1/configs/check")
+        ((ObjectNode) node.get("paths")).putObject("/v1/new").putObject("get").put("operationId", "newUsingGET")
+        def newJson = mapper.writeValueAsString(node)
+        mockSwaggerMapper.selectStoredVersion("manager-service", "0.9.0") >> new SwaggerDO(id: 1L, objectVersionNumber: 1L)
+        mockSwaggerMapper.selectStoredVersion("manager-service", "0.10.0") >> new SwaggerDO(id: 2L, objectVersionNumber: 1L)
+        mockSwaggerMapper.selectFingerprint(1L) >> SwaggerFingerprintUtil.fingerprintJson("manager-service", json)
+        mockSwaggerMapper.selectFingerprint(2L) >> SwaggerFingerprintUtil.fingerprintJson("manager-service", newJson)
+
+        when: '方法调用'
+        def diff = iSwaggerDiffService.diff("manager-service", "0.9.0", "0.10.0")
+
+        then: '只读取一次两个版本的文档，用于定位变化的接口'
+        2 * mockSwaggerMapper.selectOne(_) >>> [new SwaggerDO(value: json), new SwaggerDO(value: newJson)]
+        !diff.identical
+        diff.addedOperations == ["get /v1/new"]
+        diff.removedOperations.size() == 1
+        diff.removedOperations[0].endsWith(" /v1/configs/check")
+        diff.changedDefinitions == ["SwaggerResource"]
+        diff.changedOperations.size() == 1
+        diff.changedOperations[0].operation == "get /v1/swaggers/resources"
+        diff.changedOperations[0].operationId == "resourcesUsingGET"
+        diff.changedOperations[0].changedFields == ["responses"]
+        diff.changedOperations[0].changedDefinitions == ["SwaggerResource"]
+    }
+
+    def "Diff[相同版本]"() {
+        given: '参数准备'
+        mockSwaggerMapper.selectStoredVersion(_, _) >> new SwaggerDO(id: 1L, objectVersionNumber: 1L)
+        mockSwaggerMapper.selectFingerprint(1L) >> SwaggerFingerprintUtil.fingerprintJson("manager-service", json)
+
+        when: '方法调用'
+        def diff = iSwaggerDiffService.diff("manager-service", "0.9.0", "0.9.0")
+
+        then: '只比较哈希，不读取文档'
+        0 * mockSwaggerMapper.selectOne(_)
+        diff.identical
+        diff.changedOperations.isEmpty()
+    }
+
+    def "QueryFingerprint"() {
+        given: '历史数据尚未计算结构哈希'
+        def stored = new SwaggerDO(id: 1L, objectVersionNumber: 1L)
+
+        when: '连续查询两次'
+        def first = iSwaggerDiffService.queryFingerprint("manager-service", "0.9.0")
+        def second = iSwaggerDiffService.queryFingerprint("manager-service", "0.9.0")
+
+        then: '补齐并回写一次，之后使用内存中的结果'
+        2 * mockSwaggerMapper.selectStoredVersion("manager-service", "0.9.0") >> stored
+        1 * mockSwaggerMapper.selectFingerprint(1L) >> null
+        1 * mockSwaggerMapper.selectByPrimaryKey(1L) >> new SwaggerDO(value: json)
+        1 * mockSwaggerMapper.updateFingerprint(1L, { it != null }) >> 1
+        first.is(second)
+        first.operations.size() == 25
+    }
+
+    def "Diff[版本不存在]"() {
+        when: '方法调用'
+        iSwaggerDiffService.diff("manager-service", "0.9.0", "0.10.0")
+
+        then: '抛出异常'
+        def e = thrown(CommonException)
+        e.message == "error.swagger.version.not.found"
+    }
+}
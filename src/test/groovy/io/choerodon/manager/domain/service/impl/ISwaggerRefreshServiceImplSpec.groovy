@@ -4,10 +4,12 @@ import com.fasterxml.jackson.databind.ObjectMapper
 import io.choerodon.core.exception.CommonException
 import io.choerodon.eureka.event.EurekaEventPayload
 import io.choerodon.manager.IntegrationTestConfiguration
-import io.choerodon.manager.domain.service.VersionStrategy
+import io.choerodon.manager.domain.manager.event.SwaggerChangedEvent
+import io.choerodon.manager.domain.service.VersionCatalog
 import io.choerodon.manager.infra.dataobject.SwaggerDO
 import io.choerodon.manager.infra.mapper.SwaggerMapper
 import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.context.annotation.Import
 import spock.lang.Specification
 
@@ -22,12 +24,14 @@ class ISwaggerRefreshServiceImplSpec extends Specification {
 
     private ObjectMapper objectMapper = new ObjectMapper()
     private SwaggerMapper mockSwaggerMapper = Mock(SwaggerMapper)
-    private VersionStrategy versionStrategy = new IDefaultVersionStrategy()
+    private VersionCatalog versionCatalog = new IDefaultVersionCatalog(mockSwaggerMapper)
+    private ApplicationEventPublisher mockEventPublisher = Mock(ApplicationEventPublisher)
 
     private ISwaggerRefreshServiceImpl iSwaggerRefreshService
 
     def setup() {
-        iSwaggerRefreshService = new ISwaggerRefreshServiceImpl(mockSwaggerMapper, versionStrategy)
+        iSwaggerRefreshService = new ISwaggerRefreshServiceImpl(mockSwaggerMapper, versionCatalog, new ISwaggerStorageServiceImpl(mockSwaggerMapper, new ILocalLeaseService()),
+                mockEventPublisher)
     }
 
     def "UpdateOrInsertSwagger"() {
@@ -52,4 +56,49 @@ class ISwaggerRefreshServiceImplSpec extends Specification {
         thrown CommonException
     }
 
+    def "UpdateOrInsertSwagger[统计接口数量]"() {
+        given: "构造请求参数"
+        def payloadJson = '{"status":"UP","appName":"manager","version":"1.0","instanceAddress":"127.0.0.1"}'
+        def registerInstancePayload = objectMapper.readValue(payloadJson, EurekaEventPayload)
+        def json = new File(this.class.getResource('/swagger.json').toURI()).getText('UTF-8')
+        def swaggerDO = new SwaggerDO(id: 1L, serviceName: "manager", serviceVersion: "1.0")
+
+        when: "调用方法"
+        iSwaggerRefreshService.updateOrInsertSwagger(registerInstancePayload, json)
+
+        then: "写入文档时同时写入接口数量"
+        1 * mockSwaggerMapper.selectOne(_) >> swaggerDO
+        1 * mockSwaggerMapper.updateByPrimaryKey({ it.apiCount == 25 }) >> 1
+        1 * mockSwaggerMapper.selectDependentIds(1L) >> []
+
+        and: "发布文档变更事件"
+        1 * mockEventPublisher.publishEvent({ it instanceof SwaggerChangedEvent && it.service == "manager" && it.version == "1.0" && !it.remote })
+    }
+
+    def "UpdateOrInsertSwagger[新版本成为默认版本]"() {
+        given: "已存储0.9.0，依次写入0.10.0和0.8.0"
+        def json = new File(this.class.getResource('/swagger.json').toURI()).getText('UTF-8')
+        def newer = objectMapper.readValue('{"status":"UP","appName":"manager","version":"0.10.0"}', EurekaEventPayload)
+        def older = objectMapper.readValue('{"status":"UP","appName":"manager","version":"0.8.0"}', EurekaEventPayload)
+
+        when: "写入较新的版本"
+        iSwaggerRefreshService.updateOrInsertSwagger(newer, json)
+
+        then: "版本目录只加载一次，一条语句切换默认版本"
+        1 * mockSwaggerMapper.selectVersions("manager") >> ["0.9.0"]
+        1 * mockSwaggerMapper.selectOne(_) >> null
+        1 * mockSwaggerMapper.insert({ it.getDefault() }) >> 1
+        1 * mockSwaggerMapper.updateDefaultVersion("manager", "0.10.0") >> 2
+        0 * mockSwaggerMapper.updateByPrimaryKeySelective(_)
+
+        when: "写入较旧的版本"
+        iSwaggerRefreshService.updateOrInsertSwagger(older, json)
+
+        then: "不改变默认版本"
+        0 * mockSwaggerMapper.selectVersions(_)
+        1 * mockSwaggerMapper.selectOne(_) >> null
+        1 * mockSwaggerMapper.insert({ !it.getDefault() }) >> 1
+        0 * mockSwaggerMapper.updateDefaultVersion(_, _)
+        !versionCatalog.register("manager", "0.9.5")
+    }
 }
@@ -1,15 +1,19 @@
 package io.choerodon.manager.domain.service.impl
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import io.choerodon.eureka.event.EurekaEventProperties
 import io.choerodon.manager.IntegrationTestConfiguration
 import io.choerodon.manager.domain.manager.entity.RouteE
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent
 import io.choerodon.manager.domain.service.IRouteService
 import org.apache.commons.collections.map.MultiKeyMap
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent
 import org.springframework.context.annotation.Import
 import spock.lang.Specification
 import spock.mock.DetachedMockFactory
+import springfox.documentation.swagger.web.SwaggerResource
 
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
 
@@ -48,6 +52,133 @@ class ISwaggerServiceImplSpec extends Specification {
         !list.isEmpty()
     }
 
+    def "GetSwaggerResource[skip and snapshot]"() {
+        given: "构造运行实例，包含需要跳过的服务"
+        def iRouteService = Mock(IRouteService)
+        MultiKeyMap multiKeyMap = new MultiKeyMap()
+        multiKeyMap.put("manager-service", "1.0", route("manager", "manager-service"))
+        multiKeyMap.put("iam-service", "1.0", route("iam", "iam-service"))
+        multiKeyMap.put("api-gateway", "1.0", route("gateway", "api-gateway"))
+        multiKeyMap.put("config-server", "1.0", route("config", "config-server"))
+        def properties = new EurekaEventProperties()
+        properties.setSkipServices(["config**", "**gateway**"] as String[])
+        def iSwaggerService = new ISwaggerServiceImpl(iRouteService, properties)
+
+        when: "连续获取两次资源列表"
+        def list = iSwaggerService.getSwaggerResource()
+        def cached = iSwaggerService.getSwaggerResource()
+
+        then: "过滤跳过的服务并按名称排序，只查询一次运行实例"
+        1 * iRouteService.getAllRunningInstances() >> multiKeyMap
+        list*.name == ["iam:iam-service", "manager:manager-service"]
+        cached.is(list)
+
+        when: "修改资源列表"
+        list.add(new SwaggerResource())
+
+        then: "资源列表不可修改"
+        thrown(UnsupportedOperationException)
+
+        when: "心跳时运行实例发生变化"
+        multiKeyMap.put("file-service", "1.0", route("file", "file-service"))
+        iSwaggerService.onHeartbeat(new HeartbeatEvent(this, 1L))
+        list = iSwaggerService.getSwaggerResource()
+
+        then: "重建资源列表"
+        2 * iRouteService.getAllRunningInstances() >> multiKeyMap
+        list*.name == ["file:file-service", "iam:iam-service", "manager:manager-service"]
+
+        when: "路由变更"
+        iSwaggerService.onRouteChanged(new RouteChangedEvent(1L, "iam"))
+        iSwaggerService.getSwaggerResource()
+
+        then: "重建资源列表"
+        1 * iRouteService.getAllRunningInstances() >> multiKeyMap
+    }
+
+    def "GetSwaggerResource[构建期间路由变更]"() {
+        given: "查询运行实例期间发生路由变更"
+        def iRouteService = Mock(IRouteService)
+        MultiKeyMap multiKeyMap = new MultiKeyMap()
+        multiKeyMap.put("manager-service", "1.0", route("manager", "manager-service"))
+        def properties = new EurekaEventProperties()
+        properties.setSkipServices([] as String[])
+        def iSwaggerService = new ISwaggerServiceImpl(iRouteService, properties)
+
+        when: "连续获取两次资源列表"
+        def list = iSwaggerService.getSwaggerResource()
+        def rebuilt = iSwaggerService.getSwaggerResource()
+
+        then: "变更前构建的资源列表不缓存"
+        2 * iRouteService.getAllRunningInstances() >> {
+            iSwaggerService.onRouteChanged(new RouteChangedEvent(1L, "manager"))
+            return multiKeyMap
+        } >> multiKeyMap
+        list*.name == ["manager:manager-service"]
+        !rebuilt.is(list)
+        iSwaggerService.getSwaggerResource().is(rebuilt)
+    }
+
+    def "GetSwaggerResourceResponse"() {
+        given: "构造运行实例"
+        def iRouteService = Mock(IRouteService)
+        MultiKeyMap multiKeyMap = new MultiKeyMap()
+        multiKeyMap.put("manager-service", "1.0", route("manager", "manager-service"))
+        def properties = new EurekaEventProperties()
+        properties.setSkipServices([] as String[])
+        def iSwaggerService = new ISwaggerServiceImpl(iRouteService, properties)
+
+        when: "连续获取两次序列化后的资源列表"
+        def response = iSwaggerService.getSwaggerResourceResponse()
+        def cached = iSwaggerService.getSwaggerResourceResponse()
+
+        then: "只序列化一次"
+        1 * iRouteService.getAllRunningInstances() >> multiKeyMap
+        cached.is(response)
+        objectMapper.readValue(response.getBody(), List)*.name == ["manager:manager-service"]
+        response.matches(response.getEtag())
+
+        when: "路由变更"
+        multiKeyMap.put("iam-service", "1.0", route("iam", "iam-service"))
+        iSwaggerService.onRouteChanged(new RouteChangedEvent(1L, "iam"))
+        def rebuilt = iSwaggerService.getSwaggerResourceResponse()
+
+        then: "重新序列化，ETag变化"
+        1 * iRouteService.getAllRunningInstances() >> multiKeyMap
+        rebuilt.getEtag() != response.getEtag()
+        !rebuilt.matches(response.getEtag())
+    }
+
+    def "GetSwaggerResourceResponse[构建期间路由变更]"() {
+        given: "序列化期间发生路由变更"
+        def iRouteService = Mock(IRouteService)
+        MultiKeyMap multiKeyMap = new MultiKeyMap()
+        multiKeyMap.put("manager-service", "1.0", route("manager", "manager-service"))
+        def properties = new EurekaEventProperties()
+        properties.setSkipServices([] as String[])
+        def iSwaggerService = new ISwaggerServiceImpl(iRouteService, properties)
+
+        when: "连续获取两次序列化后的资源列表"
+        def response = iSwaggerService.getSwaggerResourceResponse()
+        def rebuilt = iSwaggerService.getSwaggerResourceResponse()
+
+        then: "变更前序列化的结果不缓存"
+        2 * iRouteService.getAllRunningInstances() >> {
+            iSwaggerService.onRouteChanged(new RouteChangedEvent(1L, "manager"))
+            return multiKeyMap
+        } >> multiKeyMap
+        !rebuilt.is(response)
+        iSwaggerService.getSwaggerResourceResponse().is(rebuilt)
+    }
+
+    private static RouteE route(String name, String serviceId) {
+        def routeE = new RouteE()
+        routeE.setName(name)
+        routeE.setServiceId(serviceId)
+        routeE.setPath("/" + name + "/**")
+        return routeE
+    }
+
     def "GetUiConfiguration"() {
     }
 
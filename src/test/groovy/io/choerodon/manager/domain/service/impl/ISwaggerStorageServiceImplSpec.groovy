@@ -0,0 +1,208 @@
+package io.choerodon.manager.domain.service.impl
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ObjectNode
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.choerodon.manager.infra.dataobject.SwaggerDO
+import io.choerodon.manager.infra.mapper.SwaggerMapper
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class ISwaggerStorageServiceImplSpec extends Specification {
+
+    private SwaggerMapper mockSwaggerMapper = Mock(SwaggerMapper)
+
+    private ILocalLeaseService leaseService = new ILocalLeaseService()
+
+    private ISwaggerStorageServiceImpl iSwaggerStorageService = new ISwaggerStorageServiceImpl(mockSwaggerMapper, leaseService)
+
+    def mapper = new ObjectMapper()
+
+    def json = new File(this.class.getResource('/swagger.json').toURI()).getText('UTF-8')
+
+    def newJson() {
+        def node = mapper.readTree(json)
+        ((ObjectNode) node.get("definitions").get("SwaggerResource").get("properties"))
+                .putObject("url").put("type", "string")
+        ((ObjectNode) node.get("paths")).remove("/v1/configs/check")
+        ((ObjectNode) node.get("info")).put("version", "0.10.0")
+        return mapper.writeValueAsString(node)
+    }
+
+    def "Encode[full模式]"() {
+        given: '参数准备'
+        def swagger = new SwaggerDO(serviceName: "manager-service")
+
+        when: '方法调用'
+        iSwaggerStorageService.encode(swagger, json)
+
+        then: '存储完整文档，不查询基准'
+        0 * mockSwaggerMapper._
+        swagger.value == json
+        swagger.deltaBaseId == null
+    }
+
+    def "Encode[delta模式]"() {
+        given: '上一个版本为完整文档'
+        iSwaggerStorageService.setMode("delta")
+        def target = newJson()
+        def swagger = new SwaggerDO(serviceName: "manager-service")
+        mockSwaggerMapper.selectDeltaHead("manager-service") >> new SwaggerDO(id: 1L, deltaDepth: 0)
+        mockSwaggerMapper.selectByPrimaryKey(1L) >> new SwaggerDO(id: 1L, value: json, objectVersionNumber: 1L)
+
+        when: '方法调用'
+        iSwaggerStorageService.encode(swagger, target)
+        swagger.id = 2L
+        swagger.objectVersionNumber = 1L
+
+        then: '只存储变化的path、definition和顶层字段'
+        swagger.deltaBaseId == 1L
+        swagger.deltaDepth == 1
+        swagger.value.length() < target.length() / 10
+        def delta = mapper.readTree(swagger.value)
+        delta.get("paths").get("/v1/configs/check").isNull()
+        delta.get("definitions").fieldNames().toList() == ["SwaggerResource"]
+        delta.get("root").fieldNames().toList() == ["info"]
+
+        and: '还原后与原文档结构一致'
+        mapper.readTree(iSwaggerStorageService.reconstruct(swagger)) == mapper.readTree(target)
+    }
+
+    def "Encode[达到快照间隔]"() {
+        given: '上一个版本的差异链已达到上限'
+        iSwaggerStorageService.setMode("delta")
+        iSwaggerStorageService.setSnapshotInterval(10)
+        def swagger = new SwaggerDO(serviceName: "manager-service")
+
+        when: '方法调用'
+        iSwaggerStorageService.encode(swagger, newJson())
+
+        then: '存储完整快照'
+        1 * mockSwaggerMapper.selectDeltaHead("manager-service") >> new SwaggerDO(id: 9L, deltaDepth: 9)
+        0 * mockSwaggerMapper.selectByPrimaryKey(_)
+        swagger.deltaBaseId == null
+        swagger.deltaDepth == 0
+    }
+
+    def "Encode[覆盖作为基准的版本]"() {
+        given: '版本2以版本1为基准'
+        def target = newJson()
+        def delta = new SwaggerDO(serviceName: "manager-service")
+        iSwaggerStorageService.setMode("delta")
+        mockSwaggerMapper.selectDeltaHead(_) >> new SwaggerDO(id: 1L, deltaDepth: 0)
+        mockSwaggerMapper.selectByPrimaryKey(1L) >> new SwaggerDO(id: 1L, value: json, objectVersionNumber: 1L)
+        iSwaggerStorageService.encode(delta, target)
+        delta.id = 2L
+        delta.objectVersionNumber = 1L
+        def overwrite = new SwaggerDO(id: 1L, serviceName: "manager-service")
+
+        when: '覆盖版本1'
+        iSwaggerStorageService.encode(overwrite, "{}")
+
+        then: '版本2先改写为完整快照'
+        1 * mockSwaggerMapper.selectDependentIds(1L) >> [2L]
+        1 * mockSwaggerMapper.selectByPrimaryKey(2L) >> delta
+        1 * mockSwaggerMapper.updateStorage(2L, 1L, { mapper.readTree(it) == mapper.readTree(target) }, null, 0) >> 1
+        overwrite.value == "{}"
+        overwrite.deltaBaseId == null
+    }
+
+    def "Reconstruct[缓存]"() {
+        given: '差异版本'
+        def base = new SwaggerDO(id: 1L, value: json, objectVersionNumber: 1L)
+        def delta = new SwaggerDO(id: 2L, value: '{"paths":{},"definitions":{},"root":{"host":"example.com"}}',
+                deltaBaseId: 1L, deltaDepth: 1, objectVersionNumber: 1L)
+
+        when: '连续还原两次'
+        def first = iSwaggerStorageService.reconstruct(delta)
+        def second = iSwaggerStorageService.reconstruct(delta)
+
+        then: '只读取一次基准'
+        1 * mockSwaggerMapper.selectByPrimaryKey(1L) >> base
+        mapper.readTree(first).get("host").asText() == "example.com"
+        first.is(second)
+    }
+
+    def "Compact"() {
+        given: '历史数据均为完整文档'
+        iSwaggerStorageService.setMode("delta")
+        iSwaggerStorageService.setSnapshotInterval(2)
+        def target = newJson()
+        mockSwaggerMapper.selectServiceNames() >> ["manager-service"]
+        mockSwaggerMapper.selectDeltaChain("manager-service") >> [new SwaggerDO(id: 1L), new SwaggerDO(id: 2L), new SwaggerDO(id: 3L)]
+        mockSwaggerMapper.selectByPrimaryKey(1L) >> new SwaggerDO(id: 1L, value: json, deltaDepth: 0, objectVersionNumber: 1L)
+        mockSwaggerMapper.selectByPrimaryKey(2L) >> new SwaggerDO(id: 2L, value: target, deltaDepth: 0, objectVersionNumber: 3L)
+        mockSwaggerMapper.selectByPrimaryKey(3L) >> new SwaggerDO(id: 3L, value: json, deltaDepth: 0, objectVersionNumber: 1L)
+        mockSwaggerMapper.selectObjectVersionNumber(1L) >> 1L
+
+        when: '方法调用'
+        iSwaggerStorageService.compact()
+
+        then: '版本2按读取时的版本号改写为差异，版本3达到快照间隔保持完整文档'
+        1 * mockSwaggerMapper.updateStorage(2L, 3L, { it.length() < target.length() }, 1L, 1) >> 1
+        0 * mockSwaggerMapper.updateStorage(1L, _, _, _, _)
+        0 * mockSwaggerMapper.updateStorage(3L, _, _, _, _)
+
+        when: '本轮间隔内再次触发'
+        iSwaggerStorageService.compact()
+
+        then: '租约已完成，不再执行'
+        0 * mockSwaggerMapper.selectServiceNames()
+    }
+
+    def "Compact[期间被写入]"() {
+        given: '版本2读取后被其他副本写入'
+        iSwaggerStorageService.setMode("delta")
+        def target = newJson()
+        mockSwaggerMapper.selectServiceNames() >> ["manager-service"]
+        mockSwaggerMapper.selectDeltaChain("manager-service") >> [new SwaggerDO(id: 1L), new SwaggerDO(id: 2L), new SwaggerDO(id: 3L)]
+        mockSwaggerMapper.selectByPrimaryKey(1L) >> new SwaggerDO(id: 1L, value: json, deltaDepth: 0, objectVersionNumber: 1L)
+        mockSwaggerMapper.selectByPrimaryKey(2L) >> new SwaggerDO(id: 2L, value: target, deltaDepth: 0, objectVersionNumber: 1L)
+
+        when: '方法调用'
+        iSwaggerStorageService.compact()
+
+        then: '不覆盖新文档，之后的版本本次不再压缩'
+        1 * mockSwaggerMapper.updateStorage(2L, 1L, _, 1L, 1) >> 0
+        0 * mockSwaggerMapper.selectByPrimaryKey(3L)
+        0 * mockSwaggerMapper.updateStorage(3L, _, _, _, _)
+    }
+
+    def "Compact[基准期间被写入]"() {
+        given: '计算差异后版本1被其他副本写入'
+        iSwaggerStorageService.setMode("delta")
+        def target = newJson()
+        mockSwaggerMapper.selectServiceNames() >> ["manager-service"]
+        mockSwaggerMapper.selectDeltaChain("manager-service") >> [new SwaggerDO(id: 1L), new SwaggerDO(id: 2L)]
+        mockSwaggerMapper.selectByPrimaryKey(1L) >> new SwaggerDO(id: 1L, value: json, deltaDepth: 0, objectVersionNumber: 1L)
+        mockSwaggerMapper.selectByPrimaryKey(2L) >> new SwaggerDO(id: 2L, value: target, deltaDepth: 0, objectVersionNumber: 1L)
+        mockSwaggerMapper.selectObjectVersionNumber(1L) >> 2L
+
+        when: '方法调用'
+        iSwaggerStorageService.compact()
+
+        then: '版本2改回完整文档'
+        1 * mockSwaggerMapper.updateStorage(2L, 1L, _, 1L, 1) >> 1
+        1 * mockSwaggerMapper.updateStorage(2L, 1L, target, null, 0) >> 1
+    }
+
+    def "Compact[其他副本正在执行]"() {
+        given: '租约已被其他副本持有'
+        iSwaggerStorageService.setMode("delta")
+        leaseService.tryAcquire("swagger-storage-compaction", 60000)
+
+        when: '方法调用'
+        iSwaggerStorageService.compact()
+
+        then: '不执行'
+        0 * mockSwaggerMapper._
+    }
+}
@@ -0,0 +1,94 @@
+package io.choerodon.manager.infra.common.utils
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.choerodon.manager.IntegrationTestConfiguration
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class MetricsUtilSpec extends Specification {
+
+    def registry = new SimpleMeterRegistry()
+
+    void setup() {
+        Metrics.addRegistry(registry)
+    }
+
+    void cleanup() {
+        Metrics.removeRegistry(registry)
+    }
+
+    def "RecordOutbound"() {
+        when: '调用成功'
+        def result = MetricsUtil.recordOutbound("IAM-Service", "api-docs", { "ok" })
+
+        then: '结果验证'
+        result == "ok"
+        registry.find(MetricsUtil.OUTBOUND_REQUEST)
+                .tags("target", "iam-service", "operation", "api-docs", "outcome", "success").timer().count() == 1
+
+        when: '调用抛出异常'
+        MetricsUtil.recordOutbound("iam-service", "api-docs", { throw new IllegalStateException("down") })
+
+        then: '异常原样抛出并记录失败'
+        thrown(IllegalStateException)
+        registry.find(MetricsUtil.OUTBOUND_REQUEST)
+                .tags("target", "iam-service", "outcome", "error").timer().count() == 1
+    }
+
+    def "RecordCache"() {
+        when: '方法调用'
+        MetricsUtil.recordCache(MetricsUtil.CACHE_API_TREE_DOC, true)
+        MetricsUtil.recordCache(MetricsUtil.CACHE_API_TREE_DOC, true)
+        MetricsUtil.recordCache(MetricsUtil.CACHE_API_TREE_DOC, false)
+
+        then: '结果验证'
+        registry.find(MetricsUtil.CACHE_REQUEST).tags("cache", "api-tree-doc", "result", "hit").counter().count() == 2
+        registry.find(MetricsUtil.CACHE_REQUEST).tags("cache", "api-tree-doc", "result", "miss").counter().count() == 1
+    }
+
+    def "ReadSwaggerTree"() {
+        given: '参数准备'
+        def json = '{"basePath":"/","paths":{}}'
+
+        when: '方法调用'
+        def node = MetricsUtil.readSwaggerTree(new ObjectMapper(), "manager-service", json)
+
+        then: '结果验证'
+        node.get("basePath").asText() == "/"
+        def summary = registry.find(MetricsUtil.SWAGGER_DOCUMENT_SIZE).tags("service", "manager-service").summary()
+        summary.count() == 1
+        summary.totalAmount() == json.length()
+        registry.find(MetricsUtil.SWAGGER_DOCUMENT_PARSE).tags("service", "manager-service").timer().count() == 1
+    }
+
+    def "NewMonitoredSingleThreadExecutor"() {
+        given: '阻塞唯一的工作线程'
+        def executor = MetricsUtil.newMonitoredSingleThreadExecutor("spec-executor")
+        def latch = new CountDownLatch(1)
+        executor.submit({ latch.await() } as Runnable)
+        executor.submit({} as Runnable)
+        executor.submit({} as Runnable)
+
+        expect: '队列长度可见'
+        executor.getQueue().size() == 2
+        registry.find("executor.queued").tags("name", "spec-executor").gauge().value() == 2
+
+        cleanup:
+        latch.countDown()
+        executor.shutdown()
+        executor.awaitTermination(1, TimeUnit.SECONDS)
+    }
+}
@@ -0,0 +1,106 @@
+package io.choerodon.manager.infra.common.utils
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.node.ObjectNode
+import io.choerodon.manager.IntegrationTestConfiguration
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class SwaggerFingerprintUtilSpec extends Specification {
+
+    def mapper = new ObjectMapper()
+
+    def json = new File(this.class.getResource('/swagger.json').toURI()).getText('UTF-8')
+
+    def "Fingerprint"() {
+        when: '方法调用'
+        def fingerprint = SwaggerFingerprintUtil.fingerprint(mapper.readTree(json))
+
+        then: '每个接口和definition都有哈希'
+        fingerprint.operations.size() == 25
+        fingerprint.operations.containsKey("get /v1/swaggers/resources")
+        fingerprint.definitions.containsKey("SwaggerResource")
+        fingerprint.root != null
+    }
+
+    def "Fingerprint[字段顺序无关]"() {
+        given: '调换definition中字段的顺序'
+        def node = mapper.readTree(json)
+        ObjectNode definition = (ObjectNode) node.get("definitions").get("SwaggerResource")
+        def fields = definition.fields().collect { [it.key, it.value] }
+        definition.removeAll()
+        fields.reverse().each { definition.set(it[0], it[1]) }
+
+        expect: '哈希不变'
+        SwaggerFingerprintUtil.fingerprint(node).root == SwaggerFingerprintUtil.fingerprint(mapper.readTree(json)).root
+    }
+
+    def "Fingerprint[definition变化传递到接口]"() {
+        given: '修改被resourcesUsingGET引用的definition'
+        def source = SwaggerFingerprintUtil.fingerprint(mapper.readTree(json))
+        def node = mapper.readTree(json)
+        ((ObjectNode) node.get("definitions").get("SwaggerResource").get("properties"))
+                .putObject("url").put("type", "string")
+
+        when: '方法调用'
+        def target = SwaggerFingerprintUtil.fingerprint(node)
+
+        then: '只有该definition和引用它的接口哈希变化'
+        target.root != source.root
+        target.definitions.findAll { source.definitions[it.key] != it.value }.keySet() == ["SwaggerResource"] as Set
+        target.operations.findAll { source.operations[it.key] != it.value }.keySet() == ["get /v1/swaggers/resources"] as Set
+    }
+
+    def "Fingerprint[循环引用]"() {
+        given: 'A与B相互引用，C引用B，D不相关'
+        def cyclic = '''{"paths":{
+            "/a":{"get":{"responses":{"200":{"schema":{"$ref":"#/definitions/A"}}}}},
+            "/b":{"get":{"responses":{"200":{"schema":{"$ref":"#/definitions/B"}}}}},
+            "/c":{"get":{"responses":{"200":{"schema":{"$ref":"#/definitions/C"}}}}},
+            "/d":{"get":{"responses":{"200":{"schema":{"$ref":"#/definitions/D"}}}}}},
+          "definitions":{
+            "A":{"properties":{"b":{"$ref":"#/definitions/B"},"name":{"type":"string"}}},
+            "B":{"properties":{"a":{"$ref":"#/definitions/A"}}},
+            "C":{"properties":{"b":{"$ref":"#/definitions/B"}}},
+            "D":{"properties":{"d":{"$ref":"#/definitions/D"}}}}}'''
+        def source = SwaggerFingerprintUtil.fingerprint(mapper.readTree(cyclic))
+        def node = mapper.readTree(cyclic)
+        ((ObjectNode) node.get("definitions").get("A").get("properties")).putObject("name").put("type", "integer")
+
+        and: '调换definition的顺序'
+        def reordered = mapper.readTree(cyclic)
+        ObjectNode definitions = (ObjectNode) reordered.get("definitions")
+        def fields = definitions.fields().collect { [it.key, it.value] }
+        definitions.removeAll()
+        fields.reverse().each { definitions.set(it[0], it[1]) }
+
+        when: '只修改A'
+        def target = SwaggerFingerprintUtil.fingerprint(node)
+
+        then: '变化传递到同一分量的B以及所有直接或间接引用A的接口'
+        target.definitions.findAll { source.definitions[it.key] != it.value }.keySet() == ["A", "B", "C"] as Set
+        target.operations.findAll { source.operations[it.key] != it.value }.keySet() == ["get /a", "get /b", "get /c"] as Set
+
+        and: '结果与definition顺序无关'
+        SwaggerFingerprintUtil.fingerprint(reordered).root == source.root
+    }
+
+    def "FingerprintJson"() {
+        when: '序列化后再反序列化'
+        def stored = SwaggerFingerprintUtil.fingerprintJson("manager-service", json)
+        def fingerprint = SwaggerFingerprintUtil.readFingerprint(stored)
+
+        then: '结果验证'
+        fingerprint.root == SwaggerFingerprintUtil.fingerprint(mapper.readTree(json)).root
+        SwaggerFingerprintUtil.fingerprintJson("manager-service", "") == null
+        SwaggerFingerprintUtil.fingerprintJson("manager-service", "{error") == null
+    }
+}
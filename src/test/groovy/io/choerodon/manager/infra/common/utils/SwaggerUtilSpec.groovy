@@ -0,0 +1,76 @@
+package io.choerodon.manager.infra.common.utils
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.choerodon.manager.IntegrationTestConfiguration
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class SwaggerUtilSpec extends Specification {
+
+    def json = new File(this.class.getResource('/swagger.json').toURI()).getText('UTF-8')
+
+    def "Summarize"() {
+        given: '用readTree解析作为对照'
+        def node = new ObjectMapper().readTree(json)
+        def expectedTags = node.get("tags").collect { it.get("name").asText() }
+        def expectedOperations = []
+        node.get("paths").fields().each { path ->
+            path.value.fields().each { method ->
+                expectedOperations << [path.key, method.key, method.value.get("operationId")?.asText(),
+                                       method.value.get("tags").collect { it.asText() }]
+            }
+        }
+
+        when: '方法调用'
+        def summary = SwaggerUtil.summarize("manager-service", json)
+
+        then: '结果与完整解析一致'
+        summary.apiCount == 25
+        summary.tags == expectedTags
+        summary.operations.collect { [it.url, it.method, it.operationId, it.tags] } == expectedOperations
+        summary.operations.every { it.hasDescription }
+    }
+
+    def "Summarize[跳过无关子树]"() {
+        given: '参数准备'
+        def text = '''{
+            "definitions": {"A": {"properties": {"tags": {"type": "array"}, "paths": {}}}},
+            "paths": {
+                "/v1/a": {
+                    "parameters": [{"name": "id"}],
+                    "get": {"tags": ["a-controller"], "operationId": "query", "description": "d",
+                            "parameters": [{"name": "tags", "in": "query"}], "responses": {"200": {"description": "ok"}}},
+                    "post": {"tags": ["a-controller"], "operationId": "create"}
+                }
+            },
+            "tags": [{"name": "a-controller", "description": "A"}]
+        }'''
+
+        when: '方法调用'
+        def summary = SwaggerUtil.summarize("a-service", text)
+
+        then: '结果验证'
+        summary.apiCount == 3
+        summary.tags == ["a-controller"]
+        summary.operations.size() == 2
+        summary.operations[0].operationId == "query"
+        summary.operations[0].hasDescription
+        summary.operations[0].tags == ["a-controller"]
+        !summary.operations[1].hasDescription
+    }
+
+    def "CountApi"() {
+        expect: '结果验证'
+        SwaggerUtil.countApi("manager-service", json) == 25
+        SwaggerUtil.countApi("manager-service", "") == 0
+        SwaggerUtil.countApi("manager-service", "json") == 0
+    }
+}
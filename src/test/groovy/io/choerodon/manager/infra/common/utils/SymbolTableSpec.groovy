@@ -0,0 +1,81 @@
+package io.choerodon.manager.infra.common.utils
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.choerodon.manager.IntegrationTestConfiguration
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.annotation.Import
+import spock.lang.Specification
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT
+
+/**
+ * @author agent
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Import(IntegrationTestConfiguration)
+class SymbolTableSpec extends Specification {
+
+    def "Intern"() {
+        given: '内容相同的两个实例'
+        def first = new String("application/json".toCharArray())
+        def second = new String("application/json".toCharArray())
+
+        expect: '返回同一个实例'
+        !first.is(second)
+        SymbolTable.intern(first).is(SymbolTable.intern(second))
+        SymbolTable.intern(null) == null
+
+        and: '过长的字符串原样返回'
+        def longText = "a" * (SymbolTable.MAX_LENGTH + 1)
+        SymbolTable.intern(longText).is(longText)
+        !SymbolTable.intern(new String(longText.toCharArray())).is(longText)
+    }
+
+    def "Intern[并发]"() {
+        given: '多个线程同时共享相同内容的字符串'
+        def pool = java.util.concurrent.Executors.newFixedThreadPool(8)
+        def values = (1..200).collect { "concurrent-symbol-" + it }
+
+        when: '并发调用'
+        def futures = (1..8).collect {
+            pool.submit({ values.collect { SymbolTable.intern(new String(it.toCharArray())) } } as java.util.concurrent.Callable)
+        }
+        def results = futures*.get()
+        pool.shutdown()
+
+        then: '所有线程得到同一组实例'
+        results.every { result -> (0..<values.size()).every { result[it].is(results[0][it]) } }
+        results[0] == values
+    }
+
+    def "NodeFactory"() {
+        given: '两份相同的swagger json'
+        def json = new File(this.class.getResource('/swagger.json').toURI()).getText('UTF-8')
+        def mapper = new ObjectMapper().setNodeFactory(SymbolTable.nodeFactory())
+
+        when: '分别解析'
+        def first = mapper.readTree(json)
+        def second = mapper.readTree(json)
+
+        then: '文本节点的值共享同一个实例'
+        first == second
+        first.get("basePath").textValue().is(second.get("basePath").textValue())
+        def firstTag = first.get("tags").get(0).get("name").textValue()
+        firstTag.is(second.get("tags").get(0).get("name").textValue())
+        firstTag.is(SymbolTable.intern(new String(firstTag.toCharArray())))
+    }
+
+    def "Summarize"() {
+        given: '参数准备'
+        def json = new File(this.class.getResource('/swagger.json').toURI()).getText('UTF-8')
+
+        when: '解析两次'
+        def first = SwaggerUtil.summarize("manager-service", json)
+        def second = SwaggerUtil.summarize("manager-service", json)
+
+        then: 'tag名和operationId共享同一个实例'
+        first.tags[0].is(second.tags[0])
+        first.operations[0].operationId.is(second.operations[0].operationId)
+        first.operations[0].tags[0].is(second.operations[0].tags[0])
+    }
+}
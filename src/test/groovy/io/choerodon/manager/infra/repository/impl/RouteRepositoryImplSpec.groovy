@@ -5,6 +5,7 @@ import io.choerodon.core.domain.Page
 import io.choerodon.core.exception.CommonException
 import io.choerodon.manager.IntegrationTestConfiguration
 import io.choerodon.manager.domain.manager.entity.RouteE
+import io.choerodon.manager.domain.manager.event.RouteChangedEvent
 import io.choerodon.manager.domain.repository.RouteRepository
 import io.choerodon.manager.infra.dataobject.RouteDO
 import io.choerodon.manager.infra.mapper.RouteMapper
@@ -12,6 +13,7 @@ import io.choerodon.mybatis.pagehelper.domain.PageRequest
 import org.springframework.beans.BeanUtils
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.context.ApplicationEventPublisher
 import org.springframework.cloud.netflix.zuul.filters.Route
 import org.springframework.context.annotation.Import
 import org.springframework.dao.DuplicateKeyException
@@ -152,6 +154,31 @@ class RouteRepositoryImplSpec extends Specification {
         routeMapper.delete(ConvertHelper.convert(updateRouteE, RouteDO))
     }
 
+    def "UpdateRoute[路由改名]"() {
+        given: "使用mock的事件发布者"
+        def eventPublisher = Mock(ApplicationEventPublisher)
+        def repository = new RouteRepositoryImpl(routeMapper, eventPublisher)
+        def addRouteE = repository.addRoute(routeE)
+
+        when: "修改路由名"
+        addRouteE.setName("testrename")
+        def renamed = repository.updateRoute(addRouteE)
+
+        then: "事件中为新的路由名"
+        1 * eventPublisher.publishEvent({ it instanceof RouteChangedEvent && it.name == "testrename" })
+
+        when: "不修改路由名"
+        def pathOnly = new RouteE()
+        pathOnly.setId(renamed.getId())
+        pathOnly.setPath("/testrename/**")
+        pathOnly.setObjectVersionNumber(renamed.getObjectVersionNumber())
+        repository.updateRoute(pathOnly)
+
+        then: "事件中沿用原路由名"
+        1 * eventPublisher.publishEvent({ it instanceof RouteChangedEvent && it.name == "testrename" })
+        routeMapper.deleteByPrimaryKey(renamed.getId())
+    }
+
     def "DeleteRoute"() {
         given: "构造addRouteE"
         def addRouteE = routeRepository.addRoute(routeE)
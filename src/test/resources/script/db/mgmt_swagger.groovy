@@ -27,4 +27,23 @@ databaseChangeLog(logicalFilePath: 'script/db/mgmt_swaggeragger.groovy') {
             column(name: "last_update_date", type: "DATETIME", defaultValueComputed: "CURRENT_TIMESTAMP")
         }
     }
+
+    changeSet(author: 'guokai.wu.work@gmail.com', id: '2018-11-20-add_column_api_count') {
+        addColumn(tableName: 'mgmt_swagger') {
+            column(name: 'api_count', type: 'INT UNSIGNED', remarks: '文档中的接口数量，写入文档时统计，为空表示尚未统计')
+        }
+    }
+
+    changeSet(author: 'guokai.wu.work@gmail.com', id: '2018-12-04-add_column_fingerprint') {
+        addColumn(tableName: 'mgmt_swagger') {
+            column(name: 'fingerprint', type: 'MEDIUMTEXT', remarks: '文档中各接口和definition的结构哈希，json格式，写入文档时计算，为空表示尚未计算')
+        }
+    }
+
+    changeSet(author: 'guokai.wu.work@gmail.com', id: '2018-12-06-add_column_delta') {
+        addColumn(tableName: 'mgmt_swagger') {
+            column(name: 'delta_base_id', type: 'BIGINT UNSIGNED', remarks: '差异基准记录id，为空表示value为完整文档，否则value为与基准相比的差异')
+            column(name: 'delta_depth', type: 'INT UNSIGNED', defaultValue: '0', remarks: '差异链深度，完整文档为0')
+        }
+    }
 }